@@ -4,6 +4,7 @@ import argparse
 import itertools
 import os
 import platform
+import sys
 import time
 import re
 from subprocess import *
@@ -199,6 +200,31 @@ def server_parser(parser):
 		metavar="PORT",
 		help="listening network port")
 
+	group.add_argument("-s_socket",
+		default=None,
+		metavar="PATH",
+		help="listening local socket, used instead of network port")
+
+	group.add_argument("-s_sharedmemory",
+		action="store_true",
+		default=False,
+		help="exchange messages with a local client through shared memory")
+
+	group.add_argument("-s_batch",
+		action="store_true",
+		default=False,
+		help="send classes loaded in parallel in batches of pipelined requests")
+
+	group.add_argument("-s_digest",
+		action="store_true",
+		default=False,
+		help="send class digests first, and class bytes only if the server needs them")
+
+	group.add_argument("-s_classfilter",
+		action="store_true",
+		default=False,
+		help="send only classes that may be instrumented, at the cost of an incomplete reflection model")
+
 	return
 
 
@@ -249,6 +275,42 @@ def evaluation_parser(parser):
 	return
 
 
+######################################################################
+# OFFLINE_PARSER 
+######################################################################
+def offline_parser(parser):
+	group = parser.add_argument_group("OFFLINE")
+
+	group.add_argument("-o_out",
+		default=None,
+		metavar="PATH",
+		help="instrument ahead of time into specified directory instead of starting the client")
+
+	group.add_argument("-o_jars",
+		action="append",
+		default=[],
+		metavar="PATH",
+		nargs="+",
+		help="jar files to instrument ahead of time")
+
+	group.add_argument("-o_jrt",
+		default=None,
+		metavar="MODULES",
+		help="comma separated JDK modules to instrument ahead of time, or 'all'")
+
+	group.add_argument("-o_exploded",
+		action="store_true",
+		default=False,
+		help="write instrumented classes into directories instead of jar files")
+
+	group.add_argument("-o_parallelism",
+		default=None,
+		metavar="N",
+		help="number of threads instrumenting classes")
+
+	return
+
+
 ######################################################################
 # DOCUMENTATION_PARSER 
 ######################################################################
@@ -269,6 +331,11 @@ sign or positional variant of the argument if it's present. For example
 '-c_app="-jar"' instead of '-c_app "-jar"'. The positional version must be 
 preceded with '--' as in the example.
 
+With the '-o_out' option, the script instruments the jar files given by
+'-o_jars' (and the JDK modules given by '-o_jrt') ahead of time instead,
+without starting any VM other than the instrumenter. The server options
+configuring the instrumentation apply to the instrumenter as well.
+
 The '-d' option specifies where the DiSL framework is installed. In some cases 
 it might work thanks to default relative path. In other cases one must either 
 specify the correct location at the command line or set 'DISL_HOME' system 
@@ -282,6 +349,9 @@ To execute the example application run following:
 	./disl.py -- build/example-inst.jar -jar build/example-app.jar
 or	
 	./disl.py -cs -i=build/example-inst.jar -c_app="-jar build/example-app.jar"
+
+To instrument the example application ahead of time run following:
+	./disl.py -i=build/example-inst.jar -o_jars build/example-app.jar -o_out=build/offline
 """
 
 ######################################################################
@@ -293,6 +363,7 @@ def make_parser():
 	client_parser(parser)
 	server_parser(parser)
 	evaluation_parser(parser)
+	offline_parser(parser)
 	documentation_parser(parser)
 	
 	return parser
@@ -337,6 +408,18 @@ def parse_arguments(parser):
 		args.s_opts+= ["-Ddebug=true"]
 	if args.s_port is not None:
 		args.s_opts+= ["-Ddislserver.port="+args.s_port]
+	if args.s_socket is not None:
+		args.s_opts+= ["-Ddislserver.socket="+args.s_socket]
+		args.c_opts+= ["-Ddisl.server.socket="+args.s_socket]
+	if args.s_sharedmemory is True:
+		args.s_opts+= ["-Ddislserver.sharedmemory=true"]
+		args.c_opts+= ["-Ddisl.sharedmemory=true"]
+	if args.s_batch is True:
+		args.c_opts+= ["-Ddisl.batch=true"]
+	if args.s_digest is True:
+		args.c_opts+= ["-Ddisl.digest=true"]
+	if args.s_classfilter is True:
+		args.c_opts+= ["-Ddisl.classfilter=true"]
 	if args.s_noexcepthandler is True:
 		args.s_opts+= ["-Ddisl.noexcepthandler=true"]
 	if args.s_nodynamicbypass is True:
@@ -348,6 +431,8 @@ def parse_arguments(parser):
 	if args.s_uninstrumented is not None:
 		args.s_opts+= ["-Ddislserver.uninstrumented="+args.s_uninstrumented]
 
+	args.o_jars = flatten_all(args.o_jars)
+
 	args.e_opts = flatten_all(args.e_opts)
 	args.e_args = flatten_all(args.e_args)
 	if args.e_debug is True:
@@ -439,6 +524,40 @@ def run_server(args, parser):
 	return
 
 
+######################################################################
+# RUN_OFFLINE
+######################################################################
+def run_offline(args, parser):
+	if args.instrumentation is None:
+		parser.error("argument instr (-i) is required to instrument offline")
+
+	if not args.o_jars and args.o_jrt is None:
+		parser.error("argument -o_jars or -o_jrt is required to instrument offline")
+
+	s_jar = args.disl_home+"/lib/disl-server.jar"
+	o_class = "ch.usi.dag.dislserver.OfflineInstrumenter"
+
+	o_cmd = ["java"]
+	o_cmd+= args.s_opts
+	# nothing switches the bypass to the instrumented code offline
+	o_cmd+= ["-Ddisl.disablebypass=true"]
+	o_cmd+= ["-Ddisloffline.output="+args.o_out]
+	if args.o_jrt is not None:
+		o_cmd+= ["-Ddisloffline.jrt="+args.o_jrt]
+	if args.o_exploded is True:
+		o_cmd+= ["-Ddisloffline.exploded=true"]
+	if args.o_parallelism is not None:
+		o_cmd+= ["-Ddisloffline.parallelism="+args.o_parallelism]
+	o_cmd+= ["-cp", args.instrumentation + ":" + s_jar]
+	o_cmd+= [o_class]
+	o_cmd+= args.o_jars
+
+	#print o_cmd
+
+	offline = run(o_cmd, args.s_out, args.s_err)
+	return offline.wait()
+
+
 ######################################################################
 # RUN_EVALUATION
 ######################################################################
@@ -534,6 +653,9 @@ def main():
 	if args.test_dir is not None:
 		os.chdir(args.test_dir)
 
+	if args.o_out is not None:
+		sys.exit(run_offline(args, parser))
+
 	if args.cs == True:
 		run_server(args, parser)
 	
@@ -0,0 +1,254 @@
+#include "common.h"
+#include "threads.h"
+#include "list.h"
+#include "network.h"
+#include "msgchannel.h"
+#include "batcher.h"
+
+#include <assert.h>
+#include <stdlib.h>
+
+//
+// Condition variables are only available with POSIX threads, the
+// batcher is therefore not available when building for MinGW.
+//
+#ifndef MINGW
+
+
+/**
+ * An instrumentation request waiting for its response. The entry lives on
+ * the stack of the thread that submitted the request.
+ */
+struct batch_entry {
+	InstrumentClassRequest * request;
+	InstrumentClassResponse * response;
+
+	/** Link in the list of pending or in-flight entries. */
+	struct list link;
+};
+
+
+/**
+ * Connection used for all batched requests.
+ */
+static struct connection * batch_connection;
+
+/**
+ * Entries waiting to be sent to the server.
+ */
+static struct list pending_entries;
+
+/**
+ * Entries sent to the server, waiting for a response.
+ */
+static struct list inflight_entries;
+
+/**
+ * Identifier of the most recently submitted request.
+ */
+static int32_t last_request_id;
+
+/**
+ * Flags indicating that a thread is sending pending requests or
+ * receiving a response. At most one thread does each at a time.
+ */
+static bool sending;
+static bool receiving;
+
+/**
+ * Mutex protecting the batcher state, and a condition variable
+ * signalled whenever the state changes.
+ */
+static mutex_t batch_mutex;
+static cond_t batch_cond;
+
+
+/**
+ * Initializes the request batcher. The connection to the server
+ * is opened when sending the first batch.
+ */
+void
+batcher_init () {
+	mutex_init (&batch_mutex);
+	cond_init (&batch_cond);
+
+	list_init (&pending_entries);
+	list_init (&inflight_entries);
+
+	batch_connection = NULL;
+	last_request_id = 0;
+	sending = false;
+	receiving = false;
+}
+
+
+/**
+ * Closes the batcher connection and destroys the synchronization
+ * primitives. Must be called before closing the network.
+ */
+void
+batcher_fini () {
+	mutex_lock (&batch_mutex);
+	{
+		if (batch_connection != NULL) {
+			network_close_connection (batch_connection);
+			batch_connection = NULL;
+		}
+	}
+	mutex_unlock (&batch_mutex);
+
+	cond_destroy (&batch_cond);
+	mutex_destroy (&batch_mutex);
+}
+
+//
+
+static int32_t
+__next_request_id () {
+	//
+	// Zero identifies a non-pipelined request, skip it on wrap-around.
+	//
+	last_request_id = (last_request_id == INT32_MAX) ? 1 : last_request_id + 1;
+	return last_request_id;
+}
+
+
+/**
+ * Sends all pending requests to the server. If there is more than one,
+ * they are sent in a single batch message. Called with the batch mutex
+ * held, which is released while sending.
+ */
+static void
+__send_pending () {
+	if (batch_connection == NULL) {
+		batch_connection = network_open_connection ();
+	}
+
+	//
+	// Move the pending entries to the in-flight list before sending, so
+	// that a receiving thread can find them when the responses arrive.
+	//
+	size_t count = 0;
+	struct batch_entry * entry;
+	list_for_each_item (entry, &pending_entries, link) {
+		count++;
+	}
+
+	InstrumentClassRequest ** requests = (InstrumentClassRequest **) malloc (
+		count * sizeof (InstrumentClassRequest *)
+	);
+	check_error (requests == NULL, "failed to allocate batch");
+
+	for (size_t index = 0; index < count; index++) {
+		struct list * item = list_remove_after (&pending_entries);
+		list_insert_before (item, &inflight_entries);
+		requests [index] = list_item (item, struct batch_entry, link)->request;
+	}
+
+	sending = true;
+	mutex_unlock (&batch_mutex);
+
+	//
+	// Pack the batch (or the single request) and send it to the server.
+	//
+	InstrumentClassRequest batch = INSTRUMENT_CLASS_REQUEST__INIT;
+	batch.n_batch = count;
+	batch.batch = requests;
+
+	InstrumentClassRequest * message = (count > 1) ? &batch : requests [0];
+	size_t send_size = instrument_class_request__get_packed_size (message);
+	void * send_buffer = malloc (send_size);
+	check_error (send_buffer == NULL, "failed to allocate send buffer");
+
+	instrument_class_request__pack (message, send_buffer);
+	ldebug ("sending %lu request(s) in %lu bytes\n", count, send_size);
+	message_send (batch_connection, send_buffer, send_size);
+
+	free (send_buffer);
+	free (requests);
+
+	//
+
+	mutex_lock (&batch_mutex);
+	sending = false;
+	cond_broadcast (&batch_cond);
+}
+
+
+/**
+ * Receives a single response from the server and hands it over to the
+ * entry waiting for it. Called with the batch mutex held, which is
+ * released while receiving.
+ */
+static void
+__receive_response () {
+	receiving = true;
+	mutex_unlock (&batch_mutex);
+
+	void * recv_buffer;
+	size_t recv_size = message_recv (batch_connection, &recv_buffer);
+	InstrumentClassResponse * response = instrument_class_response__unpack (NULL, recv_size, recv_buffer);
+	check_error (response == NULL, "failed to unpack instrumentation response");
+	free (recv_buffer);
+
+	//
+
+	mutex_lock (&batch_mutex);
+	receiving = false;
+
+	bool delivered = false;
+	struct batch_entry * entry;
+	list_for_each_item (entry, &inflight_entries, link) {
+		if (entry->request->requestid == response->requestid) {
+			list_remove (&entry->link);
+			entry->response = response;
+			delivered = true;
+			break;
+		}
+	}
+
+	check_error (!delivered, "received response to unknown request");
+	cond_broadcast (&batch_cond);
+}
+
+
+/**
+ * Sends the given request to the server and returns the response. Requests
+ * submitted concurrently by multiple threads are coalesced into batches and
+ * pipelined over a single connection. The server may respond to them in any
+ * order, so that classes that are fast to instrument are not held up by
+ * slow ones. There is no dedicated I/O thread: the waiting threads take
+ * turns in sending the pending requests and receiving the responses.
+ */
+InstrumentClassResponse *
+batcher_instrument (InstrumentClassRequest * request) {
+	assert (request != NULL);
+
+	struct batch_entry entry = {
+		.request = request,
+		.response = NULL,
+	};
+
+	mutex_lock (&batch_mutex);
+	{
+		request->requestid = __next_request_id ();
+		list_insert_before (list_init (&entry.link), &pending_entries);
+
+		while (entry.response == NULL) {
+			if (!sending && !list_is_empty (&pending_entries)) {
+				__send_pending ();
+
+			} else if (!receiving && !list_is_empty (&inflight_entries)) {
+				__receive_response ();
+
+			} else {
+				cond_wait (&batch_cond, &batch_mutex);
+			}
+		}
+	}
+	mutex_unlock (&batch_mutex);
+
+	return entry.response;
+}
+
+#endif /* !MINGW */
@@ -0,0 +1,12 @@
+#ifndef _BATCHER_H_
+#define _BATCHER_H_
+
+#include "dislserver.pb-c.h"
+
+
+void batcher_init ();
+void batcher_fini ();
+
+InstrumentClassResponse * batcher_instrument (InstrumentClassRequest * request);
+
+#endif /* _BATCHER_H_ */
@@ -0,0 +1,276 @@
+#include "common.h"
+#include "classfilter.h"
+
+#include <assert.h>
+#include <stdlib.h>
+#include <string.h>
+
+
+/**
+ * A node of a prefix trie. The children of a node are kept in a linked list
+ * of siblings, because the tries are small and sparse.
+ */
+struct trie_node {
+	char label;
+
+	/** Indicates that the path to this node is a complete prefix. */
+	bool terminal;
+
+	struct trie_node * child;
+	struct trie_node * sibling;
+};
+
+
+/**
+ * A set of class names given by exact names, name prefixes, and name
+ * suffixes. The exact names are sorted to allow binary search.
+ */
+struct name_set {
+	struct trie_node prefixes;
+
+	char ** names;
+	size_t name_count;
+
+	char ** suffixes;
+	size_t suffix_count;
+};
+
+
+/**
+ * A summary of the classes that the server may instrument. A class may
+ * be instrumented if it is not excluded, and if it is either included,
+ * or if the filter matches any class.
+ */
+struct class_filter {
+	bool match_any;
+
+	struct name_set included;
+	struct name_set excluded;
+};
+
+
+//
+
+static void
+__trie_insert (struct trie_node * root, const char * prefix) {
+	struct trie_node * node = root;
+
+	for (const char * c = prefix; *c != '\0'; c++) {
+		struct trie_node * child = node->child;
+		while (child != NULL && child->label != *c) {
+			child = child->sibling;
+		}
+
+		if (child == NULL) {
+			child = calloc (1, sizeof (struct trie_node));
+			check_error (child == NULL, "failed to allocate trie node");
+
+			child->label = *c;
+			child->sibling = node->child;
+			node->child = child;
+		}
+
+		node = child;
+	}
+
+	node->terminal = true;
+}
+
+
+/**
+ * Determines whether any prefix stored in the trie is a prefix of the given
+ * string. This takes time proportional to the length of the string.
+ */
+static bool
+__trie_has_prefix_of (const struct trie_node * root, const char * string) {
+	const struct trie_node * node = root;
+
+	for (const char * c = string; *c != '\0'; c++) {
+		const struct trie_node * child = node->child;
+		while (child != NULL && child->label != *c) {
+			child = child->sibling;
+		}
+
+		if (child == NULL) {
+			return false;
+		} else if (child->terminal) {
+			return true;
+		}
+
+		node = child;
+	}
+
+	return false;
+}
+
+
+static void
+__trie_free (struct trie_node * node) {
+	while (node != NULL) {
+		struct trie_node * sibling = node->sibling;
+		__trie_free (node->child);
+		free (node);
+		node = sibling;
+	}
+}
+
+//
+
+static char **
+__strings_copy (char ** strings, size_t count) {
+	if (count == 0) {
+		return NULL;
+	}
+
+	char ** result = malloc (count * sizeof (char *));
+	check_error (result == NULL, "failed to allocate string array");
+
+	for (size_t index = 0; index < count; index++) {
+		result [index] = strdup (strings [index]);
+		check_error (result [index] == NULL, "failed to copy string");
+	}
+
+	return result;
+}
+
+
+static void
+__strings_free (char ** strings, size_t count) {
+	for (size_t index = 0; index < count; index++) {
+		free (strings [index]);
+	}
+
+	free (strings);
+}
+
+
+static int
+__strings_compare (const void * left, const void * right) {
+	return strcmp (* (char * const *) left, * (char * const *) right);
+}
+
+
+static bool
+__has_suffix (const char * string, size_t length, const char * suffix) {
+	size_t suffix_length = strlen (suffix);
+	return suffix_length <= length
+		&& memcmp (string + length - suffix_length, suffix, suffix_length) == 0;
+}
+
+//
+
+static void
+__name_set_init (
+	struct name_set * set,
+	char ** names, size_t name_count,
+	char ** prefixes, size_t prefix_count,
+	char ** suffixes, size_t suffix_count
+) {
+	memset (&set->prefixes, 0, sizeof (set->prefixes));
+	for (size_t index = 0; index < prefix_count; index++) {
+		__trie_insert (&set->prefixes, prefixes [index]);
+	}
+
+	set->names = __strings_copy (names, name_count);
+	set->name_count = name_count;
+	if (name_count > 0) {
+		qsort (set->names, name_count, sizeof (char *), __strings_compare);
+	}
+
+	set->suffixes = __strings_copy (suffixes, suffix_count);
+	set->suffix_count = suffix_count;
+}
+
+
+static bool
+__name_set_contains (const struct name_set * set, const char * name) {
+	if (__trie_has_prefix_of (&set->prefixes, name)) {
+		return true;
+	}
+
+	if (set->name_count > 0) {
+		void * found = bsearch (
+			&name, set->names, set->name_count,
+			sizeof (char *), __strings_compare
+		);
+
+		if (found != NULL) {
+			return true;
+		}
+	}
+
+	size_t length = strlen (name);
+	for (size_t index = 0; index < set->suffix_count; index++) {
+		if (__has_suffix (name, length, set->suffixes [index])) {
+			return true;
+		}
+	}
+
+	return false;
+}
+
+
+static void
+__name_set_fini (struct name_set * set) {
+	__trie_free (set->prefixes.child);
+	__strings_free (set->names, set->name_count);
+	__strings_free (set->suffixes, set->suffix_count);
+}
+
+//
+
+/**
+ * Creates a class filter from the summary received from the server.
+ * The filter does not refer to the message, which can be freed.
+ */
+struct class_filter *
+class_filter_create (const ClassFilter * message) {
+	assert (message != NULL);
+
+	struct class_filter * filter = malloc (sizeof (struct class_filter));
+	check_error (filter == NULL, "failed to allocate class filter");
+
+	filter->match_any = message->matchany;
+
+	__name_set_init (
+		&filter->included,
+		message->names, message->n_names,
+		message->prefixes, message->n_prefixes,
+		message->suffixes, message->n_suffixes
+	);
+
+	__name_set_init (
+		&filter->excluded,
+		message->excludednames, message->n_excludednames,
+		message->excludedprefixes, message->n_excludedprefixes,
+		NULL, 0
+	);
+
+	return filter;
+}
+
+
+void
+class_filter_destroy (struct class_filter * filter) {
+	assert (filter != NULL);
+
+	__name_set_fini (&filter->included);
+	__name_set_fini (&filter->excluded);
+	free (filter);
+}
+
+
+/**
+ * Determines whether the server may instrument a class with the given
+ * internal name. If not, the class does not need to be sent to the server.
+ */
+bool
+class_filter_may_match (const struct class_filter * filter, const char * class_name) {
+	assert (filter != NULL && class_name != NULL);
+
+	if (__name_set_contains (&filter->excluded, class_name)) {
+		return false;
+	}
+
+	return filter->match_any || __name_set_contains (&filter->included, class_name);
+}
@@ -0,0 +1,16 @@
+#ifndef _CLASSFILTER_H_
+#define _CLASSFILTER_H_
+
+#include "dislserver.pb-c.h"
+
+#include <stdbool.h>
+
+
+struct class_filter;
+
+struct class_filter * class_filter_create (const ClassFilter * message);
+void class_filter_destroy (struct class_filter * filter);
+
+bool class_filter_may_match (const struct class_filter * filter, const char * class_name);
+
+#endif /* _CLASSFILTER_H_ */
@@ -24,6 +24,10 @@ __connection_init (struct connection * connection, const int sockfd) {
 	connection->sockfd = sockfd;
 	list_init (&connection->cp_link);
 
+#ifndef MINGW
+	connection->shm = NULL;
+#endif
+
 #ifdef DEBUG
 	connection->sent_bytes = 0;
 	connection->recv_bytes = 0;
@@ -39,8 +43,9 @@ struct connection *
 connection_open (struct addrinfo * addr) {
 	//
 	// Create a stream socket to the given address and connect to the server.
-	// Upon connection, disable the Nagle algorithm to avoid delays on the
-	// sender side and create a wrapper object for the connection.
+	// Upon connection, disable the Nagle algorithm (unless connected through
+	// a local socket) to avoid delays on the sender side and create a wrapper
+	// object for the connection.
 	//
 	int sockfd = socket(addr->ai_family, SOCK_STREAM, 0);
 	check_std_error (sockfd < 0, "failed to create socket");
@@ -48,12 +53,14 @@ connection_open (struct addrinfo * addr) {
 	int connect_result = connect(sockfd, addr->ai_addr, addr->ai_addrlen);
 	check_std_error (connect_result < 0, "failed to connect to server");
 
-	int tcp_nodelay = 1;
-	int sso_result = setsockopt (
-		sockfd, IPPROTO_TCP, TCP_NODELAY,
-		&tcp_nodelay, sizeof (tcp_nodelay)
-	);
-	check_std_error (sso_result < 0, "failed to enable TCP_NODELAY");
+	if (addr->ai_family != AF_UNIX) {
+		int tcp_nodelay = 1;
+		int sso_result = setsockopt (
+			sockfd, IPPROTO_TCP, TCP_NODELAY,
+			&tcp_nodelay, sizeof (tcp_nodelay)
+		);
+		check_std_error (sso_result < 0, "failed to enable TCP_NODELAY");
+	}
 
 	//
 
@@ -80,9 +87,35 @@ connection_close (struct connection * connection) {
 
 	shutdown (connection->sockfd, SHUT_RDWR);
 	close (connection->sockfd);
+
+#ifndef MINGW
+	if (connection->shm != NULL) {
+		shm_channel_destroy (connection->shm);
+	}
+#endif
+
 	free (connection);
 }
 
+
+#ifndef MINGW
+
+/**
+ * Attaches a shared memory channel to the given connection. All subsequent
+ * data is exchanged through the channel, and the socket is only used for
+ * wake-up notifications. The channel is destroyed with the connection.
+ */
+void
+connection_attach_shm (struct connection * connection, struct shm_channel * shm) {
+	assert (connection != NULL);
+	assert (connection->shm == NULL);
+	assert (shm != NULL);
+
+	connection->shm = shm;
+}
+
+#endif /* !MINGW */
+
 //
 
 typedef ssize_t (* xfer_fn) (int sockfd, void * buf, size_t len, int flags);
@@ -106,6 +139,40 @@ __socket_xfer_full (xfer_fn xfer, const int sockfd, const void * buf, const size
 }
 
 
+#ifndef MINGW
+
+static inline void
+__shm_count_recv (struct connection * connection, ssize_t received) {
+#ifdef DEBUG
+	connection->recv_bytes += received;
+#endif
+}
+
+
+static inline ssize_t
+__shm_send_full (struct connection * connection, const void * buf, const size_t len) {
+	ssize_t sent = shm_channel_send_full (connection->shm, connection->sockfd, buf, len);
+	check_error (sent < 0, "error sending data to server: shared memory channel closed");
+
+#ifdef DEBUG
+	connection->sent_bytes += sent;
+#endif
+
+	return sent;
+}
+
+
+static inline ssize_t
+__shm_recv_full (struct connection * connection, void * buf, const size_t len) {
+	ssize_t received = shm_channel_recv_full (connection->shm, connection->sockfd, buf, len);
+	check_error (received < 0, "error receiving data from server: shared memory channel closed");
+	__shm_count_recv (connection, received);
+	return received;
+}
+
+#endif /* !MINGW */
+
+
 /**
  * Sends data into the given connection. Does not return until all provided
  * data has been sent. Returns the number of bytes sent.
@@ -115,6 +182,12 @@ connection_send_full (struct connection * connection, const void * buf, const si
 	assert (connection != NULL);
 	assert ((buf != NULL) || (buf == NULL && len == 0));
 
+#ifndef MINGW
+	if (connection->shm != NULL) {
+		return __shm_send_full (connection, buf, len);
+	}
+#endif
+
 	ssize_t sent = __socket_xfer_full ((xfer_fn) send, connection->sockfd, buf, len);
 	check_std_error (sent < 0, "connection_send_full: error sending data to server");
 
@@ -135,6 +208,12 @@ connection_recv_full (struct connection * connection, void * buf, const size_t l
 	assert (connection != NULL);
 	assert ((buf != NULL) || (buf == NULL && len == 0));
 
+#ifndef MINGW
+	if (connection->shm != NULL) {
+		return __shm_recv_full (connection, buf, len);
+	}
+#endif
+
 	ssize_t received = __socket_xfer_full ((xfer_fn) recv, connection->sockfd, buf, len);
 	check_std_error (received < 0, "connection_recv_full: error receiving data from server");
 
@@ -154,6 +233,14 @@ connection_recv (struct connection * connection, void * buf, const size_t len) {
 	assert (connection != NULL);
 	assert (buf != NULL);
 
+#ifndef MINGW
+	if (connection->shm != NULL) {
+		ssize_t received = shm_channel_recv (connection->shm, connection->sockfd, buf, len);
+		__shm_count_recv (connection, received);
+		return received;
+	}
+#endif
+
 	ssize_t received = recv (connection->sockfd, buf, len, 0);
 	check_std_error (received < 0, "connection_recv: error receiving data from server");
 
@@ -221,6 +308,15 @@ connection_send_iov_full (struct connection * connection, struct iovec * iovs, i
 	assert (iovs != NULL);
 	assert (iov_count >= 0);
 
+	if (connection->shm != NULL) {
+		ssize_t sent = 0;
+		for (int i = 0; i < iov_count; i++) {
+			sent += __shm_send_full (connection, iovs [i].iov_base, iovs [i].iov_len);
+		}
+
+		return sent;
+	}
+
 	ssize_t sent = __socket_xfer_iov_full ((xfer_iov_fn) writev, connection->sockfd, iovs, iov_count);
 	check_std_error (sent < 0, "error sending data to server");
 
@@ -242,6 +338,15 @@ connection_recv_iov_full (struct connection * connection, struct iovec * iovs, i
 	assert (iovs != NULL);
 	assert (iov_count >= 0);
 
+	if (connection->shm != NULL) {
+		ssize_t received = 0;
+		for (int i = 0; i < iov_count; i++) {
+			received += __shm_recv_full (connection, iovs [i].iov_base, iovs [i].iov_len);
+		}
+
+		return received;
+	}
+
 	ssize_t received = __socket_xfer_iov_full ((xfer_iov_fn) readv, connection->sockfd, iovs, iov_count);
 	check_std_error (received < 0, "connection_recv_iov_full: error receiving data from server");
 
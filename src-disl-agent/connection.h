@@ -20,6 +20,7 @@
 //
 
 #include "list.h"
+#include "shmchannel.h"
 
 //
 
@@ -30,6 +31,14 @@ struct connection {
 	/** Link in the connection pool list. */
 	struct list cp_link;
 
+#ifndef MINGW
+	/**
+	 * Shared memory channel used for exchanging data instead of the socket,
+	 * or NULL. If present, the socket only carries wake-up notifications.
+	 */
+	struct shm_channel * shm;
+#endif /* !MINGW */
+
 #ifdef DEBUG
 	/** Number of bytes sent over the connection. */
 	uint64_t sent_bytes;
@@ -51,6 +60,8 @@ ssize_t connection_recv (struct connection * connection, void * buf, const size_
 
 #include <sys/uio.h>
 
+void connection_attach_shm (struct connection * connection, struct shm_channel * shm);
+
 ssize_t connection_send_iov_full (struct connection * connection, struct iovec * iovs, int iov_count);
 ssize_t connection_recv_iov_full (struct connection * connection, struct iovec * iovs, int iov_count);
 
@@ -4,10 +4,13 @@
 #include "connection.h"
 #include "network.h"
 #include "msgchannel.h"
+#include "batcher.h"
 #include "dislserver.pb-c.h"
 
 #include "bytecode.h"
 #include "classparser.h"
+#include "classfilter.h"
+#include "sha256.h"
 #include "codeflags.h"
 
 #include <stdio.h>
@@ -28,6 +31,8 @@
 #define DISL_SERVER_PORT "disl.server.port"
 #define DISL_SERVER_PORT_DEFAULT "11217"
 
+#define DISL_SERVER_SOCKET "disl.server.socket"
+
 #define DISL_BYPASS "disl.bypass"
 #define DISL_BYPASS_DEFAULT "dynamic"
 
@@ -43,6 +48,28 @@
 #define DISL_FORCE_INTERFACES "disl.forceinterfaces"
 #define DISL_FORCE_INTERFACES_DEFAULT false
 
+#define DISL_BATCH "disl.batch"
+#define DISL_BATCH_DEFAULT false
+
+#define DISL_SHARED_MEMORY "disl.sharedmemory"
+#define DISL_SHARED_MEMORY_DEFAULT false
+
+/**
+ * Capacity of each of the rings in a shared memory channel.
+ */
+#define SHARED_MEMORY_CAPACITY (1 << 20)
+
+#define DISL_CLASS_FILTER "disl.classfilter"
+#define DISL_CLASS_FILTER_DEFAULT false
+
+#define DISL_DIGEST "disl.digest"
+#define DISL_DIGEST_DEFAULT false
+
+/**
+ * Length of the class digest sent to the server in digest mode.
+ */
+#define CLASS_DIGEST_LENGTH 16
+
 #define DISL_DEBUG "debug"
 #define DISL_DEBUG_DEFAULT false
 
@@ -89,12 +116,17 @@ enum code_flags {
 struct config {
 	char * server_host;
 	char * server_port;
+	char * server_socket;
 
 	enum bypass_mode bypass_mode;
 	bool split_methods;
 	bool catch_exceptions;
 	bool force_superclass;
 	bool force_interfaces;
+	bool batch;
+	bool shared_memory;
+	bool class_filter;
+	bool digest;
 
 	bool debug;
 };
@@ -112,6 +144,13 @@ static struct config agent_config;
 static volatile jint agent_code_flags;
 
 
+/**
+ * Summary of the classes the server may instrument, obtained from the
+ * server when the agent is loaded. NULL if not available.
+ */
+static struct class_filter * agent_class_filter;
+
+
 /**
  * Flag indicating that the VM has been started, which
  * allows calling any JNI function.
@@ -197,6 +236,169 @@ __safe (const char * class_name) {
 }
 
 
+/**
+ * Sends the given request to the remote server using a connection from the
+ * connection pool, and waits for the response. Each request occupies its
+ * connection for the whole round trip.
+ */
+static InstrumentClassResponse *
+__send_request (InstrumentClassRequest * request) {
+	size_t send_size = instrument_class_request__get_packed_size (request);
+	void * send_buffer = malloc (send_size);
+	assert (send_buffer != NULL);
+
+	instrument_class_request__pack (request, send_buffer);
+	struct connection * conn = network_acquire_connection ();
+	message_send (conn, send_buffer, send_size);
+	free (send_buffer);
+
+	//
+
+	void * recv_buffer;
+	size_t recv_size = message_recv (conn, &recv_buffer);
+	network_release_connection (conn);
+
+	InstrumentClassResponse * response = instrument_class_response__unpack (NULL, recv_size, recv_buffer);
+	assert (response != NULL);
+	free (recv_buffer);
+
+	return response;
+}
+
+
+#ifndef MINGW
+
+/**
+ * Sets up a shared memory channel for the given (freshly opened) connection
+ * and asks the server to use it for all subsequent messages. The channel
+ * replaces socket round trips with ring buffers in shared memory. If the
+ * channel cannot be created or the server refuses it, the connection keeps
+ * using the socket.
+ */
+static void
+__attach_shared_memory (struct connection * conn) {
+	struct shm_channel * channel = shm_channel_create (SHARED_MEMORY_CAPACITY);
+	if (channel == NULL) {
+		return;
+	}
+
+	InstrumentClassRequest request = INSTRUMENT_CLASS_REQUEST__INIT;
+	request.sharedmemory = (char *) shm_channel_path (channel);
+
+	size_t send_size = instrument_class_request__get_packed_size (&request);
+	void * send_buffer = malloc (send_size);
+	assert (send_buffer != NULL);
+
+	instrument_class_request__pack (&request, send_buffer);
+	message_send (conn, send_buffer, send_size);
+	free (send_buffer);
+
+	void * recv_buffer;
+	size_t recv_size = message_recv (conn, &recv_buffer);
+	InstrumentClassResponse * response = instrument_class_response__unpack (NULL, recv_size, recv_buffer);
+	assert (response != NULL);
+	free (recv_buffer);
+
+	//
+	// The server has the file mapped (or not at all), so we can remove it
+	// right away. This ensures that no files are left behind.
+	//
+	shm_channel_unlink (channel);
+
+	if (response->result != INSTRUMENT_CLASS_RESULT__ERROR) {
+		connection_attach_shm (conn, channel);
+	} else {
+		warn ("server refused shared memory channel: %s\n", response->errormessage);
+		shm_channel_destroy (channel);
+	}
+
+	instrument_class_response__free_unpacked (response, NULL);
+}
+
+#endif /* !MINGW */
+
+
+/**
+ * Obtains a summary of the classes that the server may instrument. Classes
+ * outside the summary are never modified by the server, so the agent does
+ * not need to send them at all. If the server does not provide a summary,
+ * all classes are sent to the server.
+ */
+static void
+__fetch_class_filter () {
+	InstrumentClassRequest request = INSTRUMENT_CLASS_REQUEST__INIT;
+	request.classfilter = true;
+
+	InstrumentClassResponse * response = __send_request (&request);
+	if (response->result == INSTRUMENT_CLASS_RESULT__ERROR) {
+		warn ("server failed to provide class filter: %s\n", response->errormessage);
+
+	} else if (response->classfilter != NULL) {
+		ClassFilter * message = response->classfilter;
+		agent_class_filter = class_filter_create (message);
+
+		rdaprintf (
+			"class filter: any %d, names %zu, prefixes %zu, suffixes %zu, "
+			"excluded names %zu, excluded prefixes %zu\n",
+			message->matchany, message->n_names, message->n_prefixes,
+			message->n_suffixes, message->n_excludednames,
+			message->n_excludedprefixes
+		);
+	}
+
+	instrument_class_response__free_unpacked (response, NULL);
+}
+
+
+/**
+ * Determines whether the server may instrument the given class. Classes
+ * without a name (e.g., hidden classes) are parsed to obtain the name.
+ */
+static bool
+__may_instrument_class (
+	const char * name,
+	const unsigned char * class_bytes, jint class_byte_count
+) {
+	if (agent_class_filter == NULL) {
+		return true;
+	}
+
+	if (name != NULL) {
+		return class_filter_may_match (agent_class_filter, name);
+	}
+
+	class_t parsed_class = class_alloc (class_bytes, class_byte_count);
+	if (parsed_class == NULL) {
+		return true;
+	}
+
+	char * parsed_name = class_name (parsed_class);
+	bool result = (parsed_name == NULL)
+		|| class_filter_may_match (agent_class_filter, parsed_name);
+
+	free (parsed_name);
+	class_free (parsed_class);
+	return result;
+}
+
+
+/**
+ * Submits the given request to the server and waits for the response.
+ * If enabled, requests from concurrently loaded classes are sent
+ * in batches over a shared connection. Otherwise, each request is sent
+ * over a separate connection from the pool.
+ */
+static InstrumentClassResponse *
+__submit_request (InstrumentClassRequest * request) {
+#ifndef MINGW
+	return agent_config.batch ?
+		batcher_instrument (request) : __send_request (request);
+#else
+	return __send_request (request);
+#endif
+}
+
+
 /**
  * Sends the given class to the remote server for instrumentation. If the
  * server modified the class, provided class definition structure is updated
@@ -211,34 +413,40 @@ __instrument_class (
 	jint request_flags, const char * class_name,
 	jvmtiClassDefinition * class_def
 ) {
-	//
-	// Put the class data into a request message, acquire a connection and
-	// send the it to the server. Receive the response and release the
-	// connection again.
-	//
 	InstrumentClassRequest request = INSTRUMENT_CLASS_REQUEST__INIT;
 	request.flags = request_flags;
 	request.classname = (char *) class_name;
-	request.classbytes.len = class_def->class_byte_count;
-	request.classbytes.data = (uint8_t *) class_def->class_bytes;
-
-	size_t send_size = instrument_class_request__get_packed_size (&request);
-	void * send_buffer = malloc (send_size);
-	assert (send_buffer != NULL);
-
-	instrument_class_request__pack (&request, send_buffer);
-	struct connection * conn = network_acquire_connection ();
-	message_send (conn, send_buffer, send_size);
 
 	//
+	// In digest mode, send just the class digest first. The server can
+	// respond right away if it has already instrumented an identical class
+	// or if it can tell from the class name that the class is not to be
+	// instrumented. Otherwise it asks for the class bytes.
+	//
+	InstrumentClassResponse * response = NULL;
+
+	uint8_t digest [SHA256_DIGEST_LENGTH];
+	if (agent_config.digest) {
+		sha256 (class_def->class_bytes, class_def->class_byte_count, digest);
+		request.classdigest.len = CLASS_DIGEST_LENGTH;
+		request.classdigest.data = digest;
+
+		response = __submit_request (&request);
+		if (response->result == INSTRUMENT_CLASS_RESULT__CLASS_BYTES_REQUIRED) {
+			instrument_class_response__free_unpacked (response, NULL);
+			response = NULL;
+		}
+	}
 
-	void * recv_buffer;
-	size_t recv_size = message_recv (conn, &recv_buffer);
-	network_release_connection (conn);
+	//
+	// Put the class data into a request message and send it to the server.
+	//
+	if (response == NULL) {
+		request.classbytes.len = class_def->class_byte_count;
+		request.classbytes.data = (uint8_t *) class_def->class_bytes;
 
-	InstrumentClassResponse * response = instrument_class_response__unpack (NULL, recv_size, recv_buffer);
-	assert (response != NULL);
-	free (recv_buffer);
+		response = __submit_request (&request);
+	}
 
 	//
 	// Check if error occurred on the server.
@@ -458,6 +666,14 @@ jvmti_callback_class_file_load (
 		}
 	}
 
+	//
+	// Skip classes that the server would leave unmodified anyway.
+	//
+	if (!__may_instrument_class (class_name, class_bytes, class_byte_count)) {
+		rdatprintf (&info, "loaded %s (filtered)\n", __safe (class_name));
+		goto __release_thread_info;
+	}
+
 	//
 	// Instrument the class and if changed by the server, provide the
 	// code to the JVM in its own memory.
@@ -622,6 +838,13 @@ __configure_from_properties (jvmtiEnv * jvmti, struct config * config) {
 	config->bypass_mode = bypass_index;
 	free (bypass);
 
+	//
+	// Get the path to the local server socket, if any.
+	//
+	config->server_socket = jvmti_get_system_property_string (
+		jvmti, DISL_SERVER_SOCKET, NULL
+	);
+
 	//
 	// Get boolean values from system properties
 	//
@@ -641,6 +864,22 @@ __configure_from_properties (jvmtiEnv * jvmti, struct config * config) {
 		jvmti, DISL_FORCE_INTERFACES, DISL_FORCE_INTERFACES_DEFAULT
 	);
 
+	config->batch = jvmti_get_system_property_bool (
+		jvmti, DISL_BATCH, DISL_BATCH_DEFAULT
+	);
+
+	config->shared_memory = jvmti_get_system_property_bool (
+		jvmti, DISL_SHARED_MEMORY, DISL_SHARED_MEMORY_DEFAULT
+	);
+
+	config->class_filter = jvmti_get_system_property_bool (
+		jvmti, DISL_CLASS_FILTER, DISL_CLASS_FILTER_DEFAULT
+	);
+
+	config->digest = jvmti_get_system_property_bool (
+		jvmti, DISL_DIGEST, DISL_DIGEST_DEFAULT
+	);
+
 	config->debug = jvmti_get_system_property_bool (
 		jvmti, DISL_DEBUG, DISL_DEBUG_DEFAULT
 	);
@@ -649,11 +888,16 @@ __configure_from_properties (jvmtiEnv * jvmti, struct config * config) {
 	// Configuration summary. Current thread does not exist yet.
 	//
 	rdexec {
+		rdaprefix ("server socket: %s\n", __safe_name (config->server_socket));
 		rdaprefix ("bypass mode: %s\n", values [bypass_index]);
 		rdaprefix ("split methods: %d\n", config->split_methods);
 		rdaprefix ("catch exceptions: %d\n", config->catch_exceptions);
 		rdaprefix ("force superclass: %d\n", config->force_superclass);
 		rdaprefix ("force interfaces: %d\n", config->force_interfaces);
+		rdaprefix ("batch requests: %d\n", config->batch);
+		rdaprefix ("shared memory: %d\n", config->shared_memory);
+		rdaprefix ("class filter: %d\n", config->class_filter);
+		rdaprefix ("class digest: %d\n", config->digest);
 		rdaprefix ("debug: %d\n", config->debug);
 	}
 }
@@ -766,7 +1010,23 @@ Agent_OnLoad (JavaVM * jvm, char * options, void * reserved) {
 	agent_code_flags = __calc_code_flags (&agent_config, true);
 
 	rdaprintf ("agent loaded, initializing connections\n");
-	network_init (agent_config.server_host, agent_config.server_port);
+	if (agent_config.server_socket != NULL && strlen (agent_config.server_socket) > 0) {
+		network_init_local (agent_config.server_socket);
+	} else {
+		network_init (agent_config.server_host, agent_config.server_port);
+	}
+#ifndef MINGW
+	if (agent_config.shared_memory) {
+		network_set_after_open_hook (__attach_shared_memory);
+	}
+
+	batcher_init ();
+#endif
+
+	agent_class_filter = NULL;
+	if (agent_config.class_filter) {
+		__fetch_class_filter ();
+	}
 
 
 	// register callbacks
@@ -809,5 +1069,13 @@ Agent_OnUnload (JavaVM * jvm) {
 	//
 	// Just close all the connections.
 	//
+#ifndef MINGW
+	batcher_fini ();
+#endif
 	network_fini ();
+
+	if (agent_class_filter != NULL) {
+		class_filter_destroy (agent_class_filter);
+		agent_class_filter = NULL;
+	}
 }
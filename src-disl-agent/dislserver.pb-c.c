@@ -52,6 +52,51 @@ void   instrument_class_request__free_unpacked
   assert(message->base.descriptor == &instrument_class_request__descriptor);
   protobuf_c_message_free_unpacked ((ProtobufCMessage*)message, allocator);
 }
+void   class_filter__init
+                     (ClassFilter         *message)
+{
+  static const ClassFilter init_value = CLASS_FILTER__INIT;
+  *message = init_value;
+}
+size_t class_filter__get_packed_size
+                     (const ClassFilter *message)
+{
+  assert(message->base.descriptor == &class_filter__descriptor);
+  return protobuf_c_message_get_packed_size ((const ProtobufCMessage*)(message));
+}
+size_t class_filter__pack
+                     (const ClassFilter *message,
+                      uint8_t       *out)
+{
+  assert(message->base.descriptor == &class_filter__descriptor);
+  return protobuf_c_message_pack ((const ProtobufCMessage*)message, out);
+}
+size_t class_filter__pack_to_buffer
+                     (const ClassFilter *message,
+                      ProtobufCBuffer *buffer)
+{
+  assert(message->base.descriptor == &class_filter__descriptor);
+  return protobuf_c_message_pack_to_buffer ((const ProtobufCMessage*)message, buffer);
+}
+ClassFilter *
+       class_filter__unpack
+                     (ProtobufCAllocator  *allocator,
+                      size_t               len,
+                      const uint8_t       *data)
+{
+  return (ClassFilter *)
+     protobuf_c_message_unpack (&class_filter__descriptor,
+                                allocator, len, data);
+}
+void   class_filter__free_unpacked
+                     (ClassFilter *message,
+                      ProtobufCAllocator *allocator)
+{
+  if(!message)
+    return;
+  assert(message->base.descriptor == &class_filter__descriptor);
+  protobuf_c_message_free_unpacked ((ProtobufCMessage*)message, allocator);
+}
 void   instrument_class_response__init
                      (InstrumentClassResponse         *message)
 {
@@ -97,7 +142,7 @@ void   instrument_class_response__free_unpacked
   assert(message->base.descriptor == &instrument_class_response__descriptor);
   protobuf_c_message_free_unpacked ((ProtobufCMessage*)message, allocator);
 }
-static const ProtobufCFieldDescriptor instrument_class_request__field_descriptors[3] =
+static const ProtobufCFieldDescriptor instrument_class_request__field_descriptors[8] =
 {
   {
     "flags",
@@ -135,16 +180,81 @@ static const ProtobufCFieldDescriptor instrument_class_request__field_descriptor
     0,             /* flags */
     0,NULL,NULL    /* reserved1,reserved2, etc */
   },
+  {
+    "requestId",
+    4,
+    PROTOBUF_C_LABEL_NONE,
+    PROTOBUF_C_TYPE_INT32,
+    0,   /* quantifier_offset */
+    offsetof(InstrumentClassRequest, requestid),
+    NULL,
+    NULL,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "batch",
+    5,
+    PROTOBUF_C_LABEL_REPEATED,
+    PROTOBUF_C_TYPE_MESSAGE,
+    offsetof(InstrumentClassRequest, n_batch),
+    offsetof(InstrumentClassRequest, batch),
+    &instrument_class_request__descriptor,
+    NULL,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "sharedMemory",
+    6,
+    PROTOBUF_C_LABEL_NONE,
+    PROTOBUF_C_TYPE_STRING,
+    0,   /* quantifier_offset */
+    offsetof(InstrumentClassRequest, sharedmemory),
+    NULL,
+    &protobuf_c_empty_string,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "classFilter",
+    7,
+    PROTOBUF_C_LABEL_NONE,
+    PROTOBUF_C_TYPE_BOOL,
+    0,   /* quantifier_offset */
+    offsetof(InstrumentClassRequest, classfilter),
+    NULL,
+    NULL,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "classDigest",
+    8,
+    PROTOBUF_C_LABEL_NONE,
+    PROTOBUF_C_TYPE_BYTES,
+    0,   /* quantifier_offset */
+    offsetof(InstrumentClassRequest, classdigest),
+    NULL,
+    NULL,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
 };
 static const unsigned instrument_class_request__field_indices_by_name[] = {
+  4,   /* field[4] = batch */
   2,   /* field[2] = classBytes */
+  7,   /* field[7] = classDigest */
+  6,   /* field[6] = classFilter */
   1,   /* field[1] = className */
   0,   /* field[0] = flags */
+  3,   /* field[3] = requestId */
+  5,   /* field[5] = sharedMemory */
 };
 static const ProtobufCIntRange instrument_class_request__number_ranges[1 + 1] =
 {
   { 1, 0 },
-  { 0, 3 }
+  { 0, 8 }
 };
 const ProtobufCMessageDescriptor instrument_class_request__descriptor =
 {
@@ -154,14 +264,117 @@ const ProtobufCMessageDescriptor instrument_class_request__descriptor =
   "InstrumentClassRequest",
   "",
   sizeof(InstrumentClassRequest),
-  3,
+  8,
   instrument_class_request__field_descriptors,
   instrument_class_request__field_indices_by_name,
   1,  instrument_class_request__number_ranges,
   (ProtobufCMessageInit) instrument_class_request__init,
   NULL,NULL,NULL    /* reserved[123] */
 };
-static const ProtobufCFieldDescriptor instrument_class_response__field_descriptors[3] =
+static const ProtobufCFieldDescriptor class_filter__field_descriptors[6] =
+{
+  {
+    "matchAny",
+    1,
+    PROTOBUF_C_LABEL_NONE,
+    PROTOBUF_C_TYPE_BOOL,
+    0,   /* quantifier_offset */
+    offsetof(ClassFilter, matchany),
+    NULL,
+    NULL,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "names",
+    2,
+    PROTOBUF_C_LABEL_REPEATED,
+    PROTOBUF_C_TYPE_STRING,
+    offsetof(ClassFilter, n_names),   /* quantifier_offset */
+    offsetof(ClassFilter, names),
+    NULL,
+    &protobuf_c_empty_string,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "prefixes",
+    3,
+    PROTOBUF_C_LABEL_REPEATED,
+    PROTOBUF_C_TYPE_STRING,
+    offsetof(ClassFilter, n_prefixes),   /* quantifier_offset */
+    offsetof(ClassFilter, prefixes),
+    NULL,
+    &protobuf_c_empty_string,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "suffixes",
+    4,
+    PROTOBUF_C_LABEL_REPEATED,
+    PROTOBUF_C_TYPE_STRING,
+    offsetof(ClassFilter, n_suffixes),   /* quantifier_offset */
+    offsetof(ClassFilter, suffixes),
+    NULL,
+    &protobuf_c_empty_string,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "excludedNames",
+    5,
+    PROTOBUF_C_LABEL_REPEATED,
+    PROTOBUF_C_TYPE_STRING,
+    offsetof(ClassFilter, n_excludednames),   /* quantifier_offset */
+    offsetof(ClassFilter, excludednames),
+    NULL,
+    &protobuf_c_empty_string,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "excludedPrefixes",
+    6,
+    PROTOBUF_C_LABEL_REPEATED,
+    PROTOBUF_C_TYPE_STRING,
+    offsetof(ClassFilter, n_excludedprefixes),   /* quantifier_offset */
+    offsetof(ClassFilter, excludedprefixes),
+    NULL,
+    &protobuf_c_empty_string,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+};
+static const unsigned class_filter__field_indices_by_name[] = {
+  4,   /* field[4] = excludedNames */
+  5,   /* field[5] = excludedPrefixes */
+  0,   /* field[0] = matchAny */
+  1,   /* field[1] = names */
+  2,   /* field[2] = prefixes */
+  3,   /* field[3] = suffixes */
+};
+static const ProtobufCIntRange class_filter__number_ranges[1 + 1] =
+{
+  { 1, 0 },
+  { 0, 6 }
+};
+const ProtobufCMessageDescriptor class_filter__descriptor =
+{
+  PROTOBUF_C__MESSAGE_DESCRIPTOR_MAGIC,
+  "ClassFilter",
+  "ClassFilter",
+  "ClassFilter",
+  "",
+  sizeof(ClassFilter),
+  6,
+  class_filter__field_descriptors,
+  class_filter__field_indices_by_name,
+  1,  class_filter__number_ranges,
+  (ProtobufCMessageInit) class_filter__init,
+  NULL,NULL,NULL    /* reserved[123] */
+};
+static const ProtobufCFieldDescriptor instrument_class_response__field_descriptors[5] =
 {
   {
     "result",
@@ -199,16 +412,42 @@ static const ProtobufCFieldDescriptor instrument_class_response__field_descripto
     0,             /* flags */
     0,NULL,NULL    /* reserved1,reserved2, etc */
   },
+  {
+    "requestId",
+    4,
+    PROTOBUF_C_LABEL_NONE,
+    PROTOBUF_C_TYPE_INT32,
+    0,   /* quantifier_offset */
+    offsetof(InstrumentClassResponse, requestid),
+    NULL,
+    NULL,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
+  {
+    "classFilter",
+    5,
+    PROTOBUF_C_LABEL_NONE,
+    PROTOBUF_C_TYPE_MESSAGE,
+    0,   /* quantifier_offset */
+    offsetof(InstrumentClassResponse, classfilter),
+    &class_filter__descriptor,
+    NULL,
+    0,             /* flags */
+    0,NULL,NULL    /* reserved1,reserved2, etc */
+  },
 };
 static const unsigned instrument_class_response__field_indices_by_name[] = {
   2,   /* field[2] = classBytes */
+  4,   /* field[4] = classFilter */
   1,   /* field[1] = errorMessage */
+  3,   /* field[3] = requestId */
   0,   /* field[0] = result */
 };
 static const ProtobufCIntRange instrument_class_response__number_ranges[1 + 1] =
 {
   { 1, 0 },
-  { 0, 3 }
+  { 0, 5 }
 };
 const ProtobufCMessageDescriptor instrument_class_response__descriptor =
 {
@@ -218,24 +457,26 @@ const ProtobufCMessageDescriptor instrument_class_response__descriptor =
   "InstrumentClassResponse",
   "",
   sizeof(InstrumentClassResponse),
-  3,
+  5,
   instrument_class_response__field_descriptors,
   instrument_class_response__field_indices_by_name,
   1,  instrument_class_response__number_ranges,
   (ProtobufCMessageInit) instrument_class_response__init,
   NULL,NULL,NULL    /* reserved[123] */
 };
-static const ProtobufCEnumValue instrument_class_result__enum_values_by_number[3] =
+static const ProtobufCEnumValue instrument_class_result__enum_values_by_number[4] =
 {
   { "CLASS_UNMODIFIED", "INSTRUMENT_CLASS_RESULT__CLASS_UNMODIFIED", 0 },
   { "CLASS_MODIFIED", "INSTRUMENT_CLASS_RESULT__CLASS_MODIFIED", 1 },
   { "ERROR", "INSTRUMENT_CLASS_RESULT__ERROR", 3 },
+  { "CLASS_BYTES_REQUIRED", "INSTRUMENT_CLASS_RESULT__CLASS_BYTES_REQUIRED", 4 },
 };
 static const ProtobufCIntRange instrument_class_result__value_ranges[] = {
-{0, 0},{3, 2},{0, 3}
+{0, 0},{3, 2},{0, 4}
 };
-static const ProtobufCEnumValueIndex instrument_class_result__enum_values_by_name[3] =
+static const ProtobufCEnumValueIndex instrument_class_result__enum_values_by_name[4] =
 {
+  { "CLASS_BYTES_REQUIRED", 3 },
   { "CLASS_MODIFIED", 1 },
   { "CLASS_UNMODIFIED", 0 },
   { "ERROR", 2 },
@@ -247,9 +488,9 @@ const ProtobufCEnumDescriptor instrument_class_result__descriptor =
   "InstrumentClassResult",
   "InstrumentClassResult",
   "",
-  3,
+  4,
   instrument_class_result__enum_values_by_number,
-  3,
+  4,
   instrument_class_result__enum_values_by_name,
   2,
   instrument_class_result__value_ranges,
@@ -16,6 +16,7 @@ PROTOBUF_C__BEGIN_DECLS
 
 
 typedef struct _InstrumentClassRequest InstrumentClassRequest;
+typedef struct _ClassFilter ClassFilter;
 typedef struct _InstrumentClassResponse InstrumentClassResponse;
 
 
@@ -24,7 +25,8 @@ typedef struct _InstrumentClassResponse InstrumentClassResponse;
 typedef enum _InstrumentClassResult {
   INSTRUMENT_CLASS_RESULT__CLASS_UNMODIFIED = 0,
   INSTRUMENT_CLASS_RESULT__CLASS_MODIFIED = 1,
-  INSTRUMENT_CLASS_RESULT__ERROR = 3
+  INSTRUMENT_CLASS_RESULT__ERROR = 3,
+  INSTRUMENT_CLASS_RESULT__CLASS_BYTES_REQUIRED = 4
     PROTOBUF_C__FORCE_ENUM_TO_BE_INT_SIZE(INSTRUMENT_CLASS_RESULT)
 } InstrumentClassResult;
 
@@ -36,10 +38,72 @@ struct  _InstrumentClassRequest
   int32_t flags;
   char *classname;
   ProtobufCBinaryData classbytes;
+  /*
+   * Identifies a pipelined request. Responses to pipelined requests carry
+   * the same identifier and may be sent in any order. Zero means that the
+   * request is not pipelined, and that the response follows immediately.
+   */
+  int32_t requestid;
+  /*
+   * Requests submitted together as a batch. If present, the other fields
+   * of the enclosing message are ignored, and each entry is answered by
+   * a separate response identified by the entry request identifier.
+   */
+  size_t n_batch;
+  InstrumentClassRequest **batch;
+  /*
+   * Path to a shared memory file set up by the client. If present, the
+   * other fields are ignored, and the server maps the file and exchanges
+   * all subsequent messages on the connection through the ring buffers in
+   * the file. The server responds with CLASS_UNMODIFIED if it has attached
+   * to the file, or with ERROR if the client should keep using the socket.
+   */
+  char *sharedmemory;
+  /*
+   * Requests a summary of the classes the server may instrument. If set,
+   * the other fields are ignored, and the server responds with a summary
+   * in the classFilter field of a CLASS_UNMODIFIED response.
+   */
+  protobuf_c_boolean classfilter;
+  /*
+   * The first 16 bytes of the SHA-256 digest of the class bytes. If present
+   * without the class bytes, the server responds with a cached response for
+   * a class with the same digest, with CLASS_UNMODIFIED if it does not need
+   * the class bytes to decide that the class is not instrumented, or with
+   * CLASS_BYTES_REQUIRED if the client needs to send the class bytes.
+   */
+  ProtobufCBinaryData classdigest;
 };
 #define INSTRUMENT_CLASS_REQUEST__INIT \
  { PROTOBUF_C_MESSAGE_INIT (&instrument_class_request__descriptor) \
-    , 0, (char *)protobuf_c_empty_string, {0,NULL} }
+    , 0, (char *)protobuf_c_empty_string, {0,NULL}, 0, 0,NULL, (char *)protobuf_c_empty_string, 0, {0,NULL} }
+
+
+/*
+ * Summarizes the internal names of the classes that the server may
+ * instrument. The server leaves any other class unmodified, so the client
+ * does not need to send it. A class may be instrumented if it is not
+ * excluded, and if it matches any of the names, prefixes, or suffixes, or
+ * if matchAny is set.
+ */
+struct  _ClassFilter
+{
+  ProtobufCMessage base;
+  protobuf_c_boolean matchany;
+  size_t n_names;
+  char **names;
+  size_t n_prefixes;
+  char **prefixes;
+  size_t n_suffixes;
+  char **suffixes;
+  size_t n_excludednames;
+  char **excludednames;
+  size_t n_excludedprefixes;
+  char **excludedprefixes;
+};
+#define CLASS_FILTER__INIT \
+ { PROTOBUF_C_MESSAGE_INIT (&class_filter__descriptor) \
+    , 0, 0,NULL, 0,NULL, 0,NULL, 0,NULL, 0,NULL }
 
 
 struct  _InstrumentClassResponse
@@ -48,10 +112,12 @@ struct  _InstrumentClassResponse
   InstrumentClassResult result;
   char *errormessage;
   ProtobufCBinaryData classbytes;
+  int32_t requestid;
+  ClassFilter *classfilter;
 };
 #define INSTRUMENT_CLASS_RESPONSE__INIT \
  { PROTOBUF_C_MESSAGE_INIT (&instrument_class_response__descriptor) \
-    , INSTRUMENT_CLASS_RESULT__CLASS_UNMODIFIED, (char *)protobuf_c_empty_string, {0,NULL} }
+    , INSTRUMENT_CLASS_RESULT__CLASS_UNMODIFIED, (char *)protobuf_c_empty_string, {0,NULL}, 0, NULL }
 
 
 /* InstrumentClassRequest methods */
@@ -73,6 +139,25 @@ InstrumentClassRequest *
 void   instrument_class_request__free_unpacked
                      (InstrumentClassRequest *message,
                       ProtobufCAllocator *allocator);
+/* ClassFilter methods */
+void   class_filter__init
+                     (ClassFilter         *message);
+size_t class_filter__get_packed_size
+                     (const ClassFilter   *message);
+size_t class_filter__pack
+                     (const ClassFilter   *message,
+                      uint8_t             *out);
+size_t class_filter__pack_to_buffer
+                     (const ClassFilter   *message,
+                      ProtobufCBuffer     *buffer);
+ClassFilter *
+       class_filter__unpack
+                     (ProtobufCAllocator  *allocator,
+                      size_t               len,
+                      const uint8_t       *data);
+void   class_filter__free_unpacked
+                     (ClassFilter *message,
+                      ProtobufCAllocator *allocator);
 /* InstrumentClassResponse methods */
 void   instrument_class_response__init
                      (InstrumentClassResponse         *message);
@@ -97,6 +182,9 @@ void   instrument_class_response__free_unpacked
 typedef void (*InstrumentClassRequest_Closure)
                  (const InstrumentClassRequest *message,
                   void *closure_data);
+typedef void (*ClassFilter_Closure)
+                 (const ClassFilter *message,
+                  void *closure_data);
 typedef void (*InstrumentClassResponse_Closure)
                  (const InstrumentClassResponse *message,
                   void *closure_data);
@@ -108,6 +196,7 @@ typedef void (*InstrumentClassResponse_Closure)
 
 extern const ProtobufCEnumDescriptor    instrument_class_result__descriptor;
 extern const ProtobufCMessageDescriptor instrument_class_request__descriptor;
+extern const ProtobufCMessageDescriptor class_filter__descriptor;
 extern const ProtobufCMessageDescriptor instrument_class_response__descriptor;
 
 PROTOBUF_C__END_DECLS
@@ -17,10 +17,14 @@
 #else /* !MINGW */
 
 #include <sys/socket.h>
+#include <sys/un.h>
 #include <netdb.h>
 
 #endif
 
+#include <stdlib.h>
+#include <string.h>
+
 //
 // This appears to be missing on MingW and as well on DarwinX.
 //
@@ -34,6 +38,12 @@
  */
 static struct addrinfo * disl_addrinfo;
 
+/**
+ * Flag indicating that the address info refers to a local socket, and
+ * has been allocated by us instead of getaddrinfo().
+ */
+static bool disl_addrinfo_local;
+
 /**
  * Pool of connections to DiSL server.
  */
@@ -44,6 +54,11 @@ static struct connection_pool disl_connections;
  */
 static mutex_t disl_connections_mutex;
 
+/**
+ * Hook invoked on every newly opened connection, or NULL.
+ */
+static connection_hook_fn disl_after_open_hook;
+
 
 static void
 __connection_close_hook (struct connection * conn) {
@@ -77,12 +92,64 @@ network_init (const char * host_name, const char * port_number) {
 
 	int gai_result = getaddrinfo (host_name, port_number, &hints, &disl_addrinfo);
 	check_error (gai_result != 0, gai_strerror (gai_result));
+	disl_addrinfo_local = false;
 
 	connection_pool_init (&disl_connections, disl_addrinfo);
 	connection_pool_set_before_close_hook (&disl_connections, __connection_close_hook);
 }
 
 
+/**
+ * Initializes the address info for a local (Unix domain) socket at the
+ * given path, the pool of connections to the instrumentation server, and
+ * a mutex guarding the pool. Connecting through a local socket avoids the
+ * overhead of the loopback TCP stack when the server runs on the same host.
+ */
+void
+network_init_local (const char * socket_path) {
+	assert (socket_path != NULL);
+
+	//
+
+#ifdef MINGW
+	die_with_error ("local sockets are not supported on this platform");
+#else
+	mutex_init (&disl_connections_mutex);
+
+	struct sockaddr_un * addr = (struct sockaddr_un *) calloc (1, sizeof (struct sockaddr_un));
+	check_error (addr == NULL, "failed to allocate socket address");
+	check_error (strlen (socket_path) >= sizeof (addr->sun_path), "socket path too long");
+
+	addr->sun_family = AF_UNIX;
+	strncpy (addr->sun_path, socket_path, sizeof (addr->sun_path) - 1);
+
+	disl_addrinfo = (struct addrinfo *) calloc (1, sizeof (struct addrinfo));
+	check_error (disl_addrinfo == NULL, "failed to allocate address info");
+
+	disl_addrinfo->ai_family = AF_UNIX;
+	disl_addrinfo->ai_socktype = SOCK_STREAM;
+	disl_addrinfo->ai_addr = (struct sockaddr *) addr;
+	disl_addrinfo->ai_addrlen = sizeof (struct sockaddr_un);
+	disl_addrinfo->ai_canonname = strdup (socket_path);
+	disl_addrinfo_local = true;
+
+	connection_pool_init (&disl_connections, disl_addrinfo);
+	connection_pool_set_before_close_hook (&disl_connections, __connection_close_hook);
+#endif /* !MINGW */
+}
+
+
+/**
+ * Sets a hook to be invoked on every connection opened to the server,
+ * both pooled and dedicated. Must be called before opening connections.
+ */
+void
+network_set_after_open_hook (connection_hook_fn after_open_fn) {
+	disl_after_open_hook = after_open_fn;
+	connection_pool_set_after_open_hook (&disl_connections, after_open_fn);
+}
+
+
 /**
  * Closes all connections in the connection pool, releases the address
  * info, and destroys the mutex guarding the pool.
@@ -100,7 +167,14 @@ network_fini () {
 	}
 	mutex_unlock (&disl_connections_mutex);
 
-	freeaddrinfo (disl_addrinfo);
+	if (disl_addrinfo_local) {
+		free (disl_addrinfo->ai_canonname);
+		free (disl_addrinfo->ai_addr);
+		free (disl_addrinfo);
+	} else {
+		freeaddrinfo (disl_addrinfo);
+	}
+
 	disl_addrinfo = NULL;
 
 	mutex_destroy (&disl_connections_mutex);
@@ -151,3 +225,38 @@ network_release_connection (struct connection * connection) {
 
 	debug ("done\n");
 }
+
+
+/**
+ * Opens a dedicated connection to the remote instrumentation server. The
+ * connection is not part of the connection pool and needs to be closed
+ * using network_close_connection().
+ */
+struct connection *
+network_open_connection () {
+	assert (disl_addrinfo != NULL);
+	ldebug ("opening dedicated connection ... ");
+
+	struct connection * connection = connection_open (disl_addrinfo);
+	if (disl_after_open_hook != NULL) {
+		disl_after_open_hook (connection);
+	}
+
+	debug ("done\n");
+	return connection;
+}
+
+
+/**
+ * Closes a dedicated connection obtained from network_open_connection().
+ */
+void
+network_close_connection (struct connection * connection) {
+	assert (connection != NULL);
+	ldebug ("closing dedicated connection ... ");
+
+	__connection_close_hook (connection);
+	connection_close (connection);
+
+	debug ("done\n");
+}
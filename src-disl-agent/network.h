@@ -2,12 +2,19 @@
 #define _NETWORK_H_
 
 #include "connection.h"
+#include "connpool.h"
 
 
 void network_init (const char * host_name, const char * port_number);
+void network_init_local (const char * socket_path);
 void network_fini ();
 
+void network_set_after_open_hook (connection_hook_fn after_open_fn);
+
 struct connection * network_acquire_connection ();
 void network_release_connection (struct connection * connection);
 
+struct connection * network_open_connection ();
+void network_close_connection (struct connection * connection);
+
 #endif /* _NETWORK_H_ */
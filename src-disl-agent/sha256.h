@@ -0,0 +1,12 @@
+#ifndef _SHA256_H_
+#define _SHA256_H_
+
+#include <stddef.h>
+#include <stdint.h>
+
+
+#define SHA256_DIGEST_LENGTH 32
+
+void sha256 (const void * data, size_t length, uint8_t digest [SHA256_DIGEST_LENGTH]);
+
+#endif /* _SHA256_H_ */
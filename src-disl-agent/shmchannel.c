@@ -0,0 +1,440 @@
+#include "common.h"
+#include "shmchannel.h"
+
+#include <assert.h>
+#include <stdbool.h>
+#include <stddef.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <time.h>
+#include <unistd.h>
+
+//
+// Shared memory is only supported on POSIX systems.
+//
+#ifndef MINGW
+
+#include <sys/mman.h>
+#include <sys/socket.h>
+
+//
+
+#define SHM_MAGIC 0x4449534c
+#define SHM_VERSION 1
+
+#define SHM_CACHE_LINE 64
+#define SHM_DATA_OFFSET 4096
+
+/**
+ * Number of times to poll a ring before going to sleep.
+ */
+#define SHM_SPIN_COUNT 4096
+
+/**
+ * Bounds (in nanoseconds) of the back-off used when waiting for space.
+ */
+#define SHM_MIN_BACKOFF 1000
+#define SHM_MAX_BACKOFF 1000000
+
+
+/**
+ * Control block of a single-producer single-consumer ring buffer. The
+ * positions only grow, and are reduced modulo the capacity to obtain an
+ * index into the ring data. The consumer sets the waiting flag before going
+ * to sleep, and the producer clears it when sending a wake-up byte through
+ * the socket. Each field resides in a separate cache line.
+ */
+struct shm_ring {
+	uint64_t head __attribute__ ((aligned (SHM_CACHE_LINE)));
+	uint64_t tail __attribute__ ((aligned (SHM_CACHE_LINE)));
+	uint32_t waiting __attribute__ ((aligned (SHM_CACHE_LINE)));
+};
+
+
+/**
+ * Layout of the beginning of the shared memory file. The data of the two
+ * rings follow at SHM_DATA_OFFSET, first the requests, then the responses.
+ * The layout must match the one expected by the server.
+ */
+struct shm_layout {
+	uint32_t magic __attribute__ ((aligned (SHM_CACHE_LINE)));
+	uint32_t version;
+	uint32_t capacity;
+
+	struct shm_ring requests;
+	struct shm_ring responses;
+};
+
+_Static_assert (offsetof (struct shm_layout, requests) == 64, "unexpected layout");
+_Static_assert (offsetof (struct shm_layout, responses) == 256, "unexpected layout");
+_Static_assert (sizeof (struct shm_layout) <= SHM_DATA_OFFSET, "unexpected layout");
+
+
+struct shm_channel {
+	char * path;
+	struct shm_layout * layout;
+	size_t size;
+	uint64_t capacity;
+
+	uint8_t * request_data;
+	uint8_t * response_data;
+};
+
+//
+
+static inline void
+__cpu_relax (void) {
+#if defined (__x86_64__) || defined (__i386__)
+	__builtin_ia32_pause ();
+#else
+	__asm__ __volatile__ ("" ::: "memory");
+#endif
+}
+
+
+static inline uint64_t
+__load_acquire (uint64_t * position) {
+	return __atomic_load_n (position, __ATOMIC_ACQUIRE);
+}
+
+
+static inline void
+__store_release (uint64_t * position, uint64_t value) {
+	__atomic_store_n (position, value, __ATOMIC_RELEASE);
+}
+
+//
+
+static const char *
+__shm_directory (void) {
+	//
+	// Prefer a memory-backed file system, so that the pages backing
+	// the rings are never written to disk.
+	//
+	if (access ("/dev/shm", W_OK) == 0) {
+		return "/dev/shm";
+	} else {
+		return "/tmp";
+	}
+}
+
+
+/**
+ * Creates a new shared memory file with a pair of rings, each with the given
+ * capacity, and maps it into memory. The capacity must be a power of two.
+ * Returns NULL (with a warning) if the file could not be created.
+ */
+struct shm_channel *
+shm_channel_create (uint32_t capacity) {
+	assert (capacity > 0 && (capacity & (capacity - 1)) == 0);
+
+	const char * directory = __shm_directory ();
+	size_t path_size = strlen (directory) + sizeof ("/disl-shm-XXXXXX");
+	char * path = (char *) malloc (path_size);
+	check_error (path == NULL, "failed to allocate shared memory path");
+	snprintf (path, path_size, "%s/disl-shm-XXXXXX", directory);
+
+	int fd = mkstemp (path);
+	if (fd < 0) {
+		warn ("failed to create shared memory file %s: %s\n", path, strerror (errno));
+		free (path);
+		return NULL;
+	}
+
+	//
+	// Size the file to hold the control blocks and the data of both rings.
+	// The file is zero-filled, so the rings start out empty.
+	//
+	size_t size = SHM_DATA_OFFSET + 2 * (size_t) capacity;
+	void * base = MAP_FAILED;
+	if (ftruncate (fd, size) == 0) {
+		base = mmap (NULL, size, PROT_READ | PROT_WRITE, MAP_SHARED, fd, 0);
+	}
+
+	int mmap_errno = errno;
+	close (fd);
+
+	if (base == MAP_FAILED) {
+		warn ("failed to map shared memory file %s: %s\n", path, strerror (mmap_errno));
+		unlink (path);
+		free (path);
+		return NULL;
+	}
+
+	//
+
+	struct shm_channel * channel = (struct shm_channel *) malloc (sizeof (struct shm_channel));
+	check_error (channel == NULL, "failed to allocate shared memory channel");
+
+	channel->path = path;
+	channel->layout = (struct shm_layout *) base;
+	channel->size = size;
+	channel->capacity = capacity;
+	channel->request_data = (uint8_t *) base + SHM_DATA_OFFSET;
+	channel->response_data = channel->request_data + capacity;
+
+	//
+	// Publish the magic number last, so that a valid magic number
+	// implies a completely initialized header.
+	//
+	channel->layout->version = SHM_VERSION;
+	channel->layout->capacity = capacity;
+	__atomic_store_n (&channel->layout->magic, SHM_MAGIC, __ATOMIC_RELEASE);
+
+	return channel;
+}
+
+
+/**
+ * Removes the shared memory file from the file system. The memory remains
+ * mapped by both parties, and is released once both have unmapped it.
+ */
+void
+shm_channel_unlink (struct shm_channel * channel) {
+	assert (channel != NULL);
+
+	if (channel->path != NULL) {
+		unlink (channel->path);
+		free (channel->path);
+		channel->path = NULL;
+	}
+}
+
+
+/**
+ * Unmaps the shared memory and destroys the channel structure.
+ */
+void
+shm_channel_destroy (struct shm_channel * channel) {
+	assert (channel != NULL);
+
+	shm_channel_unlink (channel);
+	munmap (channel->layout, channel->size);
+	free (channel);
+}
+
+
+const char *
+shm_channel_path (struct shm_channel * channel) {
+	assert (channel != NULL);
+	return channel->path;
+}
+
+//
+
+/**
+ * Copies data between a ring and a linear buffer, taking care of the
+ * wrap-around at the end of the ring.
+ */
+static inline void
+__ring_copy (
+	uint8_t * ring_data, uint64_t capacity, uint64_t position,
+	uint8_t * buf, size_t len, bool to_ring
+) {
+	size_t index = position & (capacity - 1);
+	size_t first = (len < capacity - index) ? len : capacity - index;
+
+	if (to_ring) {
+		memcpy (ring_data + index, buf, first);
+		memcpy (ring_data, buf + first, len - first);
+	} else {
+		memcpy (buf, ring_data + index, first);
+		memcpy (buf + first, ring_data, len - first);
+	}
+}
+
+
+/**
+ * Waits until there is free space in the given ring. The server does
+ * not notify us when consuming data, so we just poll the ring with an
+ * increasing back-off, and check that the server is still there.
+ * Returns the amount of free space, or zero if the server went away.
+ */
+static uint64_t
+__await_space (struct shm_channel * channel, struct shm_ring * ring, uint64_t tail, int sockfd) {
+	long backoff = SHM_MIN_BACKOFF;
+
+	for (int spin = 0; true; spin++) {
+		uint64_t space = channel->capacity - (tail - __load_acquire (&ring->head));
+		if (space > 0) {
+			return space;
+		}
+
+		if (spin < SHM_SPIN_COUNT) {
+			__cpu_relax ();
+			continue;
+		}
+
+		char peek;
+		if (recv (sockfd, &peek, sizeof (peek), MSG_PEEK | MSG_DONTWAIT) == 0) {
+			return 0;
+		}
+
+		struct timespec delay = { .tv_sec = 0, .tv_nsec = backoff };
+		nanosleep (&delay, NULL);
+		backoff = (backoff < SHM_MAX_BACKOFF / 2) ? backoff * 2 : SHM_MAX_BACKOFF;
+	}
+}
+
+
+/**
+ * Waits until there is data available in the given ring. After polling the
+ * ring for a while, we announce that we are waiting and block on the socket,
+ * until the server sends a wake-up byte. The wake-up bytes carry no data,
+ * they only make us check the ring again. Returns the amount of available
+ * data, or zero if the server went away.
+ */
+static uint64_t
+__await_data (struct shm_ring * ring, uint64_t head, int sockfd) {
+	for (int spin = 0; spin < SHM_SPIN_COUNT; spin++) {
+		uint64_t available = __load_acquire (&ring->tail) - head;
+		if (available > 0) {
+			return available;
+		}
+
+		__cpu_relax ();
+	}
+
+	while (true) {
+		//
+		// Announce that we are going to sleep before checking the ring
+		// one last time. The server publishes data before checking the
+		// flag, so either we see the data, or the server sees the flag.
+		//
+		__atomic_store_n (&ring->waiting, 1, __ATOMIC_SEQ_CST);
+
+		uint64_t available = __atomic_load_n (&ring->tail, __ATOMIC_SEQ_CST) - head;
+		if (available > 0) {
+			//
+			// Retract the announcement. If the server has already cleared
+			// it, a stale wake-up byte will cause a spurious wake-up later.
+			//
+			uint32_t expected = 1;
+			__atomic_compare_exchange_n (
+				&ring->waiting, &expected, 0, false,
+				__ATOMIC_SEQ_CST, __ATOMIC_SEQ_CST
+			);
+
+			return available;
+		}
+
+		char wakeups [SHM_CACHE_LINE];
+		if (recv (sockfd, wakeups, sizeof (wakeups), 0) <= 0) {
+			return 0;
+		}
+	}
+}
+
+
+/**
+ * Wakes up the consumer of the given ring if it announced that it is
+ * waiting for data.
+ */
+static inline bool
+__notify (struct shm_ring * ring, int sockfd) {
+	__atomic_thread_fence (__ATOMIC_SEQ_CST);
+
+	uint32_t expected = 1;
+	if (__atomic_compare_exchange_n (
+		&ring->waiting, &expected, 0, false,
+		__ATOMIC_SEQ_CST, __ATOMIC_SEQ_CST
+	)) {
+		const char wakeup = 0;
+		return send (sockfd, &wakeup, sizeof (wakeup), 0) == sizeof (wakeup);
+	}
+
+	return true;
+}
+
+
+/**
+ * Sends data through the request ring of the given channel. Does not return
+ * until all data has been written into the ring. Returns the number of bytes
+ * sent, or a negative number if the server went away.
+ */
+ssize_t
+shm_channel_send_full (struct shm_channel * channel, int sockfd, const void * buf, const size_t len) {
+	assert (channel != NULL);
+	assert ((buf != NULL) || (buf == NULL && len == 0));
+
+	struct shm_ring * ring = &channel->layout->requests;
+	uint8_t * buf_tail = (uint8_t *) buf;
+	size_t remaining = len;
+
+	while (remaining > 0) {
+		uint64_t tail = ring->tail;
+		uint64_t space = __await_space (channel, ring, tail, sockfd);
+		if (space == 0) {
+			return -remaining;
+		}
+
+		size_t chunk = (remaining < space) ? remaining : space;
+		__ring_copy (channel->request_data, channel->capacity, tail, buf_tail, chunk, true);
+		__store_release (&ring->tail, tail + chunk);
+
+		if (!__notify (ring, sockfd)) {
+			return -remaining;
+		}
+
+		remaining -= chunk;
+		buf_tail += chunk;
+	}
+
+	return len;
+}
+
+
+/**
+ * Receives data available in the response ring of the given channel, waiting
+ * for at least one byte. Returns the number of bytes received, or zero if the
+ * server went away.
+ */
+ssize_t
+shm_channel_recv (struct shm_channel * channel, int sockfd, void * buf, const size_t len) {
+	assert (channel != NULL);
+	assert (buf != NULL);
+
+	struct shm_ring * ring = &channel->layout->responses;
+	uint64_t head = ring->head;
+	uint64_t available = __await_data (ring, head, sockfd);
+	if (available == 0) {
+		return 0;
+	}
+
+	size_t chunk = (len < available) ? len : available;
+	__ring_copy (channel->response_data, channel->capacity, head, (uint8_t *) buf, chunk, false);
+	__store_release (&ring->head, head + chunk);
+
+	return chunk;
+}
+
+
+/**
+ * Receives a predefined amount of data from the response ring of the given
+ * channel. Does not return until all requested data has been received.
+ * Returns the number of bytes received, or a negative number if the server
+ * went away.
+ */
+ssize_t
+shm_channel_recv_full (struct shm_channel * channel, int sockfd, void * buf, const size_t len) {
+	assert (channel != NULL);
+	assert ((buf != NULL) || (buf == NULL && len == 0));
+
+	uint8_t * buf_tail = (uint8_t *) buf;
+	size_t remaining = len;
+
+	while (remaining > 0) {
+		ssize_t received = shm_channel_recv (channel, sockfd, buf_tail, remaining);
+		if (received == 0) {
+			return -remaining;
+		}
+
+		remaining -= received;
+		buf_tail += received;
+	}
+
+	return len;
+}
+
+#endif /* !MINGW */
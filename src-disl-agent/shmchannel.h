@@ -0,0 +1,20 @@
+#ifndef _SHMCHANNEL_H_
+#define _SHMCHANNEL_H_
+
+#include <stdint.h>
+#include <sys/types.h>
+
+
+struct shm_channel;
+
+struct shm_channel * shm_channel_create (uint32_t capacity);
+void shm_channel_unlink (struct shm_channel * channel);
+void shm_channel_destroy (struct shm_channel * channel);
+
+const char * shm_channel_path (struct shm_channel * channel);
+
+ssize_t shm_channel_send_full (struct shm_channel * channel, int sockfd, const void * buf, const size_t len);
+ssize_t shm_channel_recv_full (struct shm_channel * channel, int sockfd, void * buf, const size_t len);
+ssize_t shm_channel_recv (struct shm_channel * channel, int sockfd, void * buf, const size_t len);
+
+#endif /* _SHMCHANNEL_H_ */
@@ -55,6 +55,7 @@ mutex_destroy (mutex_t * mutex) {
 
 #define thread_t pthread_t
 #define mutex_t pthread_mutex_t
+#define cond_t pthread_cond_t
 
 //
 
@@ -100,6 +101,34 @@ mutex_destroy (mutex_t * mutex) {
 	check_std_error (result != 0, "failed to destroy mutex");
 }
 
+
+static inline void
+cond_init (cond_t * cond) {
+	int result = pthread_cond_init (cond, NULL);
+	check_std_error (result != 0, "failed to initialize condition variable");
+}
+
+
+static inline void
+cond_wait (cond_t * cond, mutex_t * mutex) {
+	int result = pthread_cond_wait (cond, mutex);
+	check_std_error (result != 0, "failed to wait on condition variable");
+}
+
+
+static inline void
+cond_broadcast (cond_t * cond) {
+	int result = pthread_cond_broadcast (cond);
+	check_std_error (result != 0, "failed to signal condition variable");
+}
+
+
+static inline void
+cond_destroy (cond_t * cond) {
+	int result = pthread_cond_destroy (cond);
+	check_std_error (result != 0, "failed to destroy condition variable");
+}
+
 #endif /* !MINGW */
 
 #endif /* _THREADS_H_ */
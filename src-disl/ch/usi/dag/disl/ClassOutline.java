@@ -0,0 +1,111 @@
+package ch.usi.dag.disl;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Attribute;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.ModuleVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.RecordComponentVisitor;
+import org.objectweb.asm.TypePath;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+
+/**
+ * A minimal {@link ClassNode} containing only the class header and the
+ * signatures and access flags of the class methods. Fields, annotations,
+ * attributes, and method bodies are skipped by the class reader, which makes
+ * parsing an outline much cheaper than parsing the whole class. An outline
+ * is sufficient for deciding whether a class needs to be instrumented at all,
+ * and for registering the class with the {@link Reflection} model.
+ */
+final class ClassOutline extends ClassNode {
+
+    private static final int __READER_FLAGS__ =
+        ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    //
+
+    private ClassOutline () {
+        super (Opcodes.ASM9);
+    }
+
+    //
+
+    /**
+     * Parses the outline of a class from the given range of the given array.
+     */
+    public static ClassNode parse (
+        final byte [] bytes, final int offset, final int length
+    ) {
+        final ClassOutline result = new ClassOutline ();
+        new ClassReader (bytes, offset, length).accept (result, __READER_FLAGS__);
+        return result;
+    }
+
+    //
+
+    @Override
+    public MethodVisitor visitMethod (
+        final int access, final String name, final String descriptor,
+        final String signature, final String [] exceptions
+    ) {
+        methods.add (new MethodNode (
+            Opcodes.ASM9, access, name, descriptor, signature, exceptions
+        ));
+
+        // Skip method annotations, parameters, and attributes.
+        return null;
+    }
+
+
+    @Override
+    public FieldVisitor visitField (
+        final int access, final String name, final String descriptor,
+        final String signature, final Object value
+    ) {
+        return null;
+    }
+
+
+    @Override
+    public RecordComponentVisitor visitRecordComponent (
+        final String name, final String descriptor, final String signature
+    ) {
+        return null;
+    }
+
+
+    @Override
+    public ModuleVisitor visitModule (
+        final String name, final int access, final String version
+    ) {
+        return null;
+    }
+
+
+    @Override
+    public AnnotationVisitor visitAnnotation (
+        final String descriptor, final boolean visible
+    ) {
+        return null;
+    }
+
+
+    @Override
+    public AnnotationVisitor visitTypeAnnotation (
+        final int typeRef, final TypePath typePath,
+        final String descriptor, final boolean visible
+    ) {
+        return null;
+    }
+
+
+    @Override
+    public void visitAttribute (final Attribute attribute) {
+        // skip non-standard attributes
+    }
+
+}
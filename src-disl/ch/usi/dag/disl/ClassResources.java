@@ -3,6 +3,10 @@ package ch.usi.dag.disl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -16,6 +20,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import ch.usi.dag.disl.util.JavaNames;
 import ch.usi.dag.disl.util.Logging;
 import ch.usi.dag.util.logging.Logger;
 
@@ -80,6 +85,84 @@ final class ClassResources {
             .distinct ();
     }
 
+
+    /**
+     * Updates the given digest with the contents of the resources used to
+     * initialize a {@link DiSL} instance. This includes the contents of the
+     * instrumentation JAR files and the class files of DiSL and transformer
+     * classes (which may come from outside the instrumentation JAR files).
+     * Resources that cannot be read only contribute their names.
+     *
+     * @param digest
+     *        the {@link MessageDigest} to update, may not be {@code null}
+     */
+    public void digestInto (final MessageDigest digest) {
+        instrumentationResources ().forEachOrdered (url -> {
+            __digestString (url.toString (), digest);
+            __digestBytes (() -> Files.readAllBytes (Paths.get (__jarPath (url))), digest);
+        });
+
+        Stream.concat (dislClasses (), transformers ()).forEachOrdered (className -> {
+            __digestString (className, digest);
+            __digestBytes (() -> __loadClassBytes (className), digest);
+        });
+    }
+
+
+    private interface ByteSource {
+        byte [] get () throws IOException;
+    }
+
+
+    private static void __digestBytes (
+        final ByteSource source, final MessageDigest digest
+    ) {
+        try {
+            digest.update (source.get ());
+
+        } catch (final IOException ioe) {
+            // Unreadable resources only contribute their names.
+        }
+    }
+
+
+    private static void __digestString (
+        final String value, final MessageDigest digest
+    ) {
+        digest.update (value.getBytes (StandardCharsets.UTF_8));
+    }
+
+
+    private static byte [] __loadClassBytes (
+        final String className
+    ) throws IOException {
+        final String resourceName = JavaNames.appendClassFileExtension (
+            JavaNames.typeToInternal (className)
+        );
+
+        try (
+            final InputStream is = ClassLoader.getSystemResourceAsStream (resourceName);
+        ) {
+            if (is == null) {
+                throw new IOException ("resource not found: "+ resourceName);
+            }
+
+            return is.readAllBytes ();
+        }
+    }
+
+
+    private static String __jarPath (final URL manifestUrl) {
+        //
+        // Extract JAR file path from the manifest URL.
+        //
+        final String manifestPath = manifestUrl.getPath ();
+        final int jarPathBegin = manifestPath.indexOf ("/");
+        final int jarPathEnd = manifestPath.indexOf ("!");
+
+        return manifestPath.substring (jarPathBegin, jarPathEnd);
+    }
+
     //
 
     /**
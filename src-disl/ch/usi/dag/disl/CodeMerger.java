@@ -1,7 +1,7 @@
 package ch.usi.dag.disl;
 
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 
@@ -33,13 +33,14 @@ abstract class CodeMerger {
 
 
     // NOTE: the instCN ClassNode will be modified in the process
-    // NOTE: abstract/native methods should not be included in changedMethods list
+    // NOTE: originalMethods maps the name and descriptor of each changed
+    // method to its original version, abstract/native methods should not
+    // be included
     public static void mergeOriginalCode (
-        final Set <String> changedMethods, final ClassNode origCN,
-        final ClassNode instCN
+        final Map <String, MethodNode> originalMethods, final ClassNode instCN
     ) {
-        if (changedMethods == null) {
-            throw new DiSLFatalException ("Set of changed methods cannot be null");
+        if (originalMethods == null) {
+            throw new DiSLFatalException ("Map of original methods cannot be null");
         }
 
         //
@@ -49,10 +50,10 @@ abstract class CodeMerger {
         // where the resulting method is too long.
         //
         instCN.methods.parallelStream ().unordered ()
-            .filter (instMN -> changedMethods.contains (instMN.name + instMN.desc))
+            .filter (instMN -> originalMethods.containsKey (instMN.name + instMN.desc))
             .forEach (instMN -> {
                 final MethodNode cloneMN = AsmHelper.cloneMethod (
-                    __findMethodNode (origCN, instMN.name, instMN.desc)
+                    originalMethods.get (instMN.name + instMN.desc)
                 );
 
                 __createBypassCheck (
@@ -89,22 +90,25 @@ abstract class CodeMerger {
     }
 
 
-    // NOTE: the origCN and instCN nodes will be destroyed in the process
+    // NOTE: the original methods and the instCN node will be destroyed in
+    // the process
     // NOTE: abstract or native methods should not be included in the
-    // changedMethods list
+    // originalMethods map
     public static ClassNode fixupLongMethods (
-        final boolean splitLongMethods, final ClassNode origCN,
-        final ClassNode instCN
+        final boolean splitLongMethods,
+        final Map <String, MethodNode> originalMethods, final ClassNode instCN
     ) {
         //
         // Choose a fix-up strategy and process all over-size methods in the
-        // instrumented class.
+        // instrumented class. Only changed methods can be fixed, because
+        // other methods have no original version to fall back to.
         //
         final IntConsumer fixupStrategy = splitLongMethods ?
-            i -> __splitLongMethod (i, instCN, origCN) :
-            i -> __revertToOriginal (i, instCN, origCN);
+            i -> __splitLongMethod (i, instCN, originalMethods) :
+            i -> __revertToOriginal (i, instCN, originalMethods);
 
         IntStream.range (0, instCN.methods.size ()).parallel ().unordered ()
+            .filter (i -> __isChanged (instCN.methods.get (i), originalMethods))
             .filter (i -> __methodSize (instCN.methods.get (i)) > ALLOWED_SIZE)
             .forEach (i -> fixupStrategy.accept (i));
 
@@ -112,8 +116,16 @@ abstract class CodeMerger {
     }
 
 
+    private static boolean __isChanged (
+        final MethodNode instMN, final Map <String, MethodNode> originalMethods
+    ) {
+        return originalMethods.containsKey (instMN.name + instMN.desc);
+    }
+
+
     private static void __splitLongMethod (
-        final int methodIndex, final ClassNode instCN, final ClassNode origCN
+        final int methodIndex, final ClassNode instCN,
+        final Map <String, MethodNode> originalMethods
     ) {
         // TODO jb ! add splitting for to long methods
         // - ignore clinit - output warning
@@ -128,14 +140,15 @@ abstract class CodeMerger {
 
 
     private static void __revertToOriginal (
-        final int instIndex, final ClassNode instCN, final ClassNode origCN
+        final int instIndex, final ClassNode instCN,
+        final Map <String, MethodNode> originalMethods
     ) {
         //
         // Replace the instrumented method with the original method,
         // and print a warning about it.
         //
         final MethodNode instMN = instCN.methods.get (instIndex);
-        final MethodNode origMN = __findMethodNode (origCN, instMN.name, instMN.desc);
+        final MethodNode origMN = originalMethods.get (instMN.name + instMN.desc);
         instCN.methods.set (instIndex, origMN);
 
         System.err.printf (
@@ -153,15 +166,4 @@ abstract class CodeMerger {
         return cse.getMaxSize ();
     }
 
-
-    private static MethodNode __findMethodNode (
-        final ClassNode cn, final String name, final String desc
-    ) {
-        return cn.methods.parallelStream ().unordered ()
-            .filter (m -> m.name.equals (name) && m.desc.equals (desc))
-            .findAny ().orElseThrow (() -> new RuntimeException (
-                "Code merger fatal error: method for merge not found"
-            ));
-    }
-
 }
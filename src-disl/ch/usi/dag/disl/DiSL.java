@@ -3,6 +3,16 @@ package ch.usi.dag.disl;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.annotation.Native;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -14,7 +24,11 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
@@ -24,17 +38,24 @@ import org.objectweb.asm.tree.MethodNode;
 import ch.usi.dag.disl.classparser.DislClasses;
 import ch.usi.dag.disl.exception.DiSLException;
 import ch.usi.dag.disl.exception.DiSLInMethodException;
+import ch.usi.dag.disl.guard.GuardHelper;
 import ch.usi.dag.disl.localvar.SyntheticLocalVar;
 import ch.usi.dag.disl.localvar.ThreadLocalVar;
+import ch.usi.dag.disl.marker.MethodMarkings;
 import ch.usi.dag.disl.processor.generator.PIResolver;
 import ch.usi.dag.disl.processor.generator.ProcGenerator;
 import ch.usi.dag.disl.processor.generator.ProcInstance;
 import ch.usi.dag.disl.processor.generator.ProcMethodInstance;
 import ch.usi.dag.disl.scope.Scope;
+import ch.usi.dag.disl.scope.ScopeIndex;
+import ch.usi.dag.disl.scope.ScopeIndex.ClassItems;
+import ch.usi.dag.disl.scope.ScopeSummary;
 import ch.usi.dag.disl.snippet.Shadow;
 import ch.usi.dag.disl.snippet.Snippet;
 import ch.usi.dag.disl.staticcontext.generator.SCGenerator;
+import ch.usi.dag.disl.util.AsmHelper;
 import ch.usi.dag.disl.util.Logging;
+import ch.usi.dag.disl.weaver.StackMapFrames;
 import ch.usi.dag.disl.weaver.Weaver;
 import ch.usi.dag.util.asm.ClassNodeHelper;
 import ch.usi.dag.util.logging.Logger;
@@ -52,6 +73,12 @@ public final class DiSL {
 
     private final boolean debug = Boolean.getBoolean ("debug");
 
+    /**
+     * The minimal number of methods in a class for the methods to be
+     * instrumented in parallel. Smaller classes are not worth the overhead.
+     */
+    private static final int __PARALLEL_WEAVING_THRESHOLD__ = 8;
+
     //
 
     private final Set <CodeOption> __codeOptions;
@@ -60,8 +87,12 @@ public final class DiSL {
 
     private final Set <Scope> __excludedScopes;
 
+    private final ScopeIndex <Scope> __exclusionIndex;
+
     private final DislClasses __dislClasses;
 
+    private final String __fingerprint;
+
 
     /**
      * Initializes a DiSL instance by loading transformers, exclusion lists, and
@@ -91,7 +122,9 @@ public final class DiSL {
         final ClassResources resources = ClassResources.discover (properties);
         __transformers = Transformers.load (resources.transformers ());
         __excludedScopes = ExclusionSet.prepare (resources.instrumentationResources ());
+        __exclusionIndex = ExclusionSet.index (__excludedScopes);
         __dislClasses = DislClasses.load (__codeOptions, resources.dislClasses ());
+        __fingerprint = __fingerprintOf (__codeOptions, resources);
     }
 
 
@@ -100,12 +133,15 @@ public final class DiSL {
      */
     private DiSL (
         final Set <CodeOption> codeOptions, final Transformers transformers,
-        final Set <Scope> excludedScopes, final DislClasses dislClasses
+        final Set <Scope> excludedScopes, final DislClasses dislClasses,
+        final String fingerprint
     ) {
         __codeOptions = codeOptions;
         __transformers = transformers;
         __excludedScopes = excludedScopes;
+        __exclusionIndex = ExclusionSet.index (excludedScopes);
         __dislClasses = dislClasses;
+        __fingerprint = fingerprint;
     }
 
 
@@ -135,7 +171,7 @@ public final class DiSL {
      * @throws DiSLException
      *         if the initialization failed.
      */
-    private static DiSL init (final Properties properties) throws DiSLException {
+    static DiSL init (final Properties properties) throws DiSLException {
         final Set <CodeOption> codeOptions = __codeOptionsFrom (
             Objects.requireNonNull (properties)
         );
@@ -153,7 +189,119 @@ public final class DiSL {
         // also it can warn about unknown opcodes if you let user to
         // specify this for InstructionMarker
 
-        return new DiSL (codeOptions, transformers, excludedScopes, dislClasses);
+        final String fingerprint = __fingerprintOf (codeOptions, resources);
+        return new DiSL (
+            codeOptions, transformers, excludedScopes, dislClasses, fingerprint
+        );
+    }
+
+
+    /**
+     * Computes a fingerprint of the instrumentation performed by a DiSL
+     * instance. The fingerprint covers the DiSL implementation, the code
+     * options, the contents of the instrumentation JAR files, the DiSL and
+     * transformer classes, and the user-defined exclusion list.
+     */
+    private static String __fingerprintOf (
+        final Set <CodeOption> codeOptions, final ClassResources resources
+    ) {
+        final MessageDigest digest = __newDigest ();
+        digest.update (__implementationDigest ());
+        digest.update (ByteBuffer.allocate (Integer.BYTES).putInt (
+            CodeOption.flagsOf (codeOptions)
+        ).array ());
+
+        resources.digestInto (digest);
+
+        final String exclusionList = System.getProperty ("disl.exclusionList", "");
+        if (!exclusionList.isEmpty ()) {
+            try {
+                digest.update (Files.readAllBytes (Paths.get (exclusionList)));
+            } catch (final IOException ioe) {
+                // the exclusion list loader reports the problem
+            }
+        }
+
+        final StringBuilder result = new StringBuilder ();
+        for (final byte b : digest.digest ()) {
+            result.append (String.format ("%02x", b));
+        }
+
+        return result.toString ();
+    }
+
+
+    /**
+     * Digest of the DiSL implementation, computed on first use. Changes to
+     * the weaver change the instrumented classes even if the instrumentation
+     * stays the same.
+     */
+    private static volatile byte [] __implementationDigest__;
+
+    private static byte [] __implementationDigest () {
+        byte [] result = __implementationDigest__;
+        if (result == null) {
+            result = __digestImplementation ();
+            __implementationDigest__ = result;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Digests the DiSL implementation, i.e., the JAR file or the directory
+     * tree the DiSL classes were loaded from. If the location is not known,
+     * only the DiSL version contributes to the digest.
+     */
+    private static byte [] __digestImplementation () {
+        final MessageDigest digest = __newDigest ();
+
+        final String version = DiSL.class.getPackage ().getImplementationVersion ();
+        digest.update (String.valueOf (version).getBytes (StandardCharsets.UTF_8));
+
+        try {
+            final CodeSource source = DiSL.class.getProtectionDomain ().getCodeSource ();
+            if (source == null || source.getLocation () == null) {
+                throw new IOException ("unknown location of DiSL classes");
+            }
+
+            final Path location = Paths.get (source.getLocation ().toURI ());
+            if (Files.isDirectory (location)) {
+                try (final Stream <Path> paths = Files.walk (location)) {
+                    final List <Path> files = paths.filter (Files::isRegularFile)
+                        .sorted ().collect (Collectors.toList ());
+
+                    for (final Path file : files) {
+                        digest.update (location.relativize (file).toString ().getBytes (StandardCharsets.UTF_8));
+                        digest.update (Files.readAllBytes (file));
+                    }
+                }
+
+            } else {
+                digest.update (Files.readAllBytes (location));
+            }
+
+        } catch (final IOException | URISyntaxException | RuntimeException e) {
+            Logging.getPackageInstance ().warn (
+                "failed to digest DiSL implementation, cached classes may be stale: %s",
+                e.getMessage ()
+            );
+        }
+
+        return digest.digest ();
+    }
+
+
+    private static MessageDigest __newDigest () {
+        try {
+            return MessageDigest.getInstance ("SHA-256");
+
+        } catch (final NoSuchAlgorithmException nsae) {
+            throw new InitializationException (
+                nsae, "failed to compute instrumentation fingerprint"
+            );
+        }
     }
 
 
@@ -200,20 +348,29 @@ public final class DiSL {
      *        class that will be instrumented
      * @param methodNode
      *        method in the classNode argument, that will be instrumented
-     * @return {@code true} if the methods was changed, {@code false} otherwise.
+     * @param classSnippets
+     *        snippets with a scope matching the class being instrumented
+     * @param classExclusions
+     *        exclusions with a scope matching the class being instrumented
+     * @param staticContextCache
+     *        cache of static context values shared by the methods of the class
+     * @return A copy of the original (un-instrumented) method if the method
+     *         was changed, {@code null} otherwise.
      */
-    private boolean instrumentMethod (
-        final ClassNode classNode, final MethodNode methodNode
+    private MethodNode instrumentMethod (
+        final ClassNode classNode, final MethodNode methodNode,
+        final ClassItems <Snippet> classSnippets, final ClassItems <Scope> classExclusions,
+        final SCGenerator.Cache staticContextCache
     ) throws DiSLException {
 
         // skip abstract methods
         if ((methodNode.access & Opcodes.ACC_ABSTRACT) != 0) {
-            return false;
+            return null;
         }
 
         // skip native methods
         if ((methodNode.access & Opcodes.ACC_NATIVE) != 0) {
-            return false;
+            return null;
         }
 
         final String className = classNode.name;
@@ -222,13 +379,13 @@ public final class DiSL {
 
         // evaluate exclusions
         // TODO LB: Add support for inclusion
-        final Optional <Scope> excludeMatch = __excludedScopes.stream ()
-            .filter (ex -> ex.matches (className, methodName, methodDesc))
-            .findFirst ();
+        final Optional <Scope> excludeMatch = classExclusions.findFirst (
+            methodName, methodDesc
+        );
 
         if (excludeMatch.isPresent ()) {
             __log.debug ("excluded %s.%s%s via %s", className, methodName, methodDesc, excludeMatch.get ());
-            return false;
+            return null;
         }
 
 
@@ -237,14 +394,14 @@ public final class DiSL {
         // instrumented. If there are no such snippets, there is nothing to
         // instrument and we can bail out early.
         //
-        final List <Snippet> matchingSnippets = __dislClasses.selectMatchingSnippets (
-            className, methodName, methodDesc
+        final List <Snippet> matchingSnippets = classSnippets.select (
+            methodName, methodDesc
         );
 
         if (matchingSnippets.isEmpty ()) {
             __log.debug ("skipping unaffected method: %s.%s%s",
                 className, methodName, methodDesc);
-            return false;
+            return null;
         }
 
 
@@ -254,12 +411,13 @@ public final class DiSL {
         // list of shadows through guards and collect snippets that have
         // at least one applicable shadow.
         //
+        final MethodMarkings markings = new MethodMarkings (classNode, methodNode);
         final Map<Snippet, List<Shadow>> applicableSnippets = new HashMap <> ();
         for (final Snippet snippet : matchingSnippets) {
             __log.trace ("\tsnippet: %s.%s()",
                 snippet.getOriginClassName (), snippet.getOriginMethodName ());
 
-            final List <Shadow> applicableShadows = snippet.selectApplicableShadows (classNode, methodNode);
+            final List <Shadow> applicableShadows = snippet.selectApplicableShadows (markings);
             __log.trace ("\tapplicable shadows: %d", applicableShadows.size ());
 
             if (!applicableShadows.isEmpty ()) {
@@ -273,7 +431,9 @@ public final class DiSL {
             className, methodName, methodDesc);
 
         // prepares SCGenerator class (computes static context)
-        final SCGenerator staticInfo = SCGenerator.computeStaticInfo (applicableSnippets);
+        final SCGenerator staticInfo = SCGenerator.computeStaticInfo (
+            applicableSnippets, staticContextCache
+        );
 
         // *** used synthetic and thread-local vars in snippets ***
 
@@ -305,19 +465,72 @@ public final class DiSL {
             __log.debug ("found %d snippet marking(s), weaving method: %s.%s%s",
                 applicableSnippets.size (), className, methodName, methodDesc);
 
+            //
+            // Preserve the original code of the method for the code merger.
+            // Only methods that are actually woven need to be copied.
+            //
+            final MethodNode originalMethod = AsmHelper.cloneMethod (methodNode);
+
             Weaver.instrument (
                 classNode, methodNode, applicableSnippets,
                 usedSLVs, usedTLVs, staticInfo, piResolver
             );
 
-            return true;
+            return originalMethod;
 
         } else {
             __log.debug ("found %d snippet marking(s), skipping method: %s.%s%s",
                 applicableSnippets.size (), className, methodName, methodDesc);
 
-            return false;
+            return null;
+        }
+    }
+
+
+    /**
+     * Selects methods of the class with the given outline that may need to
+     * be instrumented, i.e., methods which are neither abstract, native, nor
+     * excluded, and which are matched by the scope of at least one snippet.
+     * Only the class name and method signatures and access flags are needed
+     * for this.
+     *
+     * @return names immediately followed by descriptors of the selected
+     *         methods.
+     */
+    private Set <String> __selectMethods (final ClassNode outline) {
+        final Set <String> result = new HashSet <> ();
+
+        final ClassItems <Snippet> classSnippets = __dislClasses.selectClassSnippets (outline.name);
+        if (classSnippets.isEmpty ()) {
+            return result;
+        }
+
+        //
+        // Exclusions covering all methods of the class (e.g., classes from
+        // the instrumentation JAR files) are evaluated only once.
+        //
+        final ClassItems <Scope> classExclusions = __exclusionIndex.forClass (outline.name);
+        final Optional <Scope> classExclusion = classExclusions.findMatchingAllMethods ();
+        if (classExclusion.isPresent ()) {
+            __log.debug ("excluded %s via %s", outline.name, classExclusion.get ());
+            return result;
+        }
+
+        for (final MethodNode method : outline.methods) {
+            if ((method.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+                continue;
+            }
+
+            if (classExclusions.anyMatches (method.name, method.desc)) {
+                continue;
+            }
+
+            if (classSnippets.anyMatches (method.name, method.desc)) {
+                result.add (method.name + method.desc);
+            }
         }
+
+        return result;
     }
 
 
@@ -355,14 +568,16 @@ public final class DiSL {
      */
     private static class InstrumentedClass {
         final ClassNode classNode;
-        final Set <String> changedMethods;
+
+        /** Original versions of changed methods, keyed by name and descriptor. */
+        final Map <String, MethodNode> originalMethods;
 
 
         public InstrumentedClass (
-            final ClassNode classNode, final Set <String> changedMethods
+            final ClassNode classNode, final Map <String, MethodNode> originalMethods
         ) {
             this.classNode = classNode;
-            this.changedMethods = changedMethods;
+            this.originalMethods = originalMethods;
         }
     }
 
@@ -386,31 +601,57 @@ public final class DiSL {
         // to the Thread class.
         //
         boolean classChanged = false;
-        final Set <String> changedMethods = new HashSet <> ();
+        final Map <String, MethodNode> originalMethods = new HashMap <> ();
 
         //
-        // Instrument each method of the given class. Intercept any
-        // exceptions and propagate them upwards with the name of the
-        // method in which instrumentation failed.
+        // Instrument each method of the given class. Methods of large
+        // classes are instrumented in parallel, because the weaving state is
+        // local to each method, and static context instances are confined
+        // to the thread instrumenting a method. The results are collected
+        // by method index and merged in method order, so that the outcome
+        // does not depend on the order in which the methods were processed.
         //
-        for (final MethodNode methodNode : classNode.methods) {
-            boolean methodChanged = false;
-
-            try {
-                __log.trace (
-                    "processing method: %s.%s%s",
-                    classNode.name, methodNode.name, methodNode.desc
-                );
-
-                methodChanged = instrumentMethod (classNode, methodNode);
+        final List <MethodNode> methods = classNode.methods;
+        final MethodNode [] instrumented = new MethodNode [methods.size ()];
+        final DiSLException [] failures = new DiSLException [methods.size ()];
+
+        final ClassNode instrumentedClass = classNode;
+        final ClassItems <Snippet> classSnippets = __dislClasses.selectClassSnippets (classNode.name);
+        final ClassItems <Scope> classExclusions = __exclusionIndex.forClass (classNode.name);
+        final SCGenerator.Cache staticContextCache = new SCGenerator.Cache ();
+        final IntStream indices = IntStream.range (0, methods.size ());
+        (methods.size () >= __PARALLEL_WEAVING_THRESHOLD__ ? indices.parallel () : indices)
+            .forEach (i -> {
+                final MethodNode methodNode = methods.get (i);
+                try {
+                    __log.trace (
+                        "processing method: %s.%s%s",
+                        instrumentedClass.name, methodNode.name, methodNode.desc
+                    );
+
+                    instrumented [i] = instrumentMethod (
+                        instrumentedClass, methodNode, classSnippets, classExclusions,
+                        staticContextCache
+                    );
+
+                } catch (final DiSLException e) {
+                    failures [i] = e;
+                }
+            });
 
-            } catch (final DiSLException e) {
+        //
+        // Propagate the first failure (in method order) upwards with the
+        // name of the method in which instrumentation failed.
+        //
+        for (int i = 0; i < methods.size (); i++) {
+            final MethodNode methodNode = methods.get (i);
+            if (failures [i] != null) {
                 throw new DiSLInMethodException (
-                    classNode.name + "." + methodNode.name, e);
+                    classNode.name + "." + methodNode.name, failures [i]);
             }
 
-            if (methodChanged) {
-                changedMethods.add (methodNode.name + methodNode.desc);
+            if (instrumented [i] != null) {
+                originalMethods.put (methodNode.name + methodNode.desc, instrumented [i]);
                 classChanged = true;
             }
         }
@@ -419,7 +660,7 @@ public final class DiSL {
         // If the instrumented class is the Thread class, add fields that
         // will provide thread-local variables to the code in the snippets.
         //
-        if (Type.getInternalName (Thread.class).equals (classNode.name)) {
+        if (__isThreadClass (classNode)) {
             // get all thread locals in snippets
             final Set <ThreadLocalVar> tlvs = __collectReferencedTLVs (__dislClasses.getSnippets ());
 
@@ -441,11 +682,16 @@ public final class DiSL {
 
         // we have changed some methods
         return classChanged ?
-            new InstrumentedClass (classNode, changedMethods) :
+            new InstrumentedClass (classNode, originalMethods) :
             null;
     }
 
 
+    private static boolean __isThreadClass (final ClassNode classNode) {
+        return Type.getInternalName (Thread.class).equals (classNode.name);
+    }
+
+
     private ThreadLocalVar __createBypassTlv () {
         // prepare dynamic bypass thread local variable
         final ThreadLocalVar result = new ThreadLocalVar (
@@ -460,51 +706,248 @@ public final class DiSL {
     /**
      * Instruments the given class, provided as an array of bytes representing
      * the contents of its class file.
+     * <p>
+     * <b>Note:</b> This method is thread safe and multiple classes can be
+     * instrumented concurrently. All weaving state is local to the invocation,
+     * and static context instances are confined to the invoking thread.
      *
      * @param originalBytes
      *        the class to instrument as an array of bytes
      * @return An array of bytes representing the instrumented class, or
      *         {@code null} if the class has not been instrumented.
      */
-    // TODO ! current static context interface does not allow to have nice
-    // synchronization - it should be redesigned such as the staticContextData
-    // also invokes the required method and returns result - if this method
-    // (and static context class itself) will be synchronized, it should work
-    public synchronized byte [] instrument (
+    public byte [] instrument (
         final byte [] originalBytes
+    ) throws DiSLException {
+        return instrument (originalBytes, 0, originalBytes.length);
+    }
+
+
+    /**
+     * Instruments the given class, provided as a range of bytes in an array,
+     * representing the contents of its class file. Unless there are class
+     * transformers, the class is parsed directly from the given range, which
+     * allows instrumenting classes received into a larger buffer without
+     * copying them first.
+     * <p>
+     * <b>Note:</b> This method is thread safe and multiple classes can be
+     * instrumented concurrently. The given bytes are not modified.
+     *
+     * @param classBytes
+     *        the array containing the class to instrument
+     * @param offset
+     *        the offset of the class file in the array
+     * @param length
+     *        the length of the class file
+     * @return An array of bytes representing the instrumented class, or
+     *         {@code null} if the class has not been instrumented.
+     */
+    public byte [] instrument (
+        final byte [] classBytes, final int offset, final int length
+    ) throws DiSLException {
+        return instrumentClassBytes (classBytes, offset, length).classBytes ();
+    }
+
+
+    /**
+     * Instruments the given class just like
+     * {@link #instrument(byte[], int, int)}, but also indicates whether the
+     * result is reproducible, i.e., whether it depends only on the class and
+     * on classes completely known to the reflection model. Results that are
+     * not reproducible may differ once more classes become known, and should
+     * not be cached.
+     *
+     * @param classBytes
+     *        the array containing the class to instrument
+     * @param offset
+     *        the offset of the class file in the array
+     * @param length
+     *        the length of the class file
+     * @return An {@link InstrumentationResult} holding the instrumented class.
+     */
+    public InstrumentationResult instrumentClassBytes (
+        final byte [] classBytes, final int offset, final int length
     ) throws DiSLException {
         if (debug) {
             // keep the currently processed class around in case of errors
-            __dumpBytesToFile (originalBytes, "err.class");
+            __dumpBytesToFile (classBytes, offset, length, "err.class");
+        }
+
+        //
+        // Transformers work with whole arrays, so extract the class bytes
+        // if there are any transformers to apply.
+        //
+        final byte [] inputBytes;
+        final int inputOffset;
+        final int inputLength;
+        final boolean transformed;
+
+        if (__transformers.isEmpty ()) {
+            inputBytes = classBytes;
+            inputOffset = offset;
+            inputLength = length;
+            transformed = false;
+
+        } else {
+            final byte [] originalBytes = (offset == 0 && length == classBytes.length) ?
+                classBytes : Arrays.copyOfRange (classBytes, offset, offset + length);
+
+            inputBytes = __transformers.apply (originalBytes);
+            inputOffset = 0;
+            inputLength = inputBytes.length;
+            transformed = inputBytes != originalBytes;
+        }
+
+        //
+        // Parse just the outline of the class first. Most classes are not
+        // matched by any snippet scope, which can be determined from the
+        // method signatures alone, without parsing the whole class. The
+        // outline is also sufficient for the reflection model. The Thread
+        // class may need to be modified even if no methods are selected.
+        //
+        final ClassNode outlineCN = ClassOutline.parse (
+            inputBytes, inputOffset, inputLength
+        );
+
+        Reflection.systemClassLoader ().notifyClassLoaded (outlineCN);
+
+        final Set <String> selectedMethods = __selectMethods (outlineCN);
+        if (selectedMethods.isEmpty () && !__isThreadClass (outlineCN)) {
+            __log.debug ("skipping unaffected class: %s", outlineCN.name);
+            return new InstrumentationResult (transformed ? inputBytes : null, true);
+        }
+
+        //
+        // Parse the code of the selected methods only. The remaining
+        // methods are passed through when marshaling the class.
+        //
+        final ClassNode inputCN = PartialClassNode.parse (
+            inputBytes, inputOffset, inputLength, selectedMethods
+        );
+
+        //
+        // Weave the class. If the class is modified neither by DiSL, nor by
+        // any of the transformers, bail out early and return NULL to indicate
+        // that the class has not been modified in any way.
+        //
+        final ClassNode instCN = weaveClass (inputCN);
+        if (instCN == null) {
+            return new InstrumentationResult (transformed ? inputBytes : null, true);
         }
 
-        final byte [] transformedBytes = __transformers.apply (originalBytes);
-        final ClassNode inputCN = ClassNodeHelper.FULL.unmarshal (transformedBytes);
-        Reflection.systemClassLoader ().notifyClassLoaded (inputCN);
+        //
+        // Frames depend on the common super classes of the types merged at
+        // branch targets. Note whether any of them had to be approximated
+        // because the class hierarchy was not completely known.
+        //
+        final AtomicBoolean approximated = new AtomicBoolean ();
+        final BinaryOperator <String> commonSuperClass = (type1, type2) ->
+            Reflection.knownCommonSuperClass (type1, type2).orElseGet (() -> {
+                approximated.set (true);
+                return Type.getInternalName (Object.class);
+            });
 
         //
-        // Instrument the class. If the class is modified neither by DiSL,
-        // nor by any of the transformers, bail out early and return NULL
-        // to indicate that the class has not been modified in any way.
+        // Unless the class has been replaced, copy the methods that were not
+        // instrumented directly from the original class file. Derive the
+        // stack map frames of the instrumented methods from their original
+        // frames if possible, otherwise compute them from scratch.
         //
+        final byte [] instBytes;
+        if (instCN instanceof PartialClassNode) {
+            final boolean keepFrames = (instCN.version & 0xFFFF) >= Opcodes.V1_7
+                && instCN.methods.stream ().allMatch (
+                    mn -> StackMapFrames.derive (instCN.name, mn, commonSuperClass)
+                );
+
+            if (!keepFrames) {
+                __log.debug ("computing frames for class: %s", instCN.name);
+            }
+
+            instBytes = ((PartialClassNode) instCN).marshal (keepFrames, commonSuperClass);
+
+        } else {
+            instBytes = ClassNodeHelper.marshal (instCN, commonSuperClass);
+        }
+
+        if (approximated.get ()) {
+            __log.debug ("class hierarchy incomplete for class: %s", instCN.name);
+        }
+
+        return new InstrumentationResult (instBytes, !approximated.get ());
+    }
+
+
+    /**
+     * The result of instrumenting a class with
+     * {@link DiSL#instrumentClassBytes(byte[], int, int)}.
+     */
+    public static final class InstrumentationResult {
+        private final byte [] __classBytes;
+        private final boolean __reproducible;
+
+        InstrumentationResult (
+            final byte [] classBytes, final boolean reproducible
+        ) {
+            __classBytes = classBytes;
+            __reproducible = reproducible;
+        }
+
+        /**
+         * @return An array of bytes representing the instrumented class, or
+         *         {@code null} if the class has not been instrumented.
+         */
+        public byte [] classBytes () {
+            return __classBytes;
+        }
+
+        /**
+         * @return {@code true} if instrumenting the same class again would
+         *         produce the same result, i.e., if the result did not depend
+         *         on classes unknown to the reflection model.
+         */
+        public boolean isReproducible () {
+            return __reproducible;
+        }
+    }
+
+
+    /**
+     * Weaves the snippets into the given class and prepares the woven methods
+     * for marshaling, i.e., merges the original code for bypass and splits
+     * methods that have become too long. Methods that were parsed but not
+     * changed are dropped from a {@link PartialClassNode}, so that they are
+     * copied from the original class file. The stack map frames of the woven
+     * methods still need to be derived or computed.
+     *
+     * @param inputCN
+     *        the class to weave, modified during the invocation
+     * @return the woven class, or {@code null} if the class was not modified.
+     */
+    ClassNode weaveClass (final ClassNode inputCN) throws DiSLException {
         final InstrumentedClass instResult = instrumentClass (inputCN);
-        if (instResult == null && transformedBytes == originalBytes) {
+        if (instResult == null) {
             return null;
         }
 
-        // TODO LB: Try to avoid unmarshaling the class again (duplicate it).
-        final ClassNode origCN = ClassNodeHelper.FULL.unmarshal (transformedBytes);
+        //
+        // Drop methods that were parsed but not changed, so that they are
+        // copied from the original class file when marshaling.
+        //
+        final ClassNode instCN = instResult.classNode;
+        if (instCN instanceof PartialClassNode) {
+            instCN.methods.removeIf (
+                mn -> !instResult.originalMethods.containsKey (mn.name + mn.desc)
+            );
+        }
 
         //
         // If creating bypass code is requested, merge the original method code
         // with the instrumented method code and create code to switch between
         // the two versions based on the result of a bypass check.
         //
-        final ClassNode instCN = instResult.classNode;
         if (__codeOptions.contains (CodeOption.CREATE_BYPASS)) {
-            CodeMerger.mergeOriginalCode (
-                instResult.changedMethods, origCN, instCN
-            );
+            CodeMerger.mergeOriginalCode (instResult.originalMethods, instCN);
         }
 
 
@@ -516,20 +959,22 @@ public final class DiSL {
         // XXX LB: This will not help long methods produced by the transformers.
         //
         CodeMerger.fixupLongMethods (
-            __codeOptions.contains (CodeOption.SPLIT_METHODS), origCN, instCN
+            __codeOptions.contains (CodeOption.SPLIT_METHODS),
+            instResult.originalMethods, instCN
         );
 
-        return ClassNodeHelper.marshal (instCN);
+        return instCN;
     }
 
 
-    private void __dumpBytesToFile (
-        final byte [] classBytes, final String fileName
+    private synchronized void __dumpBytesToFile (
+        final byte [] classBytes, final int offset, final int length,
+        final String fileName
     ) {
         try {
             final FileOutputStream fos = new FileOutputStream (fileName);
             try {
-                fos.write (classBytes);
+                fos.write (classBytes, offset, length);
             } finally {
                 fos.close ();
             }
@@ -541,6 +986,95 @@ public final class DiSL {
     }
 
 
+    /**
+     * Returns the fingerprint of the instrumentation performed by this DiSL
+     * instance. Two DiSL instances with the same fingerprint are expected to
+     * produce identical output for identical input classes, which makes the
+     * fingerprint suitable for keying caches of instrumented classes.
+     *
+     * @return A hexadecimal string representing the fingerprint.
+     */
+    public String fingerprint () {
+        return __fingerprint;
+    }
+
+
+    /**
+     * Returns a summary of the classes that this DiSL instance may modify.
+     * Classes not matched by the summary are always left unmodified, which
+     * allows clients to avoid sending them for instrumentation at all.
+     *
+     * @return A {@link ScopeSummary} covering all snippet scopes.
+     */
+    public ScopeSummary scopeSummary () {
+        if (!__transformers.isEmpty ()) {
+            // Transformers may modify any class.
+            return ScopeSummary.matchingAny ();
+        }
+
+        final List <Scope> scopes = __dislClasses.getSnippets ().stream ()
+            .map (Snippet::getScope)
+            .collect (Collectors.toList ());
+
+        // The Thread class receives thread-local variable fields.
+        return ScopeSummary.forScopes (
+            scopes, __excludedScopes, Type.getInternalName (Thread.class)
+        );
+    }
+
+
+    /**
+     * Determines whether the selection of snippets or argument processors
+     * may depend on the reflection model, i.e., on classes other than the
+     * class being instrumented. The output of such instrumentation is not
+     * determined by the class alone, and requires all classes to be
+     * reported to DiSL.
+     *
+     * @return {@code true} if any snippet or argument processor guard may
+     *         depend on the reflection model.
+     */
+    public boolean dependsOnReflection () {
+        return __dislClasses.getSnippets ().stream ().anyMatch (snippet ->
+            GuardHelper.dependsOnReflection (snippet.getGuard ())
+            || snippet.getCode ().getInvokedProcessors ().values ().stream ()
+                .flatMap (pi -> pi.getProcessor ().getMethods ().stream ())
+                .anyMatch (apm -> GuardHelper.dependsOnReflection (apm.getGuard ()))
+        );
+    }
+
+
+    /**
+     * Adds the given class to the reflection model without instrumenting it.
+     * This is meant for classes whose instrumented version is already known,
+     * e.g., from a cache, but which still need to be known to the reflection
+     * model, just as if they were passed to {@link #instrument(byte[])}.
+     *
+     * @param classBytes
+     *        the array containing the class file
+     * @param offset
+     *        the offset of the class file in the array
+     * @param length
+     *        the length of the class file
+     */
+    public void notifyClassLoaded (
+        final byte [] classBytes, final int offset, final int length
+    ) throws DiSLException {
+        final ClassNode outlineCN;
+        if (__transformers.isEmpty ()) {
+            outlineCN = ClassOutline.parse (classBytes, offset, length);
+
+        } else {
+            final byte [] transformedBytes = __transformers.apply (
+                Arrays.copyOfRange (classBytes, offset, offset + length)
+            );
+
+            outlineCN = ClassOutline.parse (transformedBytes, 0, transformedBytes.length);
+        }
+
+        Reflection.systemClassLoader ().notifyClassLoaded (outlineCN);
+    }
+
+
     /**
      * Termination handler - should be invoked by the instrumentation framework.
      */
@@ -620,6 +1154,20 @@ public final class DiSL {
         }
 
 
+        /**
+         * Creates an integer with flags corresponding to the given code
+         * options. This is the inverse of {@link #setOf(int)}.
+         */
+        public static int flagsOf (final Set <CodeOption> options) {
+            int result = 0;
+            for (final CodeOption option : options) {
+                result |= option.__flag;
+            }
+
+            return result;
+        }
+
+
         /**
          * Creates a set of code options from flags in an integer.
          */
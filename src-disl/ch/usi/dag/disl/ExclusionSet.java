@@ -4,17 +4,20 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import ch.usi.dag.disl.scope.Scope;
+import ch.usi.dag.disl.scope.ScopeIndex;
 import ch.usi.dag.disl.scope.ScopeMatcher;
 import ch.usi.dag.disl.util.JavaNames;
 
@@ -44,6 +47,18 @@ abstract class ExclusionSet {
         }
     }
 
+
+    /**
+     * Creates an index of the given exclusions. Exclusions of whole classes
+     * (such as the classes in the instrumentation JAR files) are indexed by
+     * exact class name or class name prefix, so that they can be evaluated
+     * once per class instead of matching every exclusion against every
+     * method.
+     */
+    public static ScopeIndex <Scope> index (final Set <Scope> exclusions) {
+        return ScopeIndex.forItems (new ArrayList <> (exclusions), Function.identity ());
+    }
+
     //
 
     private static Set <Scope> __hardCodedExclusions () {
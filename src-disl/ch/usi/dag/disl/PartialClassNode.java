@@ -0,0 +1,177 @@
+package ch.usi.dag.disl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import ch.usi.dag.util.asm.ClassNodeHelper;
+
+
+/**
+ * A {@link ClassNode} in which only selected methods are materialized, i.e.,
+ * have their instructions parsed and stack map frames expanded. The other
+ * methods are not parsed at all and do not appear in the {@link #methods}
+ * list. When the node is visited, the class is read again from the original
+ * class file, and the methods in the {@link #methods} list replace their
+ * original counterparts, while all other methods are passed through from
+ * the class reader. Materialized methods that were not modified can be
+ * removed from the list to have them passed through as well.
+ * <p>
+ * Apart from the class version and the materialized methods, changes to the
+ * class structure are <b>not</b> reflected when visiting the node.
+ * <p>
+ * When marshaling the node using {@link #marshal()}, the class writer is
+ * seeded with the original class reader, so that the constant pool and the
+ * methods passed through are copied byte-for-byte, including their stack
+ * map frames.
+ */
+final class PartialClassNode extends ClassNode {
+
+    /**
+     * Frames are expanded for the methods passed through as well, because
+     * some visitors, e.g., {@link TLVInserter}, require expanded frames.
+     */
+    private static final int __READER_FLAGS__ = ClassReader.EXPAND_FRAMES;
+
+    //
+
+    private final ClassReader __reader;
+
+    private final Set <String> __selectedMethods;
+
+    //
+
+    private PartialClassNode (
+        final ClassReader reader, final Set <String> selectedMethods
+    ) {
+        super (Opcodes.ASM9);
+
+        __reader = reader;
+        __selectedMethods = selectedMethods;
+    }
+
+    //
+
+    /**
+     * Parses a class from the given range of the given array, materializing
+     * only the selected methods. The array must not be modified as long as
+     * the resulting node is in use.
+     *
+     * @param selectedMethods
+     *        the methods to materialize, identified by their name immediately
+     *        followed by their descriptor
+     */
+    public static ClassNode parse (
+        final byte [] bytes, final int offset, final int length,
+        final Set <String> selectedMethods
+    ) {
+        final ClassReader reader = new ClassReader (bytes, offset, length);
+        final PartialClassNode result = new PartialClassNode (reader, selectedMethods);
+        reader.accept (result, __READER_FLAGS__);
+        return result;
+    }
+
+    //
+
+    @Override
+    public MethodVisitor visitMethod (
+        final int access, final String name, final String descriptor,
+        final String signature, final String [] exceptions
+    ) {
+        if (__selectedMethods.contains (name + descriptor)) {
+            return super.visitMethod (access, name, descriptor, signature, exceptions);
+        }
+
+        // Skip the method, it will be passed through when visiting the node.
+        return null;
+    }
+
+
+    @Override
+    public void accept (final ClassVisitor cv) {
+        //
+        // Collect the materialized methods so that we can substitute them
+        // for the original methods. Methods not present in the original
+        // class are emitted at the end of the class.
+        //
+        final Map <String, MethodNode> materialized = new LinkedHashMap <> ();
+        methods.forEach (mn -> materialized.put (mn.name + mn.desc, mn));
+
+        __reader.accept (new ClassVisitor (Opcodes.ASM9, cv) {
+            @Override
+            public void visit (
+                final int version, final int access, final String name,
+                final String signature, final String superName,
+                final String [] interfaces
+            ) {
+                // The version may have been upgraded in the node.
+                super.visit (
+                    PartialClassNode.this.version, access, name,
+                    signature, superName, interfaces
+                );
+            }
+
+
+            @Override
+            public MethodVisitor visitMethod (
+                final int access, final String name, final String descriptor,
+                final String signature, final String [] exceptions
+            ) {
+                final MethodNode mn = materialized.remove (name + descriptor);
+                if (mn != null) {
+                    mn.accept (cv);
+                    return null;
+
+                } else {
+                    return super.visitMethod (
+                        access, name, descriptor, signature, exceptions
+                    );
+                }
+            }
+
+
+            @Override
+            public void visitEnd () {
+                materialized.values ().forEach (mn -> mn.accept (cv));
+                super.visitEnd ();
+            }
+        }, __READER_FLAGS__);
+    }
+
+
+    /**
+     * Marshals the node into an array of bytes representing the contents
+     * of a class file, copying the methods that are passed through from
+     * the original class file.
+     *
+     * @param keepFrames
+     *        whether the stack map frames of the materialized methods are
+     *        valid and should be kept instead of being computed
+     */
+    public byte [] marshal (final boolean keepFrames) {
+        return marshal (keepFrames, Reflection::commonSuperClass);
+    }
+
+
+    /**
+     * Marshals the node like {@link #marshal(boolean)}, using the given
+     * function to determine the common super class of two classes when
+     * computing stack map frames.
+     */
+    public byte [] marshal (
+        final boolean keepFrames, final BinaryOperator <String> commonSuperClass
+    ) {
+        return ClassNodeHelper.marshal (
+            this, __reader, keepFrames, commonSuperClass
+        );
+    }
+
+}
@@ -5,13 +5,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
@@ -34,6 +37,200 @@ public final class Reflection {
 
     //
 
+    private static final String __OBJECT_CLASS_NAME__ = Type.getInternalName (Object.class);
+
+    /**
+     * Memoized common super classes, keyed by an unordered pair of classes
+     * compared by identity.
+     */
+    private static final ConcurrentMap <ClassPair, String> __commonSuperClasses__ =
+        new ConcurrentHashMap <> ();
+
+    /**
+     * Names of classes that were loaded multiple times with different
+     * hierarchies, e.g., by different class loaders. Because the classes are
+     * merged into the system class loader, the hierarchy of such classes is
+     * not known reliably.
+     */
+    private static final Set <String> __ambiguousClassNames__ =
+        ConcurrentHashMap.newKeySet ();
+
+
+    /**
+     * Returns the internal name of the closest common super class of the
+     * two given classes, as required by the ASM class writer when computing
+     * stack map frames. The common super class is determined from the
+     * classes known to the system class loader, without loading any
+     * classes. If either of the classes is an interface or an array, or if
+     * the class hierarchy is not completely and unambiguously known, the
+     * result is the {@link Object} class.
+     *
+     * @param internalName1
+     *        the internal name of the first class
+     * @param internalName2
+     *        the internal name of the second class
+     * @return the internal name of the common super class.
+     */
+    public static String commonSuperClass (
+        final String internalName1, final String internalName2
+    ) {
+        return knownCommonSuperClass (internalName1, internalName2).orElse (
+            __OBJECT_CLASS_NAME__
+        );
+    }
+
+
+    /**
+     * Returns the internal name of the closest common super class of the
+     * two given classes, provided that it can be determined from a complete
+     * and unambiguous class hierarchy. If either of the classes is an
+     * interface or an array, the result is the {@link Object} class. The
+     * result is empty if the answer depends on classes that are not (yet)
+     * known to the system class loader, or that are ambiguous. Only results
+     * that are not empty are memoized, because the missing classes may
+     * become known later.
+     *
+     * @param internalName1
+     *        the internal name of the first class
+     * @param internalName2
+     *        the internal name of the second class
+     * @return the internal name of the common super class, or an empty
+     *         {@link Optional} if the class hierarchy is not sufficiently
+     *         known.
+     */
+    public static Optional <String> knownCommonSuperClass (
+        final String internalName1, final String internalName2
+    ) {
+        if (internalName1.equals (internalName2)) {
+            return Optional.of (internalName1);
+        }
+
+        if (internalName1.startsWith ("[") || internalName2.startsWith ("[")) {
+            return Optional.of (__OBJECT_CLASS_NAME__);
+        }
+
+        final Optional <Class> class1 = __root__.classForInternalName (internalName1);
+        final Optional <Class> class2 = __root__.classForInternalName (internalName2);
+        if (!class1.isPresent () || !class2.isPresent ()) {
+            return Optional.empty ();
+        }
+
+        final ClassPair key = new ClassPair (class1.get (), class2.get ());
+        final String result = __commonSuperClasses__.get (key);
+        if (result != null) {
+            return Optional.of (result);
+        }
+
+        final int ambiguousCount = __ambiguousClassNames__.size ();
+        final Optional <String> computed = __computeCommonSuperClass (
+            class1.get (), class2.get ()
+        );
+
+        if (computed.isPresent ()) {
+            __commonSuperClasses__.putIfAbsent (key, computed.get ());
+            if (__ambiguousClassNames__.size () != ambiguousCount) {
+                // A class became ambiguous while computing, drop the result.
+                __commonSuperClasses__.remove (key);
+                return Optional.empty ();
+            }
+        }
+
+        return computed;
+    }
+
+
+    /**
+     * Records that a class with the given name was loaded with a hierarchy
+     * different from the one already known. Common super classes involving
+     * the class are no longer computed, and memoized results are dropped,
+     * because they may have been computed from the other hierarchy.
+     */
+    private static void __notifyAmbiguousClass (final String internalName) {
+        if (__ambiguousClassNames__.add (internalName)) {
+            __commonSuperClasses__.clear ();
+        }
+    }
+
+
+    private static Optional <String> __computeCommonSuperClass (
+        final Class class1, final Class class2
+    ) {
+        if (class1.isInterface () || class2.isInterface ()) {
+            return Optional.of (__OBJECT_CLASS_NAME__);
+        }
+
+        try {
+            final List <String> superClasses1 = __superClassNames (class1);
+            if (superClasses1.stream ().anyMatch (__ambiguousClassNames__::contains)) {
+                return Optional.empty ();
+            }
+
+            for (
+                Optional <Class> current = Optional.of (class2);
+                current.isPresent ();
+                current = current.get ().superClass ()
+            ) {
+                final String name = current.get ().internalName ();
+                if (__ambiguousClassNames__.contains (name)) {
+                    return Optional.empty ();
+                }
+
+                if (superClasses1.contains (name)) {
+                    return Optional.of (name);
+                }
+            }
+
+            return Optional.of (__OBJECT_CLASS_NAME__);
+
+        } catch (final MissingClassException mce) {
+            return Optional.empty ();
+        }
+    }
+
+
+    private static List <String> __superClassNames (final Class cls) {
+        final List <String> result = new ArrayList <> ();
+        for (
+            Optional <Class> current = Optional.of (cls);
+            current.isPresent ();
+            current = current.get ().superClass ()
+        ) {
+            result.add (current.get ().internalName ());
+        }
+
+        return result;
+    }
+
+    //
+
+    private static final class ClassPair {
+        final Class first;
+        final Class second;
+
+        ClassPair (final Class first, final Class second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int hashCode () {
+            return System.identityHashCode (first) ^ System.identityHashCode (second);
+        }
+
+        @Override
+        public boolean equals (final Object object) {
+            if (object instanceof ClassPair) {
+                final ClassPair that = (ClassPair) object;
+                return (first == that.first && second == that.second)
+                    || (first == that.second && second == that.first);
+            }
+
+            return false;
+        }
+    }
+
+    //
+
     @SuppressWarnings ("serial")
     public static class MissingClassException extends RuntimeException {
         final String __internalName;
@@ -71,9 +268,13 @@ public final class Reflection {
         //
 
         void notifyClassLoaded (final ClassNode cn) {
-            __classes.computeIfAbsent (
+            final Class known = __classes.computeIfAbsent (
                 cn.name, k -> new RegularClass (this, cn)
             );
+
+            if (known instanceof RegularClass && !((RegularClass) known).hasHierarchyOf (cn)) {
+                __notifyAmbiguousClass (cn.name);
+            }
         }
 
         //
@@ -414,6 +615,16 @@ public final class Reflection {
         }
 
 
+        /**
+         * Determines whether the given class node has the same super class
+         * and kind (class or interface) as this class.
+         */
+        boolean hasHierarchyOf (final ClassNode node) {
+            return Objects.equals (__superName.orElse (null), node.superName)
+                && ((__modifiers ^ node.access) & Opcodes.ACC_INTERFACE) == 0;
+        }
+
+
         private ConcurrentMap <String, Method> __createMethods (final List <MethodNode> methods) {
             return methods.parallelStream ()
                 .map (mn -> new Method (this, mn))
@@ -16,6 +16,11 @@ class Transformers {
         __transformers = transformers;
     }
 
+    public boolean isEmpty () {
+        return __transformers.isEmpty ();
+    }
+
+
     public byte [] apply (
         final byte [] originalBytes
     ) throws TransformerException {
@@ -0,0 +1,59 @@
+package ch.usi.dag.disl.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Declares the granularity at which the values of static context methods stay
+ * constant. DiSL invokes such a method only once for each class, method, or
+ * basic block, and reuses the value for all shadows at that granularity.
+ * <p>
+ * This annotation can be used with static context methods and static context
+ * classes. An annotation on a method takes precedence over the annotation on
+ * the class declaring the method. The annotation on a class applies only to
+ * the methods declared in that class, not to the methods declared in its
+ * subclasses. Without an annotation, the value of a static context method is
+ * assumed to be specific to each shadow.
+ */
+@Documented
+@Target ({ ElementType.METHOD, ElementType.TYPE })
+@Retention (RetentionPolicy.RUNTIME) // to resolve annotation using reflection
+public @interface ConstantPer {
+
+    /**
+     * The granularity at which a static context value stays constant.
+     */
+    public enum Granularity {
+        /**
+         * The value depends only on the instrumented class.
+         */
+        CLASS,
+
+        /**
+         * The value depends only on the instrumented method.
+         */
+        METHOD,
+
+        /**
+         * The value depends only on the instrumented method and the basic
+         * block containing the start of the shadow region. DiSL reuses the
+         * value for shadows starting at the same instruction.
+         */
+        BASIC_BLOCK,
+
+        /**
+         * The value may be different for each shadow.
+         */
+        SHADOW;
+    }
+
+    /**
+     * The granularity at which the static context value stays constant.
+     */
+    Granularity value ();
+
+}
@@ -19,6 +19,7 @@ import ch.usi.dag.disl.exception.ReflectionException;
 import ch.usi.dag.disl.exception.StaticContextGenException;
 import ch.usi.dag.disl.localvar.LocalVars;
 import ch.usi.dag.disl.processor.ArgProcessor;
+import ch.usi.dag.disl.scope.ScopeIndex;
 import ch.usi.dag.disl.snippet.Snippet;
 import ch.usi.dag.util.asm.ClassNodeHelper;
 
@@ -31,11 +32,15 @@ public final class DislClasses {
 
     private final SnippetParser __snippetParser;
 
+    /** Snippets indexed by scope, compiled when loading the classes. */
+    private final ScopeIndex <Snippet> __snippetIndex;
+
     //
 
     private DislClasses (final SnippetParser snippetParser) {
         // not to be instantiated from outside
         __snippetParser = snippetParser;
+        __snippetIndex = ScopeIndex.forItems (snippetParser.getSnippets (), Snippet::getScope);
     }
 
     //
@@ -142,11 +147,16 @@ public final class DislClasses {
         return __snippetParser.getSnippets ();
     }
 
-    public List <Snippet> selectMatchingSnippets (
-        final String className, final String methodName, final String methodDesc
-    ) {
-        return __snippetParser.getSnippets ().stream ().unordered ()
-            .filter (s -> s.getScope ().matches (className, methodName, methodDesc))
-            .collect (Collectors.toList ());
+    /**
+     * Selects snippets with a scope that may match methods of the given
+     * class. Classes not matched by any snippet scope are rejected at once,
+     * and the snippets matching a particular method of the class are then
+     * selected by method name.
+     *
+     * @param className
+     *        <b>internal name</b> of the class to select snippets for
+     */
+    public ScopeIndex.ClassItems <Snippet> selectClassSnippets (final String className) {
+        return __snippetIndex.forClass (className);
     }
 }
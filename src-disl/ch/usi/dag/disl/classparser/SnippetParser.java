@@ -2,11 +2,14 @@ package ch.usi.dag.disl.classparser;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 import org.objectweb.asm.Type;
@@ -50,6 +53,13 @@ class SnippetParser extends AbstractParser {
 
     private final List <Snippet> snippets = new LinkedList <> ();
 
+    /**
+     * Markers keyed by marker type and parameter. Snippets using the same
+     * marker with the same parameter share the marker instance, which allows
+     * marking each method only once for all of them.
+     */
+    private final ConcurrentMap <List <Object>, Marker> __markers = new ConcurrentHashMap <> ();
+
 
     public List <Snippet> getSnippets () {
         return snippets;
@@ -128,7 +138,7 @@ class SnippetParser extends AbstractParser {
 
         //
 
-        final Marker marker = getMarker (data.marker, data.args);
+        final Marker marker = __sharedMarker (data.marker, data.args);
         final Scope scope = ScopeMatcher.forPattern (data.scope);
         final Method guard = GuardHelper.findAndValidateGuardMethod (
             AbstractParser.getGuard (data.guard), GuardHelper.snippetContextSet ()
@@ -273,6 +283,22 @@ class SnippetParser extends AbstractParser {
 
     //
 
+    private Marker __sharedMarker (
+        final Type markerType, final String markerParam
+    ) throws ReflectionException, MarkerException {
+        final List <Object> key = Arrays.asList (markerType, markerParam);
+
+        final Marker result = __markers.get (key);
+        if (result != null) {
+            return result;
+        }
+
+        final Marker marker = getMarker (markerType, markerParam);
+        final Marker existing = __markers.putIfAbsent (key, marker);
+        return (existing != null) ? existing : marker;
+    }
+
+
     private Marker getMarker (
         final Type markerType, final String markerParam
     ) throws ReflectionException, MarkerException {
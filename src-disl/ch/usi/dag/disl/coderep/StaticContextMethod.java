@@ -1,7 +1,13 @@
 package ch.usi.dag.disl.coderep;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
+import ch.usi.dag.disl.InitializationException;
+import ch.usi.dag.disl.annotation.ConstantPer;
+import ch.usi.dag.disl.annotation.ConstantPer.Granularity;
 import ch.usi.dag.disl.exception.StaticContextGenException;
 import ch.usi.dag.disl.staticcontext.StaticContext;
 
@@ -31,6 +37,17 @@ public class StaticContextMethod {
      */
     private final Class <?> __referencedClass;
 
+    /**
+     * The static context method linked for invocation on a
+     * {@link StaticContext} instance, returning a boxed value.
+     */
+    private final MethodHandle __handle;
+
+    /**
+     * The granularity at which the values of the method stay constant.
+     */
+    private final Granularity __granularity;
+
 
     public StaticContextMethod (
         final String id, final Method method, final Class <?> referencedClass
@@ -38,6 +55,40 @@ public class StaticContextMethod {
         __id = id;
         __method = method;
         __referencedClass = referencedClass;
+        __handle = __link (method);
+        __granularity = granularityOf (method);
+    }
+
+
+    private static MethodHandle __link (final Method method) {
+        try {
+            method.setAccessible (true);
+            return MethodHandles.lookup ().unreflect (method).asType (
+                MethodType.methodType (Object.class, StaticContext.class)
+            );
+
+        } catch (final IllegalAccessException | RuntimeException e) {
+            throw new InitializationException (
+                e, "failed to link static context method %s.%s",
+                method.getDeclaringClass ().getName (), method.getName ()
+            );
+        }
+    }
+
+
+    /**
+     * Determines the granularity at which the values of the given static
+     * context method stay constant. The {@link ConstantPer} annotation on the
+     * method takes precedence over the annotation on its declaring class. In
+     * absence of both, the values are assumed to be specific to each shadow.
+     */
+    public static Granularity granularityOf (final Method method) {
+        ConstantPer constantPer = method.getAnnotation (ConstantPer.class);
+        if (constantPer == null) {
+            constantPer = method.getDeclaringClass ().getAnnotation (ConstantPer.class);
+        }
+
+        return (constantPer != null) ? constantPer.value () : Granularity.SHADOW;
     }
 
 
@@ -56,6 +107,16 @@ public class StaticContextMethod {
     }
 
 
+    /**
+     * @return The granularity at which the values of the static context
+     *         method stay constant, as declared using the {@link ConstantPer}
+     *         annotation.
+     */
+    public Granularity getGranularity () {
+        return __granularity;
+    }
+
+
     /**
      * Invokes the static context method on the given static context instance.
      *
@@ -69,10 +130,9 @@ public class StaticContextMethod {
         final StaticContext staticContext
     ) throws StaticContextGenException {
         try {
-            __method.setAccessible (true);
-            return __method.invoke (staticContext);
+            return (Object) __handle.invokeExact (staticContext);
 
-        } catch (final Exception e) {
+        } catch (final Throwable e) {
             throw new StaticContextGenException (
                 e, "Invocation of static context method %s.%s failed",
                 __method.getDeclaringClass ().getName (), __method.getName ()
@@ -4,24 +4,40 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Formatter;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import ch.usi.dag.disl.exception.DiSLFatalException;
+import ch.usi.dag.disl.annotation.ConstantPer.Granularity;
 import ch.usi.dag.disl.exception.GuardException;
-import ch.usi.dag.disl.exception.GuardRuntimeException;
-import ch.usi.dag.disl.exception.ReflectionException;
 import ch.usi.dag.disl.guardcontext.GuardContext;
+import ch.usi.dag.disl.guardcontext.ReflectionStaticContext;
 import ch.usi.dag.disl.processor.generator.ProcMethodInstance;
 import ch.usi.dag.disl.processorcontext.ArgumentContext;
 import ch.usi.dag.disl.resolver.GuardMethod;
 import ch.usi.dag.disl.resolver.GuardResolver;
-import ch.usi.dag.disl.resolver.SCResolver;
 import ch.usi.dag.disl.snippet.Shadow;
 import ch.usi.dag.disl.staticcontext.StaticContext;
+import ch.usi.dag.disl.staticcontext.generator.SCGenerator;
 import ch.usi.dag.disl.util.ReflectionHelper;
 
 public abstract class GuardHelper {
 
+    /**
+     * The minimal number of shadows for which a guard is evaluated in
+     * parallel.
+     */
+    private static final int __PARALLEL_GUARD_THRESHOLD__ = 32;
+
+    /** Invokers of guard methods that have already been used. */
+    private static final ConcurrentMap <Method, GuardInvoker> __invokers__ = new ConcurrentHashMap <> ();
+
+
     public static Method findAndValidateGuardMethod (
         final Class <?> guardClass, final Set <Class <?>> validArgs
     ) throws GuardException {
@@ -145,6 +161,76 @@ public abstract class GuardHelper {
     }
 
 
+    /**
+     * Selects the shadows for which the given snippet guard method returns
+     * {@code true}. If the guard depends only on static context values that
+     * are constant per class, method, or basic block, the guard is invoked
+     * only once for each class, method, or basic block. For methods with
+     * many shadows, the guard is evaluated in parallel.
+     *
+     * @param guardMethod
+     *        the guard method, may be {@code null}
+     * @param shadows
+     *        the list of {@link Shadow} instances to filter
+     * @return A list of {@link Shadow} instances passing the guard, in the
+     *         original order.
+     */
+    public static List <Shadow> selectApplicable (
+        final Method guardMethod, final List <Shadow> shadows
+    ) {
+        if (guardMethod == null) {
+            return shadows;
+        }
+
+        final GuardInvoker invoker = __invokerFor (guardMethod);
+        final Granularity granularity = invoker.granularity ();
+
+        final Predicate <Shadow> applicable;
+        if (granularity == Granularity.SHADOW) {
+            applicable = shadow -> invoker.invoke (shadow, null);
+
+        } else {
+            final Map <Object, Boolean> results = new ConcurrentHashMap <> ();
+            applicable = shadow -> results.computeIfAbsent (
+                SCGenerator.scopeOf (granularity, shadow),
+                scope -> invoker.invoke (shadow, null)
+            );
+        }
+
+        //
+        // Static context instances are confined to the thread evaluating the
+        // guard, so the shadows can be filtered in parallel.
+        //
+        final Stream <Shadow> stream = (shadows.size () >= __PARALLEL_GUARD_THRESHOLD__) ?
+            shadows.parallelStream () : shadows.stream ();
+
+        return stream.filter (applicable).collect (Collectors.toList ());
+    }
+
+
+    /**
+     * Determines whether the result of the given guard method may depend on
+     * the reflection model, i.e., on classes other than the one being
+     * instrumented. This is the case if the guard uses the
+     * {@link ReflectionStaticContext}, or a {@link GuardContext}, which can
+     * invoke arbitrary other guards.
+     *
+     * @param guardMethod
+     *        the guard method, may be {@code null}
+     * @return {@code true} if the guard may depend on the reflection model.
+     */
+    public static boolean dependsOnReflection (final Method guardMethod) {
+        if (guardMethod == null) {
+            return false;
+        }
+
+        return Stream.of (guardMethod.getParameterTypes ()).anyMatch (
+            type -> ReflectionStaticContext.class.isAssignableFrom (type)
+                || GuardContext.class.isAssignableFrom (type)
+        );
+    }
+
+
     // invoke guard method for snippet guard
     public static boolean guardApplicable (final Method guardMethod, final Shadow shadow) {
         if (guardMethod == null) {
@@ -202,63 +288,12 @@ public abstract class GuardHelper {
     private static boolean invokeGuardMethod (
         final Method guardMethod, final Shadow shadow, final ArgumentContext ac
     ) {
-        final Class <?> [] paramTypes = guardMethod.getParameterTypes ();
-        final Object [] arguments = new Object [paramTypes.length];
-
-        for (int argIndex = 0; argIndex < arguments.length; argIndex++) {
-            final Class <?> parameterType = paramTypes [argIndex];
-
-            //
-            // Provide various types of context arguments required by a guard.
-            //
-            if (ArgumentContext.class.equals (parameterType)) {
-                if (ac == null) {
-                    //
-                    // Argument context is required, but none is provided.
-                    //
-                    throw new DiSLFatalException ("Missing argument context");
-                }
-
-                arguments [argIndex] = ac;
-
-            } else if (GuardContext.class.equals (parameterType)) {
-                arguments [argIndex] = new GuardContextImpl (shadow, ac);
-
-            } else {
-                //
-                // The guard method passed validation, so here it can only
-                // require static context. Get a static context instance and
-                // associate it with the shadow location.
-                //
-                try {
-                    final StaticContext staticContext = SCResolver.getInstance ().
-                        getStaticContextInstance (parameterType);
-                    staticContext.staticContextData (shadow);
-                    arguments [argIndex] = staticContext;
-
-                } catch (final ReflectionException re) {
-                    final String message = String.format (
-                        "Static context initialization for guard %s failed",
-                        __fullMethodName (guardMethod)
-                    );
-                    throw new GuardRuntimeException (message, re);
-                }
-            }
-        }
+        return __invokerFor (guardMethod).invoke (shadow, ac);
+    }
 
-        //
-        // Invoke the guard methods with context arguments.
-        //
-        try {
-            return (Boolean) guardMethod.invoke (null, arguments);
 
-        } catch (final Exception e) {
-            final String message = String.format (
-                "Invocation of guard method %s failed",
-                __fullMethodName (guardMethod)
-            );
-            throw new GuardRuntimeException (message, e);
-        }
+    private static GuardInvoker __invokerFor (final Method guardMethod) {
+        return __invokers__.computeIfAbsent (guardMethod, GuardInvoker::new);
     }
 
 
@@ -0,0 +1,204 @@
+package ch.usi.dag.disl.guard;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import ch.usi.dag.disl.annotation.ConstantPer.Granularity;
+import ch.usi.dag.disl.coderep.StaticContextMethod;
+import ch.usi.dag.disl.exception.DiSLFatalException;
+import ch.usi.dag.disl.exception.GuardRuntimeException;
+import ch.usi.dag.disl.exception.ReflectionException;
+import ch.usi.dag.disl.guardcontext.GuardContext;
+import ch.usi.dag.disl.processorcontext.ArgumentContext;
+import ch.usi.dag.disl.resolver.SCResolver;
+import ch.usi.dag.disl.snippet.Shadow;
+import ch.usi.dag.disl.staticcontext.StaticContext;
+
+
+/**
+ * Invokes a guard method through a method handle, providing the context
+ * arguments required by the guard. The method handle and the providers of the
+ * context arguments are resolved only once for each guard method.
+ * <p>
+ * The invoker also determines the granularity at which the guard result
+ * stays constant. This is the case if the guard only depends on static
+ * contexts whose methods have values constant per class, method, or basic
+ * block.
+ */
+// used for guard invocation - reduced visibility
+final class GuardInvoker {
+
+    /**
+     * Provides a context argument for a guard invocation.
+     */
+    private interface ArgumentProvider {
+        Object argumentFor (Shadow shadow, ArgumentContext ac) throws ReflectionException;
+    }
+
+    //
+
+    private final Method __method;
+
+    /** Guard method accepting the arguments in an array. */
+    private final MethodHandle __handle;
+
+    private final ArgumentProvider [] __providers;
+
+    private final Granularity __granularity;
+
+    //
+
+    GuardInvoker (final Method method) {
+        __method = method;
+
+        final Class <?> [] paramTypes = method.getParameterTypes ();
+        __handle = __link (method, paramTypes.length);
+        __providers = new ArgumentProvider [paramTypes.length];
+
+        Granularity granularity = Granularity.CLASS;
+        for (int argIndex = 0; argIndex < paramTypes.length; argIndex++) {
+            final Class <?> paramType = paramTypes [argIndex];
+            __providers [argIndex] = __providerFor (paramType);
+            granularity = __finer (granularity, __granularityOf (paramType));
+        }
+
+        __granularity = granularity;
+    }
+
+
+    private static MethodHandle __link (final Method method, final int paramCount) {
+        try {
+            // The guard resolver has already made the method accessible.
+            return MethodHandles.lookup ().unreflect (method)
+                .asType (MethodType.genericMethodType (paramCount).changeReturnType (boolean.class))
+                .asSpreader (Object [].class, paramCount);
+
+        } catch (final IllegalAccessException e) {
+            throw new GuardRuntimeException (
+                "Linking of guard method "+ __fullMethodName (method) +" failed", e
+            );
+        }
+    }
+
+
+    private ArgumentProvider __providerFor (final Class <?> paramType) {
+        if (ArgumentContext.class.equals (paramType)) {
+            return (shadow, ac) -> {
+                if (ac == null) {
+                    //
+                    // Argument context is required, but none is provided.
+                    //
+                    throw new DiSLFatalException ("Missing argument context");
+                }
+
+                return ac;
+            };
+
+        } else if (GuardContext.class.equals (paramType)) {
+            return (shadow, ac) -> new GuardContextImpl (shadow, ac);
+
+        } else {
+            //
+            // The guard method passed validation, so here it can only
+            // require static context. Get a static context instance and
+            // associate it with the shadow location.
+            //
+            return (shadow, ac) -> {
+                final StaticContext staticContext = SCResolver.getInstance ()
+                    .getStaticContextInstance (paramType);
+
+                staticContext.staticContextData (shadow);
+                return staticContext;
+            };
+        }
+    }
+
+
+    /**
+     * Determines the granularity at which the values provided by an argument
+     * of the given type stay constant. For static contexts, this is the
+     * finest granularity of their public methods. Other context arguments
+     * may provide different values for each shadow.
+     */
+    private static Granularity __granularityOf (final Class <?> paramType) {
+        if (!StaticContext.class.isAssignableFrom (paramType)) {
+            return Granularity.SHADOW;
+        }
+
+        Granularity result = Granularity.CLASS;
+        for (final Method method : paramType.getMethods ()) {
+            if (__isContextMethod (method)) {
+                result = __finer (result, StaticContextMethod.granularityOf (method));
+            }
+        }
+
+        return result;
+    }
+
+
+    private static boolean __isContextMethod (final Method method) {
+        return method.getDeclaringClass () != Object.class
+            && !Modifier.isStatic (method.getModifiers ())
+            && !__isStaticContextDataMethod (method);
+    }
+
+
+    private static boolean __isStaticContextDataMethod (final Method method) {
+        return "staticContextData".equals (method.getName ())
+            && method.getParameterCount () == 1
+            && method.getParameterTypes () [0] == Shadow.class;
+    }
+
+
+    private static Granularity __finer (final Granularity g1, final Granularity g2) {
+        return (g1.compareTo (g2) >= 0) ? g1 : g2;
+    }
+
+    //
+
+    /**
+     * @return The granularity at which the guard result stays constant.
+     */
+    Granularity granularity () {
+        return __granularity;
+    }
+
+
+    // NOTE: all calling methods should guarantee using validation method,
+    // that if ArgumentContext is needed, it cannot be null
+    boolean invoke (final Shadow shadow, final ArgumentContext ac) {
+        final Object [] arguments = new Object [__providers.length];
+        for (int argIndex = 0; argIndex < arguments.length; argIndex++) {
+            try {
+                arguments [argIndex] = __providers [argIndex].argumentFor (shadow, ac);
+
+            } catch (final ReflectionException re) {
+                throw new GuardRuntimeException (
+                    "Static context initialization for guard "+
+                    __fullMethodName (__method) +" failed", re
+                );
+            }
+        }
+
+        //
+        // Invoke the guard methods with context arguments.
+        //
+        try {
+            return (boolean) __handle.invokeExact (arguments);
+
+        } catch (final Throwable e) {
+            throw new GuardRuntimeException (
+                "Invocation of guard method "+ __fullMethodName (__method) +" failed", e
+            );
+        }
+    }
+
+
+    private static String __fullMethodName (final Method method) {
+        return method.getDeclaringClass ().getName () +"."+ method.getName ();
+    }
+
+}
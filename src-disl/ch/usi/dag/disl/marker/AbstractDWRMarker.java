@@ -15,12 +15,18 @@ import org.objectweb.asm.tree.MethodNode;
 public abstract class AbstractDWRMarker extends AbstractMarker {
 
     public final List<MarkedRegion> mark(MethodNode methodNode) {
+        return mark(methodNode, new InsnIndex(methodNode));
+    }
+
+    @Override
+    protected final List<MarkedRegion> mark(
+            MethodNode methodNode, InsnIndex index) {
 
-        List<MarkedRegion> mrs = markWithDefaultWeavingReg(methodNode);
+        List<MarkedRegion> mrs = markWithDefaultWeavingReg(methodNode, index);
 
         // automatically compute default weaving region
         for (MarkedRegion mr : mrs) {
-            mr.setWeavingRegion(mr.computeDefaultWeavingRegion(methodNode));
+            mr.setWeavingRegion(mr.computeDefaultWeavingRegion(methodNode, index));
         }
 
         return mrs;
@@ -37,4 +43,14 @@ public abstract class AbstractDWRMarker extends AbstractMarker {
      */
     public abstract List<MarkedRegion> markWithDefaultWeavingReg(
             MethodNode methodNode);
+
+    /**
+     * Same as {@link #markWithDefaultWeavingReg(MethodNode)}, but allows
+     * using an index of the method instructions, which is shared by all
+     * markers applied to the method. By default, the index is ignored.
+     */
+    protected List<MarkedRegion> markWithDefaultWeavingReg(
+            MethodNode methodNode, InsnIndex index) {
+        return markWithDefaultWeavingReg(methodNode);
+    }
 }
@@ -13,9 +13,17 @@ abstract class AbstractInsnMarker extends AbstractMarker {
 
     @Override
     public final List <MarkedRegion> mark (final MethodNode methodNode) {
+        return mark (methodNode, new InsnIndex (methodNode));
+    }
+
+
+    @Override
+    protected final List <MarkedRegion> mark (
+        final MethodNode methodNode, final InsnIndex index
+    ) {
         final List <MarkedRegion> regions = new LinkedList <MarkedRegion> ();
 
-        for (final AbstractInsnNode instruction : markInstruction (methodNode)) {
+        for (final AbstractInsnNode instruction : markInstruction (methodNode, index)) {
             final MarkedRegion region = new MarkedRegion (instruction, instruction);
             region.setWeavingRegion (new WeavingRegion (
                 instruction, new LinkedList <AbstractInsnNode> (region.getEnds ()),
@@ -31,4 +39,16 @@ abstract class AbstractInsnMarker extends AbstractMarker {
 
     public abstract List <AbstractInsnNode> markInstruction (MethodNode methodNode);
 
+
+    /**
+     * Selects the instructions to mark using an index of the method
+     * instructions. By default, the index is ignored and the selection is
+     * delegated to {@link #markInstruction(MethodNode)}.
+     */
+    protected List <AbstractInsnNode> markInstruction (
+        final MethodNode methodNode, final InsnIndex index
+    ) {
+        return markInstruction (methodNode);
+    }
+
 }
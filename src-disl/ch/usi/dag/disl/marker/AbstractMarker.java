@@ -145,31 +145,63 @@ public abstract class AbstractMarker implements Marker {
          * will NOT be automatically associated with this {@link MarkedRegion}.
          */
         public WeavingRegion computeDefaultWeavingRegion (final MethodNode methodNode) {
-
-            final AbstractInsnNode wstart = start;
-            // wends is set to null - see WeavingRegion for details
-
-            // compute after throwing region
-
-            // set start
-            final AbstractInsnNode afterThrowStart = start;
-            AbstractInsnNode afterThrowEnd = null;
-
             // get end that is the latest in the method instructions
             final Set<AbstractInsnNode> endsSet = new HashSet<AbstractInsnNode>(ends);
 
-            // get end that is the latest in the method instructions
+            AbstractInsnNode lastEnd = null;
             AbstractInsnNode instr = methodNode.instructions.getLast();
 
             while (instr != null) {
                 if (endsSet.contains(instr)) {
-                    afterThrowEnd = instr;
+                    lastEnd = instr;
                     break;
                 }
 
                 instr = instr.getPrevious();
             }
 
+            return __defaultWeavingRegion (methodNode, lastEnd);
+        }
+
+
+        /**
+         * Computes the default {@link WeavingRegion} for this
+         * {@link MarkedRegion}, using the given index to find the last end of
+         * the region without scanning the method.
+         *
+         * @see #computeDefaultWeavingRegion(MethodNode)
+         */
+        public WeavingRegion computeDefaultWeavingRegion (
+            final MethodNode methodNode, final InsnIndex index
+        ) {
+            // get end that is the latest in the method instructions
+            AbstractInsnNode lastEnd = null;
+            int lastPosition = -1;
+
+            for (final AbstractInsnNode end : ends) {
+                final int position = index.position (end);
+                if (position > lastPosition) {
+                    lastEnd = end;
+                    lastPosition = position;
+                }
+            }
+
+            return __defaultWeavingRegion (methodNode, lastEnd);
+        }
+
+
+        private WeavingRegion __defaultWeavingRegion (
+            final MethodNode methodNode, final AbstractInsnNode lastEnd
+        ) {
+            final AbstractInsnNode wstart = start;
+            // wends is set to null - see WeavingRegion for details
+
+            // compute after throwing region
+
+            // set start
+            final AbstractInsnNode afterThrowStart = start;
+            AbstractInsnNode afterThrowEnd = lastEnd;
+
             // skip the label nodes which are the end of try-catch blocks
             if (afterThrowEnd instanceof LabelNode) {
                 final Set<AbstractInsnNode> tcb_ends = new HashSet<AbstractInsnNode>();
@@ -196,7 +228,23 @@ public abstract class AbstractMarker implements Marker {
         final Snippet snippet
     ) throws MarkerException {
         // use simplified interface
-        final List<MarkedRegion> regions = mark(methodNode);
+        return shadowsFor (classNode, methodNode, snippet, mark (methodNode));
+    }
+
+
+    /**
+     * Converts the regions marked in the given method into {@link Shadow}
+     * instances for the given snippet. Each shadow gets its own copy of the
+     * weaving region, so that the same marked regions can be converted for
+     * multiple snippets.
+     *
+     * @throws MarkerException
+     *         if any of the marked regions is not valid
+     */
+    public List <Shadow> shadowsFor (
+        final ClassNode classNode, final MethodNode methodNode,
+        final Snippet snippet, final List <MarkedRegion> regions
+    ) throws MarkerException {
         final List<Shadow> result = new LinkedList<Shadow>();
 
         // convert marked regions to shadows
@@ -208,8 +256,8 @@ public abstract class AbstractMarker implements Marker {
             }
 
             result.add (new Shadow (
-                classNode, methodNode, snippet,
-                mr.getStart (), mr.getEnds (), mr.getWeavingRegion ()
+                classNode, methodNode, snippet, mr.getStart (), mr.getEnds (),
+                new WeavingRegion (mr.getWeavingRegion ())
             ));
         }
 
@@ -217,6 +265,18 @@ public abstract class AbstractMarker implements Marker {
     }
 
 
+    /**
+     * Marks the given method using an index of its instructions, which is
+     * shared by all markers applied to the method. By default, the index is
+     * ignored and the marking is delegated to {@link #mark(MethodNode)}.
+     */
+    protected List <MarkedRegion> mark (
+        final MethodNode methodNode, final InsnIndex index
+    ) {
+        return mark (methodNode);
+    }
+
+
     /**
      * Implementation of this method should return list of {@link MarkedRegion}
      * instances with start, ends, and the weaving region filled.
@@ -13,7 +13,6 @@ import org.objectweb.asm.tree.MethodNode;
 import ch.usi.dag.disl.annotation.Before;
 import ch.usi.dag.disl.snippet.Shadow.WeavingRegion;
 import ch.usi.dag.disl.util.AsmHelper;
-import ch.usi.dag.disl.util.AsmHelper.Insns;
 import ch.usi.dag.disl.util.JavaNames;
 
 
@@ -31,6 +30,12 @@ public class AfterInitBodyMarker extends AbstractMarker {
 
     @Override
     public List <MarkedRegion> mark (final MethodNode method) {
+        return mark (method, new InsnIndex (method));
+    }
+
+
+    @Override
+    protected List <MarkedRegion> mark (final MethodNode method, final InsnIndex index) {
         final MarkedRegion region = new MarkedRegion (
             __findBodyStart (method)
         );
@@ -38,13 +43,11 @@ public class AfterInitBodyMarker extends AbstractMarker {
         //
         // Add all RETURN instructions as marked-region ends.
         //
-        for (final AbstractInsnNode insn : Insns.selectAll (method.instructions)) {
-            if (AsmHelper.isReturn (insn)) {
-                region.addEnd (insn);
-            }
+        for (final AbstractInsnNode insn : index.returns ()) {
+            region.addEnd (insn);
         }
 
-        final WeavingRegion wr = region.computeDefaultWeavingRegion (method);
+        final WeavingRegion wr = region.computeDefaultWeavingRegion (method, index);
         wr.setAfterThrowEnd (method.instructions.getLast ());
         region.setWeavingRegion (wr);
 
@@ -7,8 +7,6 @@ import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import ch.usi.dag.disl.snippet.Shadow.WeavingRegion;
-import ch.usi.dag.disl.util.AsmHelper;
-import ch.usi.dag.disl.util.AsmHelper.Insns;
 
 
 /**
@@ -21,18 +19,22 @@ public class BodyMarker extends AbstractMarker {
 
     @Override
     public List <MarkedRegion> mark (final MethodNode method) {
+        return mark (method, new InsnIndex (method));
+    }
+
+
+    @Override
+    protected List <MarkedRegion> mark (final MethodNode method, final InsnIndex index) {
         final List <MarkedRegion> regions = new LinkedList <MarkedRegion> ();
         final MarkedRegion region = new MarkedRegion (
             method.instructions.getFirst ()
         );
 
-        for (final AbstractInsnNode insn : Insns.selectAll (method.instructions)) {
-            if (AsmHelper.isReturn (insn)) {
-                region.addEnd (insn);
-            }
+        for (final AbstractInsnNode insn : index.returns ()) {
+            region.addEnd (insn);
         }
 
-        final WeavingRegion wregion = region.computeDefaultWeavingRegion (method);
+        final WeavingRegion wregion = region.computeDefaultWeavingRegion (method, index);
         wregion.setAfterThrowEnd (method.instructions.getLast ());
         region.setWeavingRegion (wregion);
         regions.add (region);
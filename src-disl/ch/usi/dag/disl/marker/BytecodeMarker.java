@@ -9,7 +9,6 @@ import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import ch.usi.dag.disl.exception.MarkerException;
-import ch.usi.dag.disl.util.AsmHelper.Insns;
 import ch.usi.dag.disl.util.AsmOpcodes;
 
 
@@ -54,11 +53,17 @@ public class BytecodeMarker extends AbstractDWRMarker {
 
     @Override
     public List <MarkedRegion> markWithDefaultWeavingReg (final MethodNode method) {
+        return markWithDefaultWeavingReg (method, new InsnIndex (method));
+    }
+
+
+    @Override
+    protected List <MarkedRegion> markWithDefaultWeavingReg (
+        final MethodNode method, final InsnIndex index
+    ) {
         final List <MarkedRegion> regions = new LinkedList <MarkedRegion> ();
-        for (final AbstractInsnNode insn : Insns.selectAll (method.instructions)) {
-            if (searchedInstrNums.contains (insn.getOpcode ())) {
-                regions.add (new MarkedRegion (insn, insn));
-            }
+        for (final AbstractInsnNode insn : index.withOpcodes (searchedInstrNums)) {
+            regions.add (new MarkedRegion (insn, insn));
         }
 
         return regions;
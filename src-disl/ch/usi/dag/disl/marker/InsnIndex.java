@@ -0,0 +1,280 @@
+package ch.usi.dag.disl.marker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import ch.usi.dag.disl.util.AsmHelper.Insns;
+
+
+/**
+ * Indexes the instructions of a method, so that markers can find the
+ * instructions they are interested in without scanning the whole method.
+ * <p>
+ * A single index is shared by all markers applied to a method. The index is
+ * built on first use, and reflects the instructions of the method at that
+ * time. All lists returned by the index keep the instructions in the order in
+ * which they appear in the method.
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ */
+public final class InsnIndex {
+
+    private final MethodNode __method;
+
+    /** Position of each instruction (including labels) in the method. */
+    private Map <AbstractInsnNode, Integer> __positions;
+
+    private Map <Integer, List <AbstractInsnNode>> __byOpcode;
+
+    private Map <Class <?>, List <AbstractInsnNode>> __byNodeClass;
+
+    /** Method invocations keyed by method name. */
+    private Map <String, List <MethodInsnNode>> __invocations;
+
+    /** Field accesses keyed by field name. */
+    private Map <String, List <FieldInsnNode>> __fieldAccesses;
+
+    /** Object and array allocations. */
+    private List <AbstractInsnNode> __allocations;
+
+    //
+
+    public InsnIndex (final MethodNode method) {
+        __method = Objects.requireNonNull (method);
+    }
+
+    //
+
+    private void __ensureBuilt () {
+        if (__positions != null) {
+            return;
+        }
+
+        __positions = new IdentityHashMap <> (__method.instructions.size ());
+        __byOpcode = new HashMap <> ();
+        __byNodeClass = new LinkedHashMap <> ();
+        __invocations = new HashMap <> ();
+        __fieldAccesses = new HashMap <> ();
+        __allocations = new ArrayList <> ();
+
+        int position = 0;
+        for (final AbstractInsnNode insn : Insns.selectAll (__method.instructions)) {
+            __positions.put (insn, position++);
+
+            final int opcode = insn.getOpcode ();
+            __byOpcode.computeIfAbsent (opcode, k -> new ArrayList <> ()).add (insn);
+            __byNodeClass.computeIfAbsent (insn.getClass (), k -> new ArrayList <> ()).add (insn);
+
+            if (insn instanceof MethodInsnNode) {
+                final MethodInsnNode min = (MethodInsnNode) insn;
+                __invocations.computeIfAbsent (min.name, k -> new ArrayList <> ()).add (min);
+
+            } else if (insn instanceof FieldInsnNode) {
+                final FieldInsnNode fin = (FieldInsnNode) insn;
+                __fieldAccesses.computeIfAbsent (fin.name, k -> new ArrayList <> ()).add (fin);
+            }
+
+            if (__isAllocation (opcode)) {
+                __allocations.add (insn);
+            }
+        }
+    }
+
+
+    private static boolean __isAllocation (final int opcode) {
+        switch (opcode) {
+        case Opcodes.NEW:
+        case Opcodes.NEWARRAY:
+        case Opcodes.ANEWARRAY:
+        case Opcodes.MULTIANEWARRAY:
+            return true;
+
+        default:
+            return false;
+        }
+    }
+
+    //
+
+    /**
+     * @return the method whose instructions are indexed.
+     */
+    public MethodNode method () {
+        return __method;
+    }
+
+
+    /**
+     * Returns the position of the given instruction in the method, or -1 if
+     * the instruction does not belong to the method. Labels and other
+     * pseudo-instructions have positions as well.
+     */
+    public int position (final AbstractInsnNode insn) {
+        __ensureBuilt ();
+
+        final Integer result = __positions.get (insn);
+        return (result != null) ? result : -1;
+    }
+
+
+    /**
+     * Returns the instructions with the given opcode.
+     */
+    public List <AbstractInsnNode> withOpcode (final int opcode) {
+        __ensureBuilt ();
+
+        return Collections.unmodifiableList (
+            __byOpcode.getOrDefault (opcode, Collections.emptyList ())
+        );
+    }
+
+
+    /**
+     * Returns the instructions with any of the given opcodes.
+     */
+    public List <AbstractInsnNode> withOpcodes (final Collection <Integer> opcodes) {
+        __ensureBuilt ();
+
+        final List <AbstractInsnNode> result = new ArrayList <> ();
+        for (final Integer opcode : opcodes) {
+            result.addAll (__byOpcode.getOrDefault (opcode, Collections.emptyList ()));
+        }
+
+        return __inMethodOrder (result);
+    }
+
+
+    /**
+     * Returns the return instructions.
+     */
+    public List <AbstractInsnNode> returns () {
+        __ensureBuilt ();
+
+        final List <AbstractInsnNode> result = new ArrayList <> ();
+        for (int opcode = Opcodes.IRETURN; opcode <= Opcodes.RETURN; opcode++) {
+            result.addAll (__byOpcode.getOrDefault (opcode, Collections.emptyList ()));
+        }
+
+        return __inMethodOrder (result);
+    }
+
+
+    /**
+     * Returns the instructions that are instances of the given instruction
+     * node classes. An instruction that is an instance of multiple given
+     * classes is returned once for each of them.
+     */
+    public List <AbstractInsnNode> instancesOf (
+        final Collection <Class <? extends AbstractInsnNode>> classes
+    ) {
+        __ensureBuilt ();
+
+        final List <AbstractInsnNode> result = new ArrayList <> ();
+        __byNodeClass.forEach ((nodeClass, insns) -> {
+            for (final Class <? extends AbstractInsnNode> clazz : classes) {
+                if (clazz.isAssignableFrom (nodeClass)) {
+                    result.addAll (insns);
+                }
+            }
+        });
+
+        return __inMethodOrder (result);
+    }
+
+
+    /**
+     * Returns the invocations of methods with the given name, declared in the
+     * given owner class.
+     *
+     * @param owner
+     *        internal name of the owner class, or {@code null} to accept any
+     *        owner
+     * @param name
+     *        the name of the invoked method
+     */
+    public List <MethodInsnNode> invocations (final String owner, final String name) {
+        __ensureBuilt ();
+
+        final List <MethodInsnNode> named = __invocations.getOrDefault (
+            name, Collections.emptyList ()
+        );
+
+        return __ownedBy (owner, named, insn -> insn.owner);
+    }
+
+
+    /**
+     * Returns the accesses to fields with the given name, declared in the
+     * given owner class.
+     *
+     * @param owner
+     *        internal name of the owner class, or {@code null} to accept any
+     *        owner
+     * @param name
+     *        the name of the accessed field
+     */
+    public List <FieldInsnNode> fieldAccesses (final String owner, final String name) {
+        __ensureBuilt ();
+
+        final List <FieldInsnNode> named = __fieldAccesses.getOrDefault (
+            name, Collections.emptyList ()
+        );
+
+        return __ownedBy (owner, named, insn -> insn.owner);
+    }
+
+
+    /**
+     * Returns the object and array allocation instructions, i.e., the
+     * {@code NEW}, {@code NEWARRAY}, {@code ANEWARRAY}, and
+     * {@code MULTIANEWARRAY} instructions.
+     */
+    public List <AbstractInsnNode> allocations () {
+        __ensureBuilt ();
+
+        return Collections.unmodifiableList (__allocations);
+    }
+
+    //
+
+    private static <T extends AbstractInsnNode> List <T> __ownedBy (
+        final String owner, final List <T> insns,
+        final Function <T, String> ownerOf
+    ) {
+        if (owner == null) {
+            return Collections.unmodifiableList (insns);
+        }
+
+        final List <T> result = new ArrayList <> ();
+        for (final T insn : insns) {
+            if (owner.equals (ownerOf.apply (insn))) {
+                result.add (insn);
+            }
+        }
+
+        return result;
+    }
+
+
+    private List <AbstractInsnNode> __inMethodOrder (final List <AbstractInsnNode> insns) {
+        // The sort is stable, so duplicate instructions stay together.
+        insns.sort (Comparator.comparingInt (__positions::get));
+        return insns;
+    }
+
+}
@@ -9,7 +9,6 @@ import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import ch.usi.dag.disl.exception.MarkerException;
-import ch.usi.dag.disl.util.AsmHelper.Insns;
 
 /**
  * Marks bytecode instructions depending on the ASM class type.
@@ -52,20 +51,13 @@ public class InsnNodeMarker extends AbstractInsnMarker {
 
     @Override
     public List<AbstractInsnNode> markInstruction(MethodNode methodNode) {
+        return markInstruction(methodNode, new InsnIndex(methodNode));
+    }
 
-        List<AbstractInsnNode> seleted = new LinkedList<AbstractInsnNode>();
-
-        for (AbstractInsnNode instr : Insns.selectAll (methodNode.instructions)) {
-
-            for (Class<? extends AbstractInsnNode> clazz : classes) {
-
-                if (clazz.isInstance(instr)) {
-                    seleted.add(instr);
-                }
-            }
-        }
-
-        return seleted;
+    @Override
+    protected List<AbstractInsnNode> markInstruction(MethodNode methodNode,
+            InsnIndex index) {
+        return new LinkedList<AbstractInsnNode>(index.instancesOf(classes));
     }
 
 }
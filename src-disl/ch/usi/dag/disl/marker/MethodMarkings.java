@@ -0,0 +1,69 @@
+package ch.usi.dag.disl.marker;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import ch.usi.dag.disl.exception.MarkerException;
+import ch.usi.dag.disl.marker.AbstractMarker.MarkedRegion;
+import ch.usi.dag.disl.snippet.Shadow;
+import ch.usi.dag.disl.snippet.Snippet;
+
+
+/**
+ * Remembers the regions marked in a particular method, so that snippets
+ * sharing a marker do not cause the method to be marked repeatedly.
+ * <p>
+ * Only markers derived from {@link AbstractMarker} produce regions that do not
+ * depend on the snippet. Other markers are invoked for every snippet. Markers
+ * derived from {@link AbstractMarker} also share an {@link InsnIndex} of the
+ * method instructions.
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ */
+public final class MethodMarkings {
+
+    private final ClassNode __classNode;
+
+    private final MethodNode __methodNode;
+
+    private final InsnIndex __index;
+
+    private final Map <Marker, List <MarkedRegion>> __regions = new IdentityHashMap <> ();
+
+    //
+
+    public MethodMarkings (final ClassNode classNode, final MethodNode methodNode) {
+        __classNode = classNode;
+        __methodNode = methodNode;
+        __index = new InsnIndex (methodNode);
+    }
+
+    //
+
+    /**
+     * Applies the given marker to the method, and returns the list of
+     * {@link Shadow} instances for the given snippet. The regions marked by
+     * an {@link AbstractMarker} are computed only once per method.
+     *
+     * @throws MarkerException
+     */
+    public List <Shadow> mark (
+        final Marker marker, final Snippet snippet
+    ) throws MarkerException {
+        if (!(marker instanceof AbstractMarker)) {
+            return marker.mark (__classNode, __methodNode, snippet);
+        }
+
+        final AbstractMarker am = (AbstractMarker) marker;
+        final List <MarkedRegion> regions = __regions.computeIfAbsent (
+            marker, m -> am.mark (__methodNode, __index)
+        );
+
+        return am.shadowsFor (__classNode, __methodNode, snippet, regions);
+    }
+
+}
@@ -8,7 +8,6 @@ import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
-import ch.usi.dag.disl.util.AsmHelper.Insns;
 import ch.usi.dag.disl.util.JavaNames;
 
 /**
@@ -25,28 +24,31 @@ public class NewObjMarker extends AbstractDWRMarker {
 
     @Override
     public List<MarkedRegion> markWithDefaultWeavingReg(MethodNode method) {
+        return markWithDefaultWeavingReg(method, new InsnIndex(method));
+    }
+
+    @Override
+    protected List<MarkedRegion> markWithDefaultWeavingReg(MethodNode method,
+            InsnIndex index) {
 
         List<MarkedRegion> regions = new LinkedList<MarkedRegion>();
-        int invokedNews = 0;
 
-        // find invocation of constructor after new instruction
-        for (AbstractInsnNode instruction : Insns.selectAll (method.instructions)) {
+        List<AbstractInsnNode> news = index.withOpcode(Opcodes.NEW);
+        if (news.isEmpty()) {
+            return regions;
+        }
 
-            // track new instruction
-            if (instruction.getOpcode() == Opcodes.NEW) {
+        // find invocation of constructor after the first new instruction
+        int firstNew = index.position(news.get(0));
 
-                ++invokedNews;
-            }
+        for (AbstractInsnNode instruction : index.withOpcode(Opcodes.INVOKESPECIAL)) {
 
-            // if it is invoke special and there are new pending
-            if (instruction.getOpcode() == Opcodes.INVOKESPECIAL
-                    && invokedNews > 0) {
+            MethodInsnNode min = (MethodInsnNode) instruction;
 
-                MethodInsnNode min = (MethodInsnNode) instruction;
+            if (index.position(instruction) > firstNew
+                    && JavaNames.isConstructorName (min.name)) {
 
-                if (JavaNames.isConstructorName (min.name)) {
-                    regions.add(new MarkedRegion(instruction, instruction));
-                }
+                regions.add(new MarkedRegion(instruction, instruction));
             }
         }
 
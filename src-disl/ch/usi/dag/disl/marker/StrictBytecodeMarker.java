@@ -55,17 +55,13 @@ public class StrictBytecodeMarker extends AbstractInsnMarker {
 
     @Override
     public List<AbstractInsnNode> markInstruction(MethodNode method) {
+        return markInstruction(method, new InsnIndex(method));
+    }
 
-        List<AbstractInsnNode> seleted = new LinkedList<AbstractInsnNode>();
-
-        for (AbstractInsnNode instruction : method.instructions.toArray()) {
-
-            if (searchedInstrNums.contains(instruction.getOpcode())) {
-
-                seleted.add(instruction);
-            }
-        }
-
-        return seleted;
+    @Override
+    protected List<AbstractInsnNode> markInstruction(MethodNode method,
+            InsnIndex index) {
+        return new LinkedList<AbstractInsnNode>(
+                index.withOpcodes(searchedInstrNums));
     }
 }
@@ -6,7 +6,7 @@ import java.util.Set;
 public class GuardMethod {
 
     private Method method;
-    private Set<Class<?>> argTypes;
+    private volatile Set<Class<?>> argTypes;
 
     public GuardMethod(Method method) {
         super();
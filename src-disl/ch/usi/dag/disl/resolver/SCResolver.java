@@ -15,25 +15,33 @@ public class SCResolver {
 
     private static SCResolver instance;
 
-    // list of static context instances
-    // validity of an instance is for whole instrumentation run
-    // instances are created lazily when needed
-    private final Map <Class <?>, Object>
-        staticContextInstances = new HashMap <Class <?>, Object> ();
-
-
-    public synchronized StaticContext getStaticContextInstance (
+    //
+    // Static context instances are stateful: they hold the shadow they were
+    // last associated with, and some of them memoize data derived from the
+    // method being instrumented. To allow multiple classes to be instrumented
+    // concurrently, each thread gets its own set of static context instances.
+    // The instances are created lazily when needed, and are valid for the
+    // lifetime of the thread.
+    //
+    private final ThreadLocal <Map <Class <?>, Object>>
+        staticContextInstances = ThreadLocal.withInitial (HashMap::new);
+
+
+    public StaticContext getStaticContextInstance (
         final Class <?> staticContextClass
     ) throws ReflectionException {
         //
-        // Get a static context instance from cache, or create a new one and
-        // cache it for later use. Populate it with shadow data and return it
-        // as StaticContext interface.
+        // Get a static context instance from the thread-local cache, or create
+        // a new one and cache it for later use. Return it as StaticContext
+        // interface, the caller is responsible for populating it with shadow
+        // data.
         //
-        Object sc = staticContextInstances.get (staticContextClass);
+        final Map <Class <?>, Object> instances = staticContextInstances.get ();
+
+        Object sc = instances.get (staticContextClass);
         if (sc == null) {
             sc = ReflectionHelper.createInstance (staticContextClass);
-            staticContextInstances.put (staticContextClass, sc);
+            instances.put (staticContextClass, sc);
         }
 
         final StaticContext result = (StaticContext) sc;
@@ -185,6 +185,14 @@ abstract class ParameterMatcher {
      */
     public abstract boolean match (final String methodDesc);
 
+
+    /**
+     * @return {@code true} if this matcher matches any parameters.
+     */
+    boolean matchesAny () {
+        return this == __matchAnyParams__;
+    }
+
     //
 
     /**
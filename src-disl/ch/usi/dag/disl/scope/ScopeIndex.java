@@ -0,0 +1,281 @@
+package ch.usi.dag.disl.scope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Indexes a list of items (e.g., snippets) by their scopes, so that the items
+ * with a scope matching a particular method can be found without matching
+ * every scope against every method.
+ * <p>
+ * The index is organized by class name first: scopes matching an exact class
+ * name are kept in a hash map, scopes matching class names with a particular
+ * prefix are kept in a prefix tree, and the remaining scopes are kept in a
+ * list. The items that may match a class are selected once per class, and
+ * then indexed by method name, so that selecting the items matching a method
+ * only involves matching the scopes with the same or a wild card method name.
+ * <p>
+ * The index preserves the order of the items, and is immutable and therefore
+ * thread-safe.
+ *
+ * @param <T>
+ *        the type of indexed items
+ */
+public final class ScopeIndex <T> {
+
+    /** Items with scopes matching an exact class name. */
+    private final Map <String, List <Entry <T>>> __names = new HashMap <> ();
+
+    /** Items with scopes matching a class name prefix. */
+    private final PrefixNode <T> __prefixes = new PrefixNode <> ();
+
+    /** Items with scopes matching other class names. */
+    private final List <Entry <T>> __others = new ArrayList <> ();
+
+    //
+
+    private ScopeIndex () {
+        // not to be instantiated from outside
+    }
+
+    //
+
+    /**
+     * Creates an index of the given items.
+     *
+     * @param items
+     *        the items to index
+     * @param scopeOf
+     *        function returning the scope of an item
+     */
+    public static <T> ScopeIndex <T> forItems (
+        final List <T> items, final Function <T, Scope> scopeOf
+    ) {
+        final ScopeIndex <T> result = new ScopeIndex <> ();
+        for (int i = 0; i < items.size (); i++) {
+            final T item = items.get (i);
+            result.__add (new Entry <> (i, item, scopeOf.apply (item)));
+        }
+
+        return result;
+    }
+
+
+    private void __add (final Entry <T> entry) {
+        if (entry.matcher == null) {
+            // We know nothing about other scopes.
+            __others.add (entry);
+            return;
+        }
+
+        final WildCardMatcher matcher = entry.matcher.classNameMatcher ();
+
+        final String literal = matcher.literal ();
+        if (literal != null) {
+            __names.computeIfAbsent (literal, k -> new ArrayList <> ()).add (entry);
+            return;
+        }
+
+        final String prefix = matcher.prefix ();
+        if (!prefix.isEmpty ()) {
+            __prefixes.add (prefix).entries.add (entry);
+        } else {
+            __others.add (entry);
+        }
+    }
+
+    //
+
+    /**
+     * Selects the items with scopes that may match methods of the given
+     * class.
+     *
+     * @param classInternalName
+     *        <b>internal name</b> (i.e., delimited using slashes) of the class
+     * @return the items matching the given class, indexed by method name.
+     */
+    public ClassItems <T> forClass (final String classInternalName) {
+        final String className = ScopeMatcher.matchableClassName (classInternalName);
+        final List <Entry <T>> candidates = new ArrayList <> ();
+
+        candidates.addAll (__names.getOrDefault (className, Collections.emptyList ()));
+
+        PrefixNode <T> node = __prefixes;
+        for (int i = 0; i < className.length () && node != null; i++) {
+            node = node.children.get (className.charAt (i));
+            if (node != null) {
+                node.entries.stream ()
+                    .filter (e -> e.matcher.matchesClass (className))
+                    .forEach (candidates::add);
+            }
+        }
+
+        __others.stream ()
+            .filter (e -> e.matcher == null || e.matcher.matchesClass (className))
+            .forEach (candidates::add);
+
+        candidates.sort (Comparator.comparingInt (e -> e.index));
+        return new ClassItems <> (classInternalName, candidates);
+    }
+
+    //
+
+    /**
+     * Items with scopes that may match methods of a particular class.
+     *
+     * @param <T>
+     *        the type of indexed items
+     */
+    public static final class ClassItems <T> {
+
+        private final String __className;
+
+        /** Items with scopes matching an exact method name. */
+        private final Map <String, List <Entry <T>>> __methodNames = new HashMap <> ();
+
+        /** Items with scopes matching other method names. */
+        private final List <Entry <T>> __others = new ArrayList <> ();
+
+        //
+
+        private ClassItems (final String className, final List <Entry <T>> entries) {
+            __className = className;
+
+            for (final Entry <T> entry : entries) {
+                final String literal = (entry.matcher != null) ?
+                    entry.matcher.methodNameMatcher ().literal () : null;
+
+                if (literal != null) {
+                    __methodNames.computeIfAbsent (literal, k -> new ArrayList <> ()).add (entry);
+                } else {
+                    __others.add (entry);
+                }
+            }
+        }
+
+        //
+
+        /**
+         * @return {@code true} if there are no items with a scope matching
+         *         the class, i.e., no method of the class can be matched.
+         */
+        public boolean isEmpty () {
+            return __methodNames.isEmpty () && __others.isEmpty ();
+        }
+
+
+        /**
+         * Selects the items with scopes matching the given method of the
+         * class, in the order in which they were indexed.
+         */
+        public List <T> select (final String methodName, final String methodDesc) {
+            final List <Entry <T>> named = __methodNames.getOrDefault (
+                methodName, Collections.emptyList ()
+            );
+
+            if (named.isEmpty () && __others.isEmpty ()) {
+                return Collections.emptyList ();
+            }
+
+            final List <Entry <T>> matching = new ArrayList <> ();
+            named.stream ()
+                .filter (e -> __matches (e, methodName, methodDesc))
+                .forEach (matching::add);
+
+            __others.stream ()
+                .filter (e -> __matches (e, methodName, methodDesc))
+                .forEach (matching::add);
+
+            matching.sort (Comparator.comparingInt (e -> e.index));
+            return matching.stream ().map (e -> e.item).collect (Collectors.toList ());
+        }
+
+
+        /**
+         * Determines whether there are any items with a scope matching the
+         * given method of the class.
+         */
+        public boolean anyMatches (final String methodName, final String methodDesc) {
+            return findFirst (methodName, methodDesc).isPresent ();
+        }
+
+
+        /**
+         * Finds an item with a scope matching the given method of the class.
+         * Items with scopes matching an exact method name are tried first.
+         */
+        public Optional <T> findFirst (final String methodName, final String methodDesc) {
+            return Stream.concat (
+                __methodNames.getOrDefault (methodName, Collections.emptyList ()).stream (),
+                __others.stream ()
+            ).filter (e -> __matches (e, methodName, methodDesc))
+                .map (e -> e.item)
+                .findFirst ();
+        }
+
+
+        /**
+         * Finds an item with a scope matching all methods of the class, if
+         * there is one. Such items can be found without looking at the
+         * methods.
+         */
+        public Optional <T> findMatchingAllMethods () {
+            return __others.stream ()
+                .filter (e -> e.matcher != null && e.matcher.matchesAnyMethod ())
+                .map (e -> e.item)
+                .findFirst ();
+        }
+
+
+        private boolean __matches (
+            final Entry <T> entry, final String methodName, final String methodDesc
+        ) {
+            return (entry.matcher != null) ?
+                entry.matcher.matchesMethod (methodName, methodDesc) :
+                entry.scope.matches (__className, methodName, methodDesc);
+        }
+    }
+
+    //
+
+    private static final class Entry <T> {
+        final int index;
+        final T item;
+        final Scope scope;
+
+        /** The scope as a {@link ScopeMatcher}, or {@code null} if it is not one. */
+        final ScopeMatcher matcher;
+
+        Entry (final int index, final T item, final Scope scope) {
+            this.index = index;
+            this.item = item;
+            this.scope = scope;
+            this.matcher = (scope instanceof ScopeMatcher) ? (ScopeMatcher) scope : null;
+        }
+    }
+
+
+    private static final class PrefixNode <T> {
+        final Map <Character, PrefixNode <T>> children = new HashMap <> ();
+        final List <Entry <T>> entries = new ArrayList <> ();
+
+        PrefixNode <T> add (final String prefix) {
+            PrefixNode <T> node = this;
+            for (int i = 0; i < prefix.length (); i++) {
+                node = node.children.computeIfAbsent (prefix.charAt (i), c -> new PrefixNode <> ());
+            }
+
+            return node;
+        }
+    }
+
+}
@@ -286,21 +286,43 @@ public class ScopeMatcher implements Scope {
     public boolean matches (
         final String classInternalName, final String methodName, final String methodDesc
     ) {
-        //
-        // Add empty package to classes without any package specification. This
-        // will make them matchable by scopes that match on class name but not
-        // on package name. We must be able to match default packages as well.
-        //
-        final String className = JavaNames.internalNameHasPackage (classInternalName) ?
+        return matchesClass (matchableClassName (classInternalName))
+            && matchesMethod (methodName, methodDesc);
+    }
+
+
+    /**
+     * Adds an empty package to classes without any package specification.
+     * This makes them matchable by scopes that match on class name but not
+     * on package name. We must be able to match default packages as well.
+     *
+     * @param classInternalName
+     *        <b>internal name</b> (i.e., delimited using slashes) of a class
+     * @return The class name to use with {@link #matchesClass(String)}.
+     */
+    static String matchableClassName (final String classInternalName) {
+        return JavaNames.internalNameHasPackage (classInternalName) ?
             classInternalName : JavaNames.joinInternal ("", classInternalName);
+    }
 
+
+    /**
+     * Determines whether this scope matches the given class name, which
+     * needs to be adjusted using {@link #matchableClassName(String)}.
+     */
+    boolean matchesClass (final String className) {
+        return __classNameMatcher.match (className);
+    }
+
+
+    /**
+     * Determines whether this scope matches the given method name and method
+     * type descriptor, regardless of the class name.
+     */
+    boolean matchesMethod (final String methodName, final String methodDesc) {
         //
-        // Match class name, method name, parameters, and return type.
+        // Match method name, parameters, and return type.
         //
-        if (!__classNameMatcher.match (className)) {
-            return false;
-        }
-
         if (!__methodNameMatcher.match (methodName)) {
             return false;
         }
@@ -314,6 +336,33 @@ public class ScopeMatcher implements Scope {
     }
 
 
+    /**
+     * @return The matcher for the internal class names matched by this scope.
+     */
+    WildCardMatcher classNameMatcher () {
+        return __classNameMatcher;
+    }
+
+
+    /**
+     * @return The matcher for the method names matched by this scope.
+     */
+    WildCardMatcher methodNameMatcher () {
+        return __methodNameMatcher;
+    }
+
+
+    /**
+     * @return {@code true} if this scope matches all methods of the classes
+     *         matched by the class name matcher.
+     */
+    boolean matchesAnyMethod () {
+        return __methodNameMatcher.matchesAny ()
+            && __parameterMatcher.matchesAny ()
+            && __returnTypeMatcher.matchesAny ();
+    }
+
+
     private static String __getReturnTypeDescriptor (final String methodDesc) {
         //
         // Avoids allocation in Type.getReturnType().toString() by instead
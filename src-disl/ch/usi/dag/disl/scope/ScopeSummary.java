@@ -0,0 +1,236 @@
+package ch.usi.dag.disl.scope;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * Summarizes the names of classes that may be matched by a collection of
+ * scopes, taking into account exclusions that cover whole classes. The
+ * summary is conservative: if a class may be matched by any of the scopes,
+ * the summary matches it as well, but it may also match classes that none
+ * of the scopes match. The summary only consists of exact class names and
+ * class name prefixes and suffixes, so that it can be evaluated without
+ * the scope matching machinery, e.g., by a native agent.
+ * <p>
+ * All names are <b>internal names</b> (i.e., delimited using slashes). Unlike
+ * scopes, the summary does not distinguish classes in the default package,
+ * i.e., their names have no leading package separator.
+ */
+public final class ScopeSummary {
+
+    private static final String __PKG_SEPARATOR__ = "/";
+
+    //
+
+    private boolean __matchesAny;
+
+    private final Set <String> __names = new TreeSet <> ();
+    private final Set <String> __prefixes = new TreeSet <> ();
+    private final Set <String> __suffixes = new TreeSet <> ();
+
+    private final Set <String> __excludedNames = new TreeSet <> ();
+    private final Set <String> __excludedPrefixes = new TreeSet <> ();
+
+    //
+
+    private ScopeSummary () {
+        // not to be instantiated from outside
+    }
+
+    //
+
+    /**
+     * Creates a summary of classes matched by the given scopes.
+     *
+     * @param scopes
+     *        the scopes to summarize
+     * @param exclusions
+     *        the scopes excluded from matching. Only exclusions matching
+     *        all methods of a class (or a package) are summarized.
+     * @param classNames
+     *        internal names of additional classes to include in the summary
+     *        regardless of exclusions
+     */
+    public static ScopeSummary forScopes (
+        final Collection <Scope> scopes, final Collection <Scope> exclusions,
+        final String ... classNames
+    ) {
+        final ScopeSummary result = new ScopeSummary ();
+
+        scopes.forEach (result::__include);
+        exclusions.forEach (result::__exclude);
+
+        for (final String className : classNames) {
+            result.__names.add (className);
+            result.__excludedNames.remove (className);
+            result.__excludedPrefixes.removeIf (className::startsWith);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Creates a summary which matches all classes.
+     */
+    public static ScopeSummary matchingAny () {
+        final ScopeSummary result = new ScopeSummary ();
+        result.__matchesAny = true;
+        return result;
+    }
+
+    //
+
+    private void __include (final Scope scope) {
+        if (!(scope instanceof ScopeMatcher)) {
+            // We know nothing about other scopes.
+            __matchesAny = true;
+            return;
+        }
+
+        final WildCardMatcher matcher = ((ScopeMatcher) scope).classNameMatcher ();
+
+        final String literal = matcher.literal ();
+        if (literal != null) {
+            __names.add (__stripDefaultPackage (literal));
+            return;
+        }
+
+        //
+        // Prefer prefixes, which are usually more selective than suffixes.
+        // Class name patterns without package specification have a package
+        // wild card prepended, so they are summarized by their suffix.
+        //
+        final String prefix = __stripDefaultPackage (matcher.prefix ());
+        final String suffix = __stripDefaultPackage (matcher.suffix ());
+        if (!prefix.isEmpty ()) {
+            __prefixes.add (prefix);
+
+        } else if (!suffix.isEmpty ()) {
+            __suffixes.add (suffix);
+
+        } else {
+            __matchesAny = true;
+        }
+    }
+
+
+    private void __exclude (final Scope scope) {
+        if (!(scope instanceof ScopeMatcher)) {
+            return;
+        }
+
+        final ScopeMatcher scopeMatcher = (ScopeMatcher) scope;
+        if (!scopeMatcher.matchesAnyMethod ()) {
+            // Other methods of the class may still be instrumented.
+            return;
+        }
+
+        final WildCardMatcher matcher = scopeMatcher.classNameMatcher ();
+
+        final String literal = matcher.literal ();
+        if (literal != null) {
+            __excludedNames.add (__stripDefaultPackage (literal));
+            return;
+        }
+
+        //
+        // Only summarize patterns with a single trailing wild card. Without
+        // the leading package separator, a prefix of a class in the default
+        // package would also match classes in packages, so skip those.
+        //
+        final String prefix = matcher.prefix ();
+        if (
+            !prefix.isEmpty () && !prefix.startsWith (__PKG_SEPARATOR__)
+            && matcher.pattern ().equals (prefix + WildCardMatcher.WILDCARD)
+        ) {
+            __excludedPrefixes.add (prefix);
+        }
+    }
+
+
+    /**
+     * Strips the leading package separator used by scopes to match classes
+     * in the default package. This only makes the summary match more classes.
+     */
+    private static String __stripDefaultPackage (final String name) {
+        return name.startsWith (__PKG_SEPARATOR__) ? name.substring (1) : name;
+    }
+
+    //
+
+    /**
+     * @return {@code true} if the summary matches all classes that are not
+     *         excluded, regardless of the exact names, prefixes, and suffixes.
+     */
+    public boolean matchesAny () {
+        return __matchesAny;
+    }
+
+
+    /** @return Exact names of matched classes. */
+    public Set <String> names () {
+        return Collections.unmodifiableSet (__names);
+    }
+
+
+    /** @return Prefixes of the names of matched classes. */
+    public Set <String> prefixes () {
+        return Collections.unmodifiableSet (__prefixes);
+    }
+
+
+    /** @return Suffixes of the names of matched classes. */
+    public Set <String> suffixes () {
+        return Collections.unmodifiableSet (__suffixes);
+    }
+
+
+    /** @return Exact names of excluded classes. */
+    public Set <String> excludedNames () {
+        return Collections.unmodifiableSet (__excludedNames);
+    }
+
+
+    /** @return Prefixes of the names of excluded classes. */
+    public Set <String> excludedPrefixes () {
+        return Collections.unmodifiableSet (__excludedPrefixes);
+    }
+
+    //
+
+    /**
+     * Determines whether the given class may be matched by the summarized
+     * scopes. Classes rejected by the summary are not matched by any of the
+     * summarized scopes.
+     *
+     * @param classInternalName
+     *        <b>internal name</b> (i.e., delimited using slashes) of the class to match
+     */
+    public boolean mayMatch (final String classInternalName) {
+        if (
+            __excludedNames.contains (classInternalName)
+            || __excludedPrefixes.stream ().anyMatch (classInternalName::startsWith)
+        ) {
+            return false;
+        }
+
+        return __matchesAny
+            || __names.contains (classInternalName)
+            || __prefixes.stream ().anyMatch (classInternalName::startsWith)
+            || __suffixes.stream ().anyMatch (classInternalName::endsWith);
+    }
+
+
+    @Override
+    public String toString () {
+        return String.format (
+            "any=%b names=%s prefixes=%s suffixes=%s excludedNames=%s excludedPrefixes=%s",
+            __matchesAny, __names, __prefixes, __suffixes, __excludedNames, __excludedPrefixes
+        );
+    }
+
+}
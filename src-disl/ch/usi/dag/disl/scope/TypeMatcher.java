@@ -13,6 +13,10 @@ abstract class TypeMatcher {
     public abstract boolean match (final String typeDesc);
     public abstract String pattern ();
 
+    boolean matchesAny () {
+        return this == __matchAny__;
+    }
+
     @Override
     public String toString () {
         return String.format ("%s[%s]", JavaNames.simpleClassName (this), pattern ());
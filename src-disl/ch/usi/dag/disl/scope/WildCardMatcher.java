@@ -45,6 +45,11 @@ abstract class WildCardMatcher {
         public boolean match (final String text) {
             return text.isEmpty ();
         };
+
+        @Override
+        String literal () {
+            return _pattern;
+        }
     };
 
     //
@@ -58,6 +63,21 @@ abstract class WildCardMatcher {
         public boolean match (final String text) {
             return _pattern.equals (text);
         };
+
+        @Override
+        String literal () {
+            return _pattern;
+        }
+
+        @Override
+        String prefix () {
+            return _pattern;
+        }
+
+        @Override
+        String suffix () {
+            return _pattern;
+        }
     }
 
     //
@@ -136,6 +156,16 @@ abstract class WildCardMatcher {
 
             return true;
         }
+
+        @Override
+        String prefix () {
+            return __prefixCard;
+        }
+
+        @Override
+        String suffix () {
+            return __suffixCard;
+        }
     };
 
     //
@@ -169,6 +199,41 @@ abstract class WildCardMatcher {
      */
     public abstract boolean match (final String text);
 
+
+    /**
+     * @return The text matched by this matcher if the pattern contains no
+     *         wild cards, {@code null} otherwise.
+     */
+    String literal () {
+        return null;
+    }
+
+
+    /**
+     * @return The text that all strings matched by this matcher start with.
+     *         May be empty.
+     */
+    String prefix () {
+        return "";
+    }
+
+
+    /**
+     * @return The text that all strings matched by this matcher end with.
+     *         May be empty.
+     */
+    String suffix () {
+        return "";
+    }
+
+
+    /**
+     * @return {@code true} if this matcher matches any text.
+     */
+    boolean matchesAny () {
+        return this == __matchAny__;
+    }
+
     //
 
     /**
@@ -1,5 +1,6 @@
 package ch.usi.dag.disl.snippet;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.objectweb.asm.tree.AbstractInsnNode;
@@ -62,6 +63,17 @@ public final class Shadow {
         }
 
 
+        /**
+         * Creates a copy of the given weaving region, which can be adjusted
+         * independently of the original.
+         */
+        public WeavingRegion (final WeavingRegion that) {
+            this.start = that.start;
+            this.ends = (that.ends != null) ? new ArrayList <> (that.ends) : null;
+            this.afterThrowStart = that.afterThrowStart;
+            this.afterThrowEnd = that.afterThrowEnd;
+        }
+
         public AbstractInsnNode getStart() {
             return start;
         }
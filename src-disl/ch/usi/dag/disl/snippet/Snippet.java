@@ -5,11 +5,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.objectweb.asm.Type;
-import org.objectweb.asm.tree.ClassNode;
-import org.objectweb.asm.tree.MethodNode;
 
 import ch.usi.dag.disl.DiSL.CodeOption;
 import ch.usi.dag.disl.exception.MarkerException;
@@ -18,6 +15,7 @@ import ch.usi.dag.disl.exception.ReflectionException;
 import ch.usi.dag.disl.guard.GuardHelper;
 import ch.usi.dag.disl.localvar.LocalVars;
 import ch.usi.dag.disl.marker.Marker;
+import ch.usi.dag.disl.marker.MethodMarkings;
 import ch.usi.dag.disl.processor.ArgProcessor;
 import ch.usi.dag.disl.processor.ArgProcessorMethod;
 import ch.usi.dag.disl.scope.Scope;
@@ -100,14 +98,16 @@ public class Snippet implements Comparable <Snippet> {
     /**
      * Applies the marker associated with this snippet to the given
      * class and method, so as to provide a list of {@link Shadow}
-     * instances representing individual instances of a snippet.
+     * instances representing individual instances of a snippet. The marker
+     * is applied through the given {@link MethodMarkings}, so that snippets
+     * sharing a marker only mark the method once.
      *
      * @throws MarkerException
      */
     public final List <Shadow> selectApplicableShadows (
-        final ClassNode classNode, final MethodNode methodNode
+        final MethodMarkings markings
     ) throws MarkerException {
-        return __guardedShadows (marker.mark (classNode, methodNode, this));
+        return __guardedShadows (markings.mark (marker, this));
     }
 
 
@@ -121,14 +121,7 @@ public class Snippet implements Comparable <Snippet> {
     private List <Shadow> __guardedShadows (
         final List <Shadow> shadows
     ) {
-        if (guard == null) {
-            return shadows;
-        }
-
-        return shadows.stream ()
-            // potentially .parallel(), needs thread-safe static context
-            .filter (shadow -> GuardHelper.guardApplicable (guard, shadow))
-            .collect (Collectors.toList ());
+        return GuardHelper.selectApplicable (guard, shadows);
     }
 
 
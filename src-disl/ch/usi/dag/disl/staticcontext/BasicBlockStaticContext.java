@@ -5,6 +5,8 @@ import java.lang.ref.WeakReference;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import ch.usi.dag.disl.annotation.ConstantPer;
+import ch.usi.dag.disl.annotation.ConstantPer.Granularity;
 import ch.usi.dag.disl.util.Insn;
 import ch.usi.dag.disl.util.Logging;
 import ch.usi.dag.disl.util.cfg.BasicBlock;
@@ -72,6 +74,7 @@ public class BasicBlockStaticContext extends AbstractStaticContext {
      * @return the number of basic blocks in this method.
      */
     @Deprecated
+    @ConstantPer (Granularity.METHOD)
     public int getTotBBs () {
         return getCount ();
     }
@@ -84,6 +87,7 @@ public class BasicBlockStaticContext extends AbstractStaticContext {
      *         zero, because every method should have at least one basic block
      *         represented by the return instruction.
      */
+    @ConstantPer (Granularity.METHOD)
     public int getCount () {
         return _getMethodCfg ().getNodes ().size ();
     }
@@ -98,6 +102,7 @@ public class BasicBlockStaticContext extends AbstractStaticContext {
      * @return size of this basic block.
      */
     @Deprecated
+    @ConstantPer (Granularity.BASIC_BLOCK)
     public int getBBSize () {
         return getSize ();
     }
@@ -108,6 +113,7 @@ public class BasicBlockStaticContext extends AbstractStaticContext {
      *
      * @return size of this basic block.
      */
+    @ConstantPer (Granularity.BASIC_BLOCK)
     public int getSize () {
         final int index = getIndex ();
         if (index >= 0) {
@@ -155,6 +161,7 @@ public class BasicBlockStaticContext extends AbstractStaticContext {
      * @return index of this basic block within a method.
      */
     @Deprecated
+    @ConstantPer (Granularity.BASIC_BLOCK)
     public int getBBindex () {
         return getIndex ();
     }
@@ -166,6 +173,7 @@ public class BasicBlockStaticContext extends AbstractStaticContext {
      * @return index of this basic block within a method, or -1 if the basic
      *         block index could not be found.
      */
+    @ConstantPer (Granularity.BASIC_BLOCK)
     public int getIndex () {
         return _getMethodCfg ().getIndex (staticContextData.getRegionStart ());
     }
@@ -2,6 +2,8 @@ package ch.usi.dag.disl.staticcontext;
 
 import org.objectweb.asm.Opcodes;
 
+import ch.usi.dag.disl.annotation.ConstantPer;
+import ch.usi.dag.disl.annotation.ConstantPer.Granularity;
 import ch.usi.dag.disl.util.JavaNames;
 
 
@@ -9,6 +11,7 @@ import ch.usi.dag.disl.util.JavaNames;
  * Provides class related static context information for the method being
  * instrumented.
  */
+@ConstantPer (Granularity.CLASS)
 public class ClassStaticContext extends AbstractStaticContext {
 
     /**
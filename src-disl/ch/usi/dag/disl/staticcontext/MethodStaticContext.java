@@ -4,6 +4,8 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import ch.usi.dag.disl.annotation.ConstantPer;
+import ch.usi.dag.disl.annotation.ConstantPer.Granularity;
 import ch.usi.dag.disl.util.JavaNames;
 
 
@@ -11,6 +13,7 @@ import ch.usi.dag.disl.util.JavaNames;
  * Provides method related static context information for the method being
  * instrumented.
  */
+@ConstantPer (Granularity.METHOD)
 public class MethodStaticContext extends AbstractStaticContext {
 
     /**
@@ -21,6 +24,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getInternalName()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassName () {
         return __classInternalName ();
     }
@@ -34,6 +38,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getSimpleName()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassSimpleName () {
         return JavaNames.simpleClassName (__classInternalName ());
     }
@@ -47,6 +52,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getName()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassCanonicalName () {
         return JavaNames.internalToType (__classInternalName ());
     }
@@ -61,6 +67,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getOuterClassInternalName()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassOuterClass () {
         return __classNode ().outerClass;
     }
@@ -74,6 +81,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getOuterMethodName()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassOuterMethod () {
         return __classNode ().outerMethod;
     }
@@ -86,6 +94,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getOuterMethodDescriptor()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassOuterMethodDesc () {
         return __classNode ().outerMethodDesc;
     }
@@ -99,6 +108,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getSignature()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassSignature () {
         return __classNode ().signature;
     }
@@ -111,6 +121,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getSourceFile()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassSourceFile () {
         return __classNode ().sourceFile;
     }
@@ -125,6 +136,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getSuperClassInternalName()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public String thisClassSuperName () {
         return __classNode ().superName;
     }
@@ -137,6 +149,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#getVersion()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public int thisClassVersion () {
         return __classNode ().version;
     }
@@ -149,6 +162,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isAbstract()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassAbstract () {
         return __classAccessFlag (Opcodes.ACC_ABSTRACT);
     }
@@ -161,6 +175,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isAnnotation()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassAnnotation () {
         return __classAccessFlag (Opcodes.ACC_ANNOTATION);
     }
@@ -173,6 +188,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isEnum()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassEnum () {
         return __classAccessFlag (Opcodes.ACC_ENUM);
     }
@@ -185,6 +201,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isFinal()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassFinal () {
         return __classAccessFlag (Opcodes.ACC_FINAL);
     }
@@ -197,6 +214,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isInterface()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassInterface () {
         return __classAccessFlag (Opcodes.ACC_INTERFACE);
     }
@@ -209,6 +227,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isPrivate()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassPrivate () {
         return __classAccessFlag (Opcodes.ACC_PRIVATE);
     }
@@ -221,6 +240,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isProtected()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassProtected () {
         return __classAccessFlag (Opcodes.ACC_PROTECTED);
     }
@@ -233,6 +253,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isPublic()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassPublic () {
         return __classAccessFlag (Opcodes.ACC_PUBLIC);
     }
@@ -245,6 +266,7 @@ public class MethodStaticContext extends AbstractStaticContext {
      * {@link ClassStaticContext#isSynthetic()} instead.
      */
     @Deprecated
+    @ConstantPer (Granularity.CLASS)
     public boolean isClassSynthetic () {
         return __classAccessFlag (Opcodes.ACC_SYNTHETIC);
     }
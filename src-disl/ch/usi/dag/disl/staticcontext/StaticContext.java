@@ -31,7 +31,10 @@ import ch.usi.dag.disl.snippet.Shadow;
  * <li>a static context method does not have parameters</li>
  * <li>the return value can be only a primitive type or a String</li>
  * </ul>
- * In addition, a {@link StaticContext} implementation has to be thread-safe.
+ * DiSL creates a separate instance of a {@link StaticContext} implementation
+ * for each thread performing instrumentation, so the instance state does not
+ * need to be synchronized. However, any state shared between instances (e.g.,
+ * in static fields) has to be thread-safe.
  */
 public interface StaticContext {
 
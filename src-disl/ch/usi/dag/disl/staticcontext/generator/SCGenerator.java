@@ -1,8 +1,14 @@
 package ch.usi.dag.disl.staticcontext.generator;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ch.usi.dag.disl.annotation.ConstantPer;
+import ch.usi.dag.disl.annotation.ConstantPer.Granularity;
 
 import ch.usi.dag.disl.coderep.StaticContextMethod;
 import ch.usi.dag.disl.exception.ReflectionException;
@@ -78,6 +84,87 @@ public class SCGenerator {
 
     //
 
+    /**
+     * Caches the values of static context methods that stay constant per
+     * class, method, or basic block, as declared by the {@link ConstantPer}
+     * annotation. A cache is intended to be used for the methods of a single
+     * class, and may be shared by threads instrumenting the methods.
+     */
+    public static final class Cache {
+
+        /** Stands for {@code null} values, which cannot be stored in the map. */
+        private static final Object __NULL__ = new Object ();
+
+        private final ConcurrentMap <List <Object>, Object> __values = new ConcurrentHashMap <> ();
+
+        //
+
+        private Object __value (
+            final StaticContextMethod scm, final Shadow shadow
+        ) throws ReflectionException, StaticContextGenException {
+            final Object scope = scopeOf (scm.getGranularity (), shadow);
+            if (scope == null) {
+                return __invoke (scm, shadow);
+            }
+
+            //
+            // The scope objects (class, method, or instruction nodes) do not
+            // override equals(), so the key compares them by identity.
+            //
+            final List <Object> key = Arrays.asList (scm.getId (), scope);
+            final Object cached = __values.get (key);
+            if (cached != null) {
+                return (cached != __NULL__) ? cached : null;
+            }
+
+            final Object value = __invoke (scm, shadow);
+            __values.putIfAbsent (key, (value != null) ? value : __NULL__);
+            return value;
+        }
+
+
+        private static Object __invoke (
+            final StaticContextMethod scm, final Shadow shadow
+        ) throws ReflectionException, StaticContextGenException {
+            //
+            // Get SC instance, associate it with the shadow location, and
+            // invoke the static context method.
+            //
+            final StaticContext staticContext = SCResolver.getInstance()
+                .getStaticContextInstance (scm.getReferencedClass ());
+
+            staticContext.staticContextData (shadow);
+            return scm.invoke (staticContext);
+        }
+    }
+
+    /**
+     * Returns the object identifying the scope of the given granularity in
+     * which the given shadow is located, i.e., the class node, the method
+     * node, or the first instruction of the shadow region. Returns
+     * {@code null} for the {@link Granularity#SHADOW} granularity, because
+     * each shadow is its own scope.
+     */
+    public static Object scopeOf (
+        final Granularity granularity, final Shadow shadow
+    ) {
+        switch (granularity) {
+        case CLASS:
+            return shadow.getClassNode ();
+
+        case METHOD:
+            return shadow.getMethodNode ();
+
+        case BASIC_BLOCK:
+            return shadow.getRegionStart ();
+
+        default:
+            return null;
+        }
+    }
+
+    //
+
     private final Map <StaticContextKey, Object> staticInfoData;
 
     private SCGenerator (
@@ -91,6 +178,18 @@ public class SCGenerator {
     // a static info values
     public static SCGenerator computeStaticInfo (
         final Map <Snippet, List <Shadow>> snippetMarkings
+    ) throws ReflectionException, StaticContextGenException {
+        return computeStaticInfo (snippetMarkings, new Cache ());
+    }
+
+
+    /**
+     * Computes static context values for the given shadows, reusing the
+     * values from the given cache for static context methods with values
+     * constant per class, method, or basic block.
+     */
+    public static SCGenerator computeStaticInfo (
+        final Map <Snippet, List <Shadow>> snippetMarkings, final Cache cache
     ) throws ReflectionException, StaticContextGenException {
         //
         // For each snippet, obtain a set of invoked static context methods
@@ -103,18 +202,9 @@ public class SCGenerator {
             for (final StaticContextMethod scm : snippet.getCode ().getReferencedSCMs ()) {
 
                 for (final Shadow shadow : snippetMarkings.get (snippet)) {
-                    //
-                    // Get SC instance, associate it with the shadow location, and
-                    // cache it along with the method.
-                    //
-                    final StaticContext staticContext = SCResolver.getInstance()
-                        .getStaticContextInstance (scm.getReferencedClass ());
-
-                    staticContext.staticContextData (shadow);
-
                     result.put (
                         new StaticContextKey (shadow, scm.getId ()),
-                        scm.invoke (staticContext)
+                        cache.__value (scm, shadow)
                     );
                 }
             }
@@ -463,6 +463,11 @@ public abstract class AsmHelper {
      * Clones a method node, including all code, try-catch blocks, and
      * annotations. This is actually faster than cloning just the code and the
      * try-catch blocks by hand.
+     * <p>
+     * <b>Note:</b> Visiting a method node maps its labels to the labels of
+     * the target node through the labels themselves, so clones of the same
+     * method (e.g., snippet code shared by multiple weaving threads) must not
+     * be created concurrently.
      *
      * @param method
      *        {@link MethodNode} to clone
@@ -476,7 +481,10 @@ public abstract class AsmHelper {
             )
         );
 
-        method.accept (result);
+        synchronized (method) {
+            method.accept (result);
+        }
+
         return result;
     }
 
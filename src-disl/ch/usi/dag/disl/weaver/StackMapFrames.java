@@ -0,0 +1,1203 @@
+package ch.usi.dag.disl.weaver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.Interpreter;
+import org.objectweb.asm.tree.analysis.Value;
+
+import ch.usi.dag.disl.Reflection;
+import ch.usi.dag.disl.util.JavaNames;
+
+
+/**
+ * Derives the stack map frames of woven methods from the (expanded) frames
+ * of the original method code, so that the frames do not need to be
+ * computed from scratch when marshaling a class.
+ * <p>
+ * The original frames remain valid after weaving, because the inserted code
+ * is stack-neutral and only uses its own local variables, except for the
+ * synthetic local variables, which need to be declared in the original
+ * frames using {@link #declareLocals}. The original frames are therefore
+ * trusted as fixed states, and a data flow analysis over the whole method,
+ * seeded from the original frames and the method entry, determines the
+ * states at the branch targets and exception handlers introduced by the
+ * inserted code. The analysis still visits every reachable instruction,
+ * but it only merges states where the inserted code added control flow, and
+ * it avoids the type inference over the original code and the class
+ * hierarchy lookups that computing all frames from scratch would require.
+ * <p>
+ * If the frames cannot be derived, e.g., because the method uses synthetic
+ * local variables that are never initialized, the method is left intact,
+ * and the frames have to be computed by the class writer.
+ */
+public final class StackMapFrames {
+
+    /**
+     * Additional stack slots available to the analysis, because the maximal
+     * stack size of a woven method is only computed when marshaling it.
+     */
+    private static final int __EXTRA_STACK__ = 64;
+
+    private static final String __OBJECT__ = Type.getInternalName (Object.class);
+
+    private static final String __THROWABLE__ = Type.getInternalName (Throwable.class);
+
+    /**
+     * The frame type of a synthetic local variable that is never initialized.
+     * Its actual type at a frame depends on whether the inserted code stored
+     * into it on every path leading to the frame, which is not known without
+     * analyzing the whole method. Methods with such variables are therefore
+     * rejected by {@link #derive}. This is not a valid frame type, and it is
+     * replaced by {@link Opcodes#TOP} when a method is rejected.
+     */
+    static final Object UNINITIALIZED_LOCAL = new Object () {
+        @Override
+        public String toString () {
+            return "UNINITIALIZED_LOCAL";
+        }
+    };
+
+    //
+
+    private StackMapFrames () {
+        // not to be instantiated
+    }
+
+    //
+
+    /**
+     * Declares additional local variables in all the stack map frames of
+     * the given method.
+     *
+     * @param method
+     *        the method containing the frames to update
+     * @param firstSlot
+     *        the slot of the first variable
+     * @param types
+     *        frame types of the variables, in the format used by
+     *        {@link FrameNode}, with long and double variables represented
+     *        by a single element, and with {@link #UNINITIALIZED_LOCAL} in
+     *        each slot of variables that are never initialized
+     */
+    static void declareLocals (
+        final MethodNode method, final int firstSlot, final List <Object> types
+    ) {
+        for (final AbstractInsnNode insn : method.instructions) {
+            if (insn.getType () != AbstractInsnNode.FRAME) {
+                continue;
+            }
+
+            final FrameNode frame = (FrameNode) insn;
+            if (frame.local == null) {
+                frame.local = new ArrayList <> ();
+            }
+
+            // Pad the frame with unused slots up to the first variable.
+            for (int slot = __slotCount (frame.local); slot < firstSlot; slot++) {
+                frame.local.add (Opcodes.TOP);
+            }
+
+            frame.local.addAll (types);
+        }
+    }
+
+
+    /**
+     * Returns the frame type of a value of the given type.
+     */
+    static Object frameType (final Type type) {
+        switch (type.getSort ()) {
+        case Type.BOOLEAN:
+        case Type.BYTE:
+        case Type.CHAR:
+        case Type.SHORT:
+        case Type.INT:
+            return Opcodes.INTEGER;
+
+        case Type.FLOAT:
+            return Opcodes.FLOAT;
+
+        case Type.LONG:
+            return Opcodes.LONG;
+
+        case Type.DOUBLE:
+            return Opcodes.DOUBLE;
+
+        default:
+            return type.getInternalName ();
+        }
+    }
+
+    //
+
+    /**
+     * Derives the missing stack map frames of the given woven method and
+     * inserts them into the method code. The method is only modified if
+     * frames could be derived for all branch targets, exception handlers,
+     * and instructions following unconditional control transfers. Methods
+     * with synthetic local variables that are never initialized are always
+     * rejected.
+     *
+     * @param owner
+     *        the internal name of the class owning the method
+     * @param method
+     *        the method to derive the frames for
+     * @return {@code true} if the method has all the frames it needs,
+     *         {@code false} if the frames need to be computed
+     */
+    public static boolean derive (final String owner, final MethodNode method) {
+        return derive (owner, method, Reflection::commonSuperClass);
+    }
+
+
+    /**
+     * Derives the missing stack map frames of the given woven method, using
+     * the given function to determine the common super class of two classes
+     * when merging states at branch targets introduced by the inserted code.
+     *
+     * @see #derive(String, MethodNode)
+     */
+    public static boolean derive (
+        final String owner, final MethodNode method,
+        final BinaryOperator <String> commonSuperClass
+    ) {
+        if ((method.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+            return true;
+        }
+
+        if (__undefineUninitializedLocals (method)) {
+            return false;
+        }
+
+        try {
+            return new Derivation (owner, method, commonSuperClass).run ();
+
+        } catch (final AnalyzerException | IndexOutOfBoundsException e) {
+            // Give up, the frames will be computed by the class writer.
+            return false;
+        }
+    }
+
+    //
+
+    private static boolean __endsBlock (final int opcode) {
+        switch (opcode) {
+        case Opcodes.GOTO:
+        case Opcodes.TABLESWITCH:
+        case Opcodes.LOOKUPSWITCH:
+        case Opcodes.ATHROW:
+        case Opcodes.IRETURN:
+        case Opcodes.LRETURN:
+        case Opcodes.FRETURN:
+        case Opcodes.DRETURN:
+        case Opcodes.ARETURN:
+        case Opcodes.RETURN:
+            return true;
+
+        default:
+            return false;
+        }
+    }
+
+
+    /**
+     * Replaces the frame types of synthetic local variables that are never
+     * initialized by {@link Opcodes#TOP}, so that the frames are valid.
+     *
+     * @return {@code true} if the method has any such variables.
+     */
+    private static boolean __undefineUninitializedLocals (final MethodNode method) {
+        boolean result = false;
+
+        for (final AbstractInsnNode insn : method.instructions) {
+            if (insn.getType () != AbstractInsnNode.FRAME) {
+                continue;
+            }
+
+            final List <Object> locals = ((FrameNode) insn).local;
+            if (locals == null) {
+                continue;
+            }
+
+            for (int i = 0; i < locals.size (); i++) {
+                if (locals.get (i) == UNINITIALIZED_LOCAL) {
+                    locals.set (i, Opcodes.TOP);
+                    result = true;
+                }
+            }
+        }
+
+        return result;
+    }
+
+
+    private static int __slotCount (final List <Object> types) {
+        return types.stream ().mapToInt (FrameValue::sizeOf).sum ();
+    }
+
+    //
+
+    /**
+     * A value in an analysis frame, represented by its frame type, i.e., one
+     * of the primitive type constants in {@link Opcodes}, an internal name of
+     * a class or array type, or the {@code NEW} instruction that created an
+     * uninitialized value.
+     */
+    private static final class FrameValue implements Value {
+
+        static final FrameValue TOP = new FrameValue (Opcodes.TOP);
+        static final FrameValue INTEGER = new FrameValue (Opcodes.INTEGER);
+        static final FrameValue FLOAT = new FrameValue (Opcodes.FLOAT);
+        static final FrameValue LONG = new FrameValue (Opcodes.LONG);
+        static final FrameValue DOUBLE = new FrameValue (Opcodes.DOUBLE);
+        static final FrameValue NULL = new FrameValue (Opcodes.NULL);
+        static final FrameValue UNINITIALIZED_THIS = new FrameValue (Opcodes.UNINITIALIZED_THIS);
+
+        //
+
+        final Object type;
+
+        private FrameValue (final Object type) {
+            this.type = type;
+        }
+
+        static FrameValue of (final Object type) {
+            if (type == Opcodes.TOP) {
+                return TOP;
+            } else if (type == Opcodes.INTEGER) {
+                return INTEGER;
+            } else if (type == Opcodes.FLOAT) {
+                return FLOAT;
+            } else if (type == Opcodes.LONG) {
+                return LONG;
+            } else if (type == Opcodes.DOUBLE) {
+                return DOUBLE;
+            } else if (type == Opcodes.NULL) {
+                return NULL;
+            } else if (type == Opcodes.UNINITIALIZED_THIS) {
+                return UNINITIALIZED_THIS;
+            } else {
+                return new FrameValue (type);
+            }
+        }
+
+        //
+
+        static int sizeOf (final Object type) {
+            return (type == Opcodes.LONG || type == Opcodes.DOUBLE) ? 2 : 1;
+        }
+
+        @Override
+        public int getSize () {
+            return sizeOf (type);
+        }
+
+        boolean isReference () {
+            return type instanceof String || type == Opcodes.NULL;
+        }
+
+        boolean isUninitialized () {
+            return type instanceof AbstractInsnNode || type == Opcodes.UNINITIALIZED_THIS;
+        }
+
+        @Override
+        public boolean equals (final Object other) {
+            return other instanceof FrameValue && type.equals (((FrameValue) other).type);
+        }
+
+        @Override
+        public int hashCode () {
+            return type.hashCode ();
+        }
+    }
+
+    //
+
+    /**
+     * An interpreter computing the frame types of values. Different
+     * reference types are merged into their common super class, which is
+     * consistent with the common super class used by the class writer.
+     */
+    private static final class FrameInterpreter extends Interpreter <FrameValue> {
+
+        private final BinaryOperator <String> __commonSuperClass;
+
+        FrameInterpreter (final BinaryOperator <String> commonSuperClass) {
+            super (Opcodes.ASM9);
+            __commonSuperClass = commonSuperClass;
+        }
+
+        @Override
+        public FrameValue newValue (final Type type) {
+            if (type == null) {
+                return FrameValue.TOP;
+            } else if (type.getSort () == Type.VOID) {
+                return null;
+            } else {
+                return FrameValue.of (frameType (type));
+            }
+        }
+
+        @Override
+        public FrameValue newExceptionValue (
+            final TryCatchBlockNode tcb, final Frame <FrameValue> handlerFrame,
+            final Type exceptionType
+        ) {
+            return FrameValue.of (exceptionType.getInternalName ());
+        }
+
+        @Override
+        public FrameValue newOperation (final AbstractInsnNode insn) throws AnalyzerException {
+            switch (insn.getOpcode ()) {
+            case Opcodes.ACONST_NULL:
+                return FrameValue.NULL;
+
+            case Opcodes.ICONST_M1:
+            case Opcodes.ICONST_0:
+            case Opcodes.ICONST_1:
+            case Opcodes.ICONST_2:
+            case Opcodes.ICONST_3:
+            case Opcodes.ICONST_4:
+            case Opcodes.ICONST_5:
+            case Opcodes.BIPUSH:
+            case Opcodes.SIPUSH:
+                return FrameValue.INTEGER;
+
+            case Opcodes.LCONST_0:
+            case Opcodes.LCONST_1:
+                return FrameValue.LONG;
+
+            case Opcodes.FCONST_0:
+            case Opcodes.FCONST_1:
+            case Opcodes.FCONST_2:
+                return FrameValue.FLOAT;
+
+            case Opcodes.DCONST_0:
+            case Opcodes.DCONST_1:
+                return FrameValue.DOUBLE;
+
+            case Opcodes.LDC:
+                return __constantValue (insn, ((LdcInsnNode) insn).cst);
+
+            case Opcodes.GETSTATIC:
+                return newValue (Type.getType (((FieldInsnNode) insn).desc));
+
+            case Opcodes.NEW:
+                return FrameValue.of (insn);
+
+            default:
+                throw new AnalyzerException (insn, "unsupported instruction");
+            }
+        }
+
+
+        private FrameValue __constantValue (
+            final AbstractInsnNode insn, final Object cst
+        ) throws AnalyzerException {
+            if (cst instanceof Integer) {
+                return FrameValue.INTEGER;
+            } else if (cst instanceof Float) {
+                return FrameValue.FLOAT;
+            } else if (cst instanceof Long) {
+                return FrameValue.LONG;
+            } else if (cst instanceof Double) {
+                return FrameValue.DOUBLE;
+            } else if (cst instanceof String) {
+                return FrameValue.of ("java/lang/String");
+            } else if (cst instanceof Type) {
+                final boolean isMethod = ((Type) cst).getSort () == Type.METHOD;
+                return FrameValue.of (isMethod ? "java/lang/invoke/MethodType" : "java/lang/Class");
+            } else if (cst instanceof Handle) {
+                return FrameValue.of ("java/lang/invoke/MethodHandle");
+            } else if (cst instanceof ConstantDynamic) {
+                return newValue (Type.getType (((ConstantDynamic) cst).getDescriptor ()));
+            } else {
+                throw new AnalyzerException (insn, "unsupported constant: "+ cst);
+            }
+        }
+
+
+        @Override
+        public FrameValue copyOperation (
+            final AbstractInsnNode insn, final FrameValue value
+        ) throws AnalyzerException {
+            if (value == FrameValue.TOP && insn.getOpcode () <= Opcodes.ALOAD) {
+                throw new AnalyzerException (insn, "undefined local variable");
+            }
+
+            return value;
+        }
+
+
+        @Override
+        public FrameValue unaryOperation (
+            final AbstractInsnNode insn, final FrameValue value
+        ) throws AnalyzerException {
+            switch (insn.getOpcode ()) {
+            case Opcodes.IINC:
+                if (value != FrameValue.INTEGER) {
+                    throw new AnalyzerException (insn, "undefined local variable");
+                }
+                return FrameValue.INTEGER;
+
+            case Opcodes.INEG:
+            case Opcodes.L2I:
+            case Opcodes.F2I:
+            case Opcodes.D2I:
+            case Opcodes.I2B:
+            case Opcodes.I2C:
+            case Opcodes.I2S:
+            case Opcodes.ARRAYLENGTH:
+            case Opcodes.INSTANCEOF:
+                return FrameValue.INTEGER;
+
+            case Opcodes.FNEG:
+            case Opcodes.I2F:
+            case Opcodes.L2F:
+            case Opcodes.D2F:
+                return FrameValue.FLOAT;
+
+            case Opcodes.LNEG:
+            case Opcodes.I2L:
+            case Opcodes.F2L:
+            case Opcodes.D2L:
+                return FrameValue.LONG;
+
+            case Opcodes.DNEG:
+            case Opcodes.I2D:
+            case Opcodes.L2D:
+            case Opcodes.F2D:
+                return FrameValue.DOUBLE;
+
+            case Opcodes.GETFIELD:
+                return newValue (Type.getType (((FieldInsnNode) insn).desc));
+
+            case Opcodes.NEWARRAY:
+                return FrameValue.of (__primitiveArrayType (insn));
+
+            case Opcodes.ANEWARRAY:
+                final Type elementType = Type.getObjectType (((TypeInsnNode) insn).desc);
+                return FrameValue.of ("["+ elementType.getDescriptor ());
+
+            case Opcodes.CHECKCAST:
+                return FrameValue.of (((TypeInsnNode) insn).desc);
+
+            default:
+                // Conditional jumps, switches, returns, and other consumers.
+                return null;
+            }
+        }
+
+
+        private static String __primitiveArrayType (
+            final AbstractInsnNode insn
+        ) throws AnalyzerException {
+            final int operand = ((IntInsnNode) insn).operand;
+            switch (operand) {
+            case Opcodes.T_BOOLEAN: return "[Z";
+            case Opcodes.T_CHAR: return "[C";
+            case Opcodes.T_BYTE: return "[B";
+            case Opcodes.T_SHORT: return "[S";
+            case Opcodes.T_INT: return "[I";
+            case Opcodes.T_FLOAT: return "[F";
+            case Opcodes.T_DOUBLE: return "[D";
+            case Opcodes.T_LONG: return "[J";
+
+            default:
+                throw new AnalyzerException (insn, "invalid array type: "+ operand);
+            }
+        }
+
+
+        @Override
+        public FrameValue binaryOperation (
+            final AbstractInsnNode insn, final FrameValue value1, final FrameValue value2
+        ) throws AnalyzerException {
+            switch (insn.getOpcode ()) {
+            case Opcodes.IALOAD:
+            case Opcodes.BALOAD:
+            case Opcodes.CALOAD:
+            case Opcodes.SALOAD:
+            case Opcodes.IADD:
+            case Opcodes.ISUB:
+            case Opcodes.IMUL:
+            case Opcodes.IDIV:
+            case Opcodes.IREM:
+            case Opcodes.ISHL:
+            case Opcodes.ISHR:
+            case Opcodes.IUSHR:
+            case Opcodes.IAND:
+            case Opcodes.IOR:
+            case Opcodes.IXOR:
+            case Opcodes.LCMP:
+            case Opcodes.FCMPL:
+            case Opcodes.FCMPG:
+            case Opcodes.DCMPL:
+            case Opcodes.DCMPG:
+                return FrameValue.INTEGER;
+
+            case Opcodes.FALOAD:
+            case Opcodes.FADD:
+            case Opcodes.FSUB:
+            case Opcodes.FMUL:
+            case Opcodes.FDIV:
+            case Opcodes.FREM:
+                return FrameValue.FLOAT;
+
+            case Opcodes.LALOAD:
+            case Opcodes.LADD:
+            case Opcodes.LSUB:
+            case Opcodes.LMUL:
+            case Opcodes.LDIV:
+            case Opcodes.LREM:
+            case Opcodes.LSHL:
+            case Opcodes.LSHR:
+            case Opcodes.LUSHR:
+            case Opcodes.LAND:
+            case Opcodes.LOR:
+            case Opcodes.LXOR:
+                return FrameValue.LONG;
+
+            case Opcodes.DALOAD:
+            case Opcodes.DADD:
+            case Opcodes.DSUB:
+            case Opcodes.DMUL:
+            case Opcodes.DDIV:
+            case Opcodes.DREM:
+                return FrameValue.DOUBLE;
+
+            case Opcodes.AALOAD:
+                if (value1 == FrameValue.NULL) {
+                    return FrameValue.NULL;
+                }
+
+                if (!(value1.type instanceof String) || !((String) value1.type).startsWith ("[")) {
+                    throw new AnalyzerException (insn, "array reference expected");
+                }
+
+                return newValue (Type.getType (((String) value1.type).substring (1)));
+
+            default:
+                // Conditional jumps and field stores.
+                return null;
+            }
+        }
+
+
+        @Override
+        public FrameValue ternaryOperation (
+            final AbstractInsnNode insn, final FrameValue value1,
+            final FrameValue value2, final FrameValue value3
+        ) {
+            // Array stores.
+            return null;
+        }
+
+
+        @Override
+        public FrameValue naryOperation (
+            final AbstractInsnNode insn, final List <? extends FrameValue> values
+        ) {
+            switch (insn.getOpcode ()) {
+            case Opcodes.MULTIANEWARRAY:
+                return FrameValue.of (((MultiANewArrayInsnNode) insn).desc);
+
+            case Opcodes.INVOKEDYNAMIC:
+                return newValue (Type.getReturnType (((InvokeDynamicInsnNode) insn).desc));
+
+            default:
+                return newValue (Type.getReturnType (((MethodInsnNode) insn).desc));
+            }
+        }
+
+
+        @Override
+        public void returnOperation (
+            final AbstractInsnNode insn, final FrameValue value, final FrameValue expected
+        ) {
+            // nothing to check
+        }
+
+
+        @Override
+        public FrameValue merge (final FrameValue value1, final FrameValue value2) {
+            if (value1.equals (value2)) {
+                return value1;
+
+            } else if (value1.isReference () && value2.isReference ()) {
+                if (value1 == FrameValue.NULL) {
+                    return value2;
+                } else if (value2 == FrameValue.NULL) {
+                    return value1;
+                } else {
+                    return FrameValue.of (__commonSuperClass.apply (
+                        (String) value1.type, (String) value2.type
+                    ));
+                }
+
+            } else {
+                return FrameValue.TOP;
+            }
+        }
+    }
+
+    //
+
+    /**
+     * Derivation of the frames of a single method.
+     */
+    private static final class Derivation {
+
+        private final String __owner;
+
+        private final MethodNode __method;
+
+        private final AbstractInsnNode [] __insns;
+
+        private final Map <AbstractInsnNode, Integer> __indices;
+
+        private final FrameInterpreter __interpreter;
+
+        private final int __maxLocals;
+
+        private final int __maxStack;
+
+        /** Entry states of instructions starting a basic block. */
+        private final Frame <FrameValue> [] __entries;
+
+        /** Whether the entry state of an instruction comes from an original frame. */
+        private final boolean [] __fixed;
+
+        /** Whether an instruction requires a frame. */
+        private final boolean [] __required;
+
+        /** Exception handlers without a frame covering an instruction. */
+        private final List <TryCatchBlockNode> [] __handlers;
+
+        private final Deque <Integer> __worklist = new ArrayDeque <> ();
+
+        //
+
+        @SuppressWarnings ("unchecked")
+        Derivation (
+            final String owner, final MethodNode method,
+            final BinaryOperator <String> commonSuperClass
+        ) {
+            __owner = owner;
+            __method = method;
+            __interpreter = new FrameInterpreter (commonSuperClass);
+
+            __insns = method.instructions.toArray ();
+            __indices = new IdentityHashMap <> (__insns.length);
+            for (int i = 0; i < __insns.length; i++) {
+                __indices.put (__insns [i], i);
+            }
+
+            __maxLocals = __maxLocals (method);
+            __maxStack = method.maxStack + __EXTRA_STACK__;
+
+            __entries = new Frame [__insns.length];
+            __fixed = new boolean [__insns.length];
+            __required = new boolean [__insns.length];
+            __handlers = new List [__insns.length];
+        }
+
+
+        private static int __maxLocals (final MethodNode method) {
+            int result = method.maxLocals;
+
+            for (final AbstractInsnNode insn : method.instructions) {
+                if (insn instanceof VarInsnNode) {
+                    final int opcode = insn.getOpcode ();
+                    final boolean wide = opcode == Opcodes.LLOAD || opcode == Opcodes.DLOAD
+                        || opcode == Opcodes.LSTORE || opcode == Opcodes.DSTORE;
+                    result = Math.max (result, ((VarInsnNode) insn).var + (wide ? 2 : 1));
+
+                } else if (insn instanceof IincInsnNode) {
+                    result = Math.max (result, ((IincInsnNode) insn).var + 1);
+
+                } else if (insn instanceof FrameNode) {
+                    final List <Object> locals = ((FrameNode) insn).local;
+                    if (locals != null) {
+                        result = Math.max (result, __slotCount (locals));
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        //
+
+        boolean run () throws AnalyzerException {
+            if (!__collectFrames ()) {
+                return false;
+            }
+
+            __collectTargets ();
+
+            //
+            // Start with the method entry and the original frames. The code
+            // following an original frame is traversed only once, unless it
+            // is also reachable from a frame computed for the inserted code.
+            //
+            final int first = __nextReal (0);
+            if (first < 0) {
+                return true;
+            }
+
+            __merge (first, __entryFrame ());
+            for (int i = 0; i < __insns.length; i++) {
+                if (__fixed [i]) {
+                    __worklist.add (i);
+                }
+            }
+
+            while (!__worklist.isEmpty ()) {
+                __execute (__worklist.poll ());
+            }
+
+            return __insertFrames ();
+        }
+
+
+        /**
+         * Collects the original frames as the entry states of the instructions
+         * following them.
+         */
+        private boolean __collectFrames () throws AnalyzerException {
+            for (int i = 0; i < __insns.length; i++) {
+                if (__insns [i].getType () != AbstractInsnNode.FRAME) {
+                    continue;
+                }
+
+                final FrameNode frameNode = (FrameNode) __insns [i];
+                if (frameNode.type != Opcodes.F_NEW) {
+                    return false;
+                }
+
+                final int target = __nextReal (i);
+                if (target < 0) {
+                    continue;
+                }
+
+                if (__fixed [target]) {
+                    // Two frames at the same offset.
+                    return false;
+                }
+
+                __entries [target] = __stateOf (frameNode);
+                __fixed [target] = true;
+            }
+
+            return true;
+        }
+
+
+        private Frame <FrameValue> __stateOf (final FrameNode frameNode) throws AnalyzerException {
+            final Frame <FrameValue> result = new Frame <> (__maxLocals, __maxStack);
+
+            int slot = 0;
+            if (frameNode.local != null) {
+                for (final Object type : frameNode.local) {
+                    slot = __setLocal (result, slot, __valueOf (type));
+                }
+            }
+
+            for (; slot < __maxLocals; slot++) {
+                result.setLocal (slot, FrameValue.TOP);
+            }
+
+            if (frameNode.stack != null) {
+                for (final Object type : frameNode.stack) {
+                    result.push (__valueOf (type));
+                }
+            }
+
+            return result;
+        }
+
+
+        private FrameValue __valueOf (final Object type) throws AnalyzerException {
+            if (type instanceof LabelNode) {
+                // Uninitialized value created by the NEW instruction at the label.
+                final int index = __nextReal (__indices.get (type));
+                if (index < 0 || __insns [index].getOpcode () != Opcodes.NEW) {
+                    throw new AnalyzerException (null, "invalid uninitialized type");
+                }
+
+                return FrameValue.of (__insns [index]);
+
+            } else {
+                return FrameValue.of (type);
+            }
+        }
+
+
+        private Frame <FrameValue> __entryFrame () {
+            final Frame <FrameValue> result = new Frame <> (__maxLocals, __maxStack);
+
+            int slot = 0;
+            if ((__method.access & Opcodes.ACC_STATIC) == 0) {
+                final boolean uninitialized = JavaNames.isConstructorName (__method.name)
+                    && !__OBJECT__.equals (__owner);
+
+                slot = __setLocal (result, slot, uninitialized ?
+                    FrameValue.UNINITIALIZED_THIS : FrameValue.of (__owner)
+                );
+            }
+
+            for (final Type type : Type.getArgumentTypes (__method.desc)) {
+                slot = __setLocal (result, slot, __interpreter.newValue (type));
+            }
+
+            for (; slot < __maxLocals; slot++) {
+                result.setLocal (slot, FrameValue.TOP);
+            }
+
+            return result;
+        }
+
+
+        private static int __setLocal (
+            final Frame <FrameValue> frame, int slot, final FrameValue value
+        ) {
+            frame.setLocal (slot++, value);
+            if (value.getSize () == 2) {
+                frame.setLocal (slot++, FrameValue.TOP);
+            }
+
+            return slot;
+        }
+
+
+        /**
+         * Marks the instructions which require a frame, i.e., branch targets,
+         * exception handlers, and instructions following unconditional
+         * control transfers, and collects exception handlers without frames.
+         */
+        private void __collectTargets () {
+            for (int i = 0; i < __insns.length; i++) {
+                final AbstractInsnNode insn = __insns [i];
+                if (insn instanceof JumpInsnNode) {
+                    __require (((JumpInsnNode) insn).label);
+
+                } else if (insn instanceof TableSwitchInsnNode) {
+                    final TableSwitchInsnNode tsi = (TableSwitchInsnNode) insn;
+                    __require (tsi.dflt);
+                    tsi.labels.forEach (this::__require);
+
+                } else if (insn instanceof LookupSwitchInsnNode) {
+                    final LookupSwitchInsnNode lsi = (LookupSwitchInsnNode) insn;
+                    __require (lsi.dflt);
+                    lsi.labels.forEach (this::__require);
+                }
+
+                if (__endsBlock (insn.getOpcode ())) {
+                    final int next = __nextReal (i + 1);
+                    if (next >= 0) {
+                        __required [next] = true;
+                    }
+                }
+            }
+
+            for (final TryCatchBlockNode tcb : __method.tryCatchBlocks) {
+                final int handler = __require (tcb.handler);
+                if (handler < 0 || __fixed [handler]) {
+                    continue;
+                }
+
+                final int end = __indices.get (tcb.end);
+                for (int i = __indices.get (tcb.start); i < end; i++) {
+                    if (__handlers [i] == null) {
+                        __handlers [i] = new ArrayList <> ();
+                    }
+
+                    __handlers [i].add (tcb);
+                }
+            }
+        }
+
+
+        private int __require (final LabelNode label) {
+            final int index = __target (label);
+            if (index >= 0) {
+                __required [index] = true;
+            }
+
+            return index;
+        }
+
+
+        /**
+         * Executes the basic block starting at the given instruction and
+         * propagates the resulting state to its successors.
+         */
+        private void __execute (final int start) throws AnalyzerException {
+            final Frame <FrameValue> current = new Frame <> (__entries [start]);
+
+            for (int i = start; i < __insns.length; i++) {
+                final AbstractInsnNode insn = __insns [i];
+                final int opcode = insn.getOpcode ();
+                if (opcode < 0) {
+                    // Labels, line numbers, and frames.
+                    continue;
+                }
+
+                if (i != start && (__fixed [i] || __required [i])) {
+                    // The instruction starts another block, fall through.
+                    __merge (i, current);
+                    return;
+                }
+
+                if (opcode == Opcodes.JSR || opcode == Opcodes.RET) {
+                    throw new AnalyzerException (insn, "subroutines not supported");
+                }
+
+                __mergeHandlers (i, current);
+                __executeInsn (insn, current);
+                __mergeHandlers (i, current);
+
+                if (insn instanceof JumpInsnNode) {
+                    __merge (__target (((JumpInsnNode) insn).label), current);
+
+                } else if (insn instanceof TableSwitchInsnNode) {
+                    final TableSwitchInsnNode tsi = (TableSwitchInsnNode) insn;
+                    __merge (__target (tsi.dflt), current);
+                    for (final LabelNode label : tsi.labels) {
+                        __merge (__target (label), current);
+                    }
+
+                } else if (insn instanceof LookupSwitchInsnNode) {
+                    final LookupSwitchInsnNode lsi = (LookupSwitchInsnNode) insn;
+                    __merge (__target (lsi.dflt), current);
+                    for (final LabelNode label : lsi.labels) {
+                        __merge (__target (label), current);
+                    }
+                }
+
+                if (__endsBlock (opcode)) {
+                    return;
+                }
+            }
+        }
+
+
+        private void __executeInsn (
+            final AbstractInsnNode insn, final Frame <FrameValue> frame
+        ) throws AnalyzerException {
+            //
+            // The analysis frame does not track object initialization, so
+            // replace the uninitialized receiver of a constructor with an
+            // initialized value after invoking the constructor.
+            //
+            FrameValue receiver = null;
+            if (
+                insn.getOpcode () == Opcodes.INVOKESPECIAL
+                && JavaNames.isConstructorName (((MethodInsnNode) insn).name)
+            ) {
+                final int argCount = Type.getArgumentTypes (((MethodInsnNode) insn).desc).length;
+                receiver = frame.getStack (frame.getStackSize () - argCount - 1);
+            }
+
+            frame.execute (insn, __interpreter);
+
+            if (receiver != null && receiver.isUninitialized ()) {
+                final FrameValue initialized = FrameValue.of (
+                    (receiver == FrameValue.UNINITIALIZED_THIS) ?
+                        __owner : ((TypeInsnNode) receiver.type).desc
+                );
+
+                for (int slot = 0; slot < frame.getLocals (); slot++) {
+                    if (receiver.equals (frame.getLocal (slot))) {
+                        frame.setLocal (slot, initialized);
+                    }
+                }
+
+                for (int index = 0; index < frame.getStackSize (); index++) {
+                    if (receiver.equals (frame.getStack (index))) {
+                        frame.setStack (index, initialized);
+                    }
+                }
+            }
+        }
+
+
+        private void __mergeHandlers (
+            final int index, final Frame <FrameValue> current
+        ) throws AnalyzerException {
+            if (__handlers [index] == null) {
+                return;
+            }
+
+            for (final TryCatchBlockNode tcb : __handlers [index]) {
+                final Frame <FrameValue> handlerState = new Frame <> (current);
+                handlerState.clearStack ();
+                handlerState.push (FrameValue.of (
+                    (tcb.type != null) ? tcb.type : __THROWABLE__
+                ));
+
+                __merge (__target (tcb.handler), handlerState);
+            }
+        }
+
+
+        /**
+         * Merges the given state into the entry state of the given
+         * instruction. Entry states coming from the original frames are
+         * trusted and left unchanged.
+         */
+        private void __merge (
+            final int index, final Frame <FrameValue> state
+        ) throws AnalyzerException {
+            if (index < 0 || __fixed [index]) {
+                return;
+            }
+
+            if (__entries [index] == null) {
+                __entries [index] = new Frame <> (state);
+                __worklist.add (index);
+
+            } else if (__entries [index].merge (state, __interpreter)) {
+                __worklist.add (index);
+            }
+        }
+
+
+        private int __target (final LabelNode label) {
+            return __nextReal (__indices.get (label));
+        }
+
+
+        /**
+         * Returns the index of the first real instruction at or after the
+         * given index, or -1 if there is no such instruction.
+         */
+        private int __nextReal (final int index) {
+            for (int i = index; i < __insns.length; i++) {
+                if (__insns [i].getOpcode () >= 0) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        //
+
+        /**
+         * Inserts frames before all instructions requiring a frame that did
+         * not have one in the original code.
+         */
+        private boolean __insertFrames () throws AnalyzerException {
+            final Map <AbstractInsnNode, FrameNode> frames = new IdentityHashMap <> ();
+            final Map <AbstractInsnNode, LabelNode> newLabels = new IdentityHashMap <> ();
+
+            for (int i = 0; i < __insns.length; i++) {
+                if (!__required [i] || __fixed [i]) {
+                    continue;
+                }
+
+                if (__entries [i] == null) {
+                    // Unreachable code, leave it to the class writer.
+                    return false;
+                }
+
+                frames.put (__insns [i], __frameNodeOf (__entries [i], newLabels));
+            }
+
+            newLabels.forEach ((insn, label) -> __method.instructions.insertBefore (insn, label));
+            frames.forEach ((insn, frame) -> __method.instructions.insertBefore (insn, frame));
+            return true;
+        }
+
+
+        private FrameNode __frameNodeOf (
+            final Frame <FrameValue> state, final Map <AbstractInsnNode, LabelNode> newLabels
+        ) throws AnalyzerException {
+            final List <Object> locals = new ArrayList <> ();
+            int definedCount = 0;
+            for (int slot = 0; slot < state.getLocals (); slot++) {
+                final FrameValue value = state.getLocal (slot);
+                locals.add (__typeOf (value, newLabels));
+                if (value != FrameValue.TOP) {
+                    definedCount = locals.size ();
+                }
+
+                slot += value.getSize () - 1;
+            }
+
+            final List <Object> stack = new ArrayList <> ();
+            for (int index = 0; index < state.getStackSize (); index++) {
+                final FrameValue value = state.getStack (index);
+                if (value == FrameValue.TOP) {
+                    throw new AnalyzerException (null, "incompatible stack values");
+                }
+
+                stack.add (__typeOf (value, newLabels));
+            }
+
+            return new FrameNode (
+                Opcodes.F_NEW, definedCount, locals.subList (0, definedCount).toArray (),
+                stack.size (), stack.toArray ()
+            );
+        }
+
+
+        private Object __typeOf (
+            final FrameValue value, final Map <AbstractInsnNode, LabelNode> newLabels
+        ) {
+            if (!(value.type instanceof AbstractInsnNode)) {
+                return value.type;
+            }
+
+            //
+            // Uninitialized values are represented by a label at the NEW
+            // instruction that created them. Use an existing label if there
+            // is one at the offset of the instruction.
+            //
+            final AbstractInsnNode newInsn = (AbstractInsnNode) value.type;
+            for (
+                AbstractInsnNode insn = newInsn.getPrevious ();
+                insn != null && insn.getOpcode () < 0;
+                insn = insn.getPrevious ()
+            ) {
+                if (insn instanceof LabelNode) {
+                    return insn;
+                }
+            }
+
+            return newLabels.computeIfAbsent (newInsn, insn -> new LabelNode ());
+        }
+    }
+
+}
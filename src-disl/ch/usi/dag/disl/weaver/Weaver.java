@@ -1,5 +1,6 @@
 package ch.usi.dag.disl.weaver;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -147,6 +148,26 @@ public class Weaver {
             instructions.remove (fieldInsn);
         }
 
+        //
+        // Declare the new local variables in the existing stack map frames.
+        // Variables that are not initialized are marked as such, because
+        // their types at the frames are unknown.
+        //
+        final List <Object> frameTypes = new ArrayList <> ();
+        for (final SyntheticLocalVar var : syntheticLocalVars) {
+            if (var.getInitialize () != Initialize.NEVER) {
+                frameTypes.add (StackMapFrames.frameType (var.getType ()));
+            } else {
+                for (int i = 0; i < var.getType ().getSize (); i++) {
+                    frameTypes.add (StackMapFrames.UNINITIALIZED_LOCAL);
+                }
+            }
+        }
+
+        if (!frameTypes.isEmpty ()) {
+            StackMapFrames.declareLocals (methodNode, methodNode.maxLocals, frameTypes);
+        }
+
         //
         // Adjust maxLocals to allow for the new local variables.
         //
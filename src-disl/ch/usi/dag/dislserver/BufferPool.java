@@ -0,0 +1,117 @@
+package ch.usi.dag.dislserver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A pool of byte buffers shared by all connections. The buffers are pooled in
+ * power-of-two size classes, and each size class retains at most a fixed
+ * number of bytes worth of buffers. Consequently, many small buffers are
+ * kept around, while buffers needed for unusually large messages are not
+ * retained at all and the pool shrinks back once they have been used.
+ */
+final class BufferPool {
+
+    /** The smallest size class (4 KiB). */
+    private static final int __MIN_SIZE_CLASS__ = 12;
+
+    /** The maximal number of bytes retained in each size class (1 MiB). */
+    private static final int __CLASS_BUDGET__ = 1 << 20;
+
+    /** The largest size class with retained buffers. */
+    private static final int __MAX_SIZE_CLASS__ = 20;
+
+    //
+
+    private final boolean __direct;
+
+    private final Queue <ByteBuffer> [] __buffers;
+    private final AtomicInteger [] __counts;
+
+    //
+
+    /**
+     * Creates an empty buffer pool.
+     *
+     * @param direct
+     *        whether to allocate direct or heap buffers
+     */
+    @SuppressWarnings ("unchecked")
+    BufferPool (final boolean direct) {
+        __direct = direct;
+
+        final int classCount = __MAX_SIZE_CLASS__ - __MIN_SIZE_CLASS__ + 1;
+        __buffers = new Queue [classCount];
+        __counts = new AtomicInteger [classCount];
+        for (int i = 0; i < classCount; i++) {
+            __buffers [i] = new ConcurrentLinkedQueue <> ();
+            __counts [i] = new AtomicInteger ();
+        }
+    }
+
+    //
+
+    /**
+     * Returns a cleared buffer with at least the given capacity. The buffer
+     * should be returned to the pool using the {@link #release} method.
+     */
+    ByteBuffer acquire (final int capacity) {
+        final int sizeClass = __sizeClassOf (capacity);
+        if (sizeClass > __MAX_SIZE_CLASS__) {
+            return __allocate (capacity);
+        }
+
+        final int index = sizeClass - __MIN_SIZE_CLASS__;
+        final ByteBuffer result = __buffers [index].poll ();
+        if (result == null) {
+            return __allocate (1 << sizeClass);
+        }
+
+        __counts [index].decrementAndGet ();
+        return result;
+    }
+
+
+    /**
+     * Returns the given buffer to the pool. The buffer must not be used
+     * after having been released.
+     */
+    void release (final ByteBuffer buffer) {
+        final int capacity = buffer.capacity ();
+        final int sizeClass = __sizeClassOf (capacity);
+        if (sizeClass > __MAX_SIZE_CLASS__ || capacity != (1 << sizeClass)) {
+            // Not allocated from a size class, let it go.
+            return;
+        }
+
+        final int index = sizeClass - __MIN_SIZE_CLASS__;
+        final int limit = __CLASS_BUDGET__ >> sizeClass;
+        if (__counts [index].incrementAndGet () > limit) {
+            __counts [index].decrementAndGet ();
+            return;
+        }
+
+        buffer.clear ();
+        __buffers [index].offer (buffer);
+    }
+
+    //
+
+    private ByteBuffer __allocate (final int capacity) {
+        final ByteBuffer result = __direct ?
+            ByteBuffer.allocateDirect (capacity) : ByteBuffer.allocate (capacity);
+
+        return result.order (ByteOrder.BIG_ENDIAN);
+    }
+
+
+    private static int __sizeClassOf (final int capacity) {
+        final int bits = Integer.SIZE - Integer.numberOfLeadingZeros (capacity - 1);
+        return Math.max (bits, __MIN_SIZE_CLASS__);
+    }
+
+}
@@ -0,0 +1,126 @@
+package ch.usi.dag.dislserver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.google.protobuf.ByteOutput;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+
+/**
+ * A contiguous range of bytes in a byte array. Provides access to the bytes
+ * backing a {@link ByteString} without copying them, which allows passing
+ * class bytes aliased to a receive buffer directly to ASM.
+ * <p>
+ * <b>Note:</b> The bytes are shared with the {@link ByteString}, and must
+ * not be modified.
+ */
+final class ByteSlice {
+
+    final byte [] array;
+    final int offset;
+    final int length;
+
+    //
+
+    private ByteSlice (final byte [] array, final int offset, final int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    //
+
+    /**
+     * Returns a copy of the bytes in this slice.
+     */
+    byte [] toByteArray () {
+        final byte [] result = new byte [length];
+        System.arraycopy (array, offset, result, 0, length);
+        return result;
+    }
+
+    //
+
+    /**
+     * Returns a slice containing the bytes of the given {@link ByteString}.
+     * The slice refers to the bytes backing the {@link ByteString} if they
+     * are stored in a single byte array, otherwise it refers to a copy.
+     */
+    static ByteSlice of (final ByteString bytes) {
+        final Collector collector = new Collector ();
+
+        try {
+            UnsafeByteOperations.unsafeWriteTo (bytes, collector);
+
+        } catch (final IOException ioe) {
+            // The collector does not throw IOException.
+            throw new AssertionError ("unexpected exception", ioe);
+        }
+
+        return (collector.__result != null) ?
+            collector.__result : new ByteSlice (bytes.toByteArray (), 0, bytes.size ());
+    }
+
+    //
+
+    /**
+     * Captures the byte array written by a {@link ByteString}. Gives up
+     * when the bytes are written in multiple chunks or not from an array.
+     */
+    private static final class Collector extends ByteOutput {
+
+        private ByteSlice __result;
+        private boolean __chunked;
+
+        //
+
+        @Override
+        public void write (final byte value) {
+            __giveUp ();
+        }
+
+
+        @Override
+        public void write (final byte [] value, final int offset, final int length) {
+            writeLazy (value, offset, length);
+        }
+
+
+        @Override
+        public void writeLazy (final byte [] value, final int offset, final int length) {
+            if (__result == null && !__chunked) {
+                __result = new ByteSlice (value, offset, length);
+            } else {
+                __giveUp ();
+            }
+        }
+
+
+        @Override
+        public void write (final ByteBuffer value) {
+            writeLazy (value);
+        }
+
+
+        @Override
+        public void writeLazy (final ByteBuffer value) {
+            if (value.hasArray ()) {
+                writeLazy (
+                    value.array (), value.arrayOffset () + value.position (),
+                    value.remaining ()
+                );
+            } else {
+                __giveUp ();
+            }
+        }
+
+
+        private void __giveUp () {
+            __chunked = true;
+            __result = null;
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package ch.usi.dag.dislserver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.google.protobuf.ByteString;
+
+
+/**
+ * Computes keys for caches of instrumentation responses. A key is a SHA-256
+ * digest of the instrumentation fingerprint, the code option flags, and the
+ * class digest, i.e., everything that determines the instrumentation result.
+ * The class digest consists of the first 16 bytes of the SHA-256 digest of
+ * the class bytes. Clients can compute it on their own and use it to look up
+ * a response without sending the class bytes.
+ */
+final class CacheKeys {
+
+    private static final String __DIGEST_ALGORITHM__ = "SHA-256";
+
+    /** The length of a key in bytes. */
+    static final int LENGTH = 32;
+
+    /** The length of a class digest in bytes. */
+    static final int DIGEST_LENGTH = 16;
+
+    //
+
+    private final byte [] __fingerprint;
+
+    private final ThreadLocal <MessageDigest> __digests = ThreadLocal.withInitial (
+        CacheKeys::__newDigest
+    );
+
+    //
+
+    /**
+     * @param fingerprint
+     *        the fingerprint of the instrumentation producing the responses
+     */
+    CacheKeys (final String fingerprint) {
+        __fingerprint = fingerprint.getBytes (StandardCharsets.UTF_8);
+    }
+
+    //
+
+    /**
+     * Computes a cache key for the given class bytes and code option flags.
+     */
+    ByteString keyFor (final ByteString classBytes, final int flags) {
+        return keyForDigest (digestOf (classBytes), flags);
+    }
+
+
+    /**
+     * Computes a cache key for a class with the given class digest and
+     * code option flags.
+     */
+    ByteString keyForDigest (final ByteString classDigest, final int flags) {
+        final MessageDigest digest = __digests.get ();
+        digest.update (__fingerprint);
+        digest.update (ByteBuffer.allocate (Integer.BYTES).putInt (flags).array ());
+        digest.update (classDigest.asReadOnlyByteBuffer ());
+        return ByteString.copyFrom (digest.digest ());
+    }
+
+
+    /**
+     * Computes the class digest of the given class bytes.
+     */
+    ByteString digestOf (final ByteString classBytes) {
+        final MessageDigest digest = __digests.get ();
+        digest.update (classBytes.asReadOnlyByteBuffer ());
+        return ByteString.copyFrom (digest.digest (), 0, DIGEST_LENGTH);
+    }
+
+    //
+
+    private static MessageDigest __newDigest () {
+        try {
+            return MessageDigest.getInstance (__DIGEST_ALGORITHM__);
+
+        } catch (final NoSuchAlgorithmException nsae) {
+            // Every Java platform is required to support SHA-256.
+            throw new AssertionError ("unsupported digest algorithm", nsae);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package ch.usi.dag.dislserver;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.protobuf.ByteString;
+
+import ch.usi.dag.dislserver.Protocol.InstrumentClassResponse;
+
+
+/**
+ * A bounded, content-addressed cache of instrumentation responses. The cache
+ * is keyed by digests computed by {@link CacheKeys}, so that identical classes
+ * sent by different clients are only instrumented once. Both modified and unmodified
+ * class responses are cached, the latter being very cheap to keep around.
+ * <p>
+ * The cache is bounded by the total serialized size of the cached responses,
+ * and evicts the least recently used entries when the bound is exceeded.
+ */
+final class ClassCache {
+
+    /**
+     * Approximate per-entry overhead (key, map entry, message object), which
+     * keeps a cache full of tiny responses from growing without bounds.
+     */
+    private static final int __ENTRY_OVERHEAD__ = 128;
+
+    //
+
+    private final long __capacity;
+
+    /** Entries in access order, guarded by the map itself. */
+    private final LinkedHashMap <ByteString, InstrumentClassResponse> __entries =
+        new LinkedHashMap <> (1024, 0.75f, true);
+
+    private long __size;
+
+    //
+
+    private final AtomicLong __hits = new AtomicLong ();
+    private final AtomicLong __misses = new AtomicLong ();
+    private final AtomicLong __evictions = new AtomicLong ();
+
+    //
+
+    /**
+     * Creates a cache that will hold at most the given number of bytes
+     * worth of responses.
+     *
+     * @param capacity
+     *        the maximal total size of cached responses in bytes
+     */
+    ClassCache (final long capacity) {
+        __capacity = capacity;
+    }
+
+    //
+
+
+    /**
+     * Returns the response cached under the given key, or {@code null} if
+     * there is no such response.
+     */
+    InstrumentClassResponse get (final ByteString key) {
+        final InstrumentClassResponse result;
+        synchronized (__entries) {
+            result = __entries.get (key);
+        }
+
+        (result != null ? __hits : __misses).incrementAndGet ();
+        return result;
+    }
+
+
+    /**
+     * Caches the given response under the given key, evicting the least
+     * recently used entries if necessary. Responses larger than the cache
+     * capacity are not cached.
+     */
+    void put (final ByteString key, final InstrumentClassResponse response) {
+        final long weight = __weightOf (key, response);
+        if (weight > __capacity) {
+            return;
+        }
+
+        synchronized (__entries) {
+            final InstrumentClassResponse previous = __entries.put (key, response);
+            if (previous != null) {
+                __size -= __weightOf (key, previous);
+            }
+
+            __size += weight;
+
+            final Iterator <Map.Entry <ByteString, InstrumentClassResponse>> entries =
+                __entries.entrySet ().iterator ();
+
+            while (__size > __capacity && entries.hasNext ()) {
+                final Map.Entry <ByteString, InstrumentClassResponse> eldest = entries.next ();
+                __size -= __weightOf (eldest.getKey (), eldest.getValue ());
+                entries.remove ();
+
+                __evictions.incrementAndGet ();
+            }
+        }
+    }
+
+
+    private static long __weightOf (
+        final ByteString key, final InstrumentClassResponse response
+    ) {
+        return key.size () + response.getSerializedSize () + __ENTRY_OVERHEAD__;
+    }
+
+    //
+
+    long hits () {
+        return __hits.get ();
+    }
+
+
+    long misses () {
+        return __misses.get ();
+    }
+
+
+    long evictions () {
+        return __evictions.get ();
+    }
+
+
+    int entries () {
+        synchronized (__entries) {
+            return __entries.size ();
+        }
+    }
+
+
+    long size () {
+        synchronized (__entries) {
+            return __size;
+        }
+    }
+
+}
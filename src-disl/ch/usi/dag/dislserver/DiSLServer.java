@@ -6,20 +6,38 @@ import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
 import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.ByteChannel;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnsafeByteOperations;
 
+import ch.usi.dag.dislserver.Protocol.ClassFilter;
 import ch.usi.dag.dislserver.Protocol.InstrumentClassRequest;
 import ch.usi.dag.dislserver.Protocol.InstrumentClassResponse;
 import ch.usi.dag.dislserver.Protocol.InstrumentClassResult;
@@ -35,9 +53,32 @@ public final class DiSLServer {
     private static final String PROP_PORT = "dislserver.port";
     private static final int DEFAULT_PORT = 11217;
 
+    private static final String PROP_SOCKET = "dislserver.socket";
+
+    private static final String PROP_SHARED_MEMORY = "dislserver.sharedmemory";
+    private static final boolean sharedMemory = Boolean.getBoolean (PROP_SHARED_MEMORY);
+
     private static final String PROP_CONT = "dislserver.continuous";
     private static final boolean continuous = Boolean.getBoolean(PROP_CONT);
 
+    private static final String PROP_VIRTUAL = "dislserver.virtual";
+    private static final boolean virtual = Boolean.getBoolean (PROP_VIRTUAL);
+
+    private static final String PROP_WORKERS = "dislserver.workers";
+
+    private static final String PROP_PIPELINE_DEPTH = "dislserver.pipelinedepth";
+    private static final int pipelineDepth = Math.max (1, Integer.getInteger (
+        PROP_PIPELINE_DEPTH, 4 * Runtime.getRuntime ().availableProcessors ()
+    ));
+
+    private static final String PROP_STATS_JMX = "dislserver.stats.jmx";
+    private static final boolean statsJmx = Boolean.getBoolean (PROP_STATS_JMX);
+
+    private static final String PROP_STATS_FILE = "dislserver.stats.file";
+
+    private static final String PROP_STATS_INTERVAL = "dislserver.stats.interval";
+    private static final long DEFAULT_STATS_INTERVAL = 10000;
+
     //
 
     private static final String __PID_FILE__ = "server.pid.file";
@@ -52,7 +93,40 @@ public final class DiSLServer {
     //
 
     private final AtomicInteger __workerCount = new AtomicInteger ();
-    private final CounterSet <ElapsedTime> __globalStats = new CounterSet <ElapsedTime> (ElapsedTime.class);
+    private final ServerStats <ElapsedTime> __stats;
+
+    /**
+     * Executor for processing instrumentation requests, or {@code null} if the
+     * requests are processed by the connection handler threads.
+     */
+    private final ExecutorService __workers;
+
+    /**
+     * Executor for processing pipelined requests. This is the worker pool if
+     * there is one, otherwise a separate bounded pool, so that batches of
+     * requests do not start a thread for each entry.
+     */
+    private final ExecutorService __pipelineWorkers;
+
+    //
+    // Buffers shared by all connections. Requests are received into heap
+    // buffers, so that class bytes can be parsed by ASM directly from the
+    // receive buffer. Responses are packed into direct buffers, which can
+    // be written to a socket without copying.
+    //
+    private final BufferPool __recvBuffers = new BufferPool (false);
+    private final BufferPool __sendBuffers = new BufferPool (true);
+
+    //
+
+    DiSLServer (
+        final ExecutorService workers, final ExecutorService pipelineWorkers,
+        final ServerStats <ElapsedTime> stats
+    ) {
+        __workers = workers;
+        __pipelineWorkers = pipelineWorkers;
+        __stats = stats;
+    }
 
     //
 
@@ -60,25 +134,55 @@ public final class DiSLServer {
 
         private final SocketChannel __clientSocket;
         private final RequestProcessor __requestProcessor;
+
+        /**
+         * Channel for exchanging messages with the client. Initially the
+         * client socket, possibly replaced by a shared memory channel before
+         * any pipelined requests are submitted.
+         */
+        private ByteChannel __channel;
+
         private final Thread __serverThread;
+        private final ServerStats <ElapsedTime>.Connection __connectionStats;
+
+        //
+        // Pipelined requests are processed asynchronously, and responses
+        // are sent as soon as they are ready. The lock serializes sending
+        // of the responses, and guards the pipeline state. It is an explicit
+        // lock, so that blocking in it does not pin virtual threads.
+        //
+        private final ReentrantLock __sendLock = new ReentrantLock ();
+        private final Condition __pipelineDrained = __sendLock.newCondition ();
+        private int __pipelinedCount;
+        private volatile boolean __pipelineFailed;
+
+        /**
+         * Limits the number of pipelined requests in flight. The connection
+         * handler stops receiving requests when the limit is reached, which
+         * pushes back on the client and bounds the number of receive buffers
+         * held by queued requests.
+         */
+        private final Semaphore __pipelinePermits = new Semaphore (pipelineDepth);
 
         //
 
         ConnectionHandler (
             final SocketChannel clientSocket,
             final RequestProcessor requestProcessor,
-            final Thread serverThread
+            final Thread serverThread,
+            final String clientAddress
         ) {
             __clientSocket = clientSocket;
+            __channel = clientSocket;
             __requestProcessor = requestProcessor;
             __serverThread = serverThread;
+            __connectionStats = __stats.open (clientAddress);
         }
 
         @Override
         public void run () {
             __workerCount.incrementAndGet ();
 
-            final CounterSet <ElapsedTime> stats = new CounterSet  <ElapsedTime> (ElapsedTime.class);
             final IntervalTimer <ElapsedTime> timer = new IntervalTimer <ElapsedTime> (ElapsedTime.class);
 
             try {
@@ -86,100 +190,136 @@ public final class DiSLServer {
                 // Process requests until a shutdown request is received, a
                 // communication error occurs, or an internal error occurs.
                 //
-                final ByteBuffer headBuffer = __allocDirect (4096);
-                ByteBuffer recvBuffer = __allocDirect (4096);
-                ByteBuffer sendBuffer = __allocDirect (4096);
+                final ByteBuffer headBuffer = __allocDirect (Integer.BYTES);
 
                 REQUEST_LOOP: while (true) {
-                    timer.reset ();
-
-                    //
-
                     __log.trace ("receiving instrumentation request");
 
                     headBuffer.clear ();
-                    __bufferRecvFrom (__clientSocket, Integer.BYTES, headBuffer);
+                    __bufferRecvFrom (__channel, Integer.BYTES, headBuffer);
+
+                    //
+                    // Start timing once the message header arrived, so that
+                    // the time spent waiting for the client is not included.
+                    //
+                    timer.reset ();
 
                     headBuffer.flip ();
                     final int messageLength = headBuffer.getInt ();
                     __log.trace ("expecting message of length %d", messageLength);
+                    __connectionStats.received (Integer.BYTES + messageLength);
 
                     if (messageLength == 0) {
                         __log.debug ("received empty message, exiting");
-                        timer.mark (ElapsedTime.RECEIVE);
-                        stats.update (timer);
                         break REQUEST_LOOP;
                     }
 
-                    recvBuffer.clear ();
-                    if (recvBuffer.remaining () < messageLength) {
-                        recvBuffer = __expandBuffer (recvBuffer, messageLength);
-                        __log.debug ("expanded receive buffer to %d bytes", recvBuffer.capacity ());
-                    }
+                    //
+                    // The receive buffer is released once the request has been
+                    // handled, or by the last pipelined request referring to it.
+                    //
+                    ByteBuffer recvBuffer = __recvBuffers.acquire (messageLength);
+                    final InstrumentClassResponse response;
 
-                    __bufferRecvFrom (__clientSocket, messageLength, recvBuffer);
-                    timer.mark (ElapsedTime.RECEIVE);
+                    try {
+                        __bufferRecvFrom (__channel, messageLength, recvBuffer);
+                        timer.mark (ElapsedTime.RECEIVE);
 
-                    //
+                        //
+                        // Unpack the request with aliasing enabled, so that the
+                        // class bytes refer to the receive buffer instead of being
+                        // copied. Protobuf only aliases buffers it considers
+                        // immutable, hence the unsafe wrapping. The receive buffer
+                        // must not be released until the request has been processed.
+                        //
+                        __log.trace ("unpacking instrumentation request");
 
-                    __log.trace ("unpacking instrumentation request");
+                        final CodedInputStream recvStream = UnsafeByteOperations.unsafeWrap (
+                            recvBuffer.array (), recvBuffer.arrayOffset (), messageLength
+                        ).newCodedInput ();
 
-                    recvBuffer.flip ();
-                    final CodedInputStream recvStream = CodedInputStream.newInstance (recvBuffer);
-                    final InstrumentClassRequest request = InstrumentClassRequest.parseFrom (recvStream);
-                    timer.mark (ElapsedTime.UNPACK);
+                        recvStream.enableAliasing (true);
+                        final InstrumentClassRequest request = InstrumentClassRequest.parseFrom (recvStream);
+                        timer.mark (ElapsedTime.UNPACK);
 
-                    //
-                    // Process the request and send the response to the client.
-                    // Update the timing stats if everything goes well.
-                    //
-                    __log.trace ("processing instrumentation request");
+                        //
+                        // Switch to a shared memory channel if requested by the
+                        // client. This is not an instrumentation request.
+                        //
+                        if (!request.getSharedMemory ().isEmpty ()) {
+                            __attachSharedMemory (request.getSharedMemory ());
+                            continue REQUEST_LOOP;
+                        }
 
-                    final InstrumentClassResponse response = __requestProcessor.process (request);
-                    timer.mark (ElapsedTime.PROCESS);
+                        //
+                        // Send the class filter summary if requested by the client.
+                        // This is not an instrumentation request either.
+                        //
+                        if (request.getClassFilter ()) {
+                            __sendClassFilter ();
+                            continue REQUEST_LOOP;
+                        }
 
-                    //
-                    // Note: the CodedOutputStream remembers buffer position at
-                    // creation time, so anything put into a byte buffer after
-                    // CodedOutputStream has been created will be lost/corrupted.
-                    //
-                    // Also, it cannot be reused and needs to be created for
-                    // every message packed.
-                    //
-                    __log.trace ("packing instrumentation response");
+                        //
+                        // Hand batched and pipelined requests over for asynchronous
+                        // processing and continue receiving requests. Stop if any
+                        // of the pipelined requests failed.
+                        //
+                        if (request.getBatchCount () > 0 || request.getRequestId () != 0) {
+                            __log.trace ("submitting pipelined instrumentation request(s)");
 
-                    final int responseLength = response.getSerializedSize ();
+                            final ByteBuffer pipelinedBuffer = recvBuffer;
+                            recvBuffer = null;
 
-                    sendBuffer.clear ();
-                    sendBuffer.putInt (responseLength);
+                            __submitPipelined (request, pipelinedBuffer);
+                            __connectionStats.record (timer, ElapsedTime.RECEIVE, ElapsedTime.UNPACK);
 
-                    if (sendBuffer.remaining () < responseLength) {
-                        sendBuffer = __expandBuffer (sendBuffer, responseLength);
-                        __log.debug ("expanded send buffer to %d bytes", sendBuffer.capacity ());
-                    }
+                            if (__pipelineFailed) {
+                                break REQUEST_LOOP;
+                            }
+
+                            continue REQUEST_LOOP;
+                        }
 
-                    if (responseLength > 0) {
-                        final CodedOutputStream sendStream = CodedOutputStream.newInstance (sendBuffer);
-                        response.writeTo (sendStream);
-                        sendStream.flush ();
+                        //
+                        // Process the request and send the response to the client.
+                        // Update the timing stats if everything goes well.
+                        //
+                        __log.trace ("processing instrumentation request");
+
+                        response = __process (request);
+
+                    } finally {
+                        if (recvBuffer != null) {
+                            __recvBuffers.release (recvBuffer);
+                        }
                     }
 
+                    timer.mark (ElapsedTime.PROCESS);
+
+                    //
+
+                    __log.trace ("packing instrumentation response");
+
+                    final ByteBuffer sendBuffer = __packResponse (response);
                     timer.mark (ElapsedTime.PACK);
 
                     //
 
                     __log.trace ("sending instrumentation response");
 
-                    sendBuffer.flip ();
-                    __bufferSendTo (sendBuffer, __clientSocket);
+                    __sendResponse (sendBuffer, __channel);
 
                     timer.mark (ElapsedTime.TRANSMIT);
 
                     //
 
-                    stats.update (timer);
+                    __connectionStats.record (timer, ElapsedTime.RECEIVE, ElapsedTime.TRANSMIT);
+                    __connectionStats.processed ();
 
                     if (response.getResult () == InstrumentClassResult.ERROR) {
+                        __connectionStats.failed ();
+
                         //
                         // Error during instrumentation. Report it to the client
                         // and stop receiving requests from this connection.
@@ -189,25 +329,29 @@ public final class DiSLServer {
 
                 } // REQUEST_LOOP
 
-                //
-                // Merge thread-local stats with global stats when leaving
-                // the request loop in a peaceful manner.
-                //
-                __globalStats.update (stats);
-
-
             } catch (final IOException ioe) {
                 //
-                // Communication error -- just log a message here.
+                // Communication error -- just log a message here. A client
+                // may drop the connection after receiving an error response
+                // to a pipelined request, which is not worth reporting.
                 //
-                __log.error (
-                    "error communicating with client: %s", ioe.getMessage ()
-                );
+                if (__pipelineFailed) {
+                    __log.debug ("client disconnected after error: %s", ioe.getMessage ());
+                } else {
+                    __connectionStats.failed ();
+                    __log.error (
+                        "error communicating with client: %s", ioe.getMessage ()
+                    );
+                }
 
             } catch (final Throwable t) {
+                __connectionStats.failed ();
                 __log.error (t, "failed to process instrumentation request");
 
             } finally {
+                __awaitPipelined ();
+                __connectionStats.close ();
+
                 //
                 // If there are no more workers left and we are not operating
                 // in continuous mode, shut the server down.
@@ -222,8 +366,279 @@ public final class DiSLServer {
 
         //
 
+        /**
+         * Maps the given shared memory file set up by the client and uses it
+         * for all subsequent messages. The response is sent through the socket.
+         * If the server cannot attach to the file, it responds with an error,
+         * and the client keeps using the socket.
+         */
+        private void __attachSharedMemory (final String path) throws IOException {
+            //
+            // Responses to pipelined requests are sent through the current
+            // channel, so wait for them before switching channels.
+            //
+            __awaitPipelined ();
+
+            SharedMemoryChannel channel = null;
+            String error = null;
+
+            if (!sharedMemory) {
+                error = "shared memory disabled, check "+ PROP_SHARED_MEMORY;
+
+            } else if (__channel != __clientSocket) {
+                error = "shared memory already attached";
+
+            } else {
+                try {
+                    channel = SharedMemoryChannel.open (__clientSocket, Paths.get (path));
+
+                } catch (final IOException | InvalidPathException e) {
+                    error = String.format (
+                        "failed to attach shared memory %s: %s", path, e.getMessage ()
+                    );
+                }
+            }
+
+            final InstrumentClassResponse response = (error == null) ?
+                InstrumentClassResponse.newBuilder ()
+                    .setResult (InstrumentClassResult.CLASS_UNMODIFIED)
+                    .build ()
+                :
+                InstrumentClassResponse.newBuilder ()
+                    .setResult (InstrumentClassResult.ERROR)
+                    .setErrorMessage (error)
+                    .build ();
+
+            __sendResponse (__packResponse (response), __clientSocket);
+
+            if (channel != null) {
+                __log.debug ("exchanging messages through shared memory %s", path);
+                __channel = channel;
+            }
+        }
+
+
+        /**
+         * Sends the summary of the classes that the server may instrument,
+         * so that the client can avoid sending other classes.
+         */
+        private void __sendClassFilter () throws IOException {
+            final ClassFilter filter = __requestProcessor.classFilter ();
+            __log.debug (
+                "sending class filter: any %b, %d names, %d prefixes, %d suffixes, "+
+                "%d excluded names, %d excluded prefixes",
+                filter.getMatchAny (), filter.getNamesCount (), filter.getPrefixesCount (),
+                filter.getSuffixesCount (), filter.getExcludedNamesCount (),
+                filter.getExcludedPrefixesCount ()
+            );
+
+            final InstrumentClassResponse response = InstrumentClassResponse.newBuilder ()
+                .setResult (InstrumentClassResult.CLASS_UNMODIFIED)
+                .setClassFilter (filter)
+                .build ();
+
+            __sendResponse (__packResponse (response), __channel);
+        }
+
+
+        private InstrumentClassResponse __process (
+            final InstrumentClassRequest request
+        ) throws InterruptedException {
+            if (__workers == null) {
+                return __requestProcessor.process (request);
+            }
+
+            //
+            // Hand the request over to the worker pool and wait for the
+            // result. The request processor handles all exceptions, so any
+            // failure here is unexpected.
+            //
+            try {
+                return __workers.submit (() -> __requestProcessor.process (request)).get ();
+
+            } catch (final ExecutionException ee) {
+                throw new RuntimeException (ee.getCause ());
+            }
+        }
+
+
+        private void __submitPipelined (
+            final InstrumentClassRequest request, final ByteBuffer recvBuffer
+        ) {
+            //
+            // The requests refer to the receive buffer, which can be only
+            // released after all the requests have been processed. Wait for
+            // a permit before submitting each request, so that the executor
+            // queue holds a bounded number of requests from each connection.
+            //
+            final List <InstrumentClassRequest> entries = (request.getBatchCount () > 0) ?
+                request.getBatchList () : Collections.singletonList (request);
+
+            final AtomicInteger remaining = new AtomicInteger (entries.size ());
+            for (final InstrumentClassRequest entry : entries) {
+                __pipelinePermits.acquireUninterruptibly ();
+
+                __sendLock.lock ();
+                try {
+                    __pipelinedCount++;
+                } finally {
+                    __sendLock.unlock ();
+                }
+
+                __pipelineWorkers.execute (() -> {
+                    try {
+                        __processPipelined (entry);
+
+                    } finally {
+                        if (remaining.decrementAndGet () == 0) {
+                            __recvBuffers.release (recvBuffer);
+                        }
+
+                        __pipelinePermits.release ();
+                    }
+                });
+            }
+        }
+
+
+        private void __processPipelined (final InstrumentClassRequest request) {
+            //
+            // Receiving and unpacking is accounted for by the connection
+            // handler, so the corresponding intervals are left empty.
+            //
+            final IntervalTimer <ElapsedTime> timer = new IntervalTimer <ElapsedTime> (ElapsedTime.class);
+            timer.reset ();
+            timer.mark (ElapsedTime.RECEIVE);
+            timer.mark (ElapsedTime.UNPACK);
+
+            try {
+                final InstrumentClassResponse response = __requestProcessor.process (request)
+                    .toBuilder ().setRequestId (request.getRequestId ()).build ();
+
+                if (response.getResult () == InstrumentClassResult.ERROR) {
+                    __pipelineFailed = true;
+                    __connectionStats.failed ();
+                }
+
+                timer.mark (ElapsedTime.PROCESS);
+
+                //
+
+                final ByteBuffer sendBuffer = __packResponse (response);
+                timer.mark (ElapsedTime.PACK);
+
+                //
+
+                __sendResponse (sendBuffer, __channel);
+
+                timer.mark (ElapsedTime.TRANSMIT);
+
+                __connectionStats.record (timer, ElapsedTime.PROCESS, ElapsedTime.TRANSMIT);
+                __connectionStats.processed ();
+
+            } catch (final IOException ioe) {
+                __pipelineFailed = true;
+                __connectionStats.failed ();
+                __log.error (
+                    "error sending response to client: %s", ioe.getMessage ()
+                );
+
+            } catch (final Throwable t) {
+                __pipelineFailed = true;
+                __connectionStats.failed ();
+                __log.error (t, "failed to process instrumentation request");
+
+            } finally {
+                __sendLock.lock ();
+                try {
+                    __pipelinedCount--;
+                    __pipelineDrained.signalAll ();
+                } finally {
+                    __sendLock.unlock ();
+                }
+            }
+        }
+
+
+        /**
+         * Waits until responses to all pipelined requests have been sent.
+         */
+        private void __awaitPipelined () {
+            boolean interrupted = false;
+
+            __sendLock.lock ();
+            try {
+                while (__pipelinedCount > 0) {
+                    try {
+                        __pipelineDrained.await ();
+
+                    } catch (final InterruptedException ie) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                __sendLock.unlock ();
+            }
+
+            if (interrupted) {
+                Thread.currentThread ().interrupt ();
+            }
+        }
+
+
+        /**
+         * Packs the given response, prefixed by its length, into a buffer
+         * from the send buffer pool. Returns the buffer ready for sending.
+         */
+        private ByteBuffer __packResponse (
+            final InstrumentClassResponse response
+        ) throws IOException {
+            final int responseLength = response.getSerializedSize ();
+            final ByteBuffer result = __sendBuffers.acquire (Integer.BYTES + responseLength);
+            result.putInt (responseLength);
+
+            //
+            // Note: the CodedOutputStream remembers buffer position at
+            // creation time, so anything put into a byte buffer after
+            // CodedOutputStream has been created will be lost/corrupted.
+            //
+            // Also, it cannot be reused and needs to be created for
+            // every message packed.
+            //
+            if (responseLength > 0) {
+                final CodedOutputStream sendStream = CodedOutputStream.newInstance (result);
+                response.writeTo (sendStream);
+                sendStream.flush ();
+            }
+
+            result.flip ();
+            return result;
+        }
+
+
+        /**
+         * Sends a packed response to the client and releases the buffer.
+         * Sending is serialized with responses to pipelined requests, which
+         * may be sent from other threads at any time.
+         */
+        private void __sendResponse (
+            final ByteBuffer sendBuffer, final ByteChannel channel
+        ) throws IOException {
+            __connectionStats.sent (sendBuffer.remaining ());
+
+            __sendLock.lock ();
+            try {
+                __bufferSendTo (sendBuffer, channel);
+
+            } finally {
+                __sendLock.unlock ();
+                __sendBuffers.release (sendBuffer);
+            }
+        }
+
+
         private void __bufferSendTo (
-            final ByteBuffer buffer, final SocketChannel sc
+            final ByteBuffer buffer, final ByteChannel sc
         ) throws IOException {
             while (buffer.hasRemaining ()) {
                 sc.write (buffer);
@@ -232,7 +647,7 @@ public final class DiSLServer {
 
 
         private void __bufferRecvFrom (
-            final SocketChannel sc, final int length, final ByteBuffer buffer
+            final ByteChannel sc, final int length, final ByteBuffer buffer
         ) throws IOException {
             buffer.limit (buffer.position () + length);
             while (buffer.hasRemaining ()) {
@@ -244,26 +659,6 @@ public final class DiSLServer {
         }
 
 
-        private ByteBuffer __expandBuffer (
-            final ByteBuffer buffer, final int messageLength
-        ) {
-            //
-            // The buffer needs to be in receive mode, i.e., the buffer
-            // position indicates the first available byte. Any bytes before
-            // current position will be copied to the new buffer.
-            //
-            final int requiredCapacity = buffer.position () + messageLength;
-
-            int newCapacity = 2 * buffer.capacity ();
-            while (newCapacity < requiredCapacity) {
-                newCapacity *= 2;
-            }
-
-            buffer.flip ();
-            return __allocDirect (newCapacity).put (buffer);
-        }
-
-
         private ByteBuffer __allocDirect (final int capacity) {
             return ByteBuffer.allocateDirect (capacity).order (ByteOrder.BIG_ENDIAN);
         }
@@ -282,15 +677,16 @@ public final class DiSLServer {
 
             while (!serverThread.isInterrupted ()) {
                 final SocketChannel clientSocket = serverSocket.accept ();
-                clientSocket.setOption (StandardSocketOptions.TCP_NODELAY, true);
+                if (clientSocket.supportedOptions ().contains (StandardSocketOptions.TCP_NODELAY)) {
+                    clientSocket.setOption (StandardSocketOptions.TCP_NODELAY, true);
+                }
 
-                __log.debug (
-                    "connection from %s", clientSocket.getRemoteAddress ()
-                );
+                final String clientAddress = String.valueOf (clientSocket.getRemoteAddress ());
+                __log.debug ("connection from %s", clientAddress);
 
                 // client socket handed off to connection handler
                 executor.submit (new ConnectionHandler (
-                    clientSocket, requestProcessor, serverThread
+                    clientSocket, requestProcessor, serverThread, clientAddress
                 ));
             }
 
@@ -306,6 +702,12 @@ public final class DiSLServer {
             __log.error ("error accepting a connection: %s", ioe.getMessage ());
         }
 
+        //
+        // Clear the interrupt status of the server thread, so that it can
+        // still perform (interruptible) I/O when shutting down.
+        //
+        Thread.interrupted ();
+
         //
 
         __log.debug ("receiving data took %d ms", __stats (ElapsedTime.RECEIVE));
@@ -317,7 +719,7 @@ public final class DiSLServer {
 
     private long __stats (final ElapsedTime et) {
         return TimeUnit.MILLISECONDS.convert (
-            __globalStats.get (et), TimeUnit.NANOSECONDS
+            __stats.totalTime (et), TimeUnit.NANOSECONDS
         );
     }
 
@@ -330,18 +732,20 @@ public final class DiSLServer {
 
         __serverStarting ();
 
-        final InetSocketAddress address = __getListenAddressOrDie ();
+        final SocketAddress address = __getListenAddressOrDie ();
         final ServerSocketChannel socket = __getServerSocketOrDie (address);
 
-        __log.debug (
-            "listening on %s:%d", address.getHostString (), address.getPort ()
-        );
+        __log.debug ("listening on %s", __addressString (address));
 
         //
 
         final RequestProcessor processor = __getRequestProcessorOrDie ();
-        final ExecutorService executor = Executors.newCachedThreadPool ();
-        final DiSLServer server = new DiSLServer ();
+        final ExecutorService executor = __getConnectionExecutor ();
+        final ExecutorService workers = __getWorkerExecutor ();
+        final ExecutorService pipelineWorkers = (workers != null) ?
+            workers : __getPipelineExecutor ();
+        final ServerStats <ElapsedTime> stats = __getServerStats ();
+        final DiSLServer server = new DiSLServer (workers, pipelineWorkers, stats);
 
         __log.debug ("server started");
         __serverStarted ();
@@ -350,7 +754,12 @@ public final class DiSLServer {
 
         __log.debug ("server shutting down");
         executor.shutdown ();
+        pipelineWorkers.shutdown ();
+        if (workers != null) {
+            workers.shutdown ();
+        }
         processor.terminate ();
+        stats.stopDumping ();
         __closeSocket (socket);
 
         __log.debug ("server finished");
@@ -381,7 +790,24 @@ public final class DiSLServer {
     }
 
 
-    private static InetSocketAddress __getListenAddressOrDie () {
+    /**
+     * Returns the address to listen on. If a socket path is given, the server
+     * listens on a Unix domain socket, which avoids the overhead of loopback
+     * TCP when the clients run on the same host. Otherwise the server listens
+     * on a TCP port.
+     */
+    private static SocketAddress __getListenAddressOrDie () {
+        final String socketPath = System.getProperty (PROP_SOCKET, "").trim ();
+        if (!socketPath.isEmpty ()) {
+            try {
+                return UnixDomainSocketAddress.of (socketPath);
+
+            } catch (final InvalidPathException ipe) {
+                __die (ipe, "invalid socket path");
+                throw new AssertionError ("unreachable");
+            }
+        }
+
         try {
             final int port = Integer.getInteger (PROP_PORT, DEFAULT_PORT);
             return new InetSocketAddress (port);
@@ -393,8 +819,131 @@ public final class DiSLServer {
     }
 
 
+    /**
+     * Returns an executor for connection handlers. Connection handlers mostly
+     * wait for I/O, so if requested (and supported by the JVM), each of them
+     * runs in a virtual thread. Otherwise, each of them runs in a platform
+     * thread from a cached thread pool.
+     */
+    private static ExecutorService __getConnectionExecutor () {
+        if (virtual) {
+            try {
+                final Object result = Executors.class.getMethod (
+                    "newVirtualThreadPerTaskExecutor"
+                ).invoke (null);
+
+                __log.debug ("handling connections in virtual threads");
+                return (ExecutorService) result;
+
+            } catch (final ReflectiveOperationException roe) {
+                __log.warn ("virtual threads not supported, using platform threads");
+            }
+        }
+
+        return Executors.newCachedThreadPool ();
+    }
+
+
+    /**
+     * Returns a bounded executor for processing instrumentation requests, or
+     * {@code null} if the requests should be processed by the connection
+     * handler threads. Bounding the number of threads doing CPU-intensive
+     * work decouples the number of connections from the CPU load. The
+     * workers are used by default when handling connections in virtual
+     * threads, and their number defaults to the number of available
+     * processors.
+     */
+    private static ExecutorService __getWorkerExecutor () {
+        final int defaultWorkers = virtual ?
+            Runtime.getRuntime ().availableProcessors () : 0;
+
+        final int workers = Integer.getInteger (PROP_WORKERS, defaultWorkers);
+        if (workers <= 0) {
+            return null;
+        }
+
+        __log.debug ("processing requests using %d worker threads", workers);
+        return __newFixedPool ("disl-worker-", workers);
+    }
+
+
+    /**
+     * Returns a bounded executor for processing pipelined requests when
+     * there is no worker pool. The threads are only started when pipelined
+     * requests arrive, and their number is bounded by the number of available
+     * processors.
+     */
+    private static ExecutorService __getPipelineExecutor () {
+        return __newFixedPool (
+            "disl-pipeline-", Runtime.getRuntime ().availableProcessors ()
+        );
+    }
+
+
+    private static ExecutorService __newFixedPool (
+        final String namePrefix, final int threadCount
+    ) {
+        final AtomicInteger threadIndex = new AtomicInteger ();
+        final ThreadFactory threadFactory = r -> {
+            final Thread result = new Thread (r, namePrefix + threadIndex.incrementAndGet ());
+            result.setDaemon (true);
+            return result;
+        };
+
+        return new ThreadPoolExecutor (
+            threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue <> (), threadFactory
+        );
+    }
+
+
+    /**
+     * Returns the server statistics. If requested, the statistics are
+     * exposed as an MXBean, and periodically dumped into a file.
+     */
+    private static ServerStats <ElapsedTime> __getServerStats () {
+        final ServerStats <ElapsedTime> result = new ServerStats <> (ElapsedTime.class);
+        if (statsJmx) {
+            result.register ();
+        }
+
+        final File file = __getFileProperty (PROP_STATS_FILE);
+        if (file != null) {
+            final long interval = Long.getLong (PROP_STATS_INTERVAL, DEFAULT_STATS_INTERVAL);
+            result.startDumping (file.toPath (), interval);
+        }
+
+        return result;
+    }
+
+
+    private static String __addressString (final SocketAddress addr) {
+        if (addr instanceof InetSocketAddress) {
+            final InetSocketAddress inetAddr = (InetSocketAddress) addr;
+            return String.format ("%s:%d", inetAddr.getHostString (), inetAddr.getPort ());
+
+        } else {
+            return addr.toString ();
+        }
+    }
+
+
     private static ServerSocketChannel __getServerSocketOrDie (final SocketAddress addr) {
         try {
+            if (addr instanceof UnixDomainSocketAddress) {
+                //
+                // Remove a socket file left behind by a previous server
+                // instance, and remove our socket file when exiting.
+                //
+                final Path socketPath = ((UnixDomainSocketAddress) addr).getPath ();
+                Files.deleteIfExists (socketPath);
+
+                final ServerSocketChannel ssc = ServerSocketChannel.open (StandardProtocolFamily.UNIX);
+                ssc.bind (addr);
+                socketPath.toFile ().deleteOnExit ();
+                return ssc;
+            }
+
             final ServerSocketChannel ssc = ServerSocketChannel.open ();
             ssc.setOption (StandardSocketOptions.SO_REUSEADDR, true);
             ssc.bind (addr);
@@ -0,0 +1,672 @@
+package ch.usi.dag.dislserver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import ch.usi.dag.dislserver.Protocol.InstrumentClassResponse;
+import ch.usi.dag.util.logging.Logger;
+
+
+/**
+ * A persistent cache of instrumentation responses, which survives server
+ * restarts. The responses are stored in an append-only segment file, which is
+ * memory-mapped for reading. The segment file starts with a header identifying
+ * the instrumentation fingerprint, followed by a sequence of records:
+ *
+ * <pre>
+ * +--------+-------+---------+-------------------+
+ * | length | crc32 | key[32] | response[length]  |
+ * +--------+-------+---------+-------------------+
+ * </pre>
+ *
+ * The index of the records is kept in memory and rebuilt when the segment is
+ * opened. Records are only published in the index after they have been fully
+ * written, and a record that fails the CRC check (e.g., after a crash in the
+ * middle of an append) terminates the segment, which is then truncated.
+ * <p>
+ * A segment created for a different instrumentation fingerprint (i.e., with
+ * different DiSL classes, code options, or a different DiSL implementation)
+ * is discarded when opened. A segment
+ * containing too many superseded records, or exceeding its size limit, is
+ * compacted when opened, retaining the most recently appended records. When
+ * an append would exceed the size limit, the segment is compacted to half of
+ * the limit while the server is running, so that new responses keep being
+ * stored.
+ */
+final class DiskCache implements Closeable {
+
+    private static final Logger __log = Logging.getPackageInstance ();
+
+    //
+
+    private static final String __SEGMENT_FILE__ = "classes.seg";
+    private static final String __LOCK_FILE__ = "classes.lock";
+
+    /** Magic number at the start of the segment file: "DiSL". */
+    private static final int __MAGIC__ = 0x4469534c;
+    private static final int __VERSION__ = 2;
+
+    private static final int __RECORD_HEADER_LENGTH__ =
+        2 * Integer.BYTES + CacheKeys.LENGTH;
+
+    /** Segment files are mapped in one piece, which limits their size. */
+    private static final long __MAX_SEGMENT_SIZE__ = Integer.MAX_VALUE;
+
+    //
+
+    /**
+     * The location of a response in the segment file.
+     */
+    private static final class Record {
+        final int offset;
+        final int length;
+
+        Record (final int offset, final int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        int end () {
+            return offset + length;
+        }
+
+        int start () {
+            return offset - __RECORD_HEADER_LENGTH__;
+        }
+    }
+
+    //
+
+    private final Path __segment;
+
+    private final byte [] __header;
+
+    private final FileLock __lock;
+
+    private final long __sizeLimit;
+
+    /** Segment file channel, replaced by compaction, guarded by this instance. */
+    private FileChannel __channel;
+
+    /** Published records in append order, guarded by this instance. */
+    private final LinkedHashMap <ByteString, Record> __records;
+
+    /** Number of records being written, guarded by this instance. */
+    private int __pendingAppends;
+
+    /** Segment size, including records that are still being written. */
+    private long __size;
+
+    /** The end of the last published record. */
+    private int __publishedEnd;
+
+    /** Mapping of the segment file, guarded by this instance. */
+    private MappedByteBuffer __mapping;
+
+    /** Set when appending failed, to stop appending to a broken segment. */
+    private volatile boolean __appendsDisabled;
+
+    //
+
+    private final AtomicLong __hits = new AtomicLong ();
+    private final AtomicLong __misses = new AtomicLong ();
+    private final AtomicLong __appends = new AtomicLong ();
+    private final AtomicLong __compactions = new AtomicLong ();
+
+    //
+
+    private DiskCache (
+        final Path segment, final byte [] header,
+        final FileChannel channel, final FileLock lock,
+        final LinkedHashMap <ByteString, Record> records, final long size,
+        final long sizeLimit
+    ) {
+        __segment = segment;
+        __header = header;
+        __channel = channel;
+        __lock = lock;
+        __records = records;
+        __size = size;
+        __publishedEnd = (int) size;
+        __sizeLimit = sizeLimit;
+    }
+
+    //
+
+    /**
+     * Returns the response stored under the given key, or {@code null} if
+     * there is no such response.
+     */
+    InstrumentClassResponse get (final ByteString key) {
+        final ByteBuffer view;
+        synchronized (this) {
+            final Record record = __records.get (key);
+            if (record == null) {
+                __misses.incrementAndGet ();
+                return null;
+            }
+
+            try {
+                view = __mappedView (record);
+
+            } catch (final IOException ioe) {
+                __log.warn ("failed to map class cache segment: %s", ioe.getMessage ());
+                __misses.incrementAndGet ();
+                return null;
+            }
+        }
+
+        try {
+            final InstrumentClassResponse result = InstrumentClassResponse.parseFrom (view);
+            __hits.incrementAndGet ();
+            return result;
+
+        } catch (final InvalidProtocolBufferException ipbe) {
+            __log.warn ("corrupted class cache record: %s", ipbe.getMessage ());
+            __misses.incrementAndGet ();
+            return null;
+        }
+    }
+
+
+    private ByteBuffer __mappedView (final Record record) throws IOException {
+        if (__mapping == null || __mapping.capacity () < record.end ()) {
+            //
+            // Map all the published records. Records being appended
+            // concurrently lie beyond the last published record.
+            //
+            __mapping = __channel.map (FileChannel.MapMode.READ_ONLY, 0, __publishedEnd);
+        }
+
+        final ByteBuffer result = __mapping.duplicate ();
+        result.position (record.offset).limit (record.end ());
+        return result.slice ();
+    }
+
+
+    /**
+     * Appends the given response to the segment file under the given key,
+     * unless a response with the same key is already present. If the segment
+     * would exceed its size limit, it is compacted first. Responses larger
+     * than half of the size limit are not stored.
+     */
+    void put (final ByteString key, final InstrumentClassResponse response) {
+        if (__appendsDisabled) {
+            return;
+        }
+
+        final byte [] payload = response.toByteArray ();
+        final int recordLength = __RECORD_HEADER_LENGTH__ + payload.length;
+        if (recordLength > __sizeLimit / 2) {
+            return;
+        }
+
+        //
+        // Reserve space for the record, then write it without holding the
+        // lock, and only publish it when it has been fully written.
+        //
+        final FileChannel channel;
+        final long position;
+        synchronized (this) {
+            if (__records.containsKey (key) || !__ensureCapacity (recordLength)) {
+                return;
+            }
+
+            channel = __channel;
+            position = __size;
+            __size += recordLength;
+            __pendingAppends++;
+        }
+
+        boolean written = false;
+        try {
+            __writeFully (channel, __encodeRecord (key, payload), position);
+            written = true;
+
+        } catch (final IOException ioe) {
+            //
+            // A hole in the segment terminates it when reopened, so there
+            // is no point in appending any more records.
+            //
+            __log.warn ("failed to append to class cache: %s", ioe.getMessage ());
+            __appendsDisabled = true;
+
+        } finally {
+            synchronized (this) {
+                if (written) {
+                    final Record record = new Record (
+                        (int) position + __RECORD_HEADER_LENGTH__, payload.length
+                    );
+
+                    __records.put (key, record);
+                    __publishedEnd = Math.max (__publishedEnd, record.end ());
+                }
+
+                __pendingAppends--;
+                notifyAll ();
+            }
+        }
+
+        if (written) {
+            __appends.incrementAndGet ();
+        }
+    }
+
+
+    /**
+     * Makes room for a record of the given length, compacting the segment if
+     * necessary. Compaction waits for the records being written to the
+     * current segment. Must be called while holding the lock on this instance.
+     *
+     * @return {@code true} if there is room for the record.
+     */
+    private boolean __ensureCapacity (final int recordLength) {
+        while (__size + recordLength > __sizeLimit) {
+            if (__appendsDisabled) {
+                return false;
+            }
+
+            if (__pendingAppends > 0) {
+                try {
+                    wait ();
+                    continue;
+
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread ().interrupt ();
+                    return false;
+                }
+            }
+
+            try {
+                __compactSegment ();
+
+            } catch (final IOException ioe) {
+                __log.warn ("failed to compact class cache: %s", ioe.getMessage ());
+                __appendsDisabled = true;
+                __records.clear ();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Compacts the segment to half of its size limit, retaining the most
+     * recently appended records, and reopens it. Views of the previous
+     * segment mapping remain valid. Must be called while holding the lock
+     * on this instance, with no records being written.
+     */
+    private void __compactSegment () throws IOException {
+        __channel.close ();
+        __compact (__segment, __header, __records, __size, __sizeLimit / 2);
+
+        __records.clear ();
+        __mapping = null;
+
+        __channel = __openSegment (__segment);
+        __size = __load (__channel, __header, __records);
+        __publishedEnd = (int) __size;
+
+        __compactions.incrementAndGet ();
+    }
+
+
+    private static ByteBuffer __encodeRecord (
+        final ByteString key, final byte [] payload
+    ) {
+        final CRC32 crc = new CRC32 ();
+        crc.update (key.toByteArray ());
+        crc.update (payload);
+
+        final ByteBuffer result = __allocate (__RECORD_HEADER_LENGTH__ + payload.length);
+        result.putInt (payload.length);
+        result.putInt ((int) crc.getValue ());
+        key.copyTo (result);
+        result.put (payload);
+
+        result.flip ();
+        return result;
+    }
+
+    //
+
+    long hits () {
+        return __hits.get ();
+    }
+
+
+    long misses () {
+        return __misses.get ();
+    }
+
+
+    long appends () {
+        return __appends.get ();
+    }
+
+
+    long compactions () {
+        return __compactions.get ();
+    }
+
+
+    synchronized int entries () {
+        return __records.size ();
+    }
+
+    //
+
+    @Override
+    public synchronized void close () throws IOException {
+        try {
+            __channel.force (false);
+
+        } finally {
+            __channel.close ();
+            __lock.release ();
+            __lock.channel ().close ();
+        }
+    }
+
+    //
+
+    /**
+     * Opens (or creates) the class cache in the given directory. Discards the
+     * cache contents if they were produced by instrumentation with a different
+     * fingerprint, and compacts the segment file if necessary.
+     *
+     * @param directory
+     *        the cache directory, created if it does not exist
+     * @param fingerprint
+     *        the fingerprint of the instrumentation producing the responses
+     * @param sizeLimit
+     *        the maximal size of the segment file in bytes
+     * @throws IOException
+     *         if the cache could not be opened, or if the cache directory is
+     *         being used by another server
+     */
+    static DiskCache open (
+        final Path directory, final String fingerprint, final long sizeLimit
+    ) throws IOException {
+        Files.createDirectories (directory);
+
+        final FileChannel lockChannel = FileChannel.open (
+            directory.resolve (__LOCK_FILE__),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE
+        );
+
+        final FileLock lock = __tryLock (lockChannel);
+        if (lock == null) {
+            lockChannel.close ();
+            throw new IOException ("cache directory in use: "+ directory);
+        }
+
+        FileChannel channel = null;
+        try {
+            final long limit = Math.min (sizeLimit, __MAX_SEGMENT_SIZE__);
+            final byte [] header = __encodeHeader (fingerprint);
+            final Path segment = directory.resolve (__SEGMENT_FILE__);
+
+            channel = __openSegment (segment);
+            final LinkedHashMap <ByteString, Record> records = new LinkedHashMap <> ();
+            long size = __load (channel, header, records);
+
+            //
+            // Compact the segment if most of it is occupied by superseded
+            // records, or if it is too big to accept new records.
+            //
+            final long liveSize = records.values ().stream ()
+                .mapToLong (r -> __RECORD_HEADER_LENGTH__ + r.length).sum ();
+
+            if (size - header.length > 2 * liveSize || size > limit / 4 * 3) {
+                channel.close ();
+                __compact (segment, header, records, size, limit / 2);
+
+                records.clear ();
+                channel = __openSegment (segment);
+                size = __load (channel, header, records);
+            }
+
+            __log.debug (
+                "opened class cache in %s with %d entries (%d bytes)",
+                directory, records.size (), size
+            );
+
+            return new DiskCache (segment, header, channel, lock, records, size, limit);
+
+        } catch (final IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close ();
+            }
+
+            lock.release ();
+            lockChannel.close ();
+            throw e;
+        }
+    }
+
+
+    private static FileLock __tryLock (final FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock ();
+
+        } catch (final OverlappingFileLockException ofle) {
+            // The lock is held within this JVM.
+            return null;
+        }
+    }
+
+
+    private static FileChannel __openSegment (final Path segment) throws IOException {
+        return FileChannel.open (
+            segment, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+    }
+
+
+    /**
+     * Loads the records from the segment file into the given map, and returns
+     * the size of the valid part of the segment. Resets the segment if it
+     * belongs to a different instrumentation, and truncates it after the last
+     * valid record.
+     */
+    private static long __load (
+        final FileChannel channel, final byte [] header,
+        final Map <ByteString, Record> records
+    ) throws IOException {
+        final long fileSize = channel.size ();
+        if (fileSize < header.length || fileSize > __MAX_SEGMENT_SIZE__ ||
+            !Arrays.equals (header, __readHeader (channel, header.length))
+        ) {
+            if (fileSize > 0) {
+                __log.debug ("discarding class cache created for different instrumentation");
+            }
+
+            channel.truncate (0);
+            __writeFully (channel, ByteBuffer.wrap (header), 0);
+            return header.length;
+        }
+
+        //
+        // Scan the records and stop at the first invalid one.
+        //
+        final ByteBuffer buffer = channel.map (
+            FileChannel.MapMode.READ_ONLY, 0, fileSize
+        ).order (ByteOrder.BIG_ENDIAN);
+
+        int position = header.length;
+        while (position + __RECORD_HEADER_LENGTH__ <= fileSize) {
+            final int length = buffer.getInt (position);
+            final int crc = buffer.getInt (position + Integer.BYTES);
+
+            final int offset = position + __RECORD_HEADER_LENGTH__;
+            if (length < 0 || offset + (long) length > fileSize) {
+                break;
+            }
+
+            final ByteBuffer data = buffer.duplicate ();
+            data.position (offset - CacheKeys.LENGTH).limit (offset + length);
+
+            final CRC32 actualCrc = new CRC32 ();
+            actualCrc.update (data.duplicate ());
+            if ((int) actualCrc.getValue () != crc) {
+                break;
+            }
+
+            data.limit (offset);
+            records.put (ByteString.copyFrom (data), new Record (offset, length));
+            position = offset + length;
+        }
+
+        if (position < fileSize) {
+            __log.debug ("truncating class cache after %d bytes", position);
+            channel.truncate (position);
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Rewrites the segment file so that it only contains the given records,
+     * retaining the most recently appended records that fit within the given
+     * size. The new segment replaces the old one atomically.
+     */
+    private static void __compact (
+        final Path segment, final byte [] header,
+        final Map <ByteString, Record> records, final long size,
+        final long targetSize
+    ) throws IOException {
+        //
+        // Select records to retain, starting with the most recent ones.
+        //
+        final List <Map.Entry <ByteString, Record>> entries = new ArrayList <> (records.entrySet ());
+
+        int first = entries.size ();
+        long retainedSize = header.length;
+        while (first > 0) {
+            final Record record = entries.get (first - 1).getValue ();
+            final long recordSize = __RECORD_HEADER_LENGTH__ + record.length;
+            if (retainedSize + recordSize > targetSize) {
+                break;
+            }
+
+            retainedSize += recordSize;
+            first--;
+        }
+
+        __log.debug (
+            "compacting class cache from %d to %d bytes, retaining %d of %d entries",
+            size, retainedSize, entries.size () - first, entries.size ()
+        );
+
+        final Path temporary = segment.resolveSibling (segment.getFileName () + ".tmp");
+        try (
+            final FileChannel source = FileChannel.open (segment, StandardOpenOption.READ);
+            final FileChannel target = FileChannel.open (
+                temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+            );
+        ) {
+            long position = 0;
+            position += __writeFully (target, ByteBuffer.wrap (header), position);
+
+            for (final Map.Entry <ByteString, Record> entry : entries.subList (first, entries.size ())) {
+                final Record record = entry.getValue ();
+                final ByteBuffer data = __allocate (__RECORD_HEADER_LENGTH__ + record.length);
+                __readFully (source, data, record.start ());
+
+                data.flip ();
+                position += __writeFully (target, data, position);
+            }
+
+            target.force (false);
+        }
+
+        Files.move (
+            temporary, segment,
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    //
+
+    private static byte [] __encodeHeader (final String fingerprint) {
+        final byte [] fingerprintBytes = fingerprint.getBytes (StandardCharsets.UTF_8);
+
+        final ByteBuffer result = __allocate (3 * Integer.BYTES + fingerprintBytes.length);
+        result.putInt (__MAGIC__);
+        result.putInt (__VERSION__);
+        result.putInt (fingerprintBytes.length);
+        result.put (fingerprintBytes);
+        return result.array ();
+    }
+
+
+    private static byte [] __readHeader (
+        final FileChannel channel, final int length
+    ) throws IOException {
+        final ByteBuffer result = __allocate (length);
+        __readFully (channel, result, 0);
+        return result.array ();
+    }
+
+
+    private static int __writeFully (
+        final FileChannel channel, final ByteBuffer buffer, final long position
+    ) throws IOException {
+        final int length = buffer.remaining ();
+
+        long offset = position;
+        while (buffer.hasRemaining ()) {
+            offset += channel.write (buffer, offset);
+        }
+
+        return length;
+    }
+
+
+    private static void __readFully (
+        final FileChannel channel, final ByteBuffer buffer, final long position
+    ) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining ()) {
+            final int bytesRead = channel.read (buffer, offset);
+            if (bytesRead < 0) {
+                throw new IOException ("unexpected end of class cache segment");
+            }
+
+            offset += bytesRead;
+        }
+    }
+
+
+    private static ByteBuffer __allocate (final int capacity) {
+        return ByteBuffer.allocate (capacity).order (ByteOrder.BIG_ENDIAN);
+    }
+
+}
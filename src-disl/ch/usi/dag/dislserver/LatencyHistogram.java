@@ -0,0 +1,121 @@
+package ch.usi.dag.dislserver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A concurrent histogram of latencies in nanoseconds. Values are counted in
+ * logarithmic buckets, each power of two being split into linear sub-buckets,
+ * which bounds the relative error of the reported percentiles to 1/16 while
+ * keeping the histogram size fixed. Recording a value is lock-free.
+ */
+final class LatencyHistogram {
+
+    /** Number of linear sub-buckets per power of two, as a power of two. */
+    private static final int __SUB_BUCKET_BITS__ = 4;
+
+    private static final int __SUB_BUCKETS__ = 1 << __SUB_BUCKET_BITS__;
+
+    private static final int __BUCKET_COUNT__ =
+        (Long.SIZE - __SUB_BUCKET_BITS__ + 1) * __SUB_BUCKETS__;
+
+    //
+
+    private final AtomicLongArray __counts = new AtomicLongArray (__BUCKET_COUNT__);
+
+    private final LongAdder __count = new LongAdder ();
+    private final LongAdder __sum = new LongAdder ();
+    private final AtomicLong __max = new AtomicLong ();
+
+    //
+
+    /**
+     * Records the given value. Negative values are recorded as zero.
+     */
+    void record (final long value) {
+        final long nanos = Math.max (0, value);
+        __counts.incrementAndGet (__indexOf (nanos));
+        __count.increment ();
+        __sum.add (nanos);
+        __max.accumulateAndGet (nanos, Math::max);
+    }
+
+    //
+
+    long count () {
+        return __count.sum ();
+    }
+
+
+    long sum () {
+        return __sum.sum ();
+    }
+
+
+    long max () {
+        return __max.get ();
+    }
+
+
+    /**
+     * Returns the values at the given quantiles (between 0 and 1). The values
+     * are computed from a single snapshot of the histogram, so that they are
+     * consistent with each other. The values are zero for an empty histogram.
+     */
+    long [] quantiles (final double ... quantiles) {
+        final long [] counts = new long [__BUCKET_COUNT__];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts [i] = __counts.get (i);
+            total += counts [i];
+        }
+
+        final long max = max ();
+        final long [] result = new long [quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            final long rank = Math.max (1, (long) Math.ceil (quantiles [q] * total));
+
+            long seen = 0;
+            for (int i = 0; i < counts.length && total > 0; i++) {
+                seen += counts [i];
+                if (seen >= rank) {
+                    result [q] = Math.min (__highestValueAt (i), max);
+                    break;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    //
+
+    private static int __indexOf (final long value) {
+        if (value < __SUB_BUCKETS__) {
+            return (int) value;
+        }
+
+        //
+        // The sub-bucket is determined by the bits following the most
+        // significant bit, and the bucket by the position of that bit.
+        //
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros (value) - __SUB_BUCKET_BITS__;
+        final int subBucket = (int) (value >>> shift) & (__SUB_BUCKETS__ - 1);
+        return (shift + 1) * __SUB_BUCKETS__ + subBucket;
+    }
+
+
+    private static long __highestValueAt (final int index) {
+        if (index < __SUB_BUCKETS__) {
+            return index;
+        }
+
+        final int shift = index / __SUB_BUCKETS__ - 1;
+        final long subBucket = index % __SUB_BUCKETS__;
+        final long lowest = (__SUB_BUCKETS__ + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,691 @@
+package ch.usi.dag.dislserver;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.objectweb.asm.ClassReader;
+
+import ch.usi.dag.disl.DiSL;
+import ch.usi.dag.disl.exception.DiSLException;
+import ch.usi.dag.util.logging.Logger;
+
+
+/**
+ * Instruments classes ahead of time, without a running application. The
+ * classes are taken from jar files given on the command line, and optionally
+ * from the modules of the running JDK. The classes of each jar file or module
+ * are instrumented in parallel using a fork-join pool, and written either
+ * into a new jar file, or into an exploded directory tree. A manifest listing
+ * the modified classes (and classes that failed to instrument) is written
+ * into the output directory.
+ * <p>
+ * Before instrumenting any class, the outlines of the classes from all inputs
+ * are added to the reflection model, so that the class hierarchy is known
+ * regardless of the order in which the classes are instrumented. Super
+ * classes not found in the inputs are taken from the running JDK.
+ * <p>
+ * Jar files are written completely, with the instrumented classes replacing
+ * the original ones. Modules are written as patches containing only the
+ * instrumented classes, to be used with the {@code --patch-module} option.
+ * <p>
+ * The instrumentation is configured using the same system properties as the
+ * DiSL server, so that the same snippets and scopes apply. Without the DiSL
+ * agent, nothing switches the bypass check away from its default variant,
+ * which always executes the uninstrumented code. Bypass code should therefore
+ * be disabled using the {@code disl.disablebypass} property.
+ */
+public final class OfflineInstrumenter {
+
+    private static final Logger __log = Logging.getPackageInstance ();
+
+    //
+
+    private static final String PROP_OUTPUT = "disloffline.output";
+
+    private static final String PROP_EXPLODED = "disloffline.exploded";
+    private static final boolean exploded = Boolean.getBoolean (PROP_EXPLODED);
+
+    private static final String PROP_JRT = "disloffline.jrt";
+
+    private static final String PROP_PARALLELISM = "disloffline.parallelism";
+
+    //
+
+    private static final String __MANIFEST_FILE__ = "disl-offline.manifest";
+
+    private static final String __CLASS_SUFFIX__ = ".class";
+    private static final String __MODULE_INFO__ = "module-info.class";
+
+    /** Signature files, which become invalid when the classes change. */
+    private static final Pattern __SIGNATURE_FILE__ = Pattern.compile (
+        "META-INF/[^/]+\\.(SF|RSA|DSA|EC)", Pattern.CASE_INSENSITIVE
+    );
+
+    //
+
+    private final DiSL __disl;
+    private final ForkJoinPool __pool;
+    private final Path __outputDir;
+
+    private final List <String> __manifest = new ArrayList <> ();
+
+    /** Maps the names of classes added to the reflection model to the names of their super classes. */
+    private final Map <String, String> __superClassNames = new ConcurrentHashMap <> ();
+
+    private int __classCount;
+    private int __modifiedCount;
+    private int __failedCount;
+
+    //
+
+    OfflineInstrumenter (
+        final DiSL disl, final ForkJoinPool pool, final Path outputDir
+    ) {
+        __disl = disl;
+        __pool = pool;
+        __outputDir = outputDir;
+    }
+
+    //
+
+    /**
+     * A source of classes and resources to instrument.
+     */
+    interface Input extends Closeable {
+        /** Returns the name of the input, used to name the output. */
+        String name ();
+
+        /** Returns the names of all files in the input. */
+        List <String> entries () throws IOException;
+
+        byte [] read (String entry) throws IOException;
+
+        /** Whether to output only the instrumented classes. */
+        boolean patchOnly ();
+    }
+
+
+    private static final class JarInput implements Input {
+        private final Path __path;
+        private final ZipFile __zipFile;
+
+        JarInput (final Path path) throws IOException {
+            __path = path;
+            __zipFile = new ZipFile (path.toFile ());
+        }
+
+        @Override
+        public String name () {
+            final String fileName = __path.getFileName ().toString ();
+            final int dot = fileName.lastIndexOf ('.');
+            return (dot > 0) ? fileName.substring (0, dot) : fileName;
+        }
+
+        @Override
+        public List <String> entries () {
+            final List <String> result = new ArrayList <> ();
+            final Enumeration <? extends ZipEntry> entries = __zipFile.entries ();
+            while (entries.hasMoreElements ()) {
+                final ZipEntry entry = entries.nextElement ();
+                if (!entry.isDirectory ()) {
+                    result.add (entry.getName ());
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public byte [] read (final String entry) throws IOException {
+            try (final InputStream is = __zipFile.getInputStream (__zipFile.getEntry (entry))) {
+                return is.readAllBytes ();
+            }
+        }
+
+        @Override
+        public boolean patchOnly () {
+            return false;
+        }
+
+        @Override
+        public void close () throws IOException {
+            __zipFile.close ();
+        }
+    }
+
+
+    private static final class ModuleInput implements Input {
+        private final Path __root;
+
+        ModuleInput (final Path root) {
+            __root = root;
+        }
+
+        @Override
+        public String name () {
+            return __root.getFileName ().toString ();
+        }
+
+        @Override
+        public List <String> entries () throws IOException {
+            try (final Stream <Path> paths = Files.walk (__root)) {
+                return paths
+                    .filter (Files::isRegularFile)
+                    .map (p -> __root.relativize (p).toString ())
+                    .sorted ()
+                    .collect (Collectors.toList ());
+            }
+        }
+
+        @Override
+        public byte [] read (final String entry) throws IOException {
+            return Files.readAllBytes (__root.resolve (entry));
+        }
+
+        @Override
+        public boolean patchOnly () {
+            return true;
+        }
+
+        @Override
+        public void close () {
+            // nothing to close, the file system is shared
+        }
+    }
+
+    //
+
+    /**
+     * The result of instrumenting a single class.
+     */
+    private static final class Result {
+        final int originalLength;
+        final byte [] classBytes;
+        final String error;
+
+        Result (final int originalLength, final byte [] classBytes, final String error) {
+            this.originalLength = originalLength;
+            this.classBytes = classBytes;
+            this.error = error;
+        }
+
+        boolean isModified () {
+            return classBytes != null;
+        }
+    }
+
+
+    /**
+     * Applies an action to a range of entry indices, splitting the range in
+     * halves until it contains a single index. Actions store their results
+     * at the index of the entry, so that the output does not depend on the
+     * scheduling.
+     */
+    private static final class EntryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer __action;
+        private final int __start;
+        private final int __end;
+
+        EntryTask (final IntConsumer action, final int start, final int end) {
+            __action = action;
+            __start = start;
+            __end = end;
+        }
+
+        @Override
+        protected void compute () {
+            if (__end - __start > 1) {
+                final int middle = (__start + __end) >>> 1;
+                invokeAll (
+                    new EntryTask (__action, __start, middle),
+                    new EntryTask (__action, middle, __end)
+                );
+
+            } else if (__end > __start) {
+                __action.accept (__start);
+            }
+        }
+    }
+
+
+    /**
+     * Adds the outlines of all classes in the given input to the reflection
+     * model. Classes that cannot be parsed are skipped here, the failure is
+     * reported when instrumenting them.
+     */
+    private void __seedReflection (final Input input) throws IOException {
+        final List <String> entries = input.entries ();
+        __pool.invoke (new EntryTask (index -> {
+            final String entry = entries.get (index);
+            if (!__isInstrumentable (entry)) {
+                return;
+            }
+
+            try {
+                __seedReflection (input.read (entry));
+
+            } catch (final Exception e) {
+                __log.debug ("failed to parse %s in %s: %s", entry, input.name (), e.getMessage ());
+            }
+        }, 0, entries.size ()));
+    }
+
+
+    /**
+     * Adds the super classes missing from the reflection model, taking them
+     * from the running JDK. Without them, the common super class of two
+     * classes could not be determined when computing stack map frames.
+     */
+    private void __seedMissingSuperClasses () {
+        final Set <String> missing = new TreeSet <> (__superClassNames.values ());
+        missing.removeAll (__superClassNames.keySet ());
+
+        while (!missing.isEmpty ()) {
+            final String name = missing.iterator ().next ();
+            missing.remove (name);
+
+            try (final InputStream is = ClassLoader.getSystemResourceAsStream (name + __CLASS_SUFFIX__)) {
+                if (is == null) {
+                    __log.debug ("super class %s not found", name);
+                    continue;
+                }
+
+                final String superName = __seedReflection (is.readAllBytes ());
+                if (superName != null && !__superClassNames.containsKey (superName)) {
+                    missing.add (superName);
+                }
+
+            } catch (final Exception e) {
+                __log.debug ("failed to parse super class %s: %s", name, e.getMessage ());
+            }
+        }
+    }
+
+
+    /**
+     * Adds the given class to the reflection model and returns the name of
+     * its super class, or {@code null} for the {@link Object} class.
+     */
+    private String __seedReflection (final byte [] bytes) throws DiSLException {
+        __disl.notifyClassLoaded (bytes, 0, bytes.length);
+
+        final ClassReader reader = new ClassReader (bytes);
+        final String superName = reader.getSuperName ();
+        if (superName != null) {
+            __superClassNames.put (reader.getClassName (), superName);
+        }
+
+        return superName;
+    }
+
+
+    private Result __instrument (final Input input, final String entry) {
+        int originalLength = -1;
+
+        try {
+            final byte [] originalBytes = input.read (entry);
+            originalLength = originalBytes.length;
+            return new Result (originalLength, __disl.instrument (originalBytes), null);
+
+        } catch (final Exception e) {
+            final String message = String.valueOf (e.getMessage ()).split ("\\R", 2) [0];
+            __log.error ("failed to instrument %s in %s: %s", entry, input.name (), message);
+            return new Result (originalLength, null, message);
+        }
+    }
+
+
+    private static boolean __isInstrumentable (final String entry) {
+        return entry.endsWith (__CLASS_SUFFIX__) && !entry.endsWith (__MODULE_INFO__);
+    }
+
+    //
+
+    private void __process (final Input input) throws IOException {
+        final List <String> entries = input.entries ();
+        final Result [] results = new Result [entries.size ()];
+        __pool.invoke (new EntryTask (index -> {
+            final String entry = entries.get (index);
+            if (__isInstrumentable (entry)) {
+                results [index] = __instrument (input, entry);
+            }
+        }, 0, results.length));
+
+        //
+        // Collect the results in the order of the input entries, so that
+        // the manifest is deterministic.
+        //
+        int classCount = 0;
+        int modifiedCount = 0;
+        for (int i = 0; i < results.length; i++) {
+            final Result result = results [i];
+            if (result == null) {
+                continue;
+            }
+
+            classCount++;
+            if (result.isModified ()) {
+                modifiedCount++;
+                __manifest.add (String.format (
+                    "modified\t%s\t%s\t%d\t%d", input.name (), entries.get (i),
+                    result.originalLength, result.classBytes.length
+                ));
+
+            } else if (result.error != null) {
+                __failedCount++;
+                __manifest.add (String.format (
+                    "failed\t%s\t%s\t%s", input.name (), entries.get (i), result.error
+                ));
+            }
+        }
+
+        __classCount += classCount;
+        __modifiedCount += modifiedCount;
+
+        //
+        // Patches without modified classes are not worth writing.
+        //
+        if (input.patchOnly () && modifiedCount == 0) {
+            __log.debug ("%s: %d classes, none modified", input.name (), classCount);
+            return;
+        }
+
+        final Path output = __write (input, entries, results, modifiedCount > 0);
+        __log.info (
+            "%s: %d classes, %d modified, written to %s",
+            input.name (), classCount, modifiedCount, output
+        );
+    }
+
+
+    private Path __write (
+        final Input input, final List <String> entries, final Result [] results,
+        final boolean modified
+    ) throws IOException {
+        final Path output = __outputDir.resolve (exploded ? input.name () : input.name () + ".jar");
+
+        try (
+            final ZipOutputStream zipStream = exploded ?
+                null : new ZipOutputStream (Files.newOutputStream (output))
+        ) {
+            for (int i = 0; i < results.length; i++) {
+                final String entry = entries.get (i);
+                final Result result = results [i];
+
+                final byte [] bytes;
+                if (result != null && result.isModified ()) {
+                    bytes = result.classBytes;
+
+                } else if (input.patchOnly ()) {
+                    continue;
+
+                } else if (modified && __SIGNATURE_FILE__.matcher (entry).matches ()) {
+                    __log.debug ("%s: dropping signature file %s", input.name (), entry);
+                    continue;
+
+                } else {
+                    bytes = input.read (entry);
+                }
+
+                if (zipStream != null) {
+                    zipStream.putNextEntry (new ZipEntry (entry));
+                    zipStream.write (bytes);
+                    zipStream.closeEntry ();
+
+                } else {
+                    final Path file = output.resolve (entry);
+                    Files.createDirectories (file.getParent ());
+                    Files.write (file, bytes);
+                }
+            }
+        }
+
+        return output;
+    }
+
+
+    private void __writeManifest () throws IOException {
+        final Path file = __outputDir.resolve (__MANIFEST_FILE__);
+        try (final BufferedWriter writer = Files.newBufferedWriter (file, StandardCharsets.UTF_8)) {
+            writer.write (String.format ("# DiSL fingerprint %s%n", __disl.fingerprint ()));
+            writer.write (String.format (
+                "# %d classes, %d modified, %d failed%n",
+                __classCount, __modifiedCount, __failedCount
+            ));
+
+            for (final String line : __manifest) {
+                writer.write (line);
+                writer.newLine ();
+            }
+        }
+    }
+
+    /**
+     * Instruments the classes from the given inputs and writes the results,
+     * along with the manifest, into the output directory. The inputs are
+     * closed afterwards.
+     *
+     * @return the number of classes that failed to instrument
+     * @throws IOException
+     *         if the inputs could not be read or the results written
+     */
+    int instrument (final List <Input> inputs) throws IOException {
+        try {
+            for (final Input input : inputs) {
+                __seedReflection (input);
+            }
+
+            __seedMissingSuperClasses ();
+
+            for (final Input input : inputs) {
+                __process (input);
+            }
+
+            __writeManifest ();
+
+        } finally {
+            __closeAll (inputs);
+        }
+
+        __log.info (
+            "%d classes, %d modified, %d failed",
+            __classCount, __modifiedCount, __failedCount
+        );
+
+        return __failedCount;
+    }
+
+
+    private static void __closeAll (final List <Input> inputs) throws IOException {
+        IOException failure = null;
+        for (final Input input : inputs) {
+            try {
+                input.close ();
+
+            } catch (final IOException ioe) {
+                if (failure == null) {
+                    failure = ioe;
+                } else {
+                    failure.addSuppressed (ioe);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    //
+
+    public static void main (final String [] args) {
+        final Path outputDir = __getOutputDirOrDie ();
+        final List <Input> inputs = __getInputsOrDie (args);
+        if (inputs.isEmpty ()) {
+            __die (null, "nothing to instrument, specify jar files or "+ PROP_JRT);
+        }
+
+        final DiSL disl = __getDislOrDie ();
+        final ForkJoinPool pool = new ForkJoinPool (Integer.getInteger (
+            PROP_PARALLELISM, Runtime.getRuntime ().availableProcessors ()
+        ));
+
+        int failedCount = 0;
+        try {
+            failedCount = new OfflineInstrumenter (disl, pool, outputDir).instrument (inputs);
+
+        } catch (final IOException ioe) {
+            __die (ioe, "failed to write instrumented classes");
+        }
+
+        pool.shutdown ();
+        disl.terminate ();
+
+        System.exit ((failedCount > 0) ? 1 : 0);
+    }
+
+
+    private static Path __getOutputDirOrDie () {
+        final String value = System.getProperty (PROP_OUTPUT, "").trim ();
+        if (value.isEmpty ()) {
+            __die (null, "no output directory, check "+ PROP_OUTPUT);
+        }
+
+        try {
+            return Files.createDirectories (Paths.get (value));
+
+        } catch (final Exception e) {
+            __die (e, "failed to create output directory");
+            throw new AssertionError ("unreachable");
+        }
+    }
+
+
+    private static List <Input> __getInputsOrDie (final String [] args) {
+        try {
+            return openInputs (args, System.getProperty (PROP_JRT, "").trim ());
+
+        } catch (final Exception e) {
+            __die (e, "failed to open input");
+            throw new AssertionError ("unreachable");
+        }
+    }
+
+
+    /**
+     * Opens the inputs to instrument: the given jar files, followed by the
+     * given JDK modules. The value {@code all} selects all modules of the
+     * running JDK.
+     *
+     * @param jars
+     *        the paths of the jar files to instrument
+     * @param modules
+     *        comma-separated names of JDK modules, may be empty
+     * @throws IOException
+     *         if any of the inputs could not be opened
+     */
+    static List <Input> openInputs (
+        final String [] jars, final String modules
+    ) throws IOException {
+        final List <Input> result = new ArrayList <> ();
+
+        try {
+            for (final String jar : jars) {
+                result.add (new JarInput (Paths.get (jar)));
+            }
+
+            if (!modules.isEmpty ()) {
+                final FileSystem jrt = FileSystems.getFileSystem (URI.create ("jrt:/"));
+                final Path root = jrt.getPath ("/modules");
+
+                final List <String> names;
+                if ("all".equals (modules)) {
+                    try (final Stream <Path> paths = Files.list (root)) {
+                        names = paths.map (p -> p.getFileName ().toString ())
+                            .sorted ().collect (Collectors.toList ());
+                    }
+
+                } else {
+                    names = new ArrayList <> ();
+                    Collections.addAll (names, modules.split ("\\s*,\\s*"));
+                }
+
+                for (final String name : names) {
+                    final Path moduleRoot = root.resolve (name);
+                    if (!Files.isDirectory (moduleRoot)) {
+                        throw new NoSuchFileException (name, null, "no such module");
+                    }
+
+                    result.add (new ModuleInput (moduleRoot));
+                }
+            }
+
+        } catch (final IOException | RuntimeException e) {
+            try {
+                __closeAll (result);
+            } catch (final IOException ioe) {
+                e.addSuppressed (ioe);
+            }
+
+            throw e;
+        }
+
+        return result;
+    }
+
+
+    private static DiSL __getDislOrDie () {
+        try {
+            return DiSL.init ();
+
+        } catch (final Exception e) {
+            __die (e, "failed to initialize DiSL");
+            throw new AssertionError ("unreachable");
+        }
+    }
+
+
+    private static void __die (final Exception e, final String message) {
+        __logExceptionChain (e, 3);
+        __log.error (message);
+        System.exit (1);
+    }
+
+
+    private static void __logExceptionChain (final Throwable exception, final int limit) {
+        if (exception != null && limit > 0) {
+            __logExceptionChain (exception.getCause (), limit - 1);
+            __log.error (exception.getMessage ());
+        }
+    }
+
+}
@@ -31,6 +31,10 @@ public final class Protocol {
      * <code>ERROR = 3;</code>
      */
     ERROR(3),
+    /**
+     * <code>CLASS_BYTES_REQUIRED = 4;</code>
+     */
+    CLASS_BYTES_REQUIRED(4),
     UNRECOGNIZED(-1),
     ;
 
@@ -46,6 +50,10 @@ public final class Protocol {
      * <code>ERROR = 3;</code>
      */
     public static final int ERROR_VALUE = 3;
+    /**
+     * <code>CLASS_BYTES_REQUIRED = 4;</code>
+     */
+    public static final int CLASS_BYTES_REQUIRED_VALUE = 4;
 
 
     public final int getNumber() {
@@ -75,6 +83,7 @@ public final class Protocol {
         case 0: return CLASS_UNMODIFIED;
         case 1: return CLASS_MODIFIED;
         case 3: return ERROR;
+        case 4: return CLASS_BYTES_REQUIRED;
         default: return null;
       }
     }
@@ -154,6 +163,126 @@ public final class Protocol {
      * @return The classBytes.
      */
     com.google.protobuf.ByteString getClassBytes();
+
+    /**
+     * <pre>
+     * Identifies a pipelined request. Responses to pipelined requests carry
+     * the same identifier and may be sent in any order. Zero means that the
+     * request is not pipelined, and that the response follows immediately.
+     * </pre>
+     *
+     * <code>int32 requestId = 4;</code>
+     * @return The requestId.
+     */
+    int getRequestId();
+
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    java.util.List<ch.usi.dag.dislserver.Protocol.InstrumentClassRequest> 
+        getBatchList();
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    ch.usi.dag.dislserver.Protocol.InstrumentClassRequest getBatch(int index);
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    int getBatchCount();
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    java.util.List<? extends ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder> 
+        getBatchOrBuilderList();
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder getBatchOrBuilder(
+        int index);
+
+    /**
+     * <pre>
+     * Path to a shared memory file set up by the client. If present, the
+     * other fields are ignored, and the server maps the file and exchanges
+     * all subsequent messages on the connection through the ring buffers in
+     * the file. The server responds with CLASS_UNMODIFIED if it has attached
+     * to the file, or with ERROR if the client should keep using the socket.
+     * </pre>
+     *
+     * <code>string sharedMemory = 6;</code>
+     * @return The sharedMemory.
+     */
+    java.lang.String getSharedMemory();
+    /**
+     * <pre>
+     * Path to a shared memory file set up by the client. If present, the
+     * other fields are ignored, and the server maps the file and exchanges
+     * all subsequent messages on the connection through the ring buffers in
+     * the file. The server responds with CLASS_UNMODIFIED if it has attached
+     * to the file, or with ERROR if the client should keep using the socket.
+     * </pre>
+     *
+     * <code>string sharedMemory = 6;</code>
+     * @return The bytes for sharedMemory.
+     */
+    com.google.protobuf.ByteString
+        getSharedMemoryBytes();
+
+    /**
+     * <pre>
+     * Requests a summary of the classes the server may instrument. If set,
+     * the other fields are ignored, and the server responds with a summary
+     * in the classFilter field of a CLASS_UNMODIFIED response.
+     * </pre>
+     *
+     * <code>bool classFilter = 7;</code>
+     * @return The classFilter.
+     */
+    boolean getClassFilter();
+
+    /**
+     * <pre>
+     * The first 16 bytes of the SHA-256 digest of the class bytes. If present
+     * without the class bytes, the server responds with a cached response for
+     * a class with the same digest, with CLASS_UNMODIFIED if it does not need
+     * the class bytes to decide that the class is not instrumented, or with
+     * CLASS_BYTES_REQUIRED if the client needs to send the class bytes.
+     * </pre>
+     *
+     * <code>bytes classDigest = 8;</code>
+     * @return The classDigest.
+     */
+    com.google.protobuf.ByteString getClassDigest();
   }
   /**
    * Protobuf type {@code InstrumentClassRequest}
@@ -170,6 +299,9 @@ public final class Protocol {
     private InstrumentClassRequest() {
       className_ = "";
       classBytes_ = com.google.protobuf.ByteString.EMPTY;
+      batch_ = java.util.Collections.emptyList();
+      sharedMemory_ = "";
+      classDigest_ = com.google.protobuf.ByteString.EMPTY;
     }
 
     @java.lang.Override
@@ -192,6 +324,7 @@ public final class Protocol {
       if (extensionRegistry == null) {
         throw new java.lang.NullPointerException();
       }
+      int mutable_bitField0_ = 0;
       com.google.protobuf.UnknownFieldSet.Builder unknownFields =
           com.google.protobuf.UnknownFieldSet.newBuilder();
       try {
@@ -218,6 +351,36 @@ public final class Protocol {
               classBytes_ = input.readBytes();
               break;
             }
+            case 32: {
+
+              requestId_ = input.readInt32();
+              break;
+            }
+            case 42: {
+              if (!((mutable_bitField0_ & 0x00000001) != 0)) {
+                batch_ = new java.util.ArrayList<ch.usi.dag.dislserver.Protocol.InstrumentClassRequest>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              batch_.add(
+                  input.readMessage(ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.parser(), extensionRegistry));
+              break;
+            }
+            case 50: {
+              java.lang.String s = input.readStringRequireUtf8();
+
+              sharedMemory_ = s;
+              break;
+            }
+            case 56: {
+
+              classFilter_ = input.readBool();
+              break;
+            }
+            case 66: {
+
+              classDigest_ = input.readBytes();
+              break;
+            }
             default: {
               if (!parseUnknownField(
                   input, unknownFields, extensionRegistry, tag)) {
@@ -233,6 +396,9 @@ public final class Protocol {
         throw new com.google.protobuf.InvalidProtocolBufferException(
             e).setUnfinishedMessage(this);
       } finally {
+        if (((mutable_bitField0_ & 0x00000001) != 0)) {
+          batch_ = java.util.Collections.unmodifiableList(batch_);
+        }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
       }
@@ -306,6 +472,173 @@ public final class Protocol {
       return classBytes_;
     }
 
+    public static final int REQUESTID_FIELD_NUMBER = 4;
+    private int requestId_;
+    /**
+     * <pre>
+     * Identifies a pipelined request. Responses to pipelined requests carry
+     * the same identifier and may be sent in any order. Zero means that the
+     * request is not pipelined, and that the response follows immediately.
+     * </pre>
+     *
+     * <code>int32 requestId = 4;</code>
+     * @return The requestId.
+     */
+    public int getRequestId() {
+      return requestId_;
+    }
+
+    public static final int BATCH_FIELD_NUMBER = 5;
+    private java.util.List<ch.usi.dag.dislserver.Protocol.InstrumentClassRequest> batch_;
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    public java.util.List<ch.usi.dag.dislserver.Protocol.InstrumentClassRequest> getBatchList() {
+      return batch_;
+    }
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    public java.util.List<? extends ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder> 
+        getBatchOrBuilderList() {
+      return batch_;
+    }
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    public int getBatchCount() {
+      return batch_.size();
+    }
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    public ch.usi.dag.dislserver.Protocol.InstrumentClassRequest getBatch(int index) {
+      return batch_.get(index);
+    }
+    /**
+     * <pre>
+     * Requests submitted together as a batch. If present, the other fields
+     * of the enclosing message are ignored, and each entry is answered by
+     * a separate response identified by the entry request identifier.
+     * </pre>
+     *
+     * <code>repeated .InstrumentClassRequest batch = 5;</code>
+     */
+    public ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder getBatchOrBuilder(
+        int index) {
+      return batch_.get(index);
+    }
+
+    public static final int SHAREDMEMORY_FIELD_NUMBER = 6;
+    private volatile java.lang.Object sharedMemory_;
+    /**
+     * <pre>
+     * Path to a shared memory file set up by the client. If present, the
+     * other fields are ignored, and the server maps the file and exchanges
+     * all subsequent messages on the connection through the ring buffers in
+     * the file. The server responds with CLASS_UNMODIFIED if it has attached
+     * to the file, or with ERROR if the client should keep using the socket.
+     * </pre>
+     *
+     * <code>string sharedMemory = 6;</code>
+     * @return The sharedMemory.
+     */
+    public java.lang.String getSharedMemory() {
+      java.lang.Object ref = sharedMemory_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        sharedMemory_ = s;
+        return s;
+      }
+    }
+    /**
+     * <pre>
+     * Path to a shared memory file set up by the client. If present, the
+     * other fields are ignored, and the server maps the file and exchanges
+     * all subsequent messages on the connection through the ring buffers in
+     * the file. The server responds with CLASS_UNMODIFIED if it has attached
+     * to the file, or with ERROR if the client should keep using the socket.
+     * </pre>
+     *
+     * <code>string sharedMemory = 6;</code>
+     * @return The bytes for sharedMemory.
+     */
+    public com.google.protobuf.ByteString
+        getSharedMemoryBytes() {
+      java.lang.Object ref = sharedMemory_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        sharedMemory_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int CLASSFILTER_FIELD_NUMBER = 7;
+    private boolean classFilter_;
+    /**
+     * <pre>
+     * Requests a summary of the classes the server may instrument. If set,
+     * the other fields are ignored, and the server responds with a summary
+     * in the classFilter field of a CLASS_UNMODIFIED response.
+     * </pre>
+     *
+     * <code>bool classFilter = 7;</code>
+     * @return The classFilter.
+     */
+    public boolean getClassFilter() {
+      return classFilter_;
+    }
+
+    public static final int CLASSDIGEST_FIELD_NUMBER = 8;
+    private com.google.protobuf.ByteString classDigest_;
+    /**
+     * <pre>
+     * The first 16 bytes of the SHA-256 digest of the class bytes. If present
+     * without the class bytes, the server responds with a cached response for
+     * a class with the same digest, with CLASS_UNMODIFIED if it does not need
+     * the class bytes to decide that the class is not instrumented, or with
+     * CLASS_BYTES_REQUIRED if the client needs to send the class bytes.
+     * </pre>
+     *
+     * <code>bytes classDigest = 8;</code>
+     * @return The classDigest.
+     */
+    public com.google.protobuf.ByteString getClassDigest() {
+      return classDigest_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -329,6 +662,21 @@ public final class Protocol {
       if (!classBytes_.isEmpty()) {
         output.writeBytes(3, classBytes_);
       }
+      if (requestId_ != 0) {
+        output.writeInt32(4, requestId_);
+      }
+      for (int i = 0; i < batch_.size(); i++) {
+        output.writeMessage(5, batch_.get(i));
+      }
+      if (!getSharedMemoryBytes().isEmpty()) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 6, sharedMemory_);
+      }
+      if (classFilter_ != false) {
+        output.writeBool(7, classFilter_);
+      }
+      if (!classDigest_.isEmpty()) {
+        output.writeBytes(8, classDigest_);
+      }
       unknownFields.writeTo(output);
     }
 
@@ -349,6 +697,25 @@ public final class Protocol {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(3, classBytes_);
       }
+      if (requestId_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(4, requestId_);
+      }
+      for (int i = 0; i < batch_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(5, batch_.get(i));
+      }
+      if (!getSharedMemoryBytes().isEmpty()) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(6, sharedMemory_);
+      }
+      if (classFilter_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(7, classFilter_);
+      }
+      if (!classDigest_.isEmpty()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(8, classDigest_);
+      }
       size += unknownFields.getSerializedSize();
       memoizedSize = size;
       return size;
@@ -370,6 +737,16 @@ public final class Protocol {
           .equals(other.getClassName())) return false;
       if (!getClassBytes()
           .equals(other.getClassBytes())) return false;
+      if (getRequestId()
+          != other.getRequestId()) return false;
+      if (!getBatchList()
+          .equals(other.getBatchList())) return false;
+      if (!getSharedMemory()
+          .equals(other.getSharedMemory())) return false;
+      if (getClassFilter()
+          != other.getClassFilter()) return false;
+      if (!getClassDigest()
+          .equals(other.getClassDigest())) return false;
       if (!unknownFields.equals(other.unknownFields)) return false;
       return true;
     }
@@ -387,6 +764,19 @@ public final class Protocol {
       hash = (53 * hash) + getClassName().hashCode();
       hash = (37 * hash) + CLASSBYTES_FIELD_NUMBER;
       hash = (53 * hash) + getClassBytes().hashCode();
+      hash = (37 * hash) + REQUESTID_FIELD_NUMBER;
+      hash = (53 * hash) + getRequestId();
+      if (getBatchCount() > 0) {
+        hash = (37 * hash) + BATCH_FIELD_NUMBER;
+        hash = (53 * hash) + getBatchList().hashCode();
+      }
+      hash = (37 * hash) + SHAREDMEMORY_FIELD_NUMBER;
+      hash = (53 * hash) + getSharedMemory().hashCode();
+      hash = (37 * hash) + CLASSFILTER_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getClassFilter());
+      hash = (37 * hash) + CLASSDIGEST_FIELD_NUMBER;
+      hash = (53 * hash) + getClassDigest().hashCode();
       hash = (29 * hash) + unknownFields.hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -515,6 +905,7 @@ public final class Protocol {
       private void maybeForceBuilderInitialization() {
         if (com.google.protobuf.GeneratedMessageV3
                 .alwaysUseFieldBuilders) {
+          getBatchFieldBuilder();
         }
       }
       @java.lang.Override
@@ -526,6 +917,20 @@ public final class Protocol {
 
         classBytes_ = com.google.protobuf.ByteString.EMPTY;
 
+        requestId_ = 0;
+
+        if (batchBuilder_ == null) {
+          batch_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          batchBuilder_.clear();
+        }
+        sharedMemory_ = "";
+
+        classFilter_ = false;
+
+        classDigest_ = com.google.protobuf.ByteString.EMPTY;
+
         return this;
       }
 
@@ -552,9 +957,23 @@ public final class Protocol {
       @java.lang.Override
       public ch.usi.dag.dislserver.Protocol.InstrumentClassRequest buildPartial() {
         ch.usi.dag.dislserver.Protocol.InstrumentClassRequest result = new ch.usi.dag.dislserver.Protocol.InstrumentClassRequest(this);
+        int from_bitField0_ = bitField0_;
         result.flags_ = flags_;
         result.className_ = className_;
         result.classBytes_ = classBytes_;
+        result.requestId_ = requestId_;
+        if (batchBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) != 0)) {
+            batch_ = java.util.Collections.unmodifiableList(batch_);
+            bitField0_ = (bitField0_ & ~0x00000001);
+          }
+          result.batch_ = batch_;
+        } else {
+          result.batch_ = batchBuilder_.build();
+        }
+        result.sharedMemory_ = sharedMemory_;
+        result.classFilter_ = classFilter_;
+        result.classDigest_ = classDigest_;
         onBuilt();
         return result;
       }
@@ -613,6 +1032,45 @@ public final class Protocol {
         if (other.getClassBytes() != com.google.protobuf.ByteString.EMPTY) {
           setClassBytes(other.getClassBytes());
         }
+        if (other.getRequestId() != 0) {
+          setRequestId(other.getRequestId());
+        }
+        if (batchBuilder_ == null) {
+          if (!other.batch_.isEmpty()) {
+            if (batch_.isEmpty()) {
+              batch_ = other.batch_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+            } else {
+              ensureBatchIsMutable();
+              batch_.addAll(other.batch_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.batch_.isEmpty()) {
+            if (batchBuilder_.isEmpty()) {
+              batchBuilder_.dispose();
+              batchBuilder_ = null;
+              batch_ = other.batch_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+              batchBuilder_ = 
+                com.google.protobuf.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                   getBatchFieldBuilder() : null;
+            } else {
+              batchBuilder_.addAllMessages(other.batch_);
+            }
+          }
+        }
+        if (!other.getSharedMemory().isEmpty()) {
+          sharedMemory_ = other.sharedMemory_;
+          onChanged();
+        }
+        if (other.getClassFilter() != false) {
+          setClassFilter(other.getClassFilter());
+        }
+        if (other.getClassDigest() != com.google.protobuf.ByteString.EMPTY) {
+          setClassDigest(other.getClassDigest());
+        }
         this.mergeUnknownFields(other.unknownFields);
         onChanged();
         return this;
@@ -641,6 +1099,7 @@ public final class Protocol {
         }
         return this;
       }
+      private int bitField0_;
 
       private int flags_ ;
       /**
@@ -651,132 +1110,2340 @@ public final class Protocol {
         return flags_;
       }
       /**
-       * <code>int32 flags = 1;</code>
-       * @param value The flags to set.
+       * <code>int32 flags = 1;</code>
+       * @param value The flags to set.
+       * @return This builder for chaining.
+       */
+      public Builder setFlags(int value) {
+        
+        flags_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>int32 flags = 1;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearFlags() {
+        
+        flags_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private java.lang.Object className_ = "";
+      /**
+       * <code>string className = 2;</code>
+       * @return The className.
+       */
+      public java.lang.String getClassName() {
+        java.lang.Object ref = className_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          className_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>string className = 2;</code>
+       * @return The bytes for className.
+       */
+      public com.google.protobuf.ByteString
+          getClassNameBytes() {
+        java.lang.Object ref = className_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          className_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>string className = 2;</code>
+       * @param value The className to set.
+       * @return This builder for chaining.
+       */
+      public Builder setClassName(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        className_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>string className = 2;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearClassName() {
+        
+        className_ = getDefaultInstance().getClassName();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>string className = 2;</code>
+       * @param value The bytes for className to set.
+       * @return This builder for chaining.
+       */
+      public Builder setClassNameBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        
+        className_ = value;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString classBytes_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>bytes classBytes = 3;</code>
+       * @return The classBytes.
+       */
+      public com.google.protobuf.ByteString getClassBytes() {
+        return classBytes_;
+      }
+      /**
+       * <code>bytes classBytes = 3;</code>
+       * @param value The classBytes to set.
+       * @return This builder for chaining.
+       */
+      public Builder setClassBytes(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        classBytes_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>bytes classBytes = 3;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearClassBytes() {
+        
+        classBytes_ = getDefaultInstance().getClassBytes();
+        onChanged();
+        return this;
+      }
+
+      private int requestId_ ;
+      /**
+       * <pre>
+       * Identifies a pipelined request. Responses to pipelined requests carry
+       * the same identifier and may be sent in any order. Zero means that the
+       * request is not pipelined, and that the response follows immediately.
+       * </pre>
+       *
+       * <code>int32 requestId = 4;</code>
+       * @return The requestId.
+       */
+      public int getRequestId() {
+        return requestId_;
+      }
+      /**
+       * <pre>
+       * Identifies a pipelined request. Responses to pipelined requests carry
+       * the same identifier and may be sent in any order. Zero means that the
+       * request is not pipelined, and that the response follows immediately.
+       * </pre>
+       *
+       * <code>int32 requestId = 4;</code>
+       * @param value The requestId to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRequestId(int value) {
+        
+        requestId_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Identifies a pipelined request. Responses to pipelined requests carry
+       * the same identifier and may be sent in any order. Zero means that the
+       * request is not pipelined, and that the response follows immediately.
+       * </pre>
+       *
+       * <code>int32 requestId = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearRequestId() {
+        
+        requestId_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<ch.usi.dag.dislserver.Protocol.InstrumentClassRequest> batch_ =
+        java.util.Collections.emptyList();
+      private void ensureBatchIsMutable() {
+        if (!((bitField0_ & 0x00000001) != 0)) {
+          batch_ = new java.util.ArrayList<ch.usi.dag.dislserver.Protocol.InstrumentClassRequest>(batch_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          ch.usi.dag.dislserver.Protocol.InstrumentClassRequest, ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder, ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder> batchBuilder_;
+
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public java.util.List<ch.usi.dag.dislserver.Protocol.InstrumentClassRequest> getBatchList() {
+        if (batchBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(batch_);
+        } else {
+          return batchBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public int getBatchCount() {
+        if (batchBuilder_ == null) {
+          return batch_.size();
+        } else {
+          return batchBuilder_.getCount();
+        }
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public ch.usi.dag.dislserver.Protocol.InstrumentClassRequest getBatch(int index) {
+        if (batchBuilder_ == null) {
+          return batch_.get(index);
+        } else {
+          return batchBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder setBatch(
+          int index, ch.usi.dag.dislserver.Protocol.InstrumentClassRequest value) {
+        if (batchBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBatchIsMutable();
+          batch_.set(index, value);
+          onChanged();
+        } else {
+          batchBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder setBatch(
+          int index, ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder builderForValue) {
+        if (batchBuilder_ == null) {
+          ensureBatchIsMutable();
+          batch_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          batchBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder addBatch(ch.usi.dag.dislserver.Protocol.InstrumentClassRequest value) {
+        if (batchBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBatchIsMutable();
+          batch_.add(value);
+          onChanged();
+        } else {
+          batchBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder addBatch(
+          int index, ch.usi.dag.dislserver.Protocol.InstrumentClassRequest value) {
+        if (batchBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBatchIsMutable();
+          batch_.add(index, value);
+          onChanged();
+        } else {
+          batchBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder addBatch(
+          ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder builderForValue) {
+        if (batchBuilder_ == null) {
+          ensureBatchIsMutable();
+          batch_.add(builderForValue.build());
+          onChanged();
+        } else {
+          batchBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder addBatch(
+          int index, ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder builderForValue) {
+        if (batchBuilder_ == null) {
+          ensureBatchIsMutable();
+          batch_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          batchBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder addAllBatch(
+          java.lang.Iterable<? extends ch.usi.dag.dislserver.Protocol.InstrumentClassRequest> values) {
+        if (batchBuilder_ == null) {
+          ensureBatchIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, batch_);
+          onChanged();
+        } else {
+          batchBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder clearBatch() {
+        if (batchBuilder_ == null) {
+          batch_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+          onChanged();
+        } else {
+          batchBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public Builder removeBatch(int index) {
+        if (batchBuilder_ == null) {
+          ensureBatchIsMutable();
+          batch_.remove(index);
+          onChanged();
+        } else {
+          batchBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder getBatchBuilder(
+          int index) {
+        return getBatchFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder getBatchOrBuilder(
+          int index) {
+        if (batchBuilder_ == null) {
+          return batch_.get(index);  } else {
+          return batchBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public java.util.List<? extends ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder> 
+           getBatchOrBuilderList() {
+        if (batchBuilder_ != null) {
+          return batchBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(batch_);
+        }
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder addBatchBuilder() {
+        return getBatchFieldBuilder().addBuilder(
+            ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.getDefaultInstance());
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder addBatchBuilder(
+          int index) {
+        return getBatchFieldBuilder().addBuilder(
+            index, ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.getDefaultInstance());
+      }
+      /**
+       * <pre>
+       * Requests submitted together as a batch. If present, the other fields
+       * of the enclosing message are ignored, and each entry is answered by
+       * a separate response identified by the entry request identifier.
+       * </pre>
+       *
+       * <code>repeated .InstrumentClassRequest batch = 5;</code>
+       */
+      public java.util.List<ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder> 
+           getBatchBuilderList() {
+        return getBatchFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          ch.usi.dag.dislserver.Protocol.InstrumentClassRequest, ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder, ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder> 
+          getBatchFieldBuilder() {
+        if (batchBuilder_ == null) {
+          batchBuilder_ = new com.google.protobuf.RepeatedFieldBuilderV3<
+              ch.usi.dag.dislserver.Protocol.InstrumentClassRequest, ch.usi.dag.dislserver.Protocol.InstrumentClassRequest.Builder, ch.usi.dag.dislserver.Protocol.InstrumentClassRequestOrBuilder>(
+                  batch_,
+                  ((bitField0_ & 0x00000001) != 0),
+                  getParentForChildren(),
+                  isClean());
+          batch_ = null;
+        }
+        return batchBuilder_;
+      }
+
+      private java.lang.Object sharedMemory_ = "";
+      /**
+       * <pre>
+       * Path to a shared memory file set up by the client. If present, the
+       * other fields are ignored, and the server maps the file and exchanges
+       * all subsequent messages on the connection through the ring buffers in
+       * the file. The server responds with CLASS_UNMODIFIED if it has attached
+       * to the file, or with ERROR if the client should keep using the socket.
+       * </pre>
+       *
+       * <code>string sharedMemory = 6;</code>
+       * @return The sharedMemory.
+       */
+      public java.lang.String getSharedMemory() {
+        java.lang.Object ref = sharedMemory_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          sharedMemory_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <pre>
+       * Path to a shared memory file set up by the client. If present, the
+       * other fields are ignored, and the server maps the file and exchanges
+       * all subsequent messages on the connection through the ring buffers in
+       * the file. The server responds with CLASS_UNMODIFIED if it has attached
+       * to the file, or with ERROR if the client should keep using the socket.
+       * </pre>
+       *
+       * <code>string sharedMemory = 6;</code>
+       * @return The bytes for sharedMemory.
+       */
+      public com.google.protobuf.ByteString
+          getSharedMemoryBytes() {
+        java.lang.Object ref = sharedMemory_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          sharedMemory_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <pre>
+       * Path to a shared memory file set up by the client. If present, the
+       * other fields are ignored, and the server maps the file and exchanges
+       * all subsequent messages on the connection through the ring buffers in
+       * the file. The server responds with CLASS_UNMODIFIED if it has attached
+       * to the file, or with ERROR if the client should keep using the socket.
+       * </pre>
+       *
+       * <code>string sharedMemory = 6;</code>
+       * @param value The sharedMemory to set.
+       * @return This builder for chaining.
+       */
+      public Builder setSharedMemory(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        sharedMemory_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Path to a shared memory file set up by the client. If present, the
+       * other fields are ignored, and the server maps the file and exchanges
+       * all subsequent messages on the connection through the ring buffers in
+       * the file. The server responds with CLASS_UNMODIFIED if it has attached
+       * to the file, or with ERROR if the client should keep using the socket.
+       * </pre>
+       *
+       * <code>string sharedMemory = 6;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearSharedMemory() {
+        
+        sharedMemory_ = getDefaultInstance().getSharedMemory();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Path to a shared memory file set up by the client. If present, the
+       * other fields are ignored, and the server maps the file and exchanges
+       * all subsequent messages on the connection through the ring buffers in
+       * the file. The server responds with CLASS_UNMODIFIED if it has attached
+       * to the file, or with ERROR if the client should keep using the socket.
+       * </pre>
+       *
+       * <code>string sharedMemory = 6;</code>
+       * @param value The bytes for sharedMemory to set.
+       * @return This builder for chaining.
+       */
+      public Builder setSharedMemoryBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        
+        sharedMemory_ = value;
+        onChanged();
+        return this;
+      }
+
+      private boolean classFilter_ ;
+      /**
+       * <pre>
+       * Requests a summary of the classes the server may instrument. If set,
+       * the other fields are ignored, and the server responds with a summary
+       * in the classFilter field of a CLASS_UNMODIFIED response.
+       * </pre>
+       *
+       * <code>bool classFilter = 7;</code>
+       * @return The classFilter.
+       */
+      public boolean getClassFilter() {
+        return classFilter_;
+      }
+      /**
+       * <pre>
+       * Requests a summary of the classes the server may instrument. If set,
+       * the other fields are ignored, and the server responds with a summary
+       * in the classFilter field of a CLASS_UNMODIFIED response.
+       * </pre>
+       *
+       * <code>bool classFilter = 7;</code>
+       * @param value The classFilter to set.
+       * @return This builder for chaining.
+       */
+      public Builder setClassFilter(boolean value) {
+        
+        classFilter_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * Requests a summary of the classes the server may instrument. If set,
+       * the other fields are ignored, and the server responds with a summary
+       * in the classFilter field of a CLASS_UNMODIFIED response.
+       * </pre>
+       *
+       * <code>bool classFilter = 7;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearClassFilter() {
+        
+        classFilter_ = false;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString classDigest_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <pre>
+       * The first 16 bytes of the SHA-256 digest of the class bytes. If present
+       * without the class bytes, the server responds with a cached response for
+       * a class with the same digest, with CLASS_UNMODIFIED if it does not need
+       * the class bytes to decide that the class is not instrumented, or with
+       * CLASS_BYTES_REQUIRED if the client needs to send the class bytes.
+       * </pre>
+       *
+       * <code>bytes classDigest = 8;</code>
+       * @return The classDigest.
+       */
+      public com.google.protobuf.ByteString getClassDigest() {
+        return classDigest_;
+      }
+      /**
+       * <pre>
+       * The first 16 bytes of the SHA-256 digest of the class bytes. If present
+       * without the class bytes, the server responds with a cached response for
+       * a class with the same digest, with CLASS_UNMODIFIED if it does not need
+       * the class bytes to decide that the class is not instrumented, or with
+       * CLASS_BYTES_REQUIRED if the client needs to send the class bytes.
+       * </pre>
+       *
+       * <code>bytes classDigest = 8;</code>
+       * @param value The classDigest to set.
+       * @return This builder for chaining.
+       */
+      public Builder setClassDigest(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  
+        classDigest_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * The first 16 bytes of the SHA-256 digest of the class bytes. If present
+       * without the class bytes, the server responds with a cached response for
+       * a class with the same digest, with CLASS_UNMODIFIED if it does not need
+       * the class bytes to decide that the class is not instrumented, or with
+       * CLASS_BYTES_REQUIRED if the client needs to send the class bytes.
+       * </pre>
+       *
+       * <code>bytes classDigest = 8;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearClassDigest() {
+        
+        classDigest_ = getDefaultInstance().getClassDigest();
+        onChanged();
+        return this;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:InstrumentClassRequest)
+    }
+
+    // @@protoc_insertion_point(class_scope:InstrumentClassRequest)
+    private static final ch.usi.dag.dislserver.Protocol.InstrumentClassRequest DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new ch.usi.dag.dislserver.Protocol.InstrumentClassRequest();
+    }
+
+    public static ch.usi.dag.dislserver.Protocol.InstrumentClassRequest getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    private static final com.google.protobuf.Parser<InstrumentClassRequest>
+        PARSER = new com.google.protobuf.AbstractParser<InstrumentClassRequest>() {
+      @java.lang.Override
+      public InstrumentClassRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new InstrumentClassRequest(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<InstrumentClassRequest> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<InstrumentClassRequest> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public ch.usi.dag.dislserver.Protocol.InstrumentClassRequest getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
+  public interface ClassFilterOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:ClassFilter)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>bool matchAny = 1;</code>
+     * @return The matchAny.
+     */
+    boolean getMatchAny();
+
+    /**
+     * <code>repeated string names = 2;</code>
+     * @return A list containing the names.
+     */
+    java.util.List<java.lang.String>
+        getNamesList();
+    /**
+     * <code>repeated string names = 2;</code>
+     * @return The count of names.
+     */
+    int getNamesCount();
+    /**
+     * <code>repeated string names = 2;</code>
+     * @param index The index of the element to return.
+     * @return The names at the given index.
+     */
+    java.lang.String getNames(int index);
+    /**
+     * <code>repeated string names = 2;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the names at the given index.
+     */
+    com.google.protobuf.ByteString
+        getNamesBytes(int index);
+
+    /**
+     * <code>repeated string prefixes = 3;</code>
+     * @return A list containing the prefixes.
+     */
+    java.util.List<java.lang.String>
+        getPrefixesList();
+    /**
+     * <code>repeated string prefixes = 3;</code>
+     * @return The count of prefixes.
+     */
+    int getPrefixesCount();
+    /**
+     * <code>repeated string prefixes = 3;</code>
+     * @param index The index of the element to return.
+     * @return The prefixes at the given index.
+     */
+    java.lang.String getPrefixes(int index);
+    /**
+     * <code>repeated string prefixes = 3;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the prefixes at the given index.
+     */
+    com.google.protobuf.ByteString
+        getPrefixesBytes(int index);
+
+    /**
+     * <code>repeated string suffixes = 4;</code>
+     * @return A list containing the suffixes.
+     */
+    java.util.List<java.lang.String>
+        getSuffixesList();
+    /**
+     * <code>repeated string suffixes = 4;</code>
+     * @return The count of suffixes.
+     */
+    int getSuffixesCount();
+    /**
+     * <code>repeated string suffixes = 4;</code>
+     * @param index The index of the element to return.
+     * @return The suffixes at the given index.
+     */
+    java.lang.String getSuffixes(int index);
+    /**
+     * <code>repeated string suffixes = 4;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the suffixes at the given index.
+     */
+    com.google.protobuf.ByteString
+        getSuffixesBytes(int index);
+
+    /**
+     * <code>repeated string excludedNames = 5;</code>
+     * @return A list containing the excludedNames.
+     */
+    java.util.List<java.lang.String>
+        getExcludedNamesList();
+    /**
+     * <code>repeated string excludedNames = 5;</code>
+     * @return The count of excludedNames.
+     */
+    int getExcludedNamesCount();
+    /**
+     * <code>repeated string excludedNames = 5;</code>
+     * @param index The index of the element to return.
+     * @return The excludedNames at the given index.
+     */
+    java.lang.String getExcludedNames(int index);
+    /**
+     * <code>repeated string excludedNames = 5;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the excludedNames at the given index.
+     */
+    com.google.protobuf.ByteString
+        getExcludedNamesBytes(int index);
+
+    /**
+     * <code>repeated string excludedPrefixes = 6;</code>
+     * @return A list containing the excludedPrefixes.
+     */
+    java.util.List<java.lang.String>
+        getExcludedPrefixesList();
+    /**
+     * <code>repeated string excludedPrefixes = 6;</code>
+     * @return The count of excludedPrefixes.
+     */
+    int getExcludedPrefixesCount();
+    /**
+     * <code>repeated string excludedPrefixes = 6;</code>
+     * @param index The index of the element to return.
+     * @return The excludedPrefixes at the given index.
+     */
+    java.lang.String getExcludedPrefixes(int index);
+    /**
+     * <code>repeated string excludedPrefixes = 6;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the excludedPrefixes at the given index.
+     */
+    com.google.protobuf.ByteString
+        getExcludedPrefixesBytes(int index);
+  }
+  /**
+   * <pre>
+   * Summarizes the internal names of the classes that the server may
+   * instrument. The server leaves any other class unmodified, so the client
+   * does not need to send it. A class may be instrumented if it is not
+   * excluded, and if it matches any of the names, prefixes, or suffixes, or
+   * if matchAny is set.
+   * </pre>
+   *
+   * Protobuf type {@code ClassFilter}
+   */
+  public  static final class ClassFilter extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:ClassFilter)
+      ClassFilterOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use ClassFilter.newBuilder() to construct.
+    private ClassFilter(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private ClassFilter() {
+      names_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      prefixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      suffixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      excludedNames_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      excludedPrefixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+    }
+
+    @java.lang.Override
+    @SuppressWarnings({"unused"})
+    protected java.lang.Object newInstance(
+        UnusedPrivateParameter unused) {
+      return new ClassFilter();
+    }
+
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private ClassFilter(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 8: {
+
+              matchAny_ = input.readBool();
+              break;
+            }
+            case 18: {
+              java.lang.String s = input.readStringRequireUtf8();
+              if (!((mutable_bitField0_ & 0x00000001) != 0)) {
+                names_ = new com.google.protobuf.LazyStringArrayList();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              names_.add(s);
+              break;
+            }
+            case 26: {
+              java.lang.String s = input.readStringRequireUtf8();
+              if (!((mutable_bitField0_ & 0x00000002) != 0)) {
+                prefixes_ = new com.google.protobuf.LazyStringArrayList();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              prefixes_.add(s);
+              break;
+            }
+            case 34: {
+              java.lang.String s = input.readStringRequireUtf8();
+              if (!((mutable_bitField0_ & 0x00000004) != 0)) {
+                suffixes_ = new com.google.protobuf.LazyStringArrayList();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              suffixes_.add(s);
+              break;
+            }
+            case 42: {
+              java.lang.String s = input.readStringRequireUtf8();
+              if (!((mutable_bitField0_ & 0x00000008) != 0)) {
+                excludedNames_ = new com.google.protobuf.LazyStringArrayList();
+                mutable_bitField0_ |= 0x00000008;
+              }
+              excludedNames_.add(s);
+              break;
+            }
+            case 50: {
+              java.lang.String s = input.readStringRequireUtf8();
+              if (!((mutable_bitField0_ & 0x00000010) != 0)) {
+                excludedPrefixes_ = new com.google.protobuf.LazyStringArrayList();
+                mutable_bitField0_ |= 0x00000010;
+              }
+              excludedPrefixes_.add(s);
+              break;
+            }
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) != 0)) {
+          names_ = names_.getUnmodifiableView();
+        }
+        if (((mutable_bitField0_ & 0x00000002) != 0)) {
+          prefixes_ = prefixes_.getUnmodifiableView();
+        }
+        if (((mutable_bitField0_ & 0x00000004) != 0)) {
+          suffixes_ = suffixes_.getUnmodifiableView();
+        }
+        if (((mutable_bitField0_ & 0x00000008) != 0)) {
+          excludedNames_ = excludedNames_.getUnmodifiableView();
+        }
+        if (((mutable_bitField0_ & 0x00000010) != 0)) {
+          excludedPrefixes_ = excludedPrefixes_.getUnmodifiableView();
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return ch.usi.dag.dislserver.Protocol.internal_static_ClassFilter_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return ch.usi.dag.dislserver.Protocol.internal_static_ClassFilter_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              ch.usi.dag.dislserver.Protocol.ClassFilter.class, ch.usi.dag.dislserver.Protocol.ClassFilter.Builder.class);
+    }
+
+    public static final int MATCHANY_FIELD_NUMBER = 1;
+    private boolean matchAny_;
+    /**
+     * <code>bool matchAny = 1;</code>
+     * @return The matchAny.
+     */
+    public boolean getMatchAny() {
+      return matchAny_;
+    }
+
+    public static final int NAMES_FIELD_NUMBER = 2;
+    private com.google.protobuf.LazyStringList names_;
+    /**
+     * <code>repeated string names = 2;</code>
+     * @return A list containing the names.
+     */
+    public com.google.protobuf.ProtocolStringList
+        getNamesList() {
+      return names_;
+    }
+    /**
+     * <code>repeated string names = 2;</code>
+     * @return The count of names.
+     */
+    public int getNamesCount() {
+      return names_.size();
+    }
+    /**
+     * <code>repeated string names = 2;</code>
+     * @param index The index of the element to return.
+     * @return The names at the given index.
+     */
+    public java.lang.String getNames(int index) {
+      return names_.get(index);
+    }
+    /**
+     * <code>repeated string names = 2;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the names at the given index.
+     */
+    public com.google.protobuf.ByteString
+        getNamesBytes(int index) {
+      return names_.getByteString(index);
+    }
+
+    public static final int PREFIXES_FIELD_NUMBER = 3;
+    private com.google.protobuf.LazyStringList prefixes_;
+    /**
+     * <code>repeated string prefixes = 3;</code>
+     * @return A list containing the prefixes.
+     */
+    public com.google.protobuf.ProtocolStringList
+        getPrefixesList() {
+      return prefixes_;
+    }
+    /**
+     * <code>repeated string prefixes = 3;</code>
+     * @return The count of prefixes.
+     */
+    public int getPrefixesCount() {
+      return prefixes_.size();
+    }
+    /**
+     * <code>repeated string prefixes = 3;</code>
+     * @param index The index of the element to return.
+     * @return The prefixes at the given index.
+     */
+    public java.lang.String getPrefixes(int index) {
+      return prefixes_.get(index);
+    }
+    /**
+     * <code>repeated string prefixes = 3;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the prefixes at the given index.
+     */
+    public com.google.protobuf.ByteString
+        getPrefixesBytes(int index) {
+      return prefixes_.getByteString(index);
+    }
+
+    public static final int SUFFIXES_FIELD_NUMBER = 4;
+    private com.google.protobuf.LazyStringList suffixes_;
+    /**
+     * <code>repeated string suffixes = 4;</code>
+     * @return A list containing the suffixes.
+     */
+    public com.google.protobuf.ProtocolStringList
+        getSuffixesList() {
+      return suffixes_;
+    }
+    /**
+     * <code>repeated string suffixes = 4;</code>
+     * @return The count of suffixes.
+     */
+    public int getSuffixesCount() {
+      return suffixes_.size();
+    }
+    /**
+     * <code>repeated string suffixes = 4;</code>
+     * @param index The index of the element to return.
+     * @return The suffixes at the given index.
+     */
+    public java.lang.String getSuffixes(int index) {
+      return suffixes_.get(index);
+    }
+    /**
+     * <code>repeated string suffixes = 4;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the suffixes at the given index.
+     */
+    public com.google.protobuf.ByteString
+        getSuffixesBytes(int index) {
+      return suffixes_.getByteString(index);
+    }
+
+    public static final int EXCLUDEDNAMES_FIELD_NUMBER = 5;
+    private com.google.protobuf.LazyStringList excludedNames_;
+    /**
+     * <code>repeated string excludedNames = 5;</code>
+     * @return A list containing the excludedNames.
+     */
+    public com.google.protobuf.ProtocolStringList
+        getExcludedNamesList() {
+      return excludedNames_;
+    }
+    /**
+     * <code>repeated string excludedNames = 5;</code>
+     * @return The count of excludedNames.
+     */
+    public int getExcludedNamesCount() {
+      return excludedNames_.size();
+    }
+    /**
+     * <code>repeated string excludedNames = 5;</code>
+     * @param index The index of the element to return.
+     * @return The excludedNames at the given index.
+     */
+    public java.lang.String getExcludedNames(int index) {
+      return excludedNames_.get(index);
+    }
+    /**
+     * <code>repeated string excludedNames = 5;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the excludedNames at the given index.
+     */
+    public com.google.protobuf.ByteString
+        getExcludedNamesBytes(int index) {
+      return excludedNames_.getByteString(index);
+    }
+
+    public static final int EXCLUDEDPREFIXES_FIELD_NUMBER = 6;
+    private com.google.protobuf.LazyStringList excludedPrefixes_;
+    /**
+     * <code>repeated string excludedPrefixes = 6;</code>
+     * @return A list containing the excludedPrefixes.
+     */
+    public com.google.protobuf.ProtocolStringList
+        getExcludedPrefixesList() {
+      return excludedPrefixes_;
+    }
+    /**
+     * <code>repeated string excludedPrefixes = 6;</code>
+     * @return The count of excludedPrefixes.
+     */
+    public int getExcludedPrefixesCount() {
+      return excludedPrefixes_.size();
+    }
+    /**
+     * <code>repeated string excludedPrefixes = 6;</code>
+     * @param index The index of the element to return.
+     * @return The excludedPrefixes at the given index.
+     */
+    public java.lang.String getExcludedPrefixes(int index) {
+      return excludedPrefixes_.get(index);
+    }
+    /**
+     * <code>repeated string excludedPrefixes = 6;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the excludedPrefixes at the given index.
+     */
+    public com.google.protobuf.ByteString
+        getExcludedPrefixesBytes(int index) {
+      return excludedPrefixes_.getByteString(index);
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      if (matchAny_ != false) {
+        output.writeBool(1, matchAny_);
+      }
+      for (int i = 0; i < names_.size(); i++) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 2, names_.getRaw(i));
+      }
+      for (int i = 0; i < prefixes_.size(); i++) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 3, prefixes_.getRaw(i));
+      }
+      for (int i = 0; i < suffixes_.size(); i++) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 4, suffixes_.getRaw(i));
+      }
+      for (int i = 0; i < excludedNames_.size(); i++) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 5, excludedNames_.getRaw(i));
+      }
+      for (int i = 0; i < excludedPrefixes_.size(); i++) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 6, excludedPrefixes_.getRaw(i));
+      }
+      unknownFields.writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (matchAny_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(1, matchAny_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < names_.size(); i++) {
+          dataSize += computeStringSizeNoTag(names_.getRaw(i));
+        }
+        size += dataSize;
+        size += 1 * getNamesList().size();
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < prefixes_.size(); i++) {
+          dataSize += computeStringSizeNoTag(prefixes_.getRaw(i));
+        }
+        size += dataSize;
+        size += 1 * getPrefixesList().size();
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < suffixes_.size(); i++) {
+          dataSize += computeStringSizeNoTag(suffixes_.getRaw(i));
+        }
+        size += dataSize;
+        size += 1 * getSuffixesList().size();
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < excludedNames_.size(); i++) {
+          dataSize += computeStringSizeNoTag(excludedNames_.getRaw(i));
+        }
+        size += dataSize;
+        size += 1 * getExcludedNamesList().size();
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < excludedPrefixes_.size(); i++) {
+          dataSize += computeStringSizeNoTag(excludedPrefixes_.getRaw(i));
+        }
+        size += dataSize;
+        size += 1 * getExcludedPrefixesList().size();
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof ch.usi.dag.dislserver.Protocol.ClassFilter)) {
+        return super.equals(obj);
+      }
+      ch.usi.dag.dislserver.Protocol.ClassFilter other = (ch.usi.dag.dislserver.Protocol.ClassFilter) obj;
+
+      if (getMatchAny()
+          != other.getMatchAny()) return false;
+      if (!getNamesList()
+          .equals(other.getNamesList())) return false;
+      if (!getPrefixesList()
+          .equals(other.getPrefixesList())) return false;
+      if (!getSuffixesList()
+          .equals(other.getSuffixesList())) return false;
+      if (!getExcludedNamesList()
+          .equals(other.getExcludedNamesList())) return false;
+      if (!getExcludedPrefixesList()
+          .equals(other.getExcludedPrefixesList())) return false;
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      hash = (37 * hash) + MATCHANY_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getMatchAny());
+      if (getNamesCount() > 0) {
+        hash = (37 * hash) + NAMES_FIELD_NUMBER;
+        hash = (53 * hash) + getNamesList().hashCode();
+      }
+      if (getPrefixesCount() > 0) {
+        hash = (37 * hash) + PREFIXES_FIELD_NUMBER;
+        hash = (53 * hash) + getPrefixesList().hashCode();
+      }
+      if (getSuffixesCount() > 0) {
+        hash = (37 * hash) + SUFFIXES_FIELD_NUMBER;
+        hash = (53 * hash) + getSuffixesList().hashCode();
+      }
+      if (getExcludedNamesCount() > 0) {
+        hash = (37 * hash) + EXCLUDEDNAMES_FIELD_NUMBER;
+        hash = (53 * hash) + getExcludedNamesList().hashCode();
+      }
+      if (getExcludedPrefixesCount() > 0) {
+        hash = (37 * hash) + EXCLUDEDPREFIXES_FIELD_NUMBER;
+        hash = (53 * hash) + getExcludedPrefixesList().hashCode();
+      }
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(
+        java.nio.ByteBuffer data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(
+        java.nio.ByteBuffer data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(ch.usi.dag.dislserver.Protocol.ClassFilter prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * <pre>
+     * Summarizes the internal names of the classes that the server may
+     * instrument. The server leaves any other class unmodified, so the client
+     * does not need to send it. A class may be instrumented if it is not
+     * excluded, and if it matches any of the names, prefixes, or suffixes, or
+     * if matchAny is set.
+     * </pre>
+     *
+     * Protobuf type {@code ClassFilter}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:ClassFilter)
+        ch.usi.dag.dislserver.Protocol.ClassFilterOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return ch.usi.dag.dislserver.Protocol.internal_static_ClassFilter_descriptor;
+      }
+
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return ch.usi.dag.dislserver.Protocol.internal_static_ClassFilter_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                ch.usi.dag.dislserver.Protocol.ClassFilter.class, ch.usi.dag.dislserver.Protocol.ClassFilter.Builder.class);
+      }
+
+      // Construct using ch.usi.dag.dislserver.Protocol.ClassFilter.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+        }
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        matchAny_ = false;
+
+        names_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        prefixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        suffixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        excludedNames_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000008);
+        excludedPrefixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000010);
+        return this;
+      }
+
+      @java.lang.Override
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return ch.usi.dag.dislserver.Protocol.internal_static_ClassFilter_descriptor;
+      }
+
+      @java.lang.Override
+      public ch.usi.dag.dislserver.Protocol.ClassFilter getDefaultInstanceForType() {
+        return ch.usi.dag.dislserver.Protocol.ClassFilter.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public ch.usi.dag.dislserver.Protocol.ClassFilter build() {
+        ch.usi.dag.dislserver.Protocol.ClassFilter result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public ch.usi.dag.dislserver.Protocol.ClassFilter buildPartial() {
+        ch.usi.dag.dislserver.Protocol.ClassFilter result = new ch.usi.dag.dislserver.Protocol.ClassFilter(this);
+        int from_bitField0_ = bitField0_;
+        result.matchAny_ = matchAny_;
+        if (((bitField0_ & 0x00000001) != 0)) {
+          names_ = names_.getUnmodifiableView();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        }
+        result.names_ = names_;
+        if (((bitField0_ & 0x00000002) != 0)) {
+          prefixes_ = prefixes_.getUnmodifiableView();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        }
+        result.prefixes_ = prefixes_;
+        if (((bitField0_ & 0x00000004) != 0)) {
+          suffixes_ = suffixes_.getUnmodifiableView();
+          bitField0_ = (bitField0_ & ~0x00000004);
+        }
+        result.suffixes_ = suffixes_;
+        if (((bitField0_ & 0x00000008) != 0)) {
+          excludedNames_ = excludedNames_.getUnmodifiableView();
+          bitField0_ = (bitField0_ & ~0x00000008);
+        }
+        result.excludedNames_ = excludedNames_;
+        if (((bitField0_ & 0x00000010) != 0)) {
+          excludedPrefixes_ = excludedPrefixes_.getUnmodifiableView();
+          bitField0_ = (bitField0_ & ~0x00000010);
+        }
+        result.excludedPrefixes_ = excludedPrefixes_;
+        onBuilt();
+        return result;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof ch.usi.dag.dislserver.Protocol.ClassFilter) {
+          return mergeFrom((ch.usi.dag.dislserver.Protocol.ClassFilter)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(ch.usi.dag.dislserver.Protocol.ClassFilter other) {
+        if (other == ch.usi.dag.dislserver.Protocol.ClassFilter.getDefaultInstance()) return this;
+        if (other.getMatchAny() != false) {
+          setMatchAny(other.getMatchAny());
+        }
+        if (!other.names_.isEmpty()) {
+          if (names_.isEmpty()) {
+            names_ = other.names_;
+            bitField0_ = (bitField0_ & ~0x00000001);
+          } else {
+            ensureNamesIsMutable();
+            names_.addAll(other.names_);
+          }
+          onChanged();
+        }
+        if (!other.prefixes_.isEmpty()) {
+          if (prefixes_.isEmpty()) {
+            prefixes_ = other.prefixes_;
+            bitField0_ = (bitField0_ & ~0x00000002);
+          } else {
+            ensurePrefixesIsMutable();
+            prefixes_.addAll(other.prefixes_);
+          }
+          onChanged();
+        }
+        if (!other.suffixes_.isEmpty()) {
+          if (suffixes_.isEmpty()) {
+            suffixes_ = other.suffixes_;
+            bitField0_ = (bitField0_ & ~0x00000004);
+          } else {
+            ensureSuffixesIsMutable();
+            suffixes_.addAll(other.suffixes_);
+          }
+          onChanged();
+        }
+        if (!other.excludedNames_.isEmpty()) {
+          if (excludedNames_.isEmpty()) {
+            excludedNames_ = other.excludedNames_;
+            bitField0_ = (bitField0_ & ~0x00000008);
+          } else {
+            ensureExcludedNamesIsMutable();
+            excludedNames_.addAll(other.excludedNames_);
+          }
+          onChanged();
+        }
+        if (!other.excludedPrefixes_.isEmpty()) {
+          if (excludedPrefixes_.isEmpty()) {
+            excludedPrefixes_ = other.excludedPrefixes_;
+            bitField0_ = (bitField0_ & ~0x00000010);
+          } else {
+            ensureExcludedPrefixesIsMutable();
+            excludedPrefixes_.addAll(other.excludedPrefixes_);
+          }
+          onChanged();
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        ch.usi.dag.dislserver.Protocol.ClassFilter parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (ch.usi.dag.dislserver.Protocol.ClassFilter) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private boolean matchAny_ ;
+      /**
+       * <code>bool matchAny = 1;</code>
+       * @return The matchAny.
+       */
+      public boolean getMatchAny() {
+        return matchAny_;
+      }
+      /**
+       * <code>bool matchAny = 1;</code>
+       * @param value The matchAny to set.
+       * @return This builder for chaining.
+       */
+      public Builder setMatchAny(boolean value) {
+        
+        matchAny_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>bool matchAny = 1;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearMatchAny() {
+        
+        matchAny_ = false;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.LazyStringList names_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      private void ensureNamesIsMutable() {
+        if (!((bitField0_ & 0x00000001) != 0)) {
+          names_ = new com.google.protobuf.LazyStringArrayList(names_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @return A list containing the names.
+       */
+      public com.google.protobuf.ProtocolStringList
+          getNamesList() {
+        return names_.getUnmodifiableView();
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @return The count of names.
+       */
+      public int getNamesCount() {
+        return names_.size();
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @param index The index of the element to return.
+       * @return The names at the given index.
+       */
+      public java.lang.String getNames(int index) {
+        return names_.get(index);
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @param index The index of the value to return.
+       * @return The bytes of the names at the given index.
+       */
+      public com.google.protobuf.ByteString
+          getNamesBytes(int index) {
+        return names_.getByteString(index);
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @param index The index to set the value at.
+       * @param value The names to set.
+       * @return This builder for chaining.
+       */
+      public Builder setNames(
+          int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureNamesIsMutable();
+        names_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @param value The names to add.
+       * @return This builder for chaining.
+       */
+      public Builder addNames(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureNamesIsMutable();
+        names_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @param values The names to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllNames(
+          java.lang.Iterable<java.lang.String> values) {
+        ensureNamesIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, names_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearNames() {
+        names_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string names = 2;</code>
+       * @param value The bytes of the names to add.
+       * @return This builder for chaining.
+       */
+      public Builder addNamesBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        ensureNamesIsMutable();
+        names_.add(value);
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.LazyStringList prefixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      private void ensurePrefixesIsMutable() {
+        if (!((bitField0_ & 0x00000002) != 0)) {
+          prefixes_ = new com.google.protobuf.LazyStringArrayList(prefixes_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @return A list containing the prefixes.
+       */
+      public com.google.protobuf.ProtocolStringList
+          getPrefixesList() {
+        return prefixes_.getUnmodifiableView();
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @return The count of prefixes.
+       */
+      public int getPrefixesCount() {
+        return prefixes_.size();
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @param index The index of the element to return.
+       * @return The prefixes at the given index.
+       */
+      public java.lang.String getPrefixes(int index) {
+        return prefixes_.get(index);
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @param index The index of the value to return.
+       * @return The bytes of the prefixes at the given index.
+       */
+      public com.google.protobuf.ByteString
+          getPrefixesBytes(int index) {
+        return prefixes_.getByteString(index);
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @param index The index to set the value at.
+       * @param value The prefixes to set.
+       * @return This builder for chaining.
+       */
+      public Builder setPrefixes(
+          int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensurePrefixesIsMutable();
+        prefixes_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @param value The prefixes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addPrefixes(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensurePrefixesIsMutable();
+        prefixes_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @param values The prefixes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllPrefixes(
+          java.lang.Iterable<java.lang.String> values) {
+        ensurePrefixesIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, prefixes_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearPrefixes() {
+        prefixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string prefixes = 3;</code>
+       * @param value The bytes of the prefixes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addPrefixesBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        ensurePrefixesIsMutable();
+        prefixes_.add(value);
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.LazyStringList suffixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      private void ensureSuffixesIsMutable() {
+        if (!((bitField0_ & 0x00000004) != 0)) {
+          suffixes_ = new com.google.protobuf.LazyStringArrayList(suffixes_);
+          bitField0_ |= 0x00000004;
+         }
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @return A list containing the suffixes.
+       */
+      public com.google.protobuf.ProtocolStringList
+          getSuffixesList() {
+        return suffixes_.getUnmodifiableView();
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @return The count of suffixes.
+       */
+      public int getSuffixesCount() {
+        return suffixes_.size();
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @param index The index of the element to return.
+       * @return The suffixes at the given index.
+       */
+      public java.lang.String getSuffixes(int index) {
+        return suffixes_.get(index);
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @param index The index of the value to return.
+       * @return The bytes of the suffixes at the given index.
+       */
+      public com.google.protobuf.ByteString
+          getSuffixesBytes(int index) {
+        return suffixes_.getByteString(index);
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @param index The index to set the value at.
+       * @param value The suffixes to set.
+       * @return This builder for chaining.
+       */
+      public Builder setSuffixes(
+          int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureSuffixesIsMutable();
+        suffixes_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @param value The suffixes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addSuffixes(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureSuffixesIsMutable();
+        suffixes_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @param values The suffixes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllSuffixes(
+          java.lang.Iterable<java.lang.String> values) {
+        ensureSuffixesIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, suffixes_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearSuffixes() {
+        suffixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string suffixes = 4;</code>
+       * @param value The bytes of the suffixes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addSuffixesBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        ensureSuffixesIsMutable();
+        suffixes_.add(value);
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.LazyStringList excludedNames_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      private void ensureExcludedNamesIsMutable() {
+        if (!((bitField0_ & 0x00000008) != 0)) {
+          excludedNames_ = new com.google.protobuf.LazyStringArrayList(excludedNames_);
+          bitField0_ |= 0x00000008;
+         }
+      }
+      /**
+       * <code>repeated string excludedNames = 5;</code>
+       * @return A list containing the excludedNames.
+       */
+      public com.google.protobuf.ProtocolStringList
+          getExcludedNamesList() {
+        return excludedNames_.getUnmodifiableView();
+      }
+      /**
+       * <code>repeated string excludedNames = 5;</code>
+       * @return The count of excludedNames.
+       */
+      public int getExcludedNamesCount() {
+        return excludedNames_.size();
+      }
+      /**
+       * <code>repeated string excludedNames = 5;</code>
+       * @param index The index of the element to return.
+       * @return The excludedNames at the given index.
+       */
+      public java.lang.String getExcludedNames(int index) {
+        return excludedNames_.get(index);
+      }
+      /**
+       * <code>repeated string excludedNames = 5;</code>
+       * @param index The index of the value to return.
+       * @return The bytes of the excludedNames at the given index.
+       */
+      public com.google.protobuf.ByteString
+          getExcludedNamesBytes(int index) {
+        return excludedNames_.getByteString(index);
+      }
+      /**
+       * <code>repeated string excludedNames = 5;</code>
+       * @param index The index to set the value at.
+       * @param value The excludedNames to set.
        * @return This builder for chaining.
        */
-      public Builder setFlags(int value) {
-        
-        flags_ = value;
+      public Builder setExcludedNames(
+          int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureExcludedNamesIsMutable();
+        excludedNames_.set(index, value);
         onChanged();
         return this;
       }
       /**
-       * <code>int32 flags = 1;</code>
+       * <code>repeated string excludedNames = 5;</code>
+       * @param value The excludedNames to add.
        * @return This builder for chaining.
        */
-      public Builder clearFlags() {
-        
-        flags_ = 0;
+      public Builder addExcludedNames(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureExcludedNamesIsMutable();
+        excludedNames_.add(value);
         onChanged();
         return this;
       }
-
-      private java.lang.Object className_ = "";
       /**
-       * <code>string className = 2;</code>
-       * @return The className.
+       * <code>repeated string excludedNames = 5;</code>
+       * @param values The excludedNames to add.
+       * @return This builder for chaining.
        */
-      public java.lang.String getClassName() {
-        java.lang.Object ref = className_;
-        if (!(ref instanceof java.lang.String)) {
-          com.google.protobuf.ByteString bs =
-              (com.google.protobuf.ByteString) ref;
-          java.lang.String s = bs.toStringUtf8();
-          className_ = s;
-          return s;
-        } else {
-          return (java.lang.String) ref;
-        }
+      public Builder addAllExcludedNames(
+          java.lang.Iterable<java.lang.String> values) {
+        ensureExcludedNamesIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, excludedNames_);
+        onChanged();
+        return this;
       }
       /**
-       * <code>string className = 2;</code>
-       * @return The bytes for className.
+       * <code>repeated string excludedNames = 5;</code>
+       * @return This builder for chaining.
        */
-      public com.google.protobuf.ByteString
-          getClassNameBytes() {
-        java.lang.Object ref = className_;
-        if (ref instanceof String) {
-          com.google.protobuf.ByteString b = 
-              com.google.protobuf.ByteString.copyFromUtf8(
-                  (java.lang.String) ref);
-          className_ = b;
-          return b;
-        } else {
-          return (com.google.protobuf.ByteString) ref;
-        }
+      public Builder clearExcludedNames() {
+        excludedNames_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000008);
+        onChanged();
+        return this;
       }
       /**
-       * <code>string className = 2;</code>
-       * @param value The className to set.
+       * <code>repeated string excludedNames = 5;</code>
+       * @param value The bytes of the excludedNames to add.
        * @return This builder for chaining.
        */
-      public Builder setClassName(
-          java.lang.String value) {
+      public Builder addExcludedNamesBytes(
+          com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
   }
-  
-        className_ = value;
+  checkByteStringIsUtf8(value);
+        ensureExcludedNamesIsMutable();
+        excludedNames_.add(value);
         onChanged();
         return this;
       }
+
+      private com.google.protobuf.LazyStringList excludedPrefixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      private void ensureExcludedPrefixesIsMutable() {
+        if (!((bitField0_ & 0x00000010) != 0)) {
+          excludedPrefixes_ = new com.google.protobuf.LazyStringArrayList(excludedPrefixes_);
+          bitField0_ |= 0x00000010;
+         }
+      }
       /**
-       * <code>string className = 2;</code>
+       * <code>repeated string excludedPrefixes = 6;</code>
+       * @return A list containing the excludedPrefixes.
+       */
+      public com.google.protobuf.ProtocolStringList
+          getExcludedPrefixesList() {
+        return excludedPrefixes_.getUnmodifiableView();
+      }
+      /**
+       * <code>repeated string excludedPrefixes = 6;</code>
+       * @return The count of excludedPrefixes.
+       */
+      public int getExcludedPrefixesCount() {
+        return excludedPrefixes_.size();
+      }
+      /**
+       * <code>repeated string excludedPrefixes = 6;</code>
+       * @param index The index of the element to return.
+       * @return The excludedPrefixes at the given index.
+       */
+      public java.lang.String getExcludedPrefixes(int index) {
+        return excludedPrefixes_.get(index);
+      }
+      /**
+       * <code>repeated string excludedPrefixes = 6;</code>
+       * @param index The index of the value to return.
+       * @return The bytes of the excludedPrefixes at the given index.
+       */
+      public com.google.protobuf.ByteString
+          getExcludedPrefixesBytes(int index) {
+        return excludedPrefixes_.getByteString(index);
+      }
+      /**
+       * <code>repeated string excludedPrefixes = 6;</code>
+       * @param index The index to set the value at.
+       * @param value The excludedPrefixes to set.
        * @return This builder for chaining.
        */
-      public Builder clearClassName() {
-        
-        className_ = getDefaultInstance().getClassName();
+      public Builder setExcludedPrefixes(
+          int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureExcludedPrefixesIsMutable();
+        excludedPrefixes_.set(index, value);
         onChanged();
         return this;
       }
       /**
-       * <code>string className = 2;</code>
-       * @param value The bytes for className to set.
+       * <code>repeated string excludedPrefixes = 6;</code>
+       * @param value The excludedPrefixes to add.
        * @return This builder for chaining.
        */
-      public Builder setClassNameBytes(
-          com.google.protobuf.ByteString value) {
+      public Builder addExcludedPrefixes(
+          java.lang.String value) {
         if (value == null) {
     throw new NullPointerException();
   }
-  checkByteStringIsUtf8(value);
-        
-        className_ = value;
+  ensureExcludedPrefixesIsMutable();
+        excludedPrefixes_.add(value);
         onChanged();
         return this;
       }
-
-      private com.google.protobuf.ByteString classBytes_ = com.google.protobuf.ByteString.EMPTY;
       /**
-       * <code>bytes classBytes = 3;</code>
-       * @return The classBytes.
+       * <code>repeated string excludedPrefixes = 6;</code>
+       * @param values The excludedPrefixes to add.
+       * @return This builder for chaining.
        */
-      public com.google.protobuf.ByteString getClassBytes() {
-        return classBytes_;
+      public Builder addAllExcludedPrefixes(
+          java.lang.Iterable<java.lang.String> values) {
+        ensureExcludedPrefixesIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, excludedPrefixes_);
+        onChanged();
+        return this;
       }
       /**
-       * <code>bytes classBytes = 3;</code>
-       * @param value The classBytes to set.
+       * <code>repeated string excludedPrefixes = 6;</code>
        * @return This builder for chaining.
        */
-      public Builder setClassBytes(com.google.protobuf.ByteString value) {
-        if (value == null) {
-    throw new NullPointerException();
-  }
-  
-        classBytes_ = value;
+      public Builder clearExcludedPrefixes() {
+        excludedPrefixes_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000010);
         onChanged();
         return this;
       }
       /**
-       * <code>bytes classBytes = 3;</code>
+       * <code>repeated string excludedPrefixes = 6;</code>
+       * @param value The bytes of the excludedPrefixes to add.
        * @return This builder for chaining.
        */
-      public Builder clearClassBytes() {
-        
-        classBytes_ = getDefaultInstance().getClassBytes();
+      public Builder addExcludedPrefixesBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+        ensureExcludedPrefixesIsMutable();
+        excludedPrefixes_.add(value);
         onChanged();
         return this;
       }
@@ -793,41 +3460,41 @@ public final class Protocol {
       }
 
 
-      // @@protoc_insertion_point(builder_scope:InstrumentClassRequest)
+      // @@protoc_insertion_point(builder_scope:ClassFilter)
     }
 
-    // @@protoc_insertion_point(class_scope:InstrumentClassRequest)
-    private static final ch.usi.dag.dislserver.Protocol.InstrumentClassRequest DEFAULT_INSTANCE;
+    // @@protoc_insertion_point(class_scope:ClassFilter)
+    private static final ch.usi.dag.dislserver.Protocol.ClassFilter DEFAULT_INSTANCE;
     static {
-      DEFAULT_INSTANCE = new ch.usi.dag.dislserver.Protocol.InstrumentClassRequest();
+      DEFAULT_INSTANCE = new ch.usi.dag.dislserver.Protocol.ClassFilter();
     }
 
-    public static ch.usi.dag.dislserver.Protocol.InstrumentClassRequest getDefaultInstance() {
+    public static ch.usi.dag.dislserver.Protocol.ClassFilter getDefaultInstance() {
       return DEFAULT_INSTANCE;
     }
 
-    private static final com.google.protobuf.Parser<InstrumentClassRequest>
-        PARSER = new com.google.protobuf.AbstractParser<InstrumentClassRequest>() {
+    private static final com.google.protobuf.Parser<ClassFilter>
+        PARSER = new com.google.protobuf.AbstractParser<ClassFilter>() {
       @java.lang.Override
-      public InstrumentClassRequest parsePartialFrom(
+      public ClassFilter parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws com.google.protobuf.InvalidProtocolBufferException {
-        return new InstrumentClassRequest(input, extensionRegistry);
+        return new ClassFilter(input, extensionRegistry);
       }
     };
 
-    public static com.google.protobuf.Parser<InstrumentClassRequest> parser() {
+    public static com.google.protobuf.Parser<ClassFilter> parser() {
       return PARSER;
     }
 
     @java.lang.Override
-    public com.google.protobuf.Parser<InstrumentClassRequest> getParserForType() {
+    public com.google.protobuf.Parser<ClassFilter> getParserForType() {
       return PARSER;
     }
 
     @java.lang.Override
-    public ch.usi.dag.dislserver.Protocol.InstrumentClassRequest getDefaultInstanceForType() {
+    public ch.usi.dag.dislserver.Protocol.ClassFilter getDefaultInstanceForType() {
       return DEFAULT_INSTANCE;
     }
 
@@ -865,6 +3532,27 @@ public final class Protocol {
      * @return The classBytes.
      */
     com.google.protobuf.ByteString getClassBytes();
+
+    /**
+     * <code>int32 requestId = 4;</code>
+     * @return The requestId.
+     */
+    int getRequestId();
+
+    /**
+     * <code>.ClassFilter classFilter = 5;</code>
+     * @return Whether the classFilter field is set.
+     */
+    boolean hasClassFilter();
+    /**
+     * <code>.ClassFilter classFilter = 5;</code>
+     * @return The classFilter.
+     */
+    ch.usi.dag.dislserver.Protocol.ClassFilter getClassFilter();
+    /**
+     * <code>.ClassFilter classFilter = 5;</code>
+     */
+    ch.usi.dag.dislserver.Protocol.ClassFilterOrBuilder getClassFilterOrBuilder();
   }
   /**
    * Protobuf type {@code InstrumentClassResponse}
@@ -931,6 +3619,24 @@ public final class Protocol {
               classBytes_ = input.readBytes();
               break;
             }
+            case 32: {
+
+              requestId_ = input.readInt32();
+              break;
+            }
+            case 42: {
+              ch.usi.dag.dislserver.Protocol.ClassFilter.Builder subBuilder = null;
+              if (classFilter_ != null) {
+                subBuilder = classFilter_.toBuilder();
+              }
+              classFilter_ = input.readMessage(ch.usi.dag.dislserver.Protocol.ClassFilter.parser(), extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(classFilter_);
+                classFilter_ = subBuilder.buildPartial();
+              }
+
+              break;
+            }
             default: {
               if (!parseUnknownField(
                   input, unknownFields, extensionRegistry, tag)) {
@@ -1028,6 +3734,39 @@ public final class Protocol {
       return classBytes_;
     }
 
+    public static final int REQUESTID_FIELD_NUMBER = 4;
+    private int requestId_;
+    /**
+     * <code>int32 requestId = 4;</code>
+     * @return The requestId.
+     */
+    public int getRequestId() {
+      return requestId_;
+    }
+
+    public static final int CLASSFILTER_FIELD_NUMBER = 5;
+    private ch.usi.dag.dislserver.Protocol.ClassFilter classFilter_;
+    /**
+     * <code>.ClassFilter classFilter = 5;</code>
+     * @return Whether the classFilter field is set.
+     */
+    public boolean hasClassFilter() {
+      return classFilter_ != null;
+    }
+    /**
+     * <code>.ClassFilter classFilter = 5;</code>
+     * @return The classFilter.
+     */
+    public ch.usi.dag.dislserver.Protocol.ClassFilter getClassFilter() {
+      return classFilter_ == null ? ch.usi.dag.dislserver.Protocol.ClassFilter.getDefaultInstance() : classFilter_;
+    }
+    /**
+     * <code>.ClassFilter classFilter = 5;</code>
+     */
+    public ch.usi.dag.dislserver.Protocol.ClassFilterOrBuilder getClassFilterOrBuilder() {
+      return getClassFilter();
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -1051,6 +3790,12 @@ public final class Protocol {
       if (!classBytes_.isEmpty()) {
         output.writeBytes(3, classBytes_);
       }
+      if (requestId_ != 0) {
+        output.writeInt32(4, requestId_);
+      }
+      if (classFilter_ != null) {
+        output.writeMessage(5, getClassFilter());
+      }
       unknownFields.writeTo(output);
     }
 
@@ -1071,6 +3816,14 @@ public final class Protocol {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(3, classBytes_);
       }
+      if (requestId_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(4, requestId_);
+      }
+      if (classFilter_ != null) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(5, getClassFilter());
+      }
       size += unknownFields.getSerializedSize();
       memoizedSize = size;
       return size;
@@ -1091,6 +3844,13 @@ public final class Protocol {
           .equals(other.getErrorMessage())) return false;
       if (!getClassBytes()
           .equals(other.getClassBytes())) return false;
+      if (getRequestId()
+          != other.getRequestId()) return false;
+      if (hasClassFilter() != other.hasClassFilter()) return false;
+      if (hasClassFilter()) {
+        if (!getClassFilter()
+            .equals(other.getClassFilter())) return false;
+      }
       if (!unknownFields.equals(other.unknownFields)) return false;
       return true;
     }
@@ -1108,6 +3868,12 @@ public final class Protocol {
       hash = (53 * hash) + getErrorMessage().hashCode();
       hash = (37 * hash) + CLASSBYTES_FIELD_NUMBER;
       hash = (53 * hash) + getClassBytes().hashCode();
+      hash = (37 * hash) + REQUESTID_FIELD_NUMBER;
+      hash = (53 * hash) + getRequestId();
+      if (hasClassFilter()) {
+        hash = (37 * hash) + CLASSFILTER_FIELD_NUMBER;
+        hash = (53 * hash) + getClassFilter().hashCode();
+      }
       hash = (29 * hash) + unknownFields.hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -1247,6 +4013,14 @@ public final class Protocol {
 
         classBytes_ = com.google.protobuf.ByteString.EMPTY;
 
+        requestId_ = 0;
+
+        if (classFilterBuilder_ == null) {
+          classFilter_ = null;
+        } else {
+          classFilter_ = null;
+          classFilterBuilder_ = null;
+        }
         return this;
       }
 
@@ -1276,6 +4050,12 @@ public final class Protocol {
         result.result_ = result_;
         result.errorMessage_ = errorMessage_;
         result.classBytes_ = classBytes_;
+        result.requestId_ = requestId_;
+        if (classFilterBuilder_ == null) {
+          result.classFilter_ = classFilter_;
+        } else {
+          result.classFilter_ = classFilterBuilder_.build();
+        }
         onBuilt();
         return result;
       }
@@ -1334,6 +4114,12 @@ public final class Protocol {
         if (other.getClassBytes() != com.google.protobuf.ByteString.EMPTY) {
           setClassBytes(other.getClassBytes());
         }
+        if (other.getRequestId() != 0) {
+          setRequestId(other.getRequestId());
+        }
+        if (other.hasClassFilter()) {
+          mergeClassFilter(other.getClassFilter());
+        }
         this.mergeUnknownFields(other.unknownFields);
         onChanged();
         return this;
@@ -1523,6 +4309,155 @@ public final class Protocol {
         onChanged();
         return this;
       }
+
+      private int requestId_ ;
+      /**
+       * <code>int32 requestId = 4;</code>
+       * @return The requestId.
+       */
+      public int getRequestId() {
+        return requestId_;
+      }
+      /**
+       * <code>int32 requestId = 4;</code>
+       * @param value The requestId to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRequestId(int value) {
+        
+        requestId_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>int32 requestId = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearRequestId() {
+        
+        requestId_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private ch.usi.dag.dislserver.Protocol.ClassFilter classFilter_;
+      private com.google.protobuf.SingleFieldBuilderV3<
+          ch.usi.dag.dislserver.Protocol.ClassFilter, ch.usi.dag.dislserver.Protocol.ClassFilter.Builder, ch.usi.dag.dislserver.Protocol.ClassFilterOrBuilder> classFilterBuilder_;
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       * @return Whether the classFilter field is set.
+       */
+      public boolean hasClassFilter() {
+        return classFilterBuilder_ != null || classFilter_ != null;
+      }
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       * @return The classFilter.
+       */
+      public ch.usi.dag.dislserver.Protocol.ClassFilter getClassFilter() {
+        if (classFilterBuilder_ == null) {
+          return classFilter_ == null ? ch.usi.dag.dislserver.Protocol.ClassFilter.getDefaultInstance() : classFilter_;
+        } else {
+          return classFilterBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       */
+      public Builder setClassFilter(ch.usi.dag.dislserver.Protocol.ClassFilter value) {
+        if (classFilterBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          classFilter_ = value;
+          onChanged();
+        } else {
+          classFilterBuilder_.setMessage(value);
+        }
+
+        return this;
+      }
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       */
+      public Builder setClassFilter(
+          ch.usi.dag.dislserver.Protocol.ClassFilter.Builder builderForValue) {
+        if (classFilterBuilder_ == null) {
+          classFilter_ = builderForValue.build();
+          onChanged();
+        } else {
+          classFilterBuilder_.setMessage(builderForValue.build());
+        }
+
+        return this;
+      }
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       */
+      public Builder mergeClassFilter(ch.usi.dag.dislserver.Protocol.ClassFilter value) {
+        if (classFilterBuilder_ == null) {
+          if (classFilter_ != null) {
+            classFilter_ =
+              ch.usi.dag.dislserver.Protocol.ClassFilter.newBuilder(classFilter_).mergeFrom(value).buildPartial();
+          } else {
+            classFilter_ = value;
+          }
+          onChanged();
+        } else {
+          classFilterBuilder_.mergeFrom(value);
+        }
+
+        return this;
+      }
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       */
+      public Builder clearClassFilter() {
+        if (classFilterBuilder_ == null) {
+          classFilter_ = null;
+          onChanged();
+        } else {
+          classFilter_ = null;
+          classFilterBuilder_ = null;
+        }
+
+        return this;
+      }
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       */
+      public ch.usi.dag.dislserver.Protocol.ClassFilter.Builder getClassFilterBuilder() {
+        
+        onChanged();
+        return getClassFilterFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       */
+      public ch.usi.dag.dislserver.Protocol.ClassFilterOrBuilder getClassFilterOrBuilder() {
+        if (classFilterBuilder_ != null) {
+          return classFilterBuilder_.getMessageOrBuilder();
+        } else {
+          return classFilter_ == null ?
+              ch.usi.dag.dislserver.Protocol.ClassFilter.getDefaultInstance() : classFilter_;
+        }
+      }
+      /**
+       * <code>.ClassFilter classFilter = 5;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilderV3<
+          ch.usi.dag.dislserver.Protocol.ClassFilter, ch.usi.dag.dislserver.Protocol.ClassFilter.Builder, ch.usi.dag.dislserver.Protocol.ClassFilterOrBuilder> 
+          getClassFilterFieldBuilder() {
+        if (classFilterBuilder_ == null) {
+          classFilterBuilder_ = new com.google.protobuf.SingleFieldBuilderV3<
+              ch.usi.dag.dislserver.Protocol.ClassFilter, ch.usi.dag.dislserver.Protocol.ClassFilter.Builder, ch.usi.dag.dislserver.Protocol.ClassFilterOrBuilder>(
+                  getClassFilter(),
+                  getParentForChildren(),
+                  isClean());
+          classFilter_ = null;
+        }
+        return classFilterBuilder_;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -1581,6 +4516,11 @@ public final class Protocol {
   private static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_InstrumentClassRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_ClassFilter_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_ClassFilter_fieldAccessorTable;
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_InstrumentClassResponse_descriptor;
   private static final 
@@ -1595,15 +4535,23 @@ public final class Protocol {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\020dislserver.proto\"N\n\026InstrumentClassReq" +
-      "uest\022\r\n\005flags\030\001 \001(\005\022\021\n\tclassName\030\002 \001(\t\022\022" +
-      "\n\nclassBytes\030\003 \001(\014\"k\n\027InstrumentClassRes" +
-      "ponse\022&\n\006result\030\001 \001(\0162\026.InstrumentClassR" +
-      "esult\022\024\n\014errorMessage\030\002 \001(\t\022\022\n\nclassByte" +
-      "s\030\003 \001(\014*L\n\025InstrumentClassResult\022\024\n\020CLAS" +
-      "S_UNMODIFIED\020\000\022\022\n\016CLASS_MODIFIED\020\001\022\t\n\005ER" +
-      "ROR\020\003B#\n\025ch.usi.dag.dislserverB\010Protocol" +
-      "H\003b\006proto3"
+      "\n\020dislserver.proto\"\311\001\n\026InstrumentClassRe" +
+      "quest\022\r\n\005flags\030\001 \001(\005\022\021\n\tclassName\030\002 \001(\t\022" +
+      "\022\n\nclassBytes\030\003 \001(\014\022\021\n\trequestId\030\004 \001(\005\022&" +
+      "\n\005batch\030\005 \003(\0132\027.InstrumentClassRequest\022\024" +
+      "\n\014sharedMemory\030\006 \001(\t\022\023\n\013classFilter\030\007 \001(" +
+      "\010\022\023\n\013classDigest\030\010 \001(\014\"\203\001\n\013ClassFilter\022\020" +
+      "\n\010matchAny\030\001 \001(\010\022\r\n\005names\030\002 \003(\t\022\020\n\010prefi" +
+      "xes\030\003 \003(\t\022\020\n\010suffixes\030\004 \003(\t\022\025\n\rexcludedN" +
+      "ames\030\005 \003(\t\022\030\n\020excludedPrefixes\030\006 \003(\t\"\241\001\n" +
+      "\027InstrumentClassResponse\022&\n\006result\030\001 \001(\016" +
+      "2\026.InstrumentClassResult\022\024\n\014errorMessage" +
+      "\030\002 \001(\t\022\022\n\nclassBytes\030\003 \001(\014\022\021\n\trequestId\030" +
+      "\004 \001(\005\022!\n\013classFilter\030\005 \001(\0132\014.ClassFilter" +
+      "*f\n\025InstrumentClassResult\022\024\n\020CLASS_UNMOD" +
+      "IFIED\020\000\022\022\n\016CLASS_MODIFIED\020\001\022\t\n\005ERROR\020\003\022\030" +
+      "\n\024CLASS_BYTES_REQUIRED\020\004B#\n\025ch.usi.dag.d" +
+      "islserverB\010ProtocolH\003b\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -1614,13 +4562,19 @@ public final class Protocol {
     internal_static_InstrumentClassRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_InstrumentClassRequest_descriptor,
-        new java.lang.String[] { "Flags", "ClassName", "ClassBytes", });
-    internal_static_InstrumentClassResponse_descriptor =
+        new java.lang.String[] { "Flags", "ClassName", "ClassBytes", "RequestId", "Batch", "SharedMemory", "ClassFilter", "ClassDigest", });
+    internal_static_ClassFilter_descriptor =
       getDescriptor().getMessageTypes().get(1);
+    internal_static_ClassFilter_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_ClassFilter_descriptor,
+        new java.lang.String[] { "MatchAny", "Names", "Prefixes", "Suffixes", "ExcludedNames", "ExcludedPrefixes", });
+    internal_static_InstrumentClassResponse_descriptor =
+      getDescriptor().getMessageTypes().get(2);
     internal_static_InstrumentClassResponse_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_InstrumentClassResponse_descriptor,
-        new java.lang.String[] { "Result", "ErrorMessage", "ClassBytes", });
+        new java.lang.String[] { "Result", "ErrorMessage", "ClassBytes", "RequestId", "ClassFilter", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -7,17 +7,23 @@ import java.io.StringWriter;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Set;
 import java.util.UUID;
 
 import org.objectweb.asm.ClassReader;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 
 import ch.usi.dag.disl.DiSL;
 import ch.usi.dag.disl.DiSL.CodeOption;
+import ch.usi.dag.disl.DiSL.InstrumentationResult;
+import ch.usi.dag.disl.Reflection;
 import ch.usi.dag.disl.exception.DiSLException;
+import ch.usi.dag.disl.scope.ScopeSummary;
 import ch.usi.dag.disl.util.JavaNames;
+import ch.usi.dag.dislserver.Protocol.ClassFilter;
 import ch.usi.dag.dislserver.Protocol.InstrumentClassRequest;
 import ch.usi.dag.dislserver.Protocol.InstrumentClassResponse;
 import ch.usi.dag.util.Strings;
@@ -34,20 +40,232 @@ final class RequestProcessor {
     private static final String instrPath = System.getProperty ("dislserver.instrumented");
     private static final boolean disableBypass = Boolean.getBoolean ("dislserver.disablebypass");
 
+    private static final String PROP_CACHE_SIZE = "dislserver.cache.size";
+    private static final long DEFAULT_CACHE_SIZE = 64L << 20;
+
+    private static final String PROP_CACHE_DIR = "dislserver.cache.dir";
+    private static final String PROP_CACHE_DIR_SIZE = "dislserver.cache.dir.size";
+    private static final long DEFAULT_CACHE_DIR_SIZE = 1L << 30;
+
     //
 
     private final DiSL __disl;
 
+    /**
+     * Computes cache keys, or {@code null} if there are no caches.
+     */
+    private final CacheKeys __cacheKeys;
+
+    /**
+     * Cache of instrumentation responses, or {@code null} if caching has been
+     * disabled by setting the cache size to zero.
+     */
+    private final ClassCache __cache;
+
+    /**
+     * Persistent cache of instrumentation responses, or {@code null} if no
+     * cache directory has been configured.
+     */
+    private final DiskCache __diskCache;
+
+    /**
+     * Summary of the classes that may be instrumented, used to reject classes
+     * by name without looking at the class bytes.
+     */
+    private final ScopeSummary __scopeSummary;
+
     //
 
-    private RequestProcessor (final DiSL disl) {
+    private static final InstrumentClassResponse __UNMODIFIED__ =
+        InstrumentClassResponse.newBuilder ()
+            .setResult (Protocol.InstrumentClassResult.CLASS_UNMODIFIED)
+            .build ();
+
+    private static final InstrumentClassResponse __BYTES_REQUIRED__ =
+        InstrumentClassResponse.newBuilder ()
+            .setResult (Protocol.InstrumentClassResult.CLASS_BYTES_REQUIRED)
+            .build ();
+
+    //
+
+    private RequestProcessor (
+        final DiSL disl, final ClassCache cache, final DiskCache diskCache
+    ) {
         __disl = disl;
+        __cache = cache;
+        __diskCache = diskCache;
+        __cacheKeys = (cache != null || diskCache != null) ?
+            new CacheKeys (disl.fingerprint ()) : null;
+
+        //
+        // Dumping uninstrumented classes requires the class bytes. Guards
+        // depending on the reflection model need to see all classes, even
+        // those that are never instrumented.
+        //
+        __scopeSummary = (uninstrPath != null || disl.dependsOnReflection ()) ?
+            ScopeSummary.matchingAny () : disl.scopeSummary ();
     }
 
     //
 
     public InstrumentClassResponse process (final InstrumentClassRequest request) {
-        final byte [] classBytes = request.getClassBytes ().toByteArray ();
+        if (request.getClassBytes ().isEmpty () && !request.getClassDigest ().isEmpty ()) {
+            return __processDigest (request);
+        }
+
+        //
+        // Identical classes (with identical code options) produce identical
+        // responses, so first try to find the response in the in-memory cache,
+        // then in the persistent cache. Cache all responses except errors
+        // and responses derived from an incomplete class hierarchy, which
+        // may differ once the missing classes become known.
+        //
+        if (__cacheKeys == null) {
+            return __process (request).response;
+        }
+
+        final ByteString key = __cacheKeys.keyFor (
+            request.getClassBytes (), request.getFlags ()
+        );
+
+        final InstrumentClassResponse cachedResponse = __lookup (key, request);
+        if (cachedResponse != null) {
+            // The class still needs to be known to the reflection model.
+            __notifyClassLoaded (request);
+            return cachedResponse;
+        }
+
+        final ProcessedRequest processed = __process (request);
+        if (processed.cacheable) {
+            if (__cache != null) {
+                __cache.put (key, processed.response);
+            }
+
+            if (__diskCache != null) {
+                __diskCache.put (key, processed.response);
+            }
+        }
+
+        return processed.response;
+    }
+
+
+    /**
+     * Returns a summary of the classes that may be modified by this request
+     * processor. When dumping uninstrumented classes, or when guards depend
+     * on the reflection model, all classes need to be sent to the server.
+     */
+    public ClassFilter classFilter () {
+        return ClassFilter.newBuilder ()
+            .setMatchAny (__scopeSummary.matchesAny ())
+            .addAllNames (__scopeSummary.names ())
+            .addAllPrefixes (__scopeSummary.prefixes ())
+            .addAllSuffixes (__scopeSummary.suffixes ())
+            .addAllExcludedNames (__scopeSummary.excludedNames ())
+            .addAllExcludedPrefixes (__scopeSummary.excludedPrefixes ())
+            .build ();
+    }
+
+
+    /**
+     * Processes a request carrying only the class digest. The digest is only
+     * used to look up cached responses, which are always stored under keys
+     * derived from the actual class bytes. A cached response is only used if
+     * the class is already known to the reflection model, otherwise the class
+     * bytes are required to add the class to the model.
+     */
+    private InstrumentClassResponse __processDigest (final InstrumentClassRequest request) {
+        final String className = request.getClassName ();
+        if (!className.isEmpty () && !__scopeSummary.mayMatch (className)) {
+            __log.trace ("class %s not instrumented, class bytes not required", className);
+            return __UNMODIFIED__;
+        }
+
+        if (__cacheKeys != null) {
+            final ByteString key = __cacheKeys.keyForDigest (
+                request.getClassDigest (), request.getFlags ()
+            );
+
+            if (__isClassKnown (className)) {
+                final InstrumentClassResponse cachedResponse = __lookup (key, request);
+                if (cachedResponse != null) {
+                    return cachedResponse;
+                }
+            }
+        }
+
+        __log.trace ("class bytes required for class %s", className);
+        return __BYTES_REQUIRED__;
+    }
+
+
+    private static boolean __isClassKnown (final String className) {
+        return !className.isEmpty () && Reflection.systemClassLoader ()
+            .classForInternalName (className).isPresent ();
+    }
+
+
+    private InstrumentClassResponse __lookup (
+        final ByteString key, final InstrumentClassRequest request
+    ) {
+        if (__cache != null) {
+            final InstrumentClassResponse cachedResponse = __cache.get (key);
+            if (cachedResponse != null) {
+                __log.trace ("found cached response for class %s", request.getClassName ());
+                return cachedResponse;
+            }
+        }
+
+        if (__diskCache != null) {
+            final InstrumentClassResponse storedResponse = __diskCache.get (key);
+            if (storedResponse != null) {
+                __log.trace ("found stored response for class %s", request.getClassName ());
+                if (__cache != null) {
+                    __cache.put (key, storedResponse);
+                }
+
+                return storedResponse;
+            }
+        }
+
+        return null;
+    }
+
+
+    private void __notifyClassLoaded (final InstrumentClassRequest request) {
+        final ByteSlice classBytes = ByteSlice.of (request.getClassBytes ());
+
+        try {
+            __disl.notifyClassLoaded (classBytes.array, classBytes.offset, classBytes.length);
+
+        } catch (final DiSLException e) {
+            __log.warn (
+                "failed to add class %s to reflection model: %s",
+                request.getClassName (), e.getMessage ()
+            );
+        }
+    }
+
+
+    private static final class ProcessedRequest {
+        final InstrumentClassResponse response;
+        final boolean cacheable;
+
+        ProcessedRequest (
+            final InstrumentClassResponse response, final boolean cacheable
+        ) {
+            this.response = response;
+            this.cacheable = cacheable;
+        }
+    }
+
+
+    private ProcessedRequest __process (final InstrumentClassRequest request) {
+        //
+        // The class bytes may be aliased to the receive buffer, so we access
+        // them in place, without making a copy.
+        //
+        final ByteSlice classBytes = ByteSlice.of (request.getClassBytes ());
         final String className = __getClassName (request.getClassNameBytes ().toByteArray (), classBytes);
         final Set <CodeOption> options = CodeOption.setOf (request.getFlags ());
 
@@ -67,28 +285,32 @@ final class RequestProcessor {
         //
         try {
             if (uninstrPath != null) {
-                __dumpClass (classBytes, className, uninstrPath);
+                __dumpClass (classBytes.toByteArray (), className, uninstrPath);
             }
 
             // TODO: instrument the bytecode according to given options
             // byte [] instrCode = disl.instrument (origCode, options);
 
-            final byte [] newClassBytes = __disl.instrument (classBytes);
+            final InstrumentationResult result = __disl.instrumentClassBytes (
+                classBytes.array, classBytes.offset, classBytes.length
+            );
 
+            final byte [] newClassBytes = result.classBytes ();
             if (newClassBytes != null) {
                 if (instrPath != null) {
                     __dumpClass (newClassBytes, className, instrPath);
                 }
 
-                return InstrumentClassResponse.newBuilder ()
-                    .setResult (Protocol.InstrumentClassResult.CLASS_MODIFIED)
-                    .setClassBytes (ByteString.copyFrom (newClassBytes))
-                    .build ();
+                return new ProcessedRequest (
+                    InstrumentClassResponse.newBuilder ()
+                        .setResult (Protocol.InstrumentClassResult.CLASS_MODIFIED)
+                        .setClassBytes (UnsafeByteOperations.unsafeWrap (newClassBytes))
+                        .build (),
+                    result.isReproducible ()
+                );
 
             } else {
-                return InstrumentClassResponse.newBuilder ()
-                    .setResult (Protocol.InstrumentClassResult.CLASS_UNMODIFIED)
-                    .build ();
+                return new ProcessedRequest (__UNMODIFIED__, result.isReproducible ());
             }
 
         } catch (final Exception e) {
@@ -98,10 +320,13 @@ final class RequestProcessor {
 
             __log.error (message);
 
-            return InstrumentClassResponse.newBuilder ()
-                .setResult (Protocol.InstrumentClassResult.ERROR)
-                .setErrorMessage (message)
-                .build ();
+            return new ProcessedRequest (
+                InstrumentClassResponse.newBuilder ()
+                    .setResult (Protocol.InstrumentClassResult.ERROR)
+                    .setErrorMessage (message)
+                    .build (),
+                false
+            );
         }
     }
 
@@ -114,7 +339,7 @@ final class RequestProcessor {
 
 
     private static String __getClassName (
-        final byte [] nameBytes, final byte [] classBytes
+        final byte [] nameBytes, final ByteSlice classBytes
     ) {
         String result = Strings.EMPTY_STRING;
         if (nameBytes.length > 0) {
@@ -122,7 +347,9 @@ final class RequestProcessor {
         }
 
         if (result.isEmpty ()) {
-            result = new ClassReader (classBytes).getClassName ();
+            result = new ClassReader (
+                classBytes.array, classBytes.offset, classBytes.length
+            ).getClassName ();
             if (result == null || result.isEmpty ()) {
                 result = UUID.randomUUID ().toString ();
             }
@@ -172,6 +399,29 @@ final class RequestProcessor {
     //
 
     public void terminate () {
+        if (__cache != null) {
+            __log.debug (
+                "class cache: %d hits, %d misses, %d evictions, %d entries (%d bytes)",
+                __cache.hits (), __cache.misses (), __cache.evictions (),
+                __cache.entries (), __cache.size ()
+            );
+        }
+
+        if (__diskCache != null) {
+            __log.debug (
+                "class cache directory: %d hits, %d misses, %d appends, %d compactions, %d entries",
+                __diskCache.hits (), __diskCache.misses (),
+                __diskCache.appends (), __diskCache.compactions (), __diskCache.entries ()
+            );
+
+            try {
+                __diskCache.close ();
+
+            } catch (final IOException ioe) {
+                __log.warn ("failed to close class cache: %s", ioe.getMessage ());
+            }
+        }
+
         __disl.terminate ();
     }
 
@@ -184,7 +434,56 @@ final class RequestProcessor {
         }
 
         final DiSL disl = DiSL.init ();
-        return new RequestProcessor (disl);
+        if (!__cachingAllowed (disl)) {
+            return new RequestProcessor (disl, null, null);
+        }
+
+        final long cacheSize = Long.getLong (PROP_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+        final ClassCache cache = (cacheSize > 0) ? new ClassCache (cacheSize) : null;
+
+        return new RequestProcessor (disl, cache, __openDiskCache (disl));
+    }
+
+
+    /**
+     * Determines whether instrumentation responses can be cached. Dumping
+     * classes requires actually instrumenting them, and the output of guards
+     * depending on the reflection model is not determined by the class bytes
+     * alone, so caching is disabled in both cases.
+     */
+    private static boolean __cachingAllowed (final DiSL disl) {
+        if (uninstrPath != null || instrPath != null) {
+            __log.debug ("dumping classes, instrumentation responses not cached");
+            return false;
+        }
+
+        if (disl.dependsOnReflection ()) {
+            __log.debug ("guards depend on reflection, instrumentation responses not cached");
+            return false;
+        }
+
+        return true;
+    }
+
+
+    private static DiskCache __openDiskCache (final DiSL disl) {
+        final String cacheDir = System.getProperty (PROP_CACHE_DIR, "").trim ();
+        if (cacheDir.isEmpty ()) {
+            return null;
+        }
+
+        //
+        // The persistent cache is just an optimization, so failing to open
+        // it should not prevent the server from starting.
+        //
+        try {
+            final long cacheDirSize = Long.getLong (PROP_CACHE_DIR_SIZE, DEFAULT_CACHE_DIR_SIZE);
+            return DiskCache.open (Paths.get (cacheDir), disl.fingerprint (), cacheDirSize);
+
+        } catch (final IOException ioe) {
+            __log.warn ("failed to open class cache in %s: %s", cacheDir, ioe.getMessage ());
+            return null;
+        }
     }
 
 }
@@ -0,0 +1,359 @@
+package ch.usi.dag.dislserver;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import ch.usi.dag.util.logging.Logger;
+
+
+/**
+ * Collects live statistics of the DiSL server: latency distributions of
+ * the request processing phases, request and error counts, and the amount
+ * of data received and sent. The statistics are kept both for each open
+ * connection and in aggregate. They can be exposed as an MXBean, and
+ * periodically dumped into a file.
+ *
+ * @param <E>
+ *        the enum type representing the request processing phases
+ */
+final class ServerStats <E extends Enum <E>> implements ServerStatsMXBean {
+
+    private static final Logger __log = Logging.getPackageInstance ();
+
+    private static final String __OBJECT_NAME__ = "ch.usi.dag.dislserver:type=ServerStats";
+
+    //
+
+    private final E [] __phases;
+
+    private final Recorder __total;
+
+    private final ConcurrentMap <Integer, Connection> __connections = new ConcurrentHashMap <> ();
+
+    private final AtomicInteger __nextConnectionId = new AtomicInteger ();
+
+    private ScheduledExecutorService __dumper;
+    private Path __dumpFile;
+
+    //
+
+    ServerStats (final Class <E> phaseType) {
+        __phases = phaseType.getEnumConstants ();
+        __total = new Recorder ();
+    }
+
+    //
+
+    /**
+     * Records statistics of a single connection. The statistics are
+     * also included in the aggregate statistics.
+     */
+    final class Connection {
+        private final int __id;
+        private final String __address;
+        private final Recorder __recorder = new Recorder ();
+
+        private Connection (final int id, final String address) {
+            __id = id;
+            __address = address;
+        }
+
+        //
+
+        /**
+         * Records the intervals of the given phases measured by the given
+         * timer. Intervals of the other phases are ignored.
+         */
+        void record (
+            final IntervalTimer <E> timer, final E first, final E last
+        ) {
+            final long [] intervals = timer.intervals ();
+            for (int i = first.ordinal (); i <= last.ordinal (); i++) {
+                __recorder.__latencies [i].record (intervals [i]);
+                __total.__latencies [i].record (intervals [i]);
+            }
+        }
+
+
+        void received (final long bytes) {
+            __recorder.__bytesReceived.add (bytes);
+            __total.__bytesReceived.add (bytes);
+        }
+
+
+        void sent (final long bytes) {
+            __recorder.__bytesSent.add (bytes);
+            __total.__bytesSent.add (bytes);
+        }
+
+
+        void processed () {
+            __recorder.__requests.increment ();
+            __total.__requests.increment ();
+        }
+
+
+        void failed () {
+            __recorder.__errors.increment ();
+            __total.__errors.increment ();
+        }
+
+
+        /**
+         * Removes the connection from the live statistics. The
+         * aggregate statistics keep the data of the connection.
+         */
+        void close () {
+            __connections.remove (__id);
+        }
+
+        //
+
+        private ConnectionSummary __summary () {
+            return new ConnectionSummary (
+                __id, __address,
+                __recorder.__requests.sum (), __recorder.__errors.sum (),
+                __recorder.__bytesReceived.sum (), __recorder.__bytesSent.sum (),
+                __recorder.__summaries ()
+            );
+        }
+    }
+
+
+    /**
+     * Opens statistics for a new connection from the given address.
+     */
+    Connection open (final String address) {
+        final int id = __nextConnectionId.incrementAndGet ();
+        final Connection result = new Connection (id, address);
+        __connections.put (id, result);
+        return result;
+    }
+
+
+    /**
+     * Returns the total time (in nanoseconds) spent in the given phase.
+     */
+    long totalTime (final E phase) {
+        return __total.__latencies [phase.ordinal ()].sum ();
+    }
+
+    //
+
+    private final class Recorder {
+        private final LatencyHistogram [] __latencies;
+
+        private final LongAdder __requests = new LongAdder ();
+        private final LongAdder __errors = new LongAdder ();
+        private final LongAdder __bytesReceived = new LongAdder ();
+        private final LongAdder __bytesSent = new LongAdder ();
+
+        Recorder () {
+            __latencies = new LatencyHistogram [__phases.length];
+            for (int i = 0; i < __latencies.length; i++) {
+                __latencies [i] = new LatencyHistogram ();
+            }
+        }
+
+        private List <LatencySummary> __summaries () {
+            final List <LatencySummary> result = new ArrayList <> (__phases.length);
+            for (final E phase : __phases) {
+                result.add (new LatencySummary (
+                    phase.name (), __latencies [phase.ordinal ()]
+                ));
+            }
+
+            return result;
+        }
+    }
+
+    //
+
+    @Override
+    public long getRequestCount () {
+        return __total.__requests.sum ();
+    }
+
+
+    @Override
+    public long getErrorCount () {
+        return __total.__errors.sum ();
+    }
+
+
+    @Override
+    public long getBytesReceived () {
+        return __total.__bytesReceived.sum ();
+    }
+
+
+    @Override
+    public long getBytesSent () {
+        return __total.__bytesSent.sum ();
+    }
+
+
+    @Override
+    public int getConnectionCount () {
+        return __connections.size ();
+    }
+
+
+    @Override
+    public List <LatencySummary> getLatencies () {
+        return __total.__summaries ();
+    }
+
+
+    @Override
+    public List <ConnectionSummary> getConnections () {
+        final List <ConnectionSummary> result = new ArrayList <> ();
+        for (final Connection connection : __connections.values ()) {
+            result.add (connection.__summary ());
+        }
+
+        return result;
+    }
+
+    //
+
+    /**
+     * Registers the statistics with the platform MBean server.
+     */
+    void register () {
+        try {
+            ManagementFactory.getPlatformMBeanServer ().registerMBean (
+                this, new ObjectName (__OBJECT_NAME__)
+            );
+
+            __log.debug ("registered statistics as %s", __OBJECT_NAME__);
+
+        } catch (final JMException jme) {
+            __log.warn ("failed to register statistics: %s", jme.getMessage ());
+        }
+    }
+
+
+    /**
+     * Starts dumping the statistics into the given file at the given
+     * interval. The file is replaced atomically, so that readers never
+     * see a partially written file.
+     */
+    synchronized void startDumping (final Path file, final long intervalMillis) {
+        __dumpFile = file;
+        __dumper = Executors.newSingleThreadScheduledExecutor (r -> {
+            final Thread result = new Thread (r, "disl-stats");
+            result.setDaemon (true);
+            return result;
+        });
+
+        __dumper.scheduleAtFixedRate (
+            () -> dump (file), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS
+        );
+
+        __log.debug ("dumping statistics to %s every %d ms", file, intervalMillis);
+    }
+
+
+    /**
+     * Stops periodic dumping of the statistics, if it has been started,
+     * and dumps the final statistics.
+     */
+    synchronized void stopDumping () {
+        if (__dumper != null) {
+            __dumper.shutdownNow ();
+            __dumper = null;
+
+            dump (__dumpFile);
+        }
+    }
+
+
+    /**
+     * Dumps the statistics into the given file.
+     */
+    void dump (final Path file) {
+        final StringWriter output = new StringWriter ();
+        __report (new PrintWriter (output));
+
+        try {
+            final Path temp = file.resolveSibling (file.getFileName () + ".tmp");
+            Files.write (temp, output.toString ().getBytes (StandardCharsets.UTF_8));
+            Files.move (
+                temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+
+        } catch (final IOException ioe) {
+            __log.warn ("failed to dump statistics to %s: %s", file, ioe.getMessage ());
+        }
+    }
+
+
+    private void __report (final PrintWriter out) {
+        out.printf ("# DiSL server statistics at %s%n", Instant.now ());
+        out.printf (
+            "requests %d, errors %d, received %d bytes, sent %d bytes, connections %d%n",
+            getRequestCount (), getErrorCount (), getBytesReceived (),
+            getBytesSent (), getConnectionCount ()
+        );
+
+        __reportLatencies (out, getLatencies ());
+
+        for (final ConnectionSummary connection : getConnections ()) {
+            out.printf (
+                "%n# connection %d from %s%n", connection.getId (), connection.getAddress ()
+            );
+
+            out.printf (
+                "requests %d, errors %d, received %d bytes, sent %d bytes%n",
+                connection.getRequestCount (), connection.getErrorCount (),
+                connection.getBytesReceived (), connection.getBytesSent ()
+            );
+
+            __reportLatencies (out, connection.getLatencies ());
+        }
+
+        out.flush ();
+    }
+
+
+    private static void __reportLatencies (
+        final PrintWriter out, final List <LatencySummary> latencies
+    ) {
+        out.printf (
+            "%-10s %10s %12s %12s %12s %12s %12s%n",
+            "phase", "count", "p50 [us]", "p99 [us]", "p999 [us]", "max [us]", "total [ms]"
+        );
+
+        for (final LatencySummary latency : latencies) {
+            out.printf (
+                "%-10s %10d %12.1f %12.1f %12.1f %12.1f %12d%n",
+                latency.getPhase (), latency.getCount (),
+                latency.getP50 () / 1e3, latency.getP99 () / 1e3,
+                latency.getP999 () / 1e3, latency.getMax () / 1e3,
+                TimeUnit.NANOSECONDS.toMillis (latency.getTotal ())
+            );
+        }
+    }
+
+}
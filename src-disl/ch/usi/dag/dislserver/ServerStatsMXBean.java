@@ -0,0 +1,145 @@
+package ch.usi.dag.dislserver;
+
+import java.util.List;
+
+
+/**
+ * Management interface exposing live statistics of the DiSL server. All
+ * latencies are in nanoseconds.
+ */
+public interface ServerStatsMXBean {
+
+    long getRequestCount ();
+
+    long getErrorCount ();
+
+    long getBytesReceived ();
+
+    long getBytesSent ();
+
+    int getConnectionCount ();
+
+    /**
+     * Returns the latency distribution of each request processing phase,
+     * aggregated over all connections.
+     */
+    List <LatencySummary> getLatencies ();
+
+    /**
+     * Returns the statistics of each open connection.
+     */
+    List <ConnectionSummary> getConnections ();
+
+    //
+
+    /**
+     * Summarizes the latency distribution of a request processing phase.
+     */
+    final class LatencySummary {
+        private final String __phase;
+        private final long __count;
+        private final long __total;
+        private final long __p50;
+        private final long __p99;
+        private final long __p999;
+        private final long __max;
+
+        LatencySummary (final String phase, final LatencyHistogram histogram) {
+            final long [] quantiles = histogram.quantiles (0.5, 0.99, 0.999);
+
+            __phase = phase;
+            __count = histogram.count ();
+            __total = histogram.sum ();
+            __p50 = quantiles [0];
+            __p99 = quantiles [1];
+            __p999 = quantiles [2];
+            __max = histogram.max ();
+        }
+
+        public String getPhase () {
+            return __phase;
+        }
+
+        public long getCount () {
+            return __count;
+        }
+
+        public long getTotal () {
+            return __total;
+        }
+
+        public long getP50 () {
+            return __p50;
+        }
+
+        public long getP99 () {
+            return __p99;
+        }
+
+        public long getP999 () {
+            return __p999;
+        }
+
+        public long getMax () {
+            return __max;
+        }
+    }
+
+
+    /**
+     * Summarizes the statistics of a single connection.
+     */
+    final class ConnectionSummary {
+        private final int __id;
+        private final String __address;
+        private final long __requestCount;
+        private final long __errorCount;
+        private final long __bytesReceived;
+        private final long __bytesSent;
+        private final List <LatencySummary> __latencies;
+
+        ConnectionSummary (
+            final int id, final String address,
+            final long requestCount, final long errorCount,
+            final long bytesReceived, final long bytesSent,
+            final List <LatencySummary> latencies
+        ) {
+            __id = id;
+            __address = address;
+            __requestCount = requestCount;
+            __errorCount = errorCount;
+            __bytesReceived = bytesReceived;
+            __bytesSent = bytesSent;
+            __latencies = latencies;
+        }
+
+        public int getId () {
+            return __id;
+        }
+
+        public String getAddress () {
+            return __address;
+        }
+
+        public long getRequestCount () {
+            return __requestCount;
+        }
+
+        public long getErrorCount () {
+            return __errorCount;
+        }
+
+        public long getBytesReceived () {
+            return __bytesReceived;
+        }
+
+        public long getBytesSent () {
+            return __bytesSent;
+        }
+
+        public List <LatencySummary> getLatencies () {
+            return __latencies;
+        }
+    }
+
+}
@@ -0,0 +1,306 @@
+package ch.usi.dag.dislserver;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * A byte channel exchanging data with a co-located client through a pair of
+ * single-producer single-consumer ring buffers in a memory-mapped file set
+ * up by the client. The data is framed exactly as on a socket, so that the
+ * channel can replace the client socket.
+ * <p>
+ * The socket of the connection is kept for wake-up notifications. A consumer
+ * first polls its ring for a while, then announces that it is waiting, and
+ * blocks on the socket until the producer sends a wake-up byte. Producers
+ * check the announcement after publishing data, so that the socket is only
+ * used when the consumer is actually asleep. The end of the socket stream
+ * signals that the client has gone away.
+ * <p>
+ * The layout of the file must match the one used by the client agent.
+ */
+final class SharedMemoryChannel implements ByteChannel {
+
+    private static final int __MAGIC__ = 0x4449534c;
+    private static final int __VERSION__ = 1;
+
+    //
+    // Offsets of the header fields, the control blocks of the request and
+    // response rings, and of the ring fields. Each ring field resides in
+    // a separate cache line.
+    //
+    private static final int __MAGIC_OFFSET__ = 0;
+    private static final int __VERSION_OFFSET__ = 4;
+    private static final int __CAPACITY_OFFSET__ = 8;
+
+    private static final int __REQUESTS_OFFSET__ = 64;
+    private static final int __RESPONSES_OFFSET__ = 256;
+
+    private static final int __HEAD_OFFSET__ = 0;
+    private static final int __TAIL_OFFSET__ = 64;
+    private static final int __WAITING_OFFSET__ = 128;
+
+    private static final int __DATA_OFFSET__ = 4096;
+
+    /** Number of times to poll a ring before going to sleep. */
+    private static final int __SPIN_COUNT__ = 4096;
+
+    /** Bounds (in nanoseconds) of the back-off used when waiting for space. */
+    private static final long __MIN_BACKOFF__ = TimeUnit.MICROSECONDS.toNanos (1);
+    private static final long __MAX_BACKOFF__ = TimeUnit.MILLISECONDS.toNanos (1);
+
+    //
+
+    private static final VarHandle __LONG__ = MethodHandles.byteBufferViewVarHandle (
+        long [].class, ByteOrder.nativeOrder ()
+    );
+
+    private static final VarHandle __INT__ = MethodHandles.byteBufferViewVarHandle (
+        int [].class, ByteOrder.nativeOrder ()
+    );
+
+    //
+
+    private final SocketChannel __socket;
+    private final MappedByteBuffer __mapping;
+    private final int __capacity;
+
+    private final ByteBuffer __requestData;
+    private final ByteBuffer __responseData;
+
+    /** Receives wake-up bytes, only used by the reading thread. */
+    private final ByteBuffer __wakeups = ByteBuffer.allocateDirect (64);
+
+    /** Sends wake-up bytes, only used under the write lock. */
+    private final ByteBuffer __wakeup = ByteBuffer.allocateDirect (1);
+
+    private volatile boolean __closed;
+
+    //
+
+    private SharedMemoryChannel (
+        final SocketChannel socket, final MappedByteBuffer mapping, final int capacity
+    ) {
+        __socket = socket;
+        __mapping = mapping;
+        __capacity = capacity;
+
+        __requestData = mapping.slice (__DATA_OFFSET__, capacity);
+        __responseData = mapping.slice (__DATA_OFFSET__ + capacity, capacity);
+    }
+
+    //
+
+    /**
+     * Maps the given shared memory file set up by the client on the other
+     * end of the given socket.
+     *
+     * @throws IOException
+     *         if the file cannot be mapped or does not contain valid rings
+     */
+    static SharedMemoryChannel open (
+        final SocketChannel socket, final Path file
+    ) throws IOException {
+        if (!Files.isRegularFile (file, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException ("not a regular file: "+ file);
+        }
+
+        try (
+            final FileChannel fc = FileChannel.open (
+                file, StandardOpenOption.READ, StandardOpenOption.WRITE
+            )
+        ) {
+            final long size = fc.size ();
+            if (size < __DATA_OFFSET__ || size > Integer.MAX_VALUE) {
+                throw new IOException ("invalid shared memory file size: "+ size);
+            }
+
+            //
+            // Validate the header before writing anything into the file.
+            // The client publishes the magic number last.
+            //
+            final MappedByteBuffer mapping = fc.map (FileChannel.MapMode.READ_WRITE, 0, size);
+            final int magic = (int) __INT__.getAcquire (mapping, __MAGIC_OFFSET__);
+            final int version = (int) __INT__.get (mapping, __VERSION_OFFSET__);
+            final int capacity = (int) __INT__.get (mapping, __CAPACITY_OFFSET__);
+
+            if (magic != __MAGIC__ || version != __VERSION__) {
+                throw new IOException ("invalid shared memory file header");
+            }
+
+            if (Integer.bitCount (capacity) != 1 || size != __DATA_OFFSET__ + 2L * capacity) {
+                throw new IOException ("invalid shared memory ring capacity: "+ capacity);
+            }
+
+            return new SharedMemoryChannel (socket, mapping, capacity);
+        }
+    }
+
+    //
+
+    /**
+     * Reads data available in the request ring, waiting for at least one
+     * byte. Returns -1 if the client has closed the connection.
+     */
+    @Override
+    public int read (final ByteBuffer dst) throws IOException {
+        if (!dst.hasRemaining ()) {
+            return 0;
+        }
+
+        final int ring = __REQUESTS_OFFSET__;
+        final long head = (long) __LONG__.get (__mapping, ring + __HEAD_OFFSET__);
+
+        long available;
+        while ((available = __available (ring, head)) == 0) {
+            if (!__awaitData (ring, head)) {
+                __closed = true;
+                return -1;
+            }
+        }
+
+        final int length = (int) Math.min (available, dst.remaining ());
+        final int index = (int) (head & (__capacity - 1));
+        final int first = Math.min (length, __capacity - index);
+
+        dst.put (dst.position (), __requestData, index, first);
+        dst.put (dst.position () + first, __requestData, 0, length - first);
+        dst.position (dst.position () + length);
+
+        __LONG__.setRelease (__mapping, ring + __HEAD_OFFSET__, head + length);
+        return length;
+    }
+
+
+    private long __available (final int ring, final long head) {
+        return (long) __LONG__.getAcquire (__mapping, ring + __TAIL_OFFSET__) - head;
+    }
+
+
+    private boolean __awaitData (final int ring, final long head) throws IOException {
+        for (int spin = 0; spin < __SPIN_COUNT__; spin++) {
+            if (__available (ring, head) > 0) {
+                return true;
+            }
+
+            Thread.onSpinWait ();
+        }
+
+        //
+        // Announce that we are going to sleep before checking the ring one
+        // last time. The client publishes data before checking the flag, so
+        // either we see the data, or the client sees the flag. If the client
+        // has already cleared the flag, a stale wake-up byte will cause a
+        // spurious wake-up later.
+        //
+        __INT__.setVolatile (__mapping, ring + __WAITING_OFFSET__, 1);
+        if ((long) __LONG__.getVolatile (__mapping, ring + __TAIL_OFFSET__) != head) {
+            __INT__.compareAndSet (__mapping, ring + __WAITING_OFFSET__, 1, 0);
+            return true;
+        }
+
+        __wakeups.clear ();
+        return __socket.read (__wakeups) >= 0;
+    }
+
+    //
+
+    /**
+     * Writes as much data as fits into the response ring, waiting for at
+     * least one byte of free space, and wakes up the client if needed.
+     */
+    @Override
+    public synchronized int write (final ByteBuffer src) throws IOException {
+        if (!src.hasRemaining ()) {
+            return 0;
+        }
+
+        final int ring = __RESPONSES_OFFSET__;
+        final long tail = (long) __LONG__.get (__mapping, ring + __TAIL_OFFSET__);
+        final long space = __awaitSpace (ring, tail);
+
+        final int length = (int) Math.min (space, src.remaining ());
+        final int index = (int) (tail & (__capacity - 1));
+        final int first = Math.min (length, __capacity - index);
+
+        __responseData.put (index, src, src.position (), first);
+        __responseData.put (0, src, src.position () + first, length - first);
+        src.position (src.position () + length);
+
+        __LONG__.setRelease (__mapping, ring + __TAIL_OFFSET__, tail + length);
+
+        //
+        // Wake up the client if it announced that it is waiting for data.
+        //
+        VarHandle.fullFence ();
+        if (__INT__.compareAndSet (__mapping, ring + __WAITING_OFFSET__, 1, 0)) {
+            __wakeup.clear ();
+            while (__wakeup.hasRemaining ()) {
+                __socket.write (__wakeup);
+            }
+        }
+
+        return length;
+    }
+
+
+    /**
+     * Waits for free space in the given ring. The client does not notify us
+     * when consuming data, so we just poll the ring with an increasing
+     * back-off until there is space, or until the client goes away.
+     */
+    private long __awaitSpace (final int ring, final long tail) throws IOException {
+        long backoff = __MIN_BACKOFF__;
+
+        for (int spin = 0; true; spin++) {
+            final long head = (long) __LONG__.getAcquire (__mapping, ring + __HEAD_OFFSET__);
+            final long space = __capacity - (tail - head);
+            if (space > 0) {
+                return space;
+            }
+
+            if (__closed || !__socket.isOpen ()) {
+                throw new ClosedChannelException ();
+            }
+
+            if (spin < __SPIN_COUNT__) {
+                Thread.onSpinWait ();
+            } else {
+                LockSupport.parkNanos (backoff);
+                backoff = Math.min (2 * backoff, __MAX_BACKOFF__);
+            }
+        }
+    }
+
+    //
+
+    @Override
+    public boolean isOpen () {
+        return !__closed && __socket.isOpen ();
+    }
+
+
+    /**
+     * Marks the channel closed. The mapping is released by the garbage
+     * collector, and the socket is owned by the connection.
+     */
+    @Override
+    public void close () {
+        __closed = true;
+    }
+
+}
@@ -8,7 +8,9 @@ import java.util.Optional;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
 
 import ch.usi.dag.disl.Reflection.Class;
 import ch.usi.dag.disl.Reflection.ClassLoader;
@@ -43,12 +45,19 @@ public final class ReflectionTest {
 
     static class LeafClass extends ConcreteClass implements Missable {}
 
+    static class BaseClass {}
+
+    static class LeftClass extends BaseClass {}
+
+    static class RightClass extends BaseClass {}
+
     //
 
     static List <java.lang.Class <?>> __classesToLoad__ = Arrays.asList (
         Object.class,
         AbstractClass.class, Presentable.class,
-        ConcreteClass.class, LeafClass.class
+        ConcreteClass.class, LeafClass.class,
+        BaseClass.class, LeftClass.class, RightClass.class
     );
 
 
@@ -244,6 +253,122 @@ public final class ReflectionTest {
         ));
     }
 
+    //
+    // Common super classes
+    //
+
+    @Test
+    public void commonSuperClassOfSiblingsIsTheirSuperClass () {
+        Assert.assertEquals (
+            Type.getInternalName (BaseClass.class),
+            __commonSuperClass (LeftClass.class, RightClass.class)
+        );
+    }
+
+
+    @Test
+    public void commonSuperClassOfSubClassIsSuperClass () {
+        Assert.assertEquals (
+            Type.getInternalName (BaseClass.class),
+            __commonSuperClass (BaseClass.class, LeftClass.class)
+        );
+        Assert.assertEquals (
+            Type.getInternalName (BaseClass.class),
+            __commonSuperClass (LeftClass.class, BaseClass.class)
+        );
+    }
+
+
+    @Test
+    public void commonSuperClassWithInterfaceIsObject () {
+        Assert.assertEquals (
+            Type.getInternalName (Object.class),
+            __commonSuperClass (LeftClass.class, Presentable.class)
+        );
+    }
+
+
+    @Test
+    public void commonSuperClassWithMissingSuperClassIsObject () {
+        Assert.assertEquals (
+            Type.getInternalName (Object.class),
+            __commonSuperClass (LeftClass.class, ConcreteClass.class)
+        );
+    }
+
+
+    @Test
+    public void commonSuperClassWithAmbiguousHierarchyIsObject () {
+        final String object = Type.getInternalName (Object.class);
+        __scl.notifyClassLoaded (__classNode ("test/AmbiguousBase", object));
+        __scl.notifyClassLoaded (__classNode ("test/AmbiguousLeft", "test/AmbiguousBase"));
+        __scl.notifyClassLoaded (__classNode ("test/AmbiguousRight", "test/AmbiguousBase"));
+
+        Assert.assertEquals (
+            "test/AmbiguousBase",
+            Reflection.commonSuperClass ("test/AmbiguousLeft", "test/AmbiguousRight")
+        );
+
+        // Same class name with a different hierarchy, e.g., another loader.
+        __scl.notifyClassLoaded (__classNode ("test/AmbiguousRight", object));
+
+        Assert.assertEquals (
+            object, Reflection.commonSuperClass ("test/AmbiguousLeft", "test/AmbiguousRight")
+        );
+    }
+
+
+    @Test
+    public void knownCommonSuperClassRequiresCompleteHierarchy () {
+        Assert.assertEquals (
+            Optional.of (Type.getInternalName (BaseClass.class)),
+            Reflection.knownCommonSuperClass (
+                Type.getInternalName (LeftClass.class), Type.getInternalName (RightClass.class)
+            )
+        );
+
+        Assert.assertEquals (
+            Optional.of (Type.getInternalName (Object.class)),
+            Reflection.knownCommonSuperClass (
+                Type.getInternalName (LeftClass.class), Type.getInternalName (Presentable.class)
+            )
+        );
+
+        // Object is only an approximation when a super class is missing.
+        Assert.assertEquals (
+            Optional.empty (),
+            Reflection.knownCommonSuperClass (
+                Type.getInternalName (LeftClass.class), Type.getInternalName (ConcreteClass.class)
+            )
+        );
+
+        Assert.assertEquals (
+            Optional.empty (),
+            Reflection.knownCommonSuperClass (
+                Type.getInternalName (LeftClass.class), "test/UnknownClass"
+            )
+        );
+    }
+
+
+    private static ClassNode __classNode (final String name, final String superName) {
+        final ClassNode result = new ClassNode ();
+        result.version = Opcodes.V1_8;
+        result.access = Opcodes.ACC_PUBLIC;
+        result.name = name;
+        result.superName = superName;
+        return result;
+    }
+
+
+    private String __commonSuperClass (
+        final java.lang.Class <?> cls1, final java.lang.Class <?> cls2
+    ) {
+        return Reflection.commonSuperClass (
+            Type.getInternalName (cls1), Type.getInternalName (cls2)
+        );
+    }
+
     //
 
     final java.lang.Class <?> __globalClasses [] = {
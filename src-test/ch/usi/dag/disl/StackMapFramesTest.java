@@ -0,0 +1,350 @@
+package ch.usi.dag.disl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.util.CheckClassAdapter;
+
+import ch.usi.dag.disl.annotation.AfterReturning;
+import ch.usi.dag.disl.annotation.AfterThrowing;
+import ch.usi.dag.disl.annotation.Before;
+import ch.usi.dag.disl.annotation.SyntheticLocal;
+import ch.usi.dag.disl.annotation.SyntheticLocal.Initialize;
+import ch.usi.dag.disl.exception.DiSLException;
+import ch.usi.dag.disl.marker.AfterInitBodyMarker;
+import ch.usi.dag.disl.marker.BasicBlockMarker;
+import ch.usi.dag.disl.marker.BodyMarker;
+import ch.usi.dag.disl.weaver.StackMapFrames;
+
+
+/**
+ * Checks that the stack map frames derived for woven methods are accepted by
+ * the JVM and placed where the class writer would compute them.
+ */
+public class StackMapFramesTest {
+
+    /** Receives the values produced by the snippets. */
+    public static final class Sink {
+        public static volatile long value;
+    }
+
+
+    public static class Target {
+        private final String __sign;
+        private final double __scale;
+
+        public Target (final long value) {
+            // Branches before the constructor invocation.
+            this (value > 0 ? "positive" : "negative", value * 0.5);
+        }
+
+        private Target (final String sign, final double scale) {
+            __sign = sign;
+            __scale = scale;
+        }
+
+        public long sum (final int count) {
+            long result = 0;
+            double weight = __scale;
+            for (int i = 0; i < count; i++) {
+                result += (long) (i * weight);
+                weight += 0.25;
+            }
+
+            return result;
+        }
+
+        public int parse (final String value) {
+            try {
+                return Integer.parseInt (value);
+            } catch (final NumberFormatException nfe) {
+                return -__sign.length ();
+            }
+        }
+
+        public int fail (final int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException (__sign);
+            }
+
+            return value * 2;
+        }
+    }
+
+
+    public static class Instrumentation {
+        @SyntheticLocal (initialize = Initialize.ALWAYS)
+        public static long entries;
+
+        @SyntheticLocal (initialize = Initialize.ALWAYS)
+        public static double elapsed;
+
+        @SyntheticLocal (initialize = Initialize.ALWAYS)
+        public static int blocks;
+
+        @Before (marker = BodyMarker.class, scope = __TARGET_SCOPE__)
+        public static void onEntry () {
+            entries = System.nanoTime ();
+            elapsed = entries * 0.5;
+        }
+
+        @Before (marker = BasicBlockMarker.class, scope = __TARGET_SCOPE__)
+        public static void onBlock () {
+            blocks++;
+        }
+
+        @AfterReturning (marker = BodyMarker.class, scope = __TARGET_SCOPE__)
+        public static void onReturn () {
+            if (elapsed > 0) {
+                Sink.value += blocks;
+            }
+        }
+
+        // Handlers must not cover code before the constructor invocation.
+        @AfterThrowing (marker = AfterInitBodyMarker.class, scope = __TARGET_SCOPE__)
+        public static void onThrow () {
+            Sink.value -= entries > 0 ? blocks : 1;
+        }
+    }
+
+
+    public static class UninitializedInstrumentation {
+        @SyntheticLocal (initialize = Initialize.NEVER)
+        public static long started;
+
+        @Before (marker = BodyMarker.class, scope = __TARGET_SCOPE__)
+        public static void onEntry () {
+            started = System.nanoTime ();
+        }
+
+        @AfterReturning (marker = BodyMarker.class, scope = __TARGET_SCOPE__)
+        public static void onReturn () {
+            Sink.value += (started != 0) ? 1 : 0;
+        }
+    }
+
+    //
+
+    private static final String __TARGET_SCOPE__ = "ch.usi.dag.disl.StackMapFramesTest$Target.*";
+
+    private static final String __TARGET_NAME__ = Target.class.getName ();
+
+    //
+
+    @Test
+    public void derivedFramesMatchComputedFrames () throws Exception {
+        final DiSL disl = __dislFor (Instrumentation.class);
+
+        final PartialClassNode derivedCN = __weave (disl);
+        for (final MethodNode mn : derivedCN.methods) {
+            Assert.assertTrue (
+                "frames not derived for "+ mn.name + mn.desc,
+                StackMapFrames.derive (derivedCN.name, mn)
+            );
+        }
+
+        final byte [] derivedBytes = derivedCN.marshal (true);
+        final byte [] computedBytes = __weave (disl).marshal (false);
+
+        Assert.assertEquals (__framePositions (computedBytes), __framePositions (derivedBytes));
+
+        __assertVerifies (derivedBytes);
+        Assert.assertEquals (__run (Target.class), __run (__define (derivedBytes)));
+    }
+
+
+    @Test
+    public void uninitializedLocalsFallBackToComputedFrames () throws Exception {
+        final DiSL disl = __dislFor (UninitializedInstrumentation.class);
+
+        //
+        // The type of the local at the original frames is unknown, so every
+        // method with frames is rejected, even if the local is not live at
+        // any of them. The rejected methods are left with valid frames.
+        //
+        final PartialClassNode wovenCN = __weave (disl);
+        for (final MethodNode mn : wovenCN.methods) {
+            if (!__hasFrames (mn)) {
+                continue;
+            }
+
+            Assert.assertFalse (
+                "frames derived for "+ mn.name + mn.desc,
+                StackMapFrames.derive (wovenCN.name, mn)
+            );
+
+            for (final AbstractInsnNode insn : mn.instructions) {
+                if (insn instanceof FrameNode) {
+                    for (final Object type : ((FrameNode) insn).local) {
+                        Assert.assertTrue (
+                            "invalid frame type "+ type +" in "+ mn.name + mn.desc,
+                            type instanceof Integer || type instanceof String
+                            || type instanceof LabelNode
+                        );
+                    }
+                }
+            }
+        }
+
+        final byte [] computedBytes = wovenCN.marshal (false);
+        __assertVerifies (computedBytes);
+        Assert.assertEquals (__run (Target.class), __run (__define (computedBytes)));
+    }
+
+    //
+
+    private static DiSL __dislFor (final Class <?> instrumentation) throws DiSLException {
+        final Properties properties = new Properties ();
+        properties.setProperty ("disl.classes", instrumentation.getName ());
+
+        // Weave the instrumented code only, without switching to the original.
+        properties.setProperty ("disl.disablebypass", "true");
+
+        return DiSL.init (properties);
+    }
+
+
+    private static PartialClassNode __weave (final DiSL disl) throws DiSLException, IOException {
+        final byte [] bytes = __classBytes (Target.class);
+
+        final ClassNode outlineCN = ClassOutline.parse (bytes, 0, bytes.length);
+        Reflection.systemClassLoader ().notifyClassLoaded (outlineCN);
+
+        final Set <String> methods = outlineCN.methods.stream ()
+            .map (mn -> mn.name + mn.desc).collect (Collectors.toSet ());
+
+        final ClassNode result = disl.weaveClass (
+            PartialClassNode.parse (bytes, 0, bytes.length, methods)
+        );
+
+        Assert.assertNotNull ("class not instrumented", result);
+        return (PartialClassNode) result;
+    }
+
+
+    private static byte [] __classBytes (final Class <?> type) throws IOException {
+        final String resource = "/"+ type.getName ().replace ('.', '/') +".class";
+        try (final InputStream is = type.getResourceAsStream (resource)) {
+            return is.readAllBytes ();
+        }
+    }
+
+
+    private static boolean __hasFrames (final MethodNode method) {
+        for (final AbstractInsnNode insn : method.instructions) {
+            if (insn instanceof FrameNode) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Returns the positions of the stack map frames in each method, i.e., the
+     * indices of the instructions preceded by a frame.
+     */
+    private static Map <String, List <Integer>> __framePositions (final byte [] bytes) {
+        final ClassNode cn = new ClassNode ();
+        new ClassReader (bytes).accept (cn, 0);
+
+        final Map <String, List <Integer>> result = new LinkedHashMap <> ();
+        for (final MethodNode mn : cn.methods) {
+            final List <Integer> positions = new ArrayList <> ();
+
+            int index = 0;
+            for (final AbstractInsnNode insn : mn.instructions) {
+                if (insn instanceof FrameNode) {
+                    positions.add (index);
+                } else if (insn.getOpcode () >= 0) {
+                    index++;
+                }
+            }
+
+            result.put (mn.name + mn.desc, positions);
+        }
+
+        return result;
+    }
+
+
+    private static void __assertVerifies (final byte [] bytes) {
+        final StringWriter errors = new StringWriter ();
+        CheckClassAdapter.verify (
+            new ClassReader (bytes), StackMapFramesTest.class.getClassLoader (),
+            false, new PrintWriter (errors)
+        );
+
+        Assert.assertEquals ("", errors.toString ());
+    }
+
+
+    /**
+     * Defines the given version of the target class in a separate class
+     * loader. The class is linked, and therefore verified by the JVM.
+     */
+    private static Class <?> __define (final byte [] bytes) throws ClassNotFoundException {
+        final ClassLoader loader = new ClassLoader (StackMapFramesTest.class.getClassLoader ()) {
+            @Override
+            protected Class <?> loadClass (
+                final String name, final boolean resolve
+            ) throws ClassNotFoundException {
+                if (!__TARGET_NAME__.equals (name)) {
+                    return super.loadClass (name, resolve);
+                }
+
+                synchronized (getClassLoadingLock (name)) {
+                    final Class <?> loaded = findLoadedClass (name);
+                    return (loaded != null) ? loaded : defineClass (name, bytes, 0, bytes.length);
+                }
+            }
+        };
+
+        return Class.forName (__TARGET_NAME__, true, loader);
+    }
+
+
+    private static List <Object> __run (final Class <?> target) throws ReflectiveOperationException {
+        final List <Object> result = new ArrayList <> ();
+
+        for (final long value : new long [] { 3, -4 }) {
+            final Object instance = target.getConstructor (long.class).newInstance (value);
+
+            result.add (target.getMethod ("sum", int.class).invoke (instance, 10));
+            result.add (target.getMethod ("parse", String.class).invoke (instance, "42"));
+            result.add (target.getMethod ("parse", String.class).invoke (instance, "x"));
+            result.add (target.getMethod ("fail", int.class).invoke (instance, 5));
+
+            try {
+                target.getMethod ("fail", int.class).invoke (instance, -1);
+                result.add (null);
+
+            } catch (final InvocationTargetException ite) {
+                result.add (ite.getCause ().getClass ());
+                result.add (ite.getCause ().getMessage ());
+            }
+        }
+
+        return result;
+    }
+
+}
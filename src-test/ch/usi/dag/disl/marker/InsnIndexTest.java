@@ -0,0 +1,100 @@
+package ch.usi.dag.disl.marker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+
+public class InsnIndexTest {
+
+    private final LabelNode __start = new LabelNode ();
+    private final TypeInsnNode __new = new TypeInsnNode (Opcodes.NEW, "java/lang/Object");
+    private final InsnNode __dup = new InsnNode (Opcodes.DUP);
+    private final MethodInsnNode __init = new MethodInsnNode (
+        Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false
+    );
+    private final VarInsnNode __store = new VarInsnNode (Opcodes.ASTORE, 1);
+    private final VarInsnNode __load = new VarInsnNode (Opcodes.ALOAD, 0);
+    private final FieldInsnNode __get = new FieldInsnNode (
+        Opcodes.GETFIELD, "my/pkg/Target", "value", "I"
+    );
+    private final InsnNode __return = new InsnNode (Opcodes.IRETURN);
+
+    private final InsnIndex __index = new InsnIndex (__method (
+        __start, __new, __dup, __init, __store, __load, __get, __return
+    ));
+
+    //
+
+    @Test
+    public void assignsPositions () {
+        Assert.assertEquals (0, __index.position (__start));
+        Assert.assertEquals (3, __index.position (__init));
+        Assert.assertEquals (7, __index.position (__return));
+        Assert.assertEquals (-1, __index.position (new InsnNode (Opcodes.NOP)));
+    }
+
+
+    @Test
+    public void selectsOpcodesInMethodOrder () {
+        Assert.assertEquals (
+            Arrays.asList (__new, __store, __load),
+            __index.withOpcodes (Arrays.asList (Opcodes.ALOAD, Opcodes.ASTORE, Opcodes.NEW))
+        );
+
+        Assert.assertEquals (Collections.singletonList (__return), __index.returns ());
+        Assert.assertTrue (__index.withOpcode (Opcodes.ATHROW).isEmpty ());
+    }
+
+
+    @Test
+    public void selectsInstancesOfNodeClasses () {
+        final List <Class <? extends AbstractInsnNode>> classes = Arrays.asList (
+            VarInsnNode.class, TypeInsnNode.class
+        );
+
+        Assert.assertEquals (Arrays.asList (__new, __store, __load), __index.instancesOf (classes));
+    }
+
+
+    @Test
+    public void selectsInvocationsAndFieldAccesses () {
+        Assert.assertEquals (
+            Collections.singletonList (__init), __index.invocations (null, "<init>")
+        );
+        Assert.assertTrue (__index.invocations ("my/pkg/Target", "<init>").isEmpty ());
+
+        Assert.assertEquals (
+            Collections.singletonList (__get), __index.fieldAccesses ("my/pkg/Target", "value")
+        );
+
+        Assert.assertEquals (Collections.singletonList (__new), __index.allocations ());
+    }
+
+    //
+
+    private static MethodNode __method (final AbstractInsnNode ... insns) {
+        final MethodNode result = new MethodNode (
+            Opcodes.ACC_PUBLIC, "test", "()I", null, null
+        );
+
+        for (final AbstractInsnNode insn : insns) {
+            result.instructions.add (insn);
+        }
+
+        return result;
+    }
+
+}
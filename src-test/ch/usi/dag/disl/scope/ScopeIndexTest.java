@@ -0,0 +1,124 @@
+package ch.usi.dag.disl.scope;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ScopeIndexTest {
+
+    private static final List <String> __patterns__ = Arrays.asList (
+        "my.pkg.TargetClass.main",
+        "my.pkg.*.print",
+        "TargetClass.*",
+        "[default].TargetClass.run",
+        "*.foo(int)",
+        "int my.pkg.sub.*Math.*",
+        "*.*"
+    );
+
+    private static final String [][] __methods__ = {
+        { "my/pkg/TargetClass", "main", "([Ljava/lang/String;)V" },
+        { "my/pkg/TargetClass", "print", "()V" },
+        { "my/pkg/sub/FastMath", "abs", "(I)I" },
+        { "my/pkg/sub/FastMath", "abs", "(J)J" },
+        { "other/TargetClass", "foo", "(I)V" },
+        { "other/TargetClass", "foo", "(J)V" },
+        { "TargetClass", "run", "()V" },
+        { "OtherClass", "run", "()V" },
+        { "java/lang/Object", "<init>", "()V" },
+    };
+
+    //
+
+    @Test
+    public void selectsSameScopesAsMatching () {
+        final List <Scope> scopes = __scopes (__patterns__);
+        final ScopeIndex <Scope> index = ScopeIndex.forItems (scopes, s -> s);
+
+        for (final String [] method : __methods__) {
+            final List <Scope> expected = scopes.stream ()
+                .filter (s -> s.matches (method [0], method [1], method [2]))
+                .collect (Collectors.toList ());
+
+            final ScopeIndex.ClassItems <Scope> classItems = index.forClass (method [0]);
+            Assert.assertEquals (
+                String.join (" ", method), expected, classItems.select (method [1], method [2])
+            );
+
+            Assert.assertEquals (
+                !expected.isEmpty (), classItems.anyMatches (method [1], method [2])
+            );
+        }
+    }
+
+
+    @Test
+    public void rejectsUnmatchedClass () {
+        final ScopeIndex <Scope> index = ScopeIndex.forItems (
+            __scopes (Arrays.asList ("my.pkg.TargetClass.main", "my.pkg.*Math.*")), s -> s
+        );
+
+        Assert.assertTrue (index.forClass ("my/pkg/OtherClass").isEmpty ());
+        Assert.assertTrue (index.forClass ("java/lang/Math").isEmpty ());
+        Assert.assertFalse (index.forClass ("my/pkg/TargetClass").isEmpty ());
+        Assert.assertFalse (index.forClass ("my/pkg/sub/FastMath").isEmpty ());
+    }
+
+
+    @Test
+    public void selectsMatchingMethodName () {
+        final List <Scope> scopes = __scopes (Arrays.asList ("TargetClass.main", "TargetClass.print"));
+        final ScopeIndex <Scope> index = ScopeIndex.forItems (scopes, s -> s);
+
+        final ScopeIndex.ClassItems <Scope> classItems = index.forClass ("my/pkg/TargetClass");
+        Assert.assertEquals (Arrays.asList (scopes.get (1)), classItems.select ("print", "()V"));
+        Assert.assertTrue (classItems.select ("run", "()V").isEmpty ());
+    }
+
+
+    @Test
+    public void findsScopeMatchingAllMethods () {
+        final List <Scope> scopes = __scopes (Arrays.asList (
+            "my.pkg.TargetClass.*", "my.pkg.OtherClass.main", "sun.instrument.*.*"
+        ));
+
+        final ScopeIndex <Scope> index = ScopeIndex.forItems (scopes, s -> s);
+
+        Assert.assertEquals (
+            scopes.get (0), index.forClass ("my/pkg/TargetClass").findMatchingAllMethods ().get ()
+        );
+        Assert.assertEquals (
+            scopes.get (2), index.forClass ("sun/instrument/Foo").findMatchingAllMethods ().get ()
+        );
+        Assert.assertFalse (index.forClass ("my/pkg/OtherClass").findMatchingAllMethods ().isPresent ());
+    }
+
+
+    @Test
+    public void findsScopeMatchingMethod () {
+        final List <Scope> scopes = __scopes (Arrays.asList (
+            "java.lang.Object.finalize", "my.pkg.*.main(int)"
+        ));
+
+        final ScopeIndex <Scope> index = ScopeIndex.forItems (scopes, s -> s);
+
+        final ScopeIndex.ClassItems <Scope> objectItems = index.forClass ("java/lang/Object");
+        Assert.assertEquals (scopes.get (0), objectItems.findFirst ("finalize", "()V").get ());
+        Assert.assertFalse (objectItems.findFirst ("toString", "()Ljava/lang/String;").isPresent ());
+
+        final ScopeIndex.ClassItems <Scope> targetItems = index.forClass ("my/pkg/TargetClass");
+        Assert.assertEquals (scopes.get (1), targetItems.findFirst ("main", "(I)V").get ());
+        Assert.assertFalse (targetItems.findFirst ("main", "(J)V").isPresent ());
+    }
+
+    //
+
+    private static List <Scope> __scopes (final List <String> patterns) {
+        return patterns.stream ().map (ScopeMatcher::forPattern).collect (Collectors.toList ());
+    }
+
+}
@@ -0,0 +1,93 @@
+package ch.usi.dag.disl.scope;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ScopeSummaryTest {
+
+    @Test
+    public void testExactClassName () {
+        final ScopeSummary summary = __summary (__scopes ("my.pkg.TargetClass.main"));
+
+        Assert.assertTrue (summary.mayMatch ("my/pkg/TargetClass"));
+        Assert.assertFalse (summary.mayMatch ("my/pkg/TargetClassFoo"));
+        Assert.assertFalse (summary.mayMatch ("my/TargetClass"));
+    }
+
+    @Test
+    public void testClassNamePrefix () {
+        final ScopeSummary summary = __summary (__scopes ("my.pkg.*Math.*"));
+
+        Assert.assertTrue (summary.mayMatch ("my/pkg/FastMath"));
+        Assert.assertTrue (summary.mayMatch ("my/pkg/sub/Anything"));
+        Assert.assertFalse (summary.mayMatch ("java/lang/Math"));
+    }
+
+    @Test
+    public void testClassNameWithoutPackage () {
+        final ScopeSummary summary = __summary (__scopes ("TargetClass.print"));
+
+        Assert.assertTrue (summary.mayMatch ("TargetClass"));
+        Assert.assertTrue (summary.mayMatch ("my/pkg/TargetClass"));
+        Assert.assertFalse (summary.mayMatch ("my/pkg/OtherClass"));
+    }
+
+    @Test
+    public void testDefaultPackage () {
+        final ScopeSummary summary = __summary (__scopes ("[default].TargetClass.*"));
+
+        Assert.assertTrue (summary.mayMatch ("TargetClass"));
+        Assert.assertFalse (summary.mayMatch ("my/pkg/TargetClass"));
+    }
+
+    @Test
+    public void testAnyClass () {
+        final ScopeSummary summary = __summary (__scopes ("my.pkg.TargetClass.main", "*.foo"));
+
+        Assert.assertTrue (summary.matchesAny ());
+        Assert.assertTrue (summary.mayMatch ("java/lang/Object"));
+    }
+
+    @Test
+    public void testExclusions () {
+        final ScopeSummary summary = ScopeSummary.forScopes (
+            __scopes ("*.*"),
+            __scopes ("my.pkg.*.*", "other.Excluded.*", "other.Partial.foo")
+        );
+
+        Assert.assertFalse (summary.mayMatch ("my/pkg/TargetClass"));
+        Assert.assertFalse (summary.mayMatch ("other/Excluded"));
+        Assert.assertTrue (summary.mayMatch ("other/Partial"));
+        Assert.assertTrue (summary.mayMatch ("my/pkgx/TargetClass"));
+    }
+
+    @Test
+    public void testAdditionalClassOverridesExclusion () {
+        final ScopeSummary summary = ScopeSummary.forScopes (
+            __scopes ("my.pkg.TargetClass.main"), __scopes ("java.lang.*.*"),
+            "java/lang/Thread"
+        );
+
+        Assert.assertTrue (summary.mayMatch ("java/lang/Thread"));
+        Assert.assertFalse (summary.mayMatch ("java/lang/Object"));
+    }
+
+    //
+
+    private static ScopeSummary __summary (final List <Scope> scopes) {
+        return ScopeSummary.forScopes (scopes, Collections.emptyList ());
+    }
+
+    private static List <Scope> __scopes (final String ... patterns) {
+        return Arrays.stream (patterns)
+            .map (ScopeMatcher::forPattern)
+            .collect (Collectors.toList ());
+    }
+
+}
@@ -0,0 +1,258 @@
+package ch.usi.dag.dislserver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.protobuf.ByteString;
+
+import ch.usi.dag.dislserver.Protocol.InstrumentClassResponse;
+import ch.usi.dag.dislserver.Protocol.InstrumentClassResult;
+
+
+public class DiskCacheTest {
+
+    private static final String __FINGERPRINT__ = "0123456789abcdef";
+
+    /** Offset of the version in the segment header. */
+    private static final int __VERSION_OFFSET__ = Integer.BYTES;
+
+    private static final long __SIZE_LIMIT__ = 1L << 20;
+
+    private final CacheKeys __keys = new CacheKeys (__FINGERPRINT__);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder ();
+
+    //
+
+    @Test
+    public void storedResponsesSurviveReopening () throws IOException {
+        final Path directory = folder.getRoot ().toPath ();
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            cache.put (__key (1), __response (1, 100));
+            cache.put (__key (2), __response (2, 100));
+            Assert.assertEquals (2, cache.appends ());
+        }
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            Assert.assertEquals (2, cache.entries ());
+            Assert.assertEquals (__response (1, 100), cache.get (__key (1)));
+            Assert.assertEquals (__response (2, 100), cache.get (__key (2)));
+            Assert.assertNull (cache.get (__key (3)));
+        }
+    }
+
+
+    @Test
+    public void differentFingerprintDiscardsSegment () throws IOException {
+        final Path directory = folder.getRoot ().toPath ();
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            cache.put (__key (1), __response (1, 100));
+        }
+
+        try (final DiskCache cache = DiskCache.open (directory, "fedcba9876543210", __SIZE_LIMIT__)) {
+            Assert.assertEquals (0, cache.entries ());
+            Assert.assertNull (cache.get (__key (1)));
+        }
+    }
+
+
+    @Test
+    public void differentVersionDiscardsSegment () throws IOException {
+        final Path directory = folder.getRoot ().toPath ();
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            cache.put (__key (1), __response (1, 100));
+        }
+
+        // Pretend the segment was written by an older version.
+        try (final FileChannel channel = __openSegment (directory)) {
+            final ByteBuffer version = ByteBuffer.allocate (Integer.BYTES);
+            channel.read (version, __VERSION_OFFSET__);
+
+            version.flip ();
+            final int oldVersion = version.getInt () - 1;
+
+            version.clear ();
+            version.putInt (oldVersion).flip ();
+            channel.write (version, __VERSION_OFFSET__);
+        }
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            Assert.assertEquals (0, cache.entries ());
+            Assert.assertNull (cache.get (__key (1)));
+        }
+    }
+
+
+    @Test
+    public void truncatedRecordTerminatesSegment () throws IOException {
+        final Path directory = folder.getRoot ().toPath ();
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            cache.put (__key (1), __response (1, 100));
+            cache.put (__key (2), __response (2, 100));
+        }
+
+        // Cut the last record short, as if the server crashed while writing it.
+        final long truncatedSize;
+        try (final FileChannel channel = __openSegment (directory)) {
+            truncatedSize = channel.size () - 10;
+            channel.truncate (truncatedSize);
+        }
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            Assert.assertEquals (1, cache.entries ());
+            Assert.assertEquals (__response (1, 100), cache.get (__key (1)));
+            Assert.assertNull (cache.get (__key (2)));
+
+            // New records are appended after the last valid record.
+            cache.put (__key (3), __response (3, 100));
+        }
+
+        Assert.assertTrue (Files.size (__segment (directory)) < truncatedSize + 100);
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            Assert.assertEquals (2, cache.entries ());
+            Assert.assertEquals (__response (3, 100), cache.get (__key (3)));
+        }
+    }
+
+
+    @Test
+    public void corruptedRecordTerminatesSegment () throws IOException {
+        final Path directory = folder.getRoot ().toPath ();
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            cache.put (__key (1), __response (1, 100));
+            cache.put (__key (2), __response (2, 100));
+            cache.put (__key (3), __response (3, 100));
+        }
+
+        // Flip a byte in the middle of the segment, i.e., in the second record.
+        try (final FileChannel channel = __openSegment (directory)) {
+            final long position = channel.size () / 2;
+            final ByteBuffer data = ByteBuffer.allocate (1);
+            channel.read (data, position);
+
+            data.put (0, (byte) ~data.get (0)).rewind ();
+            channel.write (data, position);
+        }
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            Assert.assertEquals (1, cache.entries ());
+            Assert.assertEquals (__response (1, 100), cache.get (__key (1)));
+            Assert.assertNull (cache.get (__key (2)));
+            Assert.assertNull (cache.get (__key (3)));
+        }
+    }
+
+
+    @Test
+    public void fullSegmentIsCompactedWhileRunning () throws IOException {
+        final Path directory = folder.getRoot ().toPath ();
+        final long sizeLimit = 16 * 1024;
+        final int count = 100;
+
+        try (final DiskCache cache = __open (directory, sizeLimit)) {
+            for (int i = 0; i < count; i++) {
+                cache.put (__key (i), __response (i, 500));
+                Assert.assertTrue (Files.size (__segment (directory)) <= sizeLimit);
+            }
+
+            // All responses were stored, but only the recent ones were kept.
+            Assert.assertEquals (count, cache.appends ());
+            Assert.assertTrue (cache.compactions () > 0);
+            Assert.assertTrue (cache.entries () < count);
+
+            Assert.assertNull (cache.get (__key (0)));
+            Assert.assertEquals (__response (count - 1, 500), cache.get (__key (count - 1)));
+        }
+
+        try (final DiskCache cache = __open (directory, sizeLimit)) {
+            Assert.assertEquals (__response (count - 1, 500), cache.get (__key (count - 1)));
+        }
+    }
+
+
+    @Test
+    public void oversizedSegmentIsCompactedWhenOpened () throws IOException {
+        final Path directory = folder.getRoot ().toPath ();
+
+        try (final DiskCache cache = __open (directory, __SIZE_LIMIT__)) {
+            for (int i = 0; i < 40; i++) {
+                cache.put (__key (i), __response (i, 500));
+            }
+        }
+
+        final long sizeLimit = 8 * 1024;
+        try (final DiskCache cache = __open (directory, sizeLimit)) {
+            Assert.assertTrue (Files.size (__segment (directory)) <= sizeLimit / 2);
+            Assert.assertTrue (cache.entries () > 0);
+
+            Assert.assertNull (cache.get (__key (0)));
+            Assert.assertEquals (__response (39, 500), cache.get (__key (39)));
+        }
+    }
+
+
+    @Test (expected = IOException.class)
+    public void directoryCannotBeSharedByServers () throws IOException {
+        final Path directory = folder.getRoot ().toPath ();
+
+        try (
+            final DiskCache cache = __open (directory, __SIZE_LIMIT__);
+            final DiskCache other = __open (directory, __SIZE_LIMIT__);
+        ) {
+            Assert.fail ("cache directory opened twice");
+        }
+    }
+
+    //
+
+    private static DiskCache __open (
+        final Path directory, final long sizeLimit
+    ) throws IOException {
+        return DiskCache.open (directory, __FINGERPRINT__, sizeLimit);
+    }
+
+
+    private static Path __segment (final Path directory) {
+        return directory.resolve ("classes.seg");
+    }
+
+
+    private static FileChannel __openSegment (final Path directory) throws IOException {
+        return FileChannel.open (
+            __segment (directory), StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+    }
+
+
+    private ByteString __key (final int index) {
+        return __keys.keyFor (ByteString.copyFromUtf8 ("class"+ index), 0);
+    }
+
+
+    private static InstrumentClassResponse __response (final int index, final int length) {
+        final byte [] classBytes = new byte [length];
+        classBytes [0] = (byte) index;
+
+        return InstrumentClassResponse.newBuilder ()
+            .setResult (InstrumentClassResult.CLASS_MODIFIED)
+            .setClassBytes (ByteString.copyFrom (classBytes))
+            .build ();
+    }
+
+}
@@ -0,0 +1,239 @@
+package ch.usi.dag.dislserver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ch.usi.dag.disl.DiSL;
+import ch.usi.dag.disl.exception.DiSLException;
+import ch.usi.dag.disl.annotation.AfterReturning;
+import ch.usi.dag.disl.annotation.Before;
+import ch.usi.dag.disl.annotation.SyntheticLocal;
+import ch.usi.dag.disl.annotation.SyntheticLocal.Initialize;
+import ch.usi.dag.disl.marker.BodyMarker;
+
+
+public class OfflineInstrumenterTest {
+
+    public static abstract class Shape {
+        public abstract double area ();
+    }
+
+
+    public static class Square extends Shape {
+        @Override
+        public double area () {
+            return 4;
+        }
+    }
+
+
+    public static class Circle extends Shape {
+        @Override
+        public double area () {
+            return Math.PI;
+        }
+    }
+
+
+    public static class Canvas {
+        public static double area (final boolean square) {
+            // The frame after the branches needs the common super class.
+            final Shape shape = square ? new Square () : new Circle ();
+            return shape.area ();
+        }
+    }
+
+
+    public static class Instrumentation {
+        @SyntheticLocal (initialize = Initialize.NEVER)
+        public static long started;
+
+        @Before (marker = BodyMarker.class, scope = __TARGET_SCOPE__)
+        public static void onEntry () {
+            started = System.nanoTime ();
+        }
+
+        @AfterReturning (marker = BodyMarker.class, scope = __TARGET_SCOPE__)
+        public static void onReturn () {
+            // Uninitialized at the branch target, so frames are computed.
+            started = System.nanoTime () - started;
+        }
+    }
+
+    //
+
+    private static final String __TARGET_SCOPE__ = "ch.usi.dag.dislserver.OfflineInstrumenterTest$Canvas.area";
+
+    private static final String __RESOURCE_ENTRY__ = "data/resource.txt";
+
+    /**
+     * Classes in the order of the jar entries. The class using the hierarchy
+     * precedes the classes forming it.
+     */
+    private static final List <Class <?>> __CLASSES__ = Arrays.asList (
+        Canvas.class, Circle.class, Square.class, Shape.class
+    );
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder ();
+
+    //
+
+    @Test
+    public void instrumentedJarRoundTrips () throws Exception {
+        final Path inputJar = __createJar (folder.newFile ("app.jar").toPath ());
+        final Path outputDir = folder.newFolder ("output").toPath ();
+
+        final DiSL disl = __initDisl ();
+        final ForkJoinPool pool = new ForkJoinPool (2);
+        try {
+            final int failedCount = new OfflineInstrumenter (disl, pool, outputDir).instrument (
+                OfflineInstrumenter.openInputs (new String [] { inputJar.toString () }, "")
+            );
+
+            Assert.assertEquals (0, failedCount);
+
+        } finally {
+            pool.shutdown ();
+            disl.terminate ();
+        }
+
+        //
+        // The output jar contains the same entries in the same order, and
+        // only the instrumented class differs from the input.
+        //
+        final Path outputJar = outputDir.resolve ("app.jar");
+        final Map <String, byte []> input = __readJar (inputJar);
+        final Map <String, byte []> output = __readJar (outputJar);
+        Assert.assertEquals (new ArrayList <> (input.keySet ()), new ArrayList <> (output.keySet ()));
+
+        final String canvasEntry = __entryName (Canvas.class);
+        for (final String entry : input.keySet ()) {
+            Assert.assertEquals (
+                entry, !canvasEntry.equals (entry),
+                Arrays.equals (input.get (entry), output.get (entry))
+            );
+        }
+
+        final List <String> manifest = Files.readAllLines (
+            outputDir.resolve ("disl-offline.manifest"), StandardCharsets.UTF_8
+        );
+
+        Assert.assertTrue (manifest.get (1).startsWith ("# 4 classes, 1 modified, 0 failed"));
+        Assert.assertTrue (manifest.get (2).startsWith ("modified\tapp\t"+ canvasEntry +"\t"));
+
+        //
+        // The instrumented class verifies only if its frames were computed
+        // with the class hierarchy known.
+        //
+        try (
+            final URLClassLoader loader = new URLClassLoader (
+                new URL [] { outputJar.toUri ().toURL () },
+                ClassLoader.getPlatformClassLoader ()
+            )
+        ) {
+            final Class <?> canvas = Class.forName (Canvas.class.getName (), true, loader);
+            Assert.assertNotSame (Canvas.class, canvas);
+
+            Assert.assertEquals (4.0, canvas.getMethod ("area", boolean.class).invoke (null, true));
+            Assert.assertEquals (Math.PI, canvas.getMethod ("area", boolean.class).invoke (null, false));
+        }
+    }
+
+    //
+
+    /**
+     * Initializes DiSL the way the offline instrumenter does, i.e., from
+     * system properties, which are restored afterwards.
+     */
+    private static DiSL __initDisl () throws DiSLException {
+        final Map <String, String> properties = new LinkedHashMap <> ();
+        properties.put ("disl.classes", Instrumentation.class.getName ());
+
+        // Nothing switches the bypass to the instrumented code offline.
+        properties.put ("disl.disablebypass", "true");
+
+        final Map <String, String> saved = new LinkedHashMap <> ();
+        properties.forEach ((name, value) -> saved.put (name, System.setProperty (name, value)));
+
+        try {
+            return DiSL.init ();
+
+        } finally {
+            saved.forEach ((name, value) -> {
+                if (value != null) {
+                    System.setProperty (name, value);
+                } else {
+                    System.clearProperty (name);
+                }
+            });
+        }
+    }
+
+
+    private static Path __createJar (final Path jar) throws IOException {
+        try (final ZipOutputStream zipStream = new ZipOutputStream (Files.newOutputStream (jar))) {
+            for (final Class <?> type : __CLASSES__) {
+                zipStream.putNextEntry (new ZipEntry (__entryName (type)));
+                zipStream.write (__classBytes (type));
+                zipStream.closeEntry ();
+            }
+
+            zipStream.putNextEntry (new ZipEntry (__RESOURCE_ENTRY__));
+            zipStream.write ("resource".getBytes (StandardCharsets.UTF_8));
+            zipStream.closeEntry ();
+        }
+
+        return jar;
+    }
+
+
+    private static Map <String, byte []> __readJar (final Path jar) throws IOException {
+        final Map <String, byte []> result = new LinkedHashMap <> ();
+
+        try (final ZipFile zipFile = new ZipFile (jar.toFile ())) {
+            final Enumeration <? extends ZipEntry> entries = zipFile.entries ();
+            for (final ZipEntry entry : Collections.list (entries)) {
+                try (final InputStream is = zipFile.getInputStream (entry)) {
+                    result.put (entry.getName (), is.readAllBytes ());
+                }
+            }
+        }
+
+        return result;
+    }
+
+
+    private static String __entryName (final Class <?> type) {
+        return type.getName ().replace ('.', '/') +".class";
+    }
+
+
+    private static byte [] __classBytes (final Class <?> type) throws IOException {
+        try (final InputStream is = type.getResourceAsStream ("/"+ __entryName (type))) {
+            return is.readAllBytes ();
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package ch.usi.dag.dislserver;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.WireFormat;
+
+import ch.usi.dag.dislserver.Protocol.ClassFilter;
+import ch.usi.dag.dislserver.Protocol.InstrumentClassRequest;
+import ch.usi.dag.dislserver.Protocol.InstrumentClassResponse;
+import ch.usi.dag.dislserver.Protocol.InstrumentClassResult;
+
+
+/**
+ * Checks that the generated protocol classes encode fields with the numbers
+ * and wire types declared in {@code dislserver.proto}, which the agent relies
+ * on as well.
+ */
+public class ProtocolTest {
+
+    private static final ByteString __BYTES__ = ByteString.copyFrom (new byte [] { 1, 2, 3 });
+
+    //
+
+    @Test
+    public void requestFieldsMatchProtocolDefinition () throws IOException {
+        final InstrumentClassRequest request = InstrumentClassRequest.newBuilder ()
+            .setFlags (5)
+            .setClassName ("a/B")
+            .setClassBytes (__BYTES__)
+            .setRequestId (42)
+            .addBatch (InstrumentClassRequest.newBuilder ().setRequestId (9))
+            .setSharedMemory ("/dev/shm/disl")
+            .setClassFilter (true)
+            .setClassDigest (__BYTES__)
+            .build ();
+
+        Assert.assertEquals (__fields (
+            1, WireFormat.WIRETYPE_VARINT,
+            2, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            3, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            4, WireFormat.WIRETYPE_VARINT,
+            5, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            6, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            7, WireFormat.WIRETYPE_VARINT,
+            8, WireFormat.WIRETYPE_LENGTH_DELIMITED
+        ), __encodedFields (request));
+
+        Assert.assertEquals (request, InstrumentClassRequest.parseFrom (request.toByteArray ()));
+    }
+
+
+    @Test
+    public void responseFieldsMatchProtocolDefinition () throws IOException {
+        final InstrumentClassResponse response = InstrumentClassResponse.newBuilder ()
+            .setResult (InstrumentClassResult.CLASS_MODIFIED)
+            .setErrorMessage ("error")
+            .setClassBytes (__BYTES__)
+            .setRequestId (42)
+            .setClassFilter (ClassFilter.newBuilder ().setMatchAny (true))
+            .build ();
+
+        Assert.assertEquals (__fields (
+            1, WireFormat.WIRETYPE_VARINT,
+            2, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            3, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            4, WireFormat.WIRETYPE_VARINT,
+            5, WireFormat.WIRETYPE_LENGTH_DELIMITED
+        ), __encodedFields (response));
+
+        Assert.assertEquals (response, InstrumentClassResponse.parseFrom (response.toByteArray ()));
+    }
+
+
+    @Test
+    public void classFilterFieldsMatchProtocolDefinition () throws IOException {
+        final ClassFilter filter = ClassFilter.newBuilder ()
+            .setMatchAny (true)
+            .addNames ("a/B")
+            .addPrefixes ("a/")
+            .addSuffixes ("Test")
+            .addExcludedNames ("a/C")
+            .addExcludedPrefixes ("a/c/")
+            .build ();
+
+        Assert.assertEquals (__fields (
+            1, WireFormat.WIRETYPE_VARINT,
+            2, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            3, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            4, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            5, WireFormat.WIRETYPE_LENGTH_DELIMITED,
+            6, WireFormat.WIRETYPE_LENGTH_DELIMITED
+        ), __encodedFields (filter));
+
+        Assert.assertEquals (filter, ClassFilter.parseFrom (filter.toByteArray ()));
+    }
+
+
+    @Test
+    public void resultValuesMatchProtocolDefinition () {
+        Assert.assertEquals (0, InstrumentClassResult.CLASS_UNMODIFIED.getNumber ());
+        Assert.assertEquals (1, InstrumentClassResult.CLASS_MODIFIED.getNumber ());
+        Assert.assertEquals (3, InstrumentClassResult.ERROR.getNumber ());
+        Assert.assertEquals (4, InstrumentClassResult.CLASS_BYTES_REQUIRED.getNumber ());
+    }
+
+    //
+
+    private static Map <Integer, Integer> __fields (final int ... numbersAndTypes) {
+        final Map <Integer, Integer> result = new LinkedHashMap <> ();
+        for (int i = 0; i < numbersAndTypes.length; i += 2) {
+            result.put (numbersAndTypes [i], numbersAndTypes [i + 1]);
+        }
+
+        return result;
+    }
+
+
+    private static Map <Integer, Integer> __encodedFields (
+        final MessageLite message
+    ) throws IOException {
+        final Map <Integer, Integer> result = new LinkedHashMap <> ();
+        final CodedInputStream input = CodedInputStream.newInstance (message.toByteArray ());
+
+        for (int tag = input.readTag (); tag != 0; tag = input.readTag ()) {
+            result.put (WireFormat.getTagFieldNumber (tag), WireFormat.getTagWireType (tag));
+            input.skipField (tag);
+        }
+
+        return result;
+    }
+
+}
@@ -2,6 +2,7 @@ package ch.usi.dag.util.asm;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.BinaryOperator;
 
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
@@ -58,6 +59,19 @@ public enum ClassNodeHelper {
     }
 
 
+    /**
+     * Creates a new {@link ClassNode} instance by parsing class-file bytes
+     * from the given range of the given array.
+     */
+    public ClassNode unmarshal (
+        final byte [] bytes, final int offset, final int length
+    ) {
+        final ClassNode result = new ClassNode (Opcodes.ASM9);
+        new ClassReader (bytes, offset, length).accept (result, __flags);
+        return result;
+    }
+
+
     /**
      * Creates a new {@link ClassNode} instance by parsing class-file bytes
      * from the given input stream.
@@ -104,6 +118,57 @@ public enum ClassNodeHelper {
      * @return array of bytes representing the contents of a class file.
      */
     public static byte [] marshal (final ClassNode source) {
+        return marshal (source, null, false, __objectAsCommonSuperClass__);
+    }
+
+
+    /**
+     * Marshals the given {@link ClassNode} instance into an array of bytes
+     * representing the contents of a class file, using the given function
+     * to determine the common super class of two classes when computing
+     * stack map frames.
+     *
+     * @param source
+     *        the {@link ClassNode} to marshal.
+     * @param commonSuperClass
+     *        function returning the internal name of the common super class
+     *        of two classes given by their internal names.
+     * @return array of bytes representing the contents of a class file.
+     */
+    public static byte [] marshal (
+        final ClassNode source, final BinaryOperator <String> commonSuperClass
+    ) {
+        return marshal (source, null, false, commonSuperClass);
+    }
+
+
+    /**
+     * Marshals the given {@link ClassNode} instance into an array of bytes
+     * representing the contents of a class file. If the original class
+     * reader is given, the class writer is seeded with it, so that the
+     * constant pool of the original class is copied, and methods passed
+     * from the reader directly to the writer (when the reader is used to
+     * visit the source) are copied as they are, including their stack map
+     * frames. Frames are only computed for methods visited from the source,
+     * unless the caller indicates that the frames in the source are valid.
+     *
+     * @param source
+     *        the {@link ClassNode} to marshal.
+     * @param original
+     *        the reader of the class the source was parsed from, may be
+     *        {@code null}.
+     * @param keepFrames
+     *        whether the (expanded) stack map frames of the methods in the
+     *        source are valid and should be kept instead of being computed.
+     * @param commonSuperClass
+     *        function returning the internal name of the common super class
+     *        of two classes given by their internal names.
+     * @return array of bytes representing the contents of a class file.
+     */
+    public static byte [] marshal (
+        final ClassNode source, final ClassReader original,
+        final boolean keepFrames, final BinaryOperator <String> commonSuperClass
+    ) {
         //
         // DiSL uses instructions only available in later class versions.
         // We therefore produce at least Java 5 class files.
@@ -116,23 +181,24 @@ public enum ClassNodeHelper {
         }
 
         //
-        // We need to compute stack frame maps for Java 7 (and newer) classes.
-        // For older class version, we only compute the maximum stack sizes.
+        // We need to compute stack frame maps for Java 7 (and newer) classes,
+        // unless they are known to be valid. For older class versions, we
+        // only compute the maximum stack sizes.
         //
         final int java7MajorVersion = Opcodes.V1_7;
-        final int writerFlags = (classMajorVersion >= java7MajorVersion) ?
+        final int writerFlags = (classMajorVersion >= java7MajorVersion && !keepFrames) ?
             ClassWriter.COMPUTE_FRAMES : ClassWriter.COMPUTE_MAXS;
 
-        final ClassWriter writer = new ClassWriter (writerFlags) {
+        final ClassWriter writer = new ClassWriter (original, writerFlags) {
             @Override
             protected String getCommonSuperClass (
                 final String type1, final String type2
             ) {
                 //
-                // Use java.lang.Object as the common superclass to
-                // avoid loading the two classes.
+                // Avoid loading the two classes, which the default
+                // implementation would do.
                 //
-                return __OBJECT_CLASS_NAME__;
+                return commonSuperClass.apply (type1, type2);
             }
         };
 
@@ -142,4 +208,10 @@ public enum ClassNodeHelper {
 
     private static final String __OBJECT_CLASS_NAME__ = Type.getInternalName (Object.class);
 
+    /**
+     * Uses {@link Object} as the common super class of any two classes.
+     */
+    private static final BinaryOperator <String> __objectAsCommonSuperClass__ =
+        (type1, type2) -> __OBJECT_CLASS_NAME__;
+
 }